@@ -769,23 +769,32 @@ public final class Fact
 
 	public void save()
 	{
-		factTrxLinesStrategy
-				.createFactTrxLines(m_lines)
-				.forEach(this::save);
+		final List<FactTrxLines> factTrxLinesList = factTrxLinesStrategy.createFactTrxLines(m_lines);
+
+		if (FactLinesBatchSaver.isEnabled())
+		{
+			final FactLinesBatchSaver batchSaver = new FactLinesBatchSaver(m_lines.size());
+			factTrxLinesList.forEach(factTrxLines -> save(factTrxLines, batchSaver::add));
+			batchSaver.executeBatch();
+		}
+		else
+		{
+			factTrxLinesList.forEach(factTrxLines -> save(factTrxLines, line -> InterfaceWrapperHelper.save(line, ITrx.TRXNAME_ThreadInherited)));
+		}
 	}
 
-	private void save(final FactTrxLines factTrxLines)
+	private void save(final FactTrxLines factTrxLines, final Consumer<FactLine> lineSaver)
 	{
 		//
 		// Case: 1 debit line, one or more credit lines
 		if (factTrxLines.getType() == FactTrxLinesType.Debit)
 		{
 			final FactLine drLine = factTrxLines.getDebitLine();
-			InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
+			lineSaver.accept(drLine);
 
 			factTrxLines.forEachCreditLine(crLine -> {
 				crLine.setCounterpart_Fact_Acct_ID(drLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
+				lineSaver.accept(crLine);
 			});
 
 		}
@@ -794,11 +803,11 @@ public final class Fact
 		else if (factTrxLines.getType() == FactTrxLinesType.Credit)
 		{
 			final FactLine crLine = factTrxLines.getCreditLine();
-			InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
+			lineSaver.accept(crLine);
 
 			factTrxLines.forEachDebitLine(drLine -> {
 				drLine.setCounterpart_Fact_Acct_ID(crLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
+				lineSaver.accept(drLine);
 			});
 		}
 		//
@@ -814,7 +823,7 @@ public final class Fact
 
 		//
 		// also save the zero lines, if they are here
-		factTrxLines.forEachZeroLine(zeroLine -> InterfaceWrapperHelper.save(zeroLine, ITrx.TRXNAME_ThreadInherited));
+		factTrxLines.forEachZeroLine(lineSaver);
 	}
 
 	public void forEach(final Consumer<FactLine> consumer)
@@ -0,0 +1,235 @@
+package org.compiere.acct;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_Fact_Acct;
+import org.compiere.model.POInfo;
+import org.compiere.util.DB;
+import org.compiere.util.DisplayType;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Saves {@link FactLine}s using JDBC batch inserts instead of saving them one by one.
+ * <p>
+ * The IDs are assigned when the lines are added, so they can be used right away (e.g. for <code>Counterpart_Fact_Acct_ID</code>).
+ * The lines are actually inserted when {@link #executeBatch()} is called.
+ * <p>
+ * NOTE: model interceptors are not called for the inserted lines. There are none for <code>Fact_Acct</code> atm.
+ * After {@link #executeBatch()}, the {@link FactLine} objects are not aware they were saved, so they shall not be saved again.
+ */
+final class FactLinesBatchSaver
+{
+	private static final String SYSCONFIG_Enabled = "org.compiere.acct.Fact.BatchInsert";
+
+	private static final String Table_Name = I_Fact_Acct.Table_Name;
+	private static final String TRXNAME = ITrx.TRXNAME_ThreadInherited;
+
+	private final POInfo poInfo;
+	private final boolean batchInsertSupported;
+
+	private final Deque<Integer> preallocatedIds = new ArrayDeque<>();
+	private final int expectedLinesCount;
+	private final List<FactLine> lines = new ArrayList<>();
+
+	public static boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	public FactLinesBatchSaver(final int expectedLinesCount)
+	{
+		this.poInfo = POInfo.getPOInfo(Table_Name);
+		this.batchInsertSupported = isBatchInsertSupported(poInfo);
+		this.expectedLinesCount = expectedLinesCount;
+	}
+
+	private static boolean isBatchInsertSupported(final POInfo poInfo)
+	{
+		for (int i = 0, size = poInfo.getColumnCount(); i < size; i++)
+		{
+			if (poInfo.isVirtualColumn(i))
+			{
+				continue;
+			}
+
+			if (DisplayType.isLOB(poInfo.getColumnDisplayType(i))
+					|| poInfo.getColumnClass(i) == Object.class
+					|| poInfo.isEncrypted(i)
+					|| poInfo.isUseDocSequence(i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void add(@NonNull final FactLine line)
+	{
+		if (!batchInsertSupported)
+		{
+			InterfaceWrapperHelper.save(line, TRXNAME);
+			return;
+		}
+
+		line.set_TrxName(TRXNAME);
+		if (!line.beforeSave(true))
+		{
+			throw new AdempiereException("beforeSave failed - " + line);
+		}
+
+		line.setFact_Acct_ID(nextId(line.getAD_Client_ID()));
+		lines.add(line);
+	}
+
+	private int nextId(final int adClientId)
+	{
+		if (preallocatedIds.isEmpty() && DB.isUseNativeSequences(adClientId, Table_Name))
+		{
+			final int count = Math.max(expectedLinesCount - lines.size(), 1);
+			preallocatedIds.addAll(DB.retrieveRowsOutOfTrx(
+					"SELECT " + DB.TO_TABLESEQUENCE_NEXTVAL(Table_Name) + " FROM generate_series(1, ?)",
+					Arrays.asList(count),
+					rs -> rs.getInt(1)));
+		}
+
+		if (!preallocatedIds.isEmpty())
+		{
+			return preallocatedIds.poll();
+		}
+
+		final int id = DB.getNextID(adClientId, Table_Name, TRXNAME);
+		if (id <= 0)
+		{
+			throw new AdempiereException("No NextID (" + id + ") for " + Table_Name);
+		}
+		return id;
+	}
+
+	public void executeBatch()
+	{
+		if (lines.isEmpty())
+		{
+			return;
+		}
+
+		// group the lines by the columns they have values for, because not set values shall not be inserted (so the DB defaults apply)
+		final Map<ImmutableList<Integer>, List<FactLine>> linesByColumnIndexes = new LinkedHashMap<>();
+		for (final FactLine line : lines)
+		{
+			linesByColumnIndexes.computeIfAbsent(getColumnIndexesToInsert(line), k -> new ArrayList<>()).add(line);
+		}
+
+		linesByColumnIndexes.forEach(this::insert);
+
+		final List<Integer> ids = new ArrayList<>(lines.size());
+		lines.forEach(line -> ids.add(line.getFact_Acct_ID()));
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(TRXNAME, CacheInvalidateMultiRequest.fromTableNameAndRecordIds(Table_Name, ids));
+
+		lines.clear();
+	}
+
+	private ImmutableList<Integer> getColumnIndexesToInsert(final FactLine line)
+	{
+		final ImmutableList.Builder<Integer> columnIndexes = ImmutableList.builder();
+		for (int i = 0, size = poInfo.getColumnCount(); i < size; i++)
+		{
+			if (poInfo.isVirtualColumn(i))
+			{
+				continue;
+			}
+			if (line.get_Value(i) == null)
+			{
+				continue;
+			}
+
+			columnIndexes.add(i);
+		}
+		return columnIndexes.build();
+	}
+
+	private void insert(final ImmutableList<Integer> columnIndexes, final List<FactLine> lines)
+	{
+		final StringBuilder sqlColumns = new StringBuilder();
+		final StringBuilder sqlValues = new StringBuilder();
+		for (final int columnIndex : columnIndexes)
+		{
+			if (sqlColumns.length() > 0)
+			{
+				sqlColumns.append(",");
+				sqlValues.append(",");
+			}
+			sqlColumns.append(poInfo.getColumnName(columnIndex));
+			sqlValues.append("?");
+		}
+
+		final String sql = "INSERT INTO " + Table_Name + " (" + sqlColumns + ") VALUES (" + sqlValues + ")";
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, TRXNAME);
+			for (final FactLine line : lines)
+			{
+				final List<Object> sqlParams = new ArrayList<>(columnIndexes.size());
+				for (final int columnIndex : columnIndexes)
+				{
+					sqlParams.add(line.get_Value(columnIndex));
+				}
+
+				DB.setParameters(pstmt, sqlParams);
+				pstmt.addBatch();
+			}
+
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+}
@@ -142,27 +142,31 @@ import de.metas.util.Check;
 
 		final StringBuilder resultSummary = new StringBuilder(paReportCubeName + ": ");
 
-		String where = " WHERE PA_ReportCube_ID = " + paReportCubeId;
+		String where = " WHERE PA_ReportCube_ID = ?";
+		final List<Object> whereParams = new ArrayList<>();
+		whereParams.add(paReportCubeId);
 
 		//
 		// SQL: C_Period_IDs IN list
-		final String sqlPeriodIn; // e.g. "(PeriodId1, PeriodId2, ...)"
+		final String sqlPeriodIn; // e.g. "(?, ?, ...)"
+		final List<Integer> periodIds;
 		final boolean filterOnlyChangedPeriods = lastRecalculated != null && !reset;
 		if (filterOnlyChangedPeriods)
 		{
-			final List<Integer> periodIds = getChangedPeriodIds();
+			periodIds = getChangedPeriodIds();
 			if (periodIds.isEmpty())
 			{
 				setResultSummary("Nothing to update in " + paReportCubeName);
 				return this;
 			}
 
-			sqlPeriodIn = DB.buildSqlList(periodIds);
+			sqlPeriodIn = DB.buildSqlList(periodIds, whereParams);
 			where += (" AND C_Period_ID IN " + sqlPeriodIn);
 		}
 		else
 		{
 			sqlPeriodIn = null; // i.e. shall not be used
+			periodIds = null;
 		}
 
 		//
@@ -175,7 +179,7 @@ import de.metas.util.Check;
 			// Delete from Fact_Acct_Summary
 			{
 				final long startMillis = System.currentTimeMillis();
-				final int deleted = deleteFactAcctSummary(where);
+				final int deleted = deleteFactAcctSummary(where, whereParams);
 				final long elapsedSec = (System.currentTimeMillis() - startMillis) / 1000;
 				resultSummary.append("Deleted " + deleted + " in " + elapsedSec + " s; ");
 				log.debug(resultSummary.toString());
@@ -221,10 +225,16 @@ import de.metas.util.Check;
 
 			final String sql = insert.append(select.toString()).append(from).append(groups.toString()).toString();
 			log.debug(sql);
-			final Object[] sqlParams = new Object[] { paReportCubeId, paReportCube.getC_Calendar_ID() };
+			final List<Object> sqlParams = new ArrayList<>();
+			sqlParams.add(paReportCubeId);
+			sqlParams.add(paReportCube.getC_Calendar_ID());
+			if (filterOnlyChangedPeriods)
+			{
+				sqlParams.addAll(periodIds);
+			}
 
 			final long startMillis = System.currentTimeMillis();
-			final int rows = DB.executeUpdateEx(sql, sqlParams, trxName);
+			final int rows = DB.executeUpdateEx(sql, sqlParams.toArray(), trxName);
 			final long seconds = (System.currentTimeMillis() - startMillis) / 1000;
 
 			final String insertResult = "Inserted " + rows + " in " + seconds + " s.";
@@ -374,7 +384,7 @@ import de.metas.util.Check;
 		DB.executeUpdateEx(sql, sqlParams, trxName);
 	}
 
-	private int deleteFactAcctSummary(final String where)
+	private int deleteFactAcctSummary(final String where, final List<Object> whereParams)
 	{
 		final String trxName = getContext().getTrxName();
 
@@ -382,7 +392,7 @@ import de.metas.util.Check;
 		final String sql = "DELETE FROM Fact_Acct_Summary fas " + where;
 		log.debug("Delete sql: " + sql);
 
-		final int deletedNo = DB.executeUpdateEx(sql, trxName);
+		final int deletedNo = DB.executeUpdateEx(sql, whereParams.toArray(), trxName);
 		return deletedNo;
 	}
 
@@ -33,7 +33,7 @@ import lombok.Value;
  */
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 final class AccountingDocToRepost
 {
 	int seqNo;
@@ -0,0 +1,280 @@
+package de.metas.acct.posting.server.accouting_docs_to_repost_db_table;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_ProjectIssue;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_Inventory;
+import org.compiere.model.I_M_MatchInv;
+import org.compiere.model.I_M_MatchPO;
+import org.compiere.model.I_M_Movement;
+import org.eevolution.model.I_PP_Cost_Collector;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
+import de.metas.acct.api.IPostingService;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Posts a batch of {@link AccountingDocToRepost}s directly (i.e. without going through the posting queue), using a pool of worker threads.
+ * <p>
+ * Each document is posted in its own context and transaction, so a failing document does not affect the others.
+ * <p>
+ * The documents of a batch are posted in phases. Matching documents (e.g. <code>M_MatchInv</code>) are posted only after all the other documents
+ * of the batch were posted, because their posting relies on the already posted invoices, receipts etc.
+ * <p>
+ * Within a phase, the documents which are creating cost details (e.g. receipts, inventories) are posted one after another by the same worker, in the order
+ * in which they were enqueued, because the current costs (e.g. the average PO price) depend on the order of the cost details.
+ * Only the other documents are posted in parallel.
+ */
+final class AccountingDocsToRepostPostingEngine
+{
+	private static final Logger logger = LogManager.getLogger(AccountingDocsToRepostPostingEngine.class);
+	private final IPostingService postingService;
+
+	private static final ImmutableSet<String> TABLENAMES_PostedAfterOtherDocuments = ImmutableSet.of(
+			I_M_MatchInv.Table_Name,
+			I_M_MatchPO.Table_Name);
+
+	private static final ImmutableSet<String> TABLENAMES_CreatingCostDetails = ImmutableSet.of(
+			I_M_InOut.Table_Name,
+			I_M_Inventory.Table_Name,
+			I_M_Movement.Table_Name,
+			I_C_ProjectIssue.Table_Name,
+			I_PP_Cost_Collector.Table_Name,
+			I_M_MatchInv.Table_Name,
+			I_M_MatchPO.Table_Name);
+
+	private final ExecutorService executor;
+
+	@Builder
+	private AccountingDocsToRepostPostingEngine(
+			@NonNull final IPostingService postingService,
+			final int workers)
+	{
+		Check.assumeGreaterThanZero(workers, "workers");
+
+		this.postingService = postingService;
+		this.executor = Executors.newFixedThreadPool(workers, CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(AccountingDocsToRepostPostingEngine.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+	}
+
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	public PostingBatchResult postBatch(@NonNull final List<AccountingDocToRepost> docsToRepost) throws InterruptedException
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		int countTotal = 0;
+		int countErrors = 0;
+		for (final List<AccountingDocToRepost> phase : splitInPhases(docsToRepost))
+		{
+			final List<Callable<Integer>> tasks = new ArrayList<>();
+			for (final List<AccountingDocToRepost> docsPostedSerially : splitInTasks(phase))
+			{
+				tasks.add(() -> postAndCountErrors(docsPostedSerially));
+			}
+
+			for (final Future<Integer> future : executor.invokeAll(tasks))
+			{
+				countErrors += getResult(future);
+			}
+			countTotal += phase.size();
+		}
+
+		stopwatch.stop();
+
+		return PostingBatchResult.builder()
+				.countPosted(countTotal - countErrors)
+				.countErrors(countErrors)
+				.duration(Duration.ofMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS)))
+				.build();
+	}
+
+	private static int getResult(final Future<Integer> future) throws InterruptedException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (final ExecutionException ex)
+		{
+			// shall not happen because postAndCountErrors is not throwing exceptions
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+	}
+
+	private int postAndCountErrors(@NonNull final List<AccountingDocToRepost> docsToRepost)
+	{
+		int countErrors = 0;
+		for (final AccountingDocToRepost docToRepost : docsToRepost)
+		{
+			if (!postNoFail(docToRepost))
+			{
+				countErrors++;
+			}
+		}
+		return countErrors;
+	}
+
+	private boolean postNoFail(@NonNull final AccountingDocToRepost docToRepost)
+	{
+		try
+		{
+			postingService.newPostingRequest()
+					.setClientId(docToRepost.getClientId())
+					.setDocumentRef(docToRepost.getRecordRef())
+					.setForce(docToRepost.isForce())
+					.setFailOnError(true) // fail, so we can count the errors
+					.onErrorNotifyUser(docToRepost.getOnErrorNotifyUserId())
+					.setPostImmediate(PostImmediate.Yes)
+					.setPostWithoutServer() // we are the server
+					.postIt();
+			return true;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed posting {}", docToRepost, ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Splits given documents in phases which shall be posted one after another.
+	 * Documents which were enqueued more than once are posted only once, in the phase of their first occurrence.
+	 */
+	static ImmutableList<ImmutableList<AccountingDocToRepost>> splitInPhases(@NonNull final List<AccountingDocToRepost> docsToRepost)
+	{
+		final Map<TableRecordReference, AccountingDocToRepost> uniqueDocs = new LinkedHashMap<>();
+		for (final AccountingDocToRepost docToRepost : docsToRepost)
+		{
+			uniqueDocs.merge(docToRepost.getRecordRef(), docToRepost, AccountingDocsToRepostPostingEngine::mergeDuplicates);
+		}
+
+		final ImmutableList.Builder<AccountingDocToRepost> firstPhase = ImmutableList.builder();
+		final ImmutableList.Builder<AccountingDocToRepost> secondPhase = ImmutableList.builder();
+		for (final AccountingDocToRepost docToRepost : uniqueDocs.values())
+		{
+			if (TABLENAMES_PostedAfterOtherDocuments.contains(docToRepost.getRecordRef().getTableName()))
+			{
+				secondPhase.add(docToRepost);
+			}
+			else
+			{
+				firstPhase.add(docToRepost);
+			}
+		}
+
+		return ImmutableList.of(firstPhase.build(), secondPhase.build())
+				.stream()
+				.filter(phase -> !phase.isEmpty())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Splits the documents of one phase in tasks which can be run in parallel. The documents of each task shall be posted one after another.
+	 * All documents which are creating cost details end up in the same task, in their original order.
+	 */
+	static ImmutableList<ImmutableList<AccountingDocToRepost>> splitInTasks(@NonNull final List<AccountingDocToRepost> phase)
+	{
+		final ImmutableList.Builder<ImmutableList<AccountingDocToRepost>> tasks = ImmutableList.builder();
+		final ImmutableList.Builder<AccountingDocToRepost> docsCreatingCostDetails = ImmutableList.builder();
+		for (final AccountingDocToRepost docToRepost : phase)
+		{
+			if (TABLENAMES_CreatingCostDetails.contains(docToRepost.getRecordRef().getTableName()))
+			{
+				docsCreatingCostDetails.add(docToRepost);
+			}
+			else
+			{
+				tasks.add(ImmutableList.of(docToRepost));
+			}
+		}
+
+		final ImmutableList<AccountingDocToRepost> costDetailsTask = docsCreatingCostDetails.build();
+		if (!costDetailsTask.isEmpty())
+		{
+			tasks.add(costDetailsTask);
+		}
+
+		return tasks.build();
+	}
+
+	private static AccountingDocToRepost mergeDuplicates(final AccountingDocToRepost doc1, final AccountingDocToRepost doc2)
+	{
+		if (!doc1.isForce() && doc2.isForce())
+		{
+			return doc1.toBuilder().force(true).build();
+		}
+		return doc1;
+	}
+
+	@Value
+	@Builder
+	public static class PostingBatchResult
+	{
+		int countPosted;
+		int countErrors;
+		@NonNull
+		Duration duration;
+
+		public int getCountTotal()
+		{
+			return countPosted + countErrors;
+		}
+
+		public double getDocsPerSecond()
+		{
+			final long millis = duration.toMillis();
+			return millis > 0 ? getCountTotal() * 1000.0 / millis : getCountTotal();
+		}
+	}
+}
@@ -2,7 +2,9 @@ package de.metas.acct.posting.server.accouting_docs_to_repost_db_table;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -10,6 +12,8 @@ import org.adempiere.service.ClientId;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.util.DB;
 
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.StringUtils;
@@ -71,4 +75,25 @@ final class AccoutingDocsToRepostDBTableRepository
 				new Object[] { docToRepost.getSeqNo() },
 				ITrx.TRXNAME_None);
 	}
+
+	public void deleteAll(@NonNull final Collection<AccountingDocToRepost> docsToRepost)
+	{
+		if (docsToRepost.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableSet<Integer> seqNos = docsToRepost.stream()
+				.map(AccountingDocToRepost::getSeqNo)
+				.collect(ImmutableSet.toImmutableSet());
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = "DELETE FROM " + Table_Name + " WHERE SeqNo IN " + DB.buildSqlList(seqNos, sqlParams);
+		DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+	}
+
+	public int countBacklog()
+	{
+		return DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT COUNT(1) FROM " + Table_Name);
+	}
 }
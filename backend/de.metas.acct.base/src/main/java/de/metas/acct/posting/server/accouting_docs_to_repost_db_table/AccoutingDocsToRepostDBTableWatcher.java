@@ -10,6 +10,7 @@ import com.google.common.base.Stopwatch;
 
 import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
 import de.metas.acct.api.IPostingService;
+import de.metas.acct.posting.server.accouting_docs_to_repost_db_table.AccountingDocsToRepostPostingEngine.PostingBatchResult;
 import de.metas.logging.LogManager;
 import lombok.Builder;
 import lombok.NonNull;
@@ -47,6 +48,17 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 	private static final String SYSCONFIG_PollIntervalInSeconds = "de.metas.acct.accounting_docs_to_repost.pollIntervalInSeconds";
 	private static final Duration DEFAULT_PollInterval = Duration.ofSeconds(10);
 
+	/**
+	 * Number of worker threads used to post the documents directly.
+	 * If not set (or zero), the documents are not posted by this watcher but just enqueued to the posting queue.
+	 */
+	private static final String SYSCONFIG_Workers = "de.metas.acct.accounting_docs_to_repost.workers";
+	private static final String SYSCONFIG_BatchSize = "de.metas.acct.accounting_docs_to_repost.batchSize";
+	private static final int DEFAULT_BatchSize = 500;
+
+	private AccountingDocsToRepostPostingEngine postingEngine;
+	private int postingEngineWorkers = 0;
+
 	@Builder
 	private AccoutingDocsToRepostDBTableWatcher(
 			@NonNull final ISysConfigBL sysConfigBL,
@@ -71,12 +83,27 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 			catch (InterruptedException e)
 			{
 				logger.info("Got interrupt request. Exiting.");
+				shutdownPostingEngine();
 				return;
 			}
 
 			try
 			{
-				enqueueAllForReposting();
+				final AccountingDocsToRepostPostingEngine postingEngine = getPostingEngineOrNull();
+				if (postingEngine != null)
+				{
+					postAll(postingEngine);
+				}
+				else
+				{
+					enqueueAllForReposting();
+				}
+			}
+			catch (final InterruptedException ex)
+			{
+				logger.info("Got interrupt request while posting. Exiting.");
+				shutdownPostingEngine();
+				return;
 			}
 			catch (final Exception ex)
 			{
@@ -85,6 +112,72 @@ public final class AccoutingDocsToRepostDBTableWatcher implements Runnable
 		}
 	}
 
+	private AccountingDocsToRepostPostingEngine getPostingEngineOrNull()
+	{
+		final int workers = sysConfigBL.getIntValue(SYSCONFIG_Workers, 0);
+		if (workers != postingEngineWorkers)
+		{
+			shutdownPostingEngine();
+
+			if (workers > 0)
+			{
+				logger.info("Starting posting engine with {} workers", workers);
+				postingEngine = AccountingDocsToRepostPostingEngine.builder()
+						.postingService(postingService)
+						.workers(workers)
+						.build();
+				postingEngineWorkers = workers;
+			}
+		}
+
+		return postingEngine;
+	}
+
+	private void shutdownPostingEngine()
+	{
+		if (postingEngine != null)
+		{
+			postingEngine.shutdown();
+			postingEngine = null;
+		}
+		postingEngineWorkers = 0;
+	}
+
+	private void postAll(@NonNull final AccountingDocsToRepostPostingEngine postingEngine) throws InterruptedException
+	{
+		final int batchSize = getBatchSize();
+
+		boolean tryAgain = false;
+		do
+		{
+			final List<AccountingDocToRepost> docsToRepost = accoutingDocsToRepostDBTableRepository.retrieve(batchSize);
+			if (docsToRepost.isEmpty())
+			{
+				return;
+			}
+
+			final PostingBatchResult result = postingEngine.postBatch(docsToRepost);
+
+			// NOTE: delete them only after they were posted, so in case this node is going down, they will be reposted later
+			accoutingDocsToRepostDBTableRepository.deleteAll(docsToRepost);
+			tryAgain = docsToRepost.size() >= batchSize;
+
+			logger.info("Posted {} documents in {} ({} docs/s, {} errors). Backlog: {} documents",
+					result.getCountTotal(),
+					result.getDuration(),
+					String.format("%.1f", result.getDocsPerSecond()),
+					result.getCountErrors(),
+					accoutingDocsToRepostDBTableRepository.countBacklog());
+		}
+		while (tryAgain);
+	}
+
+	private int getBatchSize()
+	{
+		final int batchSize = sysConfigBL.getIntValue(SYSCONFIG_BatchSize, -1);
+		return batchSize > 0 ? batchSize : DEFAULT_BatchSize;
+	}
+
 	private void enqueueAllForReposting()
 	{
 		boolean tryAgain = false;
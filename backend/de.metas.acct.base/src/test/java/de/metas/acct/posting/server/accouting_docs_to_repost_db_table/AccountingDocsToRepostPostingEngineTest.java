@@ -0,0 +1,104 @@
+package de.metas.acct.posting.server.accouting_docs_to_repost_db_table;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AccountingDocsToRepostPostingEngineTest
+{
+	private static AccountingDocToRepost doc(final int seqNo, final String tableName, final int recordId, final boolean force)
+	{
+		return AccountingDocToRepost.builder()
+				.seqNo(seqNo)
+				.recordRef(TableRecordReference.of(tableName, recordId))
+				.clientId(ClientId.ofRepoId(1000000))
+				.force(force)
+				.build();
+	}
+
+	@Test
+	public void matchingDocumentsArePostedLast()
+	{
+		final AccountingDocToRepost matchInv = doc(1, "M_MatchInv", 1, false);
+		final AccountingDocToRepost invoice = doc(2, "C_Invoice", 1, false);
+		final AccountingDocToRepost matchPO = doc(3, "M_MatchPO", 1, false);
+		final AccountingDocToRepost inout = doc(4, "M_InOut", 1, false);
+
+		assertThat(AccountingDocsToRepostPostingEngine.splitInPhases(ImmutableList.of(matchInv, invoice, matchPO, inout)))
+				.containsExactly(
+						ImmutableList.of(invoice, inout),
+						ImmutableList.of(matchInv, matchPO));
+	}
+
+	@Test
+	public void onlyMatchingDocuments()
+	{
+		final AccountingDocToRepost matchInv = doc(1, "M_MatchInv", 1, false);
+
+		assertThat(AccountingDocsToRepostPostingEngine.splitInPhases(ImmutableList.of(matchInv)))
+				.containsExactly(ImmutableList.of(matchInv));
+	}
+
+	@Test
+	public void duplicatesArePostedOnce()
+	{
+		final AccountingDocToRepost invoice1 = doc(1, "C_Invoice", 1, false);
+		final AccountingDocToRepost invoice2 = doc(2, "C_Invoice", 2, false);
+		final AccountingDocToRepost invoice1Forced = doc(3, "C_Invoice", 1, true);
+
+		assertThat(AccountingDocsToRepostPostingEngine.splitInPhases(ImmutableList.of(invoice1, invoice2, invoice1Forced)))
+				.containsExactly(ImmutableList.of(invoice1.toBuilder().force(true).build(), invoice2));
+	}
+
+	@Test
+	public void docsCreatingCostDetailsArePostedSerially()
+	{
+		final AccountingDocToRepost receipt = doc(1, "M_InOut", 1, false);
+		final AccountingDocToRepost invoice = doc(2, "C_Invoice", 1, false);
+		final AccountingDocToRepost inventory = doc(3, "M_Inventory", 1, false);
+		final AccountingDocToRepost payment = doc(4, "C_Payment", 1, false);
+		final AccountingDocToRepost shipment = doc(5, "M_InOut", 2, false);
+
+		assertThat(AccountingDocsToRepostPostingEngine.splitInTasks(ImmutableList.of(receipt, invoice, inventory, payment, shipment)))
+				.containsExactlyInAnyOrder(
+						ImmutableList.of(receipt, inventory, shipment),
+						ImmutableList.of(invoice),
+						ImmutableList.of(payment));
+	}
+
+	@Test
+	public void matchingDocumentsArePostedSerially()
+	{
+		final AccountingDocToRepost matchInv = doc(1, "M_MatchInv", 1, false);
+		final AccountingDocToRepost matchPO = doc(2, "M_MatchPO", 1, false);
+
+		assertThat(AccountingDocsToRepostPostingEngine.splitInTasks(ImmutableList.of(matchInv, matchPO)))
+				.containsExactly(ImmutableList.of(matchInv, matchPO));
+	}
+}
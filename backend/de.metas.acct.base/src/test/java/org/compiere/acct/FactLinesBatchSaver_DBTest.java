@@ -0,0 +1,192 @@
+package org.compiere.acct;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_GL_Journal;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
+import de.metas.acct.api.IPostingService;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reposts an already posted GL journal once with the regular {@code PO.save} and once with {@link FactLinesBatchSaver},
+ * and checks that both create the same {@code Fact_Acct} rows.
+ */
+@Disabled("requires database connection")
+public class FactLinesBatchSaver_DBTest
+{
+	private static final String SYSCONFIG_BatchInsert = "org.compiere.acct.Fact.BatchInsert";
+
+	/** these columns are expected to differ between the two postings */
+	private static final ImmutableSet<String> COLUMNNAMES_Differing = ImmutableSet.of("fact_acct_id", "created", "updated", "counterpart_fact_acct_id");
+
+	public static void main(final String[] args)
+	{
+		final FactLinesBatchSaver_DBTest test = new FactLinesBatchSaver_DBTest();
+
+		test.setupAdempiere();
+
+		test.batchInsertedLines_sameAsSavedLines();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.acct.base\
+					+ File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void batchInsertedLines_sameAsSavedLines()
+	{
+		final List<Object> journal = DB.retrieveRowsOutOfTrx(
+				"SELECT " + I_GL_Journal.COLUMNNAME_GL_Journal_ID + ", " + I_GL_Journal.COLUMNNAME_AD_Client_ID
+						+ " FROM " + I_GL_Journal.Table_Name
+						+ " WHERE " + I_GL_Journal.COLUMNNAME_Posted + "='Y'"
+						+ " ORDER BY " + I_GL_Journal.COLUMNNAME_GL_Journal_ID + " DESC LIMIT 1",
+				null,
+				rs -> ImmutableList.of(rs.getInt(1), rs.getInt(2)))
+				.stream()
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException("No posted GL journal found"));
+		final TableRecordReference journalRef = TableRecordReference.of(I_GL_Journal.Table_Name, (Integer)journal.get(0));
+		final ClientId clientId = ClientId.ofRepoId((Integer)journal.get(1));
+
+		final List<Map<String, Object>> savedLines = repostAndLoadFactAcct(journalRef, clientId, false);
+		final List<Map<String, Object>> batchInsertedLines = repostAndLoadFactAcct(journalRef, clientId, true);
+
+		assertThat(savedLines).isNotEmpty();
+		assertThat(batchInsertedLines).hasSameSizeAs(savedLines);
+
+		final Map<Object, Object> batchInsertedIdsBySavedId = new HashMap<>();
+		for (int i = 0; i < savedLines.size(); i++)
+		{
+			batchInsertedIdsBySavedId.put(savedLines.get(i).get("fact_acct_id"), batchInsertedLines.get(i).get("fact_acct_id"));
+		}
+
+		for (int i = 0; i < savedLines.size(); i++)
+		{
+			final Map<String, Object> savedLine = savedLines.get(i);
+			final Map<String, Object> batchInsertedLine = batchInsertedLines.get(i);
+			final String description = "line " + i + "\nsaved: " + savedLine + "\nbatch inserted: " + batchInsertedLine;
+
+			// the IDs are new ones from the same sequence, and the counterpart IDs point to the respective new lines
+			assertThat(toInt(batchInsertedLine.get("fact_acct_id"))).as(description).isGreaterThan(toInt(savedLine.get("fact_acct_id")));
+			assertThat(batchInsertedLine.get("counterpart_fact_acct_id")).as(description)
+					.isEqualTo(batchInsertedIdsBySavedId.getOrDefault(savedLine.get("counterpart_fact_acct_id"), savedLine.get("counterpart_fact_acct_id")));
+
+			// the audit columns are set like PO.save does
+			assertThat(batchInsertedLine.get("created")).as(description).isNotNull();
+			assertThat(batchInsertedLine.get("updated")).as(description).isNotNull();
+			assertThat(batchInsertedLine.get("createdby")).as(description).isEqualTo(savedLine.get("createdby"));
+			assertThat(batchInsertedLine.get("updatedby")).as(description).isEqualTo(savedLine.get("updatedby"));
+
+			for (final String columnName : savedLine.keySet())
+			{
+				if (COLUMNNAMES_Differing.contains(columnName))
+				{
+					continue;
+				}
+				assertThat(batchInsertedLine.get(columnName)).as(columnName + " of " + description).isEqualTo(savedLine.get(columnName));
+			}
+		}
+	}
+
+	private static List<Map<String, Object>> repostAndLoadFactAcct(
+			final TableRecordReference documentRef,
+			final ClientId clientId,
+			final boolean batchInsert)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		sysConfigBL.setValue(SYSCONFIG_BatchInsert, batchInsert, clientId, OrgId.ANY);
+		try
+		{
+			Services.get(IPostingService.class).newPostingRequest()
+					.setClientId(clientId)
+					.setDocumentRef(documentRef)
+					.setForce(true)
+					.setPostImmediate(PostImmediate.Yes)
+					.setPostWithoutServer()
+					.setFailOnError(true)
+					.postIt();
+		}
+		finally
+		{
+			sysConfigBL.setValue(SYSCONFIG_BatchInsert, false, clientId, OrgId.ANY);
+		}
+
+		return DB.retrieveRowsOutOfTrx(
+				"SELECT * FROM Fact_Acct WHERE AD_Table_ID=? AND Record_ID=? ORDER BY Fact_Acct_ID",
+				ImmutableList.of(documentRef.getAD_Table_ID(), documentRef.getRecord_ID()),
+				FactLinesBatchSaver_DBTest::retrieveRow);
+	}
+
+	private static int toInt(final Object value)
+	{
+		return ((Number)value).intValue();
+	}
+
+	private static Map<String, Object> retrieveRow(final ResultSet rs) throws SQLException
+	{
+		final ResultSetMetaData metaData = rs.getMetaData();
+		final Map<String, Object> row = new LinkedHashMap<>();
+		for (int i = 1; i <= metaData.getColumnCount(); i++)
+		{
+			row.put(metaData.getColumnName(i).toLowerCase(), rs.getObject(i));
+		}
+		return row;
+	}
+}
@@ -259,6 +259,31 @@ public interface I_AD_Archive
     /** Column name C_BPartner_ID */
     public static final String COLUMNNAME_C_BPartner_ID = "C_BPartner_ID";
 
+	/**
+	 * Set Inhalts-Hash.
+	 * SHA-256 Hash des Inhalts, wenn das Archiv im inhaltsadressierten Speicher abgelegt ist
+	 *
+	 * <br>Type: String
+	 * <br>Mandatory: false
+	 * <br>Virtual Column: false
+	 */
+	public void setContentHash (java.lang.String ContentHash);
+
+	/**
+	 * Get Inhalts-Hash.
+	 * SHA-256 Hash des Inhalts, wenn das Archiv im inhaltsadressierten Speicher abgelegt ist
+	 *
+	 * <br>Type: String
+	 * <br>Mandatory: false
+	 * <br>Virtual Column: false
+	 */
+	public java.lang.String getContentHash();
+
+    /** Column definition for ContentHash */
+    public static final org.adempiere.model.ModelColumn<I_AD_Archive, Object> COLUMN_ContentHash = new org.adempiere.model.ModelColumn<I_AD_Archive, Object>(I_AD_Archive.class, "ContentHash", null);
+    /** Column name ContentHash */
+    public static final String COLUMNNAME_ContentHash = "ContentHash";
+
 	/**
 	 * Get Erstellt.
 	 * Date this record was created
@@ -14,7 +14,7 @@ public class X_AD_Archive extends org.compiere.model.PO implements I_AD_Archive,
 	/**
 	 *
 	 */
-	private static final long serialVersionUID = -1607210081L;
+	private static final long serialVersionUID = 1388547720L;
 
     /** Standard Constructor */
     public X_AD_Archive (Properties ctx, int AD_Archive_ID, String trxName)
@@ -257,6 +257,25 @@ public class X_AD_Archive extends org.compiere.model.PO implements I_AD_Archive,
 		return ii.intValue();
 	}
 
+	/** Set Inhalts-Hash.
+		@param ContentHash 
+		SHA-256 Hash des Inhalts, wenn das Archiv im inhaltsadressierten Speicher abgelegt ist
+	  */
+	@Override
+	public void setContentHash (java.lang.String ContentHash)
+	{
+		set_Value (COLUMNNAME_ContentHash, ContentHash);
+	}
+
+	/** Get Inhalts-Hash.
+		@return SHA-256 Hash des Inhalts, wenn das Archiv im inhaltsadressierten Speicher abgelegt ist
+	  */
+	@Override
+	public java.lang.String getContentHash () 
+	{
+		return (java.lang.String)get_Value(COLUMNNAME_ContentHash);
+	}
+
 	/** Set Beschreibung.
 		@param Description Beschreibung	  */
 	@Override
@@ -69,6 +69,12 @@ public class DB_PostgreSQL implements AdempiereDatabase
 {
 	private static final String CONFIG_UseNativeConverter = "org.compiere.db.DB_PostgreSQL.UseNativeConverter";
 	private static final String CONFIG_UseNativeConverter_DefaultValue = "true";
+	/**
+	 * pgjdbc's <code>prepareThreshold</code>: number of executions of the same {@link java.sql.PreparedStatement} after which the driver switches to a named server-side prepared statement.
+	 * Only effective together with statements reused via the per-transaction statement cache.
+	 */
+	private static final String CONFIG_PrepareThreshold = "org.compiere.db.DB_PostgreSQL.PrepareThreshold";
+	private static final String CONFIG_PrepareThreshold_DefaultValue = "3";
 
 	private static final String CONFIG_CheckoutTimeout_SwingClient = "org.compiere.db.DB_PostgreSQL.CheckoutTimeout";
 
@@ -263,9 +269,29 @@ public class DB_PostgreSQL implements AdempiereDatabase
 				.append(dbHost).append(":").append(dbPort)
 				.append("/").append(dbName)
 				.append("?encoding=UNICODE");
+
+		appendPrepareThresholdIfAbsent(sb);
+
 		return sb.toString();
 	}	// getConnectionURL
 
+	/**
+	 * Appends pgjdbc's <code>prepareThreshold</code>, unless the URL already has one (e.g. as part of the database name).
+	 */
+	private static void appendPrepareThresholdIfAbsent(final StringBuilder connectionURL)
+	{
+		if (connectionURL.toString().toLowerCase().contains("preparethreshold="))
+		{
+			return;
+		}
+
+		final String prepareThreshold = System.getProperty(CONFIG_PrepareThreshold, CONFIG_PrepareThreshold_DefaultValue);
+		if (prepareThreshold != null && !prepareThreshold.trim().isEmpty())
+		{
+			connectionURL.append("&prepareThreshold=").append(prepareThreshold.trim());
+		}
+	}
+
 	/**
 	 * Get JDBC Catalog
 	 *
@@ -37,6 +37,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -61,6 +62,8 @@ import org.adempiere.exceptions.DBUniqueConstraintException;
 import org.adempiere.service.ClientId;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.sql.IStatementsFactory;
+import org.adempiere.sql.impl.StatementReuseStats;
+import org.adempiere.sql.impl.StatementReuseStats.StatementReuseStat;
 import org.adempiere.sql.impl.StatementsFactory;
 import org.adempiere.util.lang.ImmutablePair;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
@@ -611,6 +614,19 @@ public final class DB
 		return statementsFactory.newCPreparedStatement(resultSetType, resultSetConcurrency, sql, trxName);
 	}    // prepareStatement
 
+	/**
+	 * @return how often each SQL was prepared vs. reused from a transaction's statement cache, most reused first
+	 */
+	public static ImmutableList<StatementReuseStat> getStatementReuseStats()
+	{
+		return StatementReuseStats.instance.getStats();
+	}
+
+	public static void resetStatementReuseStats()
+	{
+		StatementReuseStats.instance.reset();
+	}
+
 	/**
 	 * @return a connection and prepared statement that will internally fetch only 1000 rows at a time, in order not to overuse local memory.
 	 * Please make sure to close them both!
@@ -2221,33 +2237,50 @@ public final class DB
 	{
 		final int pinstanceRepoId = pinstanceId.getRepoId();
 
-		StringBuilder insert = new StringBuilder();
-		insert.append("INSERT INTO T_SELECTION(AD_PINSTANCE_ID, T_SELECTION_ID) ");
-		int counter = 0;
-		for (final Integer selectedId : selection)
+		// NOTE: we use the same parametrized SQL for all rows and batches,
+		// so the statement can be reused from the transaction's statement cache and does not have to be planned again for each selection
+		final String sql = "INSERT INTO T_SELECTION(AD_PINSTANCE_ID, T_SELECTION_ID) VALUES (?, ?)";
+		CPreparedStatement pstmt = null;
+		try
 		{
-			counter++;
-			if (counter > 1)
+			pstmt = prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE, trxName);
+
+			final Set<Integer> batchIds = new HashSet<>(); // to skip duplicates, like the former UNION did
+			for (final Integer selectedId : selection)
+			{
+				if (!batchIds.add(selectedId))
+				{
+					continue;
+				}
+
+				pstmt.setInt(1, pinstanceRepoId);
+				setParameter(pstmt, 2, selectedId);
+				pstmt.addBatch();
+
+				if (batchIds.size() >= 1000)
+				{
+					pstmt.executeBatch();
+					batchIds.clear();
+				}
+			}
+			if (!batchIds.isEmpty())
 			{
-				insert.append(" UNION ");
+				pstmt.executeBatch();
 			}
-			insert.append("SELECT ");
-			insert.append(pinstanceRepoId);
-			insert.append(", ");
-			insert.append(selectedId);
-			// insert.append(" FROM DUAL "); -- oracle
 
-			if (counter >= 1000)
+			// No Transaction - Commit
+			if (Services.get(ITrxManager.class).isNull(trxName))
 			{
-				DB.executeUpdateEx(insert.toString(), trxName);
-				insert = new StringBuilder();
-				insert.append("INSERT INTO T_SELECTION(AD_PINSTANCE_ID, T_SELECTION_ID) ");
-				counter = 0;
+				pstmt.commit();
 			}
 		}
-		if (counter > 0)
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
 		{
-			DB.executeUpdateEx(insert.toString(), trxName);
+			DB.close(pstmt);
 		}
 	}
 
@@ -26,6 +26,7 @@ import org.adempiere.ad.trx.api.ITrxSavepoint;
 import org.adempiere.ad.trx.api.impl.AbstractTrx;
 import org.adempiere.ad.trx.api.impl.JdbcTrxSavepoint;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.sql.impl.TrxStatementCache;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 
@@ -63,6 +64,8 @@ public class Trx extends AbstractTrx
 	private static final String MDC_TRX_NAME = "TrxName";
 	private static final Logger logger = LogManager.getLogger(Trx.class);
 	private Connection m_connection = null;
+	/** Prepared statements cache, bound to {@link #m_connection} */
+	private TrxStatementCache m_statementCache = null;
 
 	public Trx(final ITrxManager trxManager, final String trxName, final boolean autocommit)
 	{
@@ -101,6 +104,7 @@ public class Trx extends AbstractTrx
 			if (isClosed)
 			{
 				logger.info("Connection is closed. Trying to create another connection.");
+				closeStatementCache();
 				m_connection = null;
 			}
 		}
@@ -306,6 +310,8 @@ public class Trx extends AbstractTrx
 			return true; // nothing to do
 		}
 
+		closeStatementCache();
+
 		// Close Connection
 		try
 		{
@@ -327,6 +333,50 @@ public class Trx extends AbstractTrx
 		return true;
 	}	// close
 
+	/**
+	 * @return the prepared statements cache for the given connection or <code>null</code> if the connection is not this transaction's current connection or if caching is disabled.
+	 */
+	public synchronized TrxStatementCache getStatementCache(final Connection connection)
+	{
+		if (connection == null || connection != m_connection)
+		{
+			return null;
+		}
+
+		if (m_statementCache != null && m_statementCache.isForConnection(connection))
+		{
+			return m_statementCache;
+		}
+
+		closeStatementCache();
+
+		final int maxSize = TrxStatementCache.getConfiguredMaxSize();
+		if (maxSize <= 0)
+		{
+			return null;
+		}
+
+		m_statementCache = new TrxStatementCache(connection, maxSize);
+		return m_statementCache;
+	}
+
+	/**
+	 * @return current prepared statements cache or <code>null</code>
+	 */
+	public synchronized TrxStatementCache getStatementCacheIfExists()
+	{
+		return m_statementCache;
+	}
+
+	private synchronized void closeStatementCache()
+	{
+		if (m_statementCache != null)
+		{
+			m_statementCache.close();
+			m_statementCache = null;
+		}
+	}
+
 	@Override
 	protected ITrxSavepoint createTrxSavepointNative(final String name) throws Exception
 	{
@@ -0,0 +1,317 @@
+package org.compiere.wf;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.ITrxSavepoint;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.PO;
+import org.compiere.model.X_AD_WF_Node;
+import org.compiere.model.X_AD_Workflow;
+import org.slf4j.Logger;
+
+import de.metas.document.engine.IDocument;
+import de.metas.document.engine.IDocumentBL;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs simple document process workflows (like the standard "Process_Order") without the workflow engine.
+ * <p>
+ * A workflow is simple if it's a document process workflow which
+ * <ul>
+ * <li>consists only of document action nodes and wait nodes without waiting time (so no user choice/approval or user nodes),
+ * <li>has no AND split/join nodes,
+ * <li>has no transition conditions (except the standard user workflow flag) and no cycles.
+ * </ul>
+ * Such a workflow is run by walking its nodes and calling {@link IDocument#processIt(String)} directly.
+ * No <code>AD_WF_Activity</code> and <code>AD_WF_EventAudit</code> records are created.
+ * Depending on {@value #SYSCONFIG_SaveWFProcess}, one <code>AD_WF_Process</code> record which is already closed is inserted, or nothing at all.
+ * If the document could not be processed, the changes are rolled back and a terminated <code>AD_WF_Process</code> with the error message is always saved, like the engine does.
+ * <p>
+ * The fast path is disabled by default and can be enabled via {@value #SYSCONFIG_Enabled}.
+ * <p>
+ * All other workflows are run by the workflow engine.
+ */
+final class DocumentWorkflowFastPath
+{
+	private static final Logger logger = LogManager.getLogger(DocumentWorkflowFastPath.class);
+
+	private static final String SYSCONFIG_Enabled = "org.compiere.wf.DocumentWorkflowFastPath.Enabled";
+	private static final String SYSCONFIG_SaveWFProcess = "org.compiere.wf.DocumentWorkflowFastPath.SaveWFProcess";
+
+	private final MWorkflow workflow;
+	private final ConcurrentHashMap<Integer, Boolean> simpleWorkflowByClientId = new ConcurrentHashMap<>();
+
+	DocumentWorkflowFastPath(@NonNull final MWorkflow workflow)
+	{
+		this.workflow = workflow;
+	}
+
+	public boolean isApplicable(@NonNull final MWFProcess wfProcess)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false, wfProcess.getAD_Client_ID()))
+		{
+			return false;
+		}
+
+		return simpleWorkflowByClientId.computeIfAbsent(wfProcess.getAD_Client_ID(), this::isSimpleWorkflow);
+	}
+
+	private boolean isSimpleWorkflow(final int adClientId)
+	{
+		if (!X_AD_Workflow.WORKFLOWTYPE_DocumentProcess.equals(workflow.getWorkflowType())
+				|| workflow.getAD_Table_ID() <= 0)
+		{
+			return false;
+		}
+
+		final MWFNode firstNode = workflow.getFirstNode();
+		if (firstNode == null)
+		{
+			return false;
+		}
+
+		final boolean simple = isSimpleNode(firstNode, adClientId, new HashSet<>(), new HashSet<>());
+		logger.debug("{} is simple={} (AD_Client_ID={})", workflow, simple, adClientId);
+		return simple;
+	}
+
+	private boolean isSimpleNode(
+			final MWFNode node,
+			final int adClientId,
+			final Set<Integer> pathNodeIds,
+			final Set<Integer> simpleNodeIds)
+	{
+		final int nodeId = node.getAD_WF_Node_ID();
+		if (simpleNodeIds.contains(nodeId))
+		{
+			return true;
+		}
+		if (!pathNodeIds.add(nodeId))
+		{
+			return false; // cycle
+		}
+
+		try
+		{
+			if (!isSimpleAction(node)
+					|| X_AD_WF_Node.SPLITELEMENT_AND.equals(node.getSplitElement())
+					|| X_AD_WF_Node.JOINELEMENT_AND.equals(node.getJoinElement()))
+			{
+				return false;
+			}
+
+			for (final MWFNodeNext transition : node.getTransitions(adClientId))
+			{
+				if (transition.hasConditions())
+				{
+					return false;
+				}
+
+				final MWFNode nextNode = workflow.getNode(transition.getAD_WF_Next_ID());
+				if (nextNode == null || !isSimpleNode(nextNode, adClientId, pathNodeIds, simpleNodeIds))
+				{
+					return false;
+				}
+			}
+
+			simpleNodeIds.add(nodeId);
+			return true;
+		}
+		finally
+		{
+			pathNodeIds.remove(nodeId);
+		}
+	}
+
+	private static boolean isSimpleAction(final MWFNode node)
+	{
+		final String action = node.getAction();
+		if (MWFNode.ACTION_DocumentAction.equals(action))
+		{
+			return true;
+		}
+		else if (MWFNode.ACTION_WaitSleep.equals(action))
+		{
+			return node.getWaitingTime() == 0;
+		}
+		else
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Runs the workflow for the given process, which was not saved yet.
+	 * If the document could not be processed, the process is terminated and its error message is recorded, like the engine does.
+	 */
+	public void run(@NonNull final MWFProcess wfProcess)
+	{
+		Check.assume(wfProcess.is_new(), "{} is not saved yet", wfProcess);
+
+		final PO po = wfProcess.getPO();
+		if (po == null)
+		{
+			// the process was already terminated
+			saveIfConfigured(wfProcess);
+			return;
+		}
+
+		final IDocument document = Services.get(IDocumentBL.class).getDocument(po);
+		final int adClientId = wfProcess.getAD_Client_ID();
+
+		final ITrx trx = Services.get(ITrxManager.class).getThreadInheritedTrx(OnTrxMissingPolicy.Fail);
+		final ITrxSavepoint savepoint = trx.createTrxSavepoint(null);
+
+		String processMsg = null;
+		try
+		{
+			for (MWFNode node = workflow.getFirstNode(); node != null; node = getNextNode(node, document, adClientId))
+			{
+				if (MWFNode.ACTION_DocumentAction.equals(node.getAction()))
+				{
+					processMsg = processDocument(document, po, node);
+				}
+			}
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed processing {}", po, ex);
+			trx.rollback(savepoint);
+			terminate(wfProcess, po, document, ex);
+			return;
+		}
+
+		trx.releaseSavepoint(savepoint);
+
+		wfProcess.setProcessMsg(processMsg);
+		wfProcess.setClosedStateWithoutActivities(MWFProcess.WFSTATE_Completed);
+		saveIfConfigured(wfProcess);
+	}
+
+	private static String processDocument(final IDocument document, final PO po, final MWFNode node)
+	{
+		logger.debug("DocumentAction={}", node.getDocAction());
+
+		final boolean success = document.processIt(node.getDocAction());
+		String processMsg = document.getProcessMsg();
+		po.saveEx();
+
+		if (!success)
+		{
+			if (Check.isEmpty(processMsg, true))
+			{
+				processMsg = "PerformWork Error - " + node.toStringX() + " - DocStatus=" + document.getDocStatus();
+			}
+			throw new DocumentActionFailedException(processMsg, document.getDocStatus());
+		}
+
+		return processMsg;
+	}
+
+	/**
+	 * Records the error the same way as {@link MWFActivity#run()} does: the process is terminated
+	 * and if the document action returned an error, the document gets the status it had after the failed action.
+	 */
+	private static void terminate(final MWFProcess wfProcess, final PO po, final IDocument document, final Exception ex)
+	{
+		String processMsg = ex.getLocalizedMessage();
+		if (Check.isEmpty(processMsg, true))
+		{
+			processMsg = ex.getMessage();
+		}
+
+		final String docStatus = ex instanceof DocumentActionFailedException ? ((DocumentActionFailedException)ex).getDocStatus() : null;
+		if (docStatus != null)
+		{
+			po.load(po.get_TrxName());
+			document.setDocStatus(docStatus);
+			po.saveEx();
+		}
+
+		wfProcess.setProcessMsg(processMsg);
+		wfProcess.setTextMsg(processMsg);
+		wfProcess.addTextMsg(ex);
+		wfProcess.setClosedStateWithoutActivities(MWFProcess.WFSTATE_Terminated);
+		wfProcess.saveEx(); // always keep a record of the error, like the engine does
+	}
+
+	/**
+	 * @return the first valid next node (simple workflows are XOR split), or <code>null</code> if the workflow is finished
+	 */
+	private MWFNode getNextNode(final MWFNode node, final IDocument document, final int adClientId)
+	{
+		for (final MWFNodeNext transition : node.getTransitions(adClientId))
+		{
+			if (!transition.isStdUserWorkflow() || MWFNodeNext.isValidForStdUserWorkflow(document))
+			{
+				return workflow.getNode(transition.getAD_WF_Next_ID());
+			}
+		}
+		return null;
+	}
+
+	private static void saveIfConfigured(final MWFProcess wfProcess)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (sysConfigBL.getBooleanValue(SYSCONFIG_SaveWFProcess, true, wfProcess.getAD_Client_ID()))
+		{
+			wfProcess.saveEx();
+		}
+	}
+
+	/**
+	 * The document action returned <code>false</code>.
+	 */
+	private static final class DocumentActionFailedException extends AdempiereException
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String docStatus;
+
+		private DocumentActionFailedException(final String processMsg, @Nullable final String docStatus)
+		{
+			super(processMsg);
+			this.docStatus = docStatus;
+		}
+
+		@Nullable
+		public String getDocStatus()
+		{
+			return docStatus;
+		}
+	}
+}
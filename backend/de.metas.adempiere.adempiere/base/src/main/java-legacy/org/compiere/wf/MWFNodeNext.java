@@ -151,6 +151,34 @@ public class MWFNodeNext extends X_AD_WF_NodeNext
 		return !isStdUserWorkflow() && getConditions(false).length == 0;
 	}	//	isUnconditional
 	
+	/**
+	 * 	Has Conditions
+	 *	@return true if this transition has conditions (standard user workflow is not considered a condition)
+	 */
+	public boolean hasConditions()
+	{
+		return getConditions(false).length > 0;
+	}	//	hasConditions
+
+	/**
+	 * 	Is the standard user workflow (e.g. approval) valid for given document,
+	 * 	i.e. is the document about to be completed.
+	 *	@param da document
+	 *	@return true if valid
+	 */
+	static boolean isValidForStdUserWorkflow(final IDocument da)
+	{
+		final String docStatus = da.getDocStatus();
+		final String docAction = da.getDocAction();
+		return IDocument.ACTION_Complete.equals(docAction)
+				&& !IDocument.STATUS_Completed.equals(docStatus)
+				&& !IDocument.STATUS_WaitingConfirmation.equals(docStatus)
+				&& !IDocument.STATUS_WaitingPayment.equals(docStatus)
+				&& !IDocument.STATUS_Voided.equals(docStatus)
+				&& !IDocument.STATUS_Closed.equals(docStatus)
+				&& !IDocument.STATUS_Reversed.equals(docStatus);
+	}	//	isValidForStdUserWorkflow
+
 	/**
 	 * 	Is this a Valid Transition For ..
 	 * 	@param activity activity
@@ -162,28 +190,10 @@ public class MWFNodeNext extends X_AD_WF_NodeNext
 		{
 			final PO po = activity.getPO();
 			final IDocument da = Services.get(IDocumentBL.class).getDocumentOrNull(po);
-			if (da != null)
+			if (da != null && !isValidForStdUserWorkflow(da))
 			{
-				String docStatus = da.getDocStatus();
-				String docAction = da.getDocAction();
-				if (!IDocument.ACTION_Complete.equals(docAction)
-					|| IDocument.STATUS_Completed.equals(docStatus)
-					|| IDocument.STATUS_WaitingConfirmation.equals(docStatus)
-					|| IDocument.STATUS_WaitingPayment.equals(docStatus)
-					|| IDocument.STATUS_Voided.equals(docStatus)
-					|| IDocument.STATUS_Closed.equals(docStatus)
-					|| IDocument.STATUS_Reversed.equals(docStatus) )
-					/*
-					|| DocAction.ACTION_Complete.equals(docAction)	
-					|| DocAction.ACTION_ReActivate.equals(docAction)	
-					|| DocAction.ACTION_None.equals(docAction)
-					|| DocAction.ACTION_Post.equals(docAction)
-					|| DocAction.ACTION_Unlock.equals(docAction)
-					|| DocAction.ACTION_Invalidate.equals(docAction)	) */
-				{
-					log.debug("isValidFor =NO= StdUserWF - Status=" + docStatus + " - Action=" + docAction);
-					return false;
-				}
+				log.debug("isValidFor =NO= StdUserWF - Status=" + da.getDocStatus() + " - Action=" + da.getDocAction());
+				return false;
 			}
 		}
 		//	No Conditions
@@ -37,6 +37,7 @@ import de.metas.document.engine.IDocumentBL;
 import de.metas.process.ProcessInfo;
 import de.metas.security.IUserRolePermissions;
 import de.metas.security.permissions.Access;
+import de.metas.util.Check;
 import de.metas.util.Services;
 
 
@@ -258,6 +259,20 @@ public class MWFProcess extends X_AD_WF_Process
 	}	//	setWFState
 
 
+	/**
+	 * 	Set the final state of a process which was not run by the workflow engine
+	 * 	but by {@link DocumentWorkflowFastPath}. Neither saves nor touches any activities.
+	 *	@param WFState closed state
+	 */
+	/* package */ void setClosedStateWithoutActivities (final String WFState)
+	{
+		super.setWFState (WFState);
+		m_state = new StateEngine (WFState);
+		Check.assume(m_state.isClosed(), "State {} is closed", WFState);
+		setProcessed(true);
+	}	//	setClosedStateWithoutActivities
+
+
 	/**************************************************************************
 	 * 	Check Status of Activities.
 	 * 	- update Process if required
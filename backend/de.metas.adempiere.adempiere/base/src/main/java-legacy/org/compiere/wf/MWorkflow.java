@@ -205,6 +205,8 @@ public class MWorkflow extends X_AD_Workflow
 
 	/**	WF Nodes				*/
 	private List<MWFNode>	m_nodes = new ArrayList<>();
+	/**	Runs simple document workflows without the engine */
+	private final DocumentWorkflowFastPath documentFastPath = new DocumentWorkflowFastPath(this);
 
 	/**	Translated Name			*/
 	private String			m_name_trl = null;
@@ -679,8 +681,16 @@ public class MWorkflow extends X_AD_Workflow
 			public MWFProcess call() throws Exception
 			{
 				final MWFProcess wfProcess = new MWFProcess(MWorkflow.this, pi, ITrx.TRXNAME_ThreadInherited);
-				InterfaceWrapperHelper.save(wfProcess);
 				pi.getResult().setSummary(Services.get(IMsgBL.class).getMsg(getCtx(), "Processing"));
+
+				// Simple document workflows don't need the engine's bookkeeping
+				if (documentFastPath.isApplicable(wfProcess))
+				{
+					documentFastPath.run(wfProcess);
+					return wfProcess;
+				}
+
+				InterfaceWrapperHelper.save(wfProcess);
 				wfProcess.startWork();
 				
 				return wfProcess;
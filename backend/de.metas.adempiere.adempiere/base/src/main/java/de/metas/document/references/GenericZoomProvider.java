@@ -20,7 +20,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -28,7 +29,9 @@ import org.adempiere.ad.element.api.AdWindowId;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.window.api.IADWindowDAO;
 import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.ITableRecordReference;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_AD_Window;
 import org.compiere.model.I_M_RMA;
 import org.compiere.model.MQuery;
@@ -40,9 +43,12 @@ import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.cache.CCache;
+import de.metas.cache.CacheMgt;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.ImmutableTranslatableString;
 import de.metas.i18n.ImmutableTranslatableString.ImmutableTranslatableStringBuilder;
@@ -66,13 +72,22 @@ import lombok.NonNull;
 
 	private static final Logger logger = LogManager.getLogger(GenericZoomProvider.class);
 
+	/**
+	 * If greater than zero, the records are counted only up to this limit and the reference is displayed like "(#100+)".
+	 * The default (zero) means exact counts.
+	 */
+	private static final String SYSCONFIG_RecordsCountLimit = "de.metas.document.references.GenericZoomProvider.RecordsCountLimit";
+
 	private final CCache<String, List<GenericZoomInfoDescriptor>> keyColumnName2descriptors = //
 			CCache.newLRUCache(I_AD_Window.Table_Name + "#GenericZoomInfoDescriptors", 100, 0);
 
+	private final ZoomRecordsCountsCache recordsCountsCache = new ZoomRecordsCountsCache();
+
 	private final Priority zoomInfoPriority = Priority.LOWEST;
 
 	private GenericZoomProvider()
 	{
+		CacheMgt.get().addCacheResetListener(recordsCountsCache::reset);
 	}
 
 	@Override
@@ -86,7 +101,10 @@ import lombok.NonNull;
 			return ImmutableList.of();
 		}
 
-		final ImmutableList.Builder<ZoomInfoCandidate> result = ImmutableList.builder();
+		final int recordsCountLimit = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_RecordsCountLimit, 0);
+
+		final Map<GenericZoomInfoDescriptor, MQuery> queriesByDescriptor = new LinkedHashMap<>();
+		final Map<GenericZoomInfoDescriptor, String> countSqlsByDescriptor = new LinkedHashMap<>();
 		for (final GenericZoomInfoDescriptor zoomInfoDescriptor : zoomInfoDescriptors)
 		{
 			final AdWindowId windowId = zoomInfoDescriptor.getTargetAD_Window_ID();
@@ -95,14 +113,31 @@ import lombok.NonNull;
 				continue;
 			}
 
-			final ITranslatableString name = zoomInfoDescriptor.getName();
 			final MQuery query = buildMQuery(zoomInfoDescriptor, source);
 			if (query == null)
 			{
 				continue;
 			}
 
-			final IntSupplier recordsCountSupplier = createRecordsCountSupplier(query, zoomInfoDescriptor, source.getTableName());
+			queriesByDescriptor.put(zoomInfoDescriptor, query);
+			countSqlsByDescriptor.put(zoomInfoDescriptor, buildCountSQL(query, zoomInfoDescriptor, source.getTableName(), recordsCountLimit));
+		}
+
+		// all records counts are computed in one go, when the first candidate is evaluated
+		final TableRecordReference sourceRecordRef = TableRecordReference.of(source.getAD_Table_ID(), source.getRecord_ID());
+		final ImmutableMap<String, String> targetTableNamesByCountSql = queriesByDescriptor.entrySet()
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(
+						entry -> countSqlsByDescriptor.get(entry.getKey()),
+						entry -> entry.getValue().getTableName(),
+						(tableName1, tableName2) -> tableName1));
+		final Supplier<ImmutableMap<String, Integer>> recordsCountsSupplier = Suppliers.memoize(
+				() -> recordsCountsCache.getRecordsCounts(sourceRecordRef, targetTableNamesByCountSql, GenericZoomProvider::retrieveRecordsCounts));
+
+		final ImmutableList.Builder<ZoomInfoCandidate> result = ImmutableList.builder();
+		queriesByDescriptor.forEach((zoomInfoDescriptor, query) -> {
+			final AdWindowId windowId = zoomInfoDescriptor.getTargetAD_Window_ID();
+			final String countSql = countSqlsByDescriptor.get(zoomInfoDescriptor);
 
 			result.add(ZoomInfoCandidate.builder()
 					.id(ZoomInfoId.ofString("generic-" + windowId.getRepoId()))
@@ -110,10 +145,11 @@ import lombok.NonNull;
 					.targetWindow(ZoomTargetWindow.ofAdWindowId(windowId))
 					.priority(zoomInfoPriority)
 					.query(query)
-					.destinationDisplay(name)
-					.recordsCountSupplier(recordsCountSupplier)
+					.destinationDisplay(zoomInfoDescriptor.getName())
+					.recordsCountSupplier(() -> getRecordsCount(recordsCountsSupplier.get(), countSql))
+					.recordsCountLimit(recordsCountLimit)
 					.build());
-		}
+		});
 
 		return result.build();
 	}
@@ -310,21 +346,49 @@ import lombok.NonNull;
 		return query;
 	}
 
-	private static IntSupplier createRecordsCountSupplier(
-			final MQuery query,
-			final GenericZoomInfoDescriptor zoomInfoDescriptor,
-			final String sourceTableName)
+	private static int getRecordsCount(final ImmutableMap<String, Integer> recordsCounts, final String countSql)
 	{
-		final String sql = buildCountSQL(query, zoomInfoDescriptor, sourceTableName);
-		return () -> DB.getSQLValueEx(ITrx.TRXNAME_None, sql);
+		final Integer recordsCount = recordsCounts.get(countSql);
+		return recordsCount != null
+				? recordsCount
+				: DB.getSQLValueEx(ITrx.TRXNAME_None, countSql);
+	}
+
+	/**
+	 * Runs all given count SQLs in one SQL statement.
+	 *
+	 * @return records count for each count SQL or an empty map if the statement failed, in which case each count will be retrieved by its own
+	 */
+	private static ImmutableMap<String, Integer> retrieveRecordsCounts(@NonNull final ImmutableList<String> countSqls)
+	{
+		final String sql = countSqls.stream()
+				.map(countSql -> "(" + countSql + ")")
+				.collect(Collectors.joining("\n, ", "SELECT ", ""));
+		try
+		{
+			return DB.retrieveRowsOutOfTrx(sql, null, rs -> {
+				final ImmutableMap.Builder<String, Integer> recordsCounts = ImmutableMap.builder();
+				for (int i = 0; i < countSqls.size(); i++)
+				{
+					recordsCounts.put(countSqls.get(i), rs.getInt(i + 1));
+				}
+				return recordsCounts.build();
+			}).get(0);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed retrieving {} records counts in one go; retrieving them one by one", countSqls.size(), ex);
+			return ImmutableMap.of();
+		}
 	}
 
 	private static String buildCountSQL(
 			final MQuery query,
 			final GenericZoomInfoDescriptor zoomInfoDescriptor,
-			final String sourceTableName)
+			final String sourceTableName,
+			final int recordsCountLimit)
 	{
-		String sqlCount = "SELECT COUNT(1) FROM " + query.getTableName() + " WHERE " + query.getWhereClause(false);
+		String sqlFromWhere = " FROM " + query.getTableName() + " WHERE " + query.getWhereClause(false);
 
 		Boolean isSO = zoomInfoDescriptor.getIsSOTrx();
 		if (isSO != null && zoomInfoDescriptor.isTargetHasIsSOTrxColumn())
@@ -341,10 +405,15 @@ import lombok.NonNull;
 
 			// TODO: handle the case when IsSOTrx is a virtual column
 
-			sqlCount += " AND IsSOTrx=" + DB.TO_BOOLEAN(isSO);
+			sqlFromWhere += " AND IsSOTrx=" + DB.TO_BOOLEAN(isSO);
 		}
 
-		return sqlCount;
+		if (recordsCountLimit > 0)
+		{
+			// we only need to know if there are more than recordsCountLimit records
+			return "SELECT COUNT(1) FROM (SELECT 1" + sqlFromWhere + " LIMIT " + (recordsCountLimit + 1) + ") t";
+		}
+		return "SELECT COUNT(1)" + sqlFromWhere;
 	}
 
 	private static final class GenericZoomInfoDescriptor
@@ -57,6 +57,8 @@ public final class ZoomInfoCandidate
 	private final ZoomTargetWindow targetWindow;
 	private final Priority priority;
 	private final IntSupplier recordsCountSupplier;
+	/** if greater than zero, the records count supplier stops counting after {@code recordsCountLimit + 1} records */
+	private final int recordsCountLimit;
 
 	@Builder
 	private ZoomInfoCandidate(
@@ -66,7 +68,8 @@ public final class ZoomInfoCandidate
 			@NonNull final Priority priority,
 			@NonNull final MQuery query,
 			@NonNull final ITranslatableString destinationDisplay,
-			@NonNull final IntSupplier recordsCountSupplier)
+			@NonNull final IntSupplier recordsCountSupplier,
+			final int recordsCountLimit)
 	{
 		this.id = id;
 		this.internalName = Check.assumeNotEmpty(internalName, "internalName is not empty");
@@ -78,6 +81,7 @@ public final class ZoomInfoCandidate
 		this.destinationDisplay = destinationDisplay;
 
 		this.recordsCountSupplier = recordsCountSupplier;
+		this.recordsCountLimit = recordsCountLimit;
 	}
 
 	@Override
@@ -143,7 +147,7 @@ public final class ZoomInfoCandidate
 
 		final ITranslatableString caption = TranslatableStrings.builder()
 				.append(destinationDisplay)
-				.append(" (#" + recordsCount + ")")
+				.append(" (#" + toRecordsCountDisplay(recordsCount) + ")")
 				.build();
 
 		final Duration recordsCountDuration = Duration.ofNanos(stopwatch.elapsed(TimeUnit.NANOSECONDS));
@@ -159,4 +163,11 @@ public final class ZoomInfoCandidate
 				.query(queryCopy)
 				.build());
 	}
+
+	private String toRecordsCountDisplay(final int recordsCount)
+	{
+		return recordsCountLimit > 0 && recordsCount > recordsCountLimit
+				? recordsCountLimit + "+"
+				: String.valueOf(recordsCount);
+	}
 }
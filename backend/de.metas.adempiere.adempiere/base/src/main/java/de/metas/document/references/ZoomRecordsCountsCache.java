@@ -0,0 +1,179 @@
+package de.metas.document.references;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Records counts (by count SQL) of the source records which were recently displayed.
+ * <p>
+ * Besides expiring, an entry is removed when the source record is changed or when any record of a table it counts (i.e. a target table) is created, changed or deleted.
+ */
+final class ZoomRecordsCountsCache
+{
+	@Value
+	private static class RecordsCounts
+	{
+		@NonNull
+		TableRecordReference sourceRecordRef;
+
+		@NonNull
+		ImmutableMap<String, Integer> recordsCountsByCountSql;
+
+		@NonNull
+		ImmutableSet<String> targetTableNames;
+
+		boolean isCountingAnyOf(@NonNull final ImmutableSet<String> tableNames)
+		{
+			return tableNames.stream().anyMatch(targetTableNames::contains);
+		}
+
+		boolean isSourceRecordOfAnyOf(@NonNull final ImmutableSet<String> tableNames)
+		{
+			return tableNames.contains(sourceRecordRef.getTableName());
+		}
+	}
+
+	private final CCache<TableRecordReference, RecordsCounts> sourceRecord2recordsCounts = CCache.<TableRecordReference, RecordsCounts> builder()
+			.cacheName("GenericZoomProvider#RecordsCountsBySourceRecord")
+			.cacheMapType(CacheMapType.LRU)
+			.initialCapacity(500)
+			.expireMinutes(1)
+			.build();
+
+	/**
+	 * @param targetTableNamesByCountSql the count SQLs of the source record, along with the name of the table they are counting
+	 * @param recordsCountsRetriever retrieves the records counts of the count SQLs which are not cached yet
+	 */
+	public ImmutableMap<String, Integer> getRecordsCounts(
+			@NonNull final TableRecordReference sourceRecordRef,
+			@NonNull final ImmutableMap<String, String> targetTableNamesByCountSql,
+			@NonNull final Function<ImmutableList<String>, Map<String, Integer>> recordsCountsRetriever)
+	{
+		final RecordsCounts cachedRecordsCounts = sourceRecord2recordsCounts.get(sourceRecordRef);
+		final ImmutableMap<String, Integer> cachedRecordsCountsByCountSql = cachedRecordsCounts != null
+				? cachedRecordsCounts.getRecordsCountsByCountSql()
+				: ImmutableMap.of();
+
+		final ImmutableList<String> countSqlsToRetrieve = targetTableNamesByCountSql.keySet()
+				.stream()
+				.filter(countSql -> !cachedRecordsCountsByCountSql.containsKey(countSql))
+				.collect(ImmutableList.toImmutableList());
+		if (countSqlsToRetrieve.isEmpty())
+		{
+			return cachedRecordsCountsByCountSql;
+		}
+
+		final ImmutableMap<String, Integer> recordsCountsByCountSql = ImmutableMap.<String, Integer> builder()
+				.putAll(cachedRecordsCountsByCountSql)
+				.putAll(recordsCountsRetriever.apply(countSqlsToRetrieve))
+				.build();
+		final ImmutableSet<String> targetTableNames = ImmutableSet.<String> builder()
+				.addAll(cachedRecordsCounts != null ? cachedRecordsCounts.getTargetTableNames() : ImmutableSet.of())
+				.addAll(targetTableNamesByCountSql.values())
+				.build();
+		sourceRecord2recordsCounts.put(sourceRecordRef, new RecordsCounts(sourceRecordRef, recordsCountsByCountSql, targetTableNames));
+
+		return recordsCountsByCountSql;
+	}
+
+	public long reset(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		long countReset = 0;
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			if (request.isAll())
+			{
+				return sourceRecord2recordsCounts.reset();
+			}
+
+			final ImmutableSet<String> tableNames = extractTableNames(request);
+			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+			if (rootRecordRef != null)
+			{
+				if (sourceRecord2recordsCounts.remove(rootRecordRef) != null)
+				{
+					countReset++;
+				}
+
+				// a created, changed or deleted target record might change the records counts
+				countReset += resetIf(recordsCounts -> recordsCounts.isCountingAnyOf(tableNames));
+			}
+			else
+			{
+				countReset += resetIf(recordsCounts -> recordsCounts.isCountingAnyOf(tableNames) || recordsCounts.isSourceRecordOfAnyOf(tableNames));
+			}
+		}
+		return countReset;
+	}
+
+	private static ImmutableSet<String> extractTableNames(final CacheInvalidateRequest request)
+	{
+		final ImmutableSet.Builder<String> tableNames = ImmutableSet.builder();
+		addIfNotNull(tableNames, request.getRootTableName());
+		addIfNotNull(tableNames, request.getChildTableName());
+		return tableNames.build();
+	}
+
+	private static void addIfNotNull(final ImmutableSet.Builder<String> tableNames, @Nullable final String tableName)
+	{
+		if (tableName != null)
+		{
+			tableNames.add(tableName);
+		}
+	}
+
+	private long resetIf(final Predicate<RecordsCounts> filter)
+	{
+		final List<TableRecordReference> sourceRecordRefsToReset = sourceRecord2recordsCounts.values()
+				.stream()
+				.filter(filter)
+				.map(RecordsCounts::getSourceRecordRef)
+				.collect(ImmutableList.toImmutableList());
+		if (sourceRecordRefsToReset.isEmpty())
+		{
+			return 0;
+		}
+
+		sourceRecord2recordsCounts.removeAll(sourceRecordRefsToReset);
+		return sourceRecordRefsToReset.size();
+	}
+}
@@ -0,0 +1,197 @@
+package de.metas.document.sequence.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_AD_Sequence;
+import org.compiere.model.I_AD_Sequence_No;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import de.metas.cache.CacheMgt;
+import de.metas.cache.ICacheResetListener;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out sequence numbers from blocks which were reserved in the database in one go.
+ * <p>
+ * The numbers of a block are handed out without locking. Only reserving the next block is synchronized (per sequence).
+ * <p>
+ * Numbers which were reserved but not handed out (e.g. when the server is stopped or the sequence was changed) are lost,
+ * and if more than one server is running, the numbers are not ascending in the order of their documents.
+ * So this shall only be used for sequences which are not required to be gapless.
+ * With a block size of one or less, nothing is reserved and each number is retrieved from the database, which keeps the sequence gapless.
+ */
+final class DocumentNoBlockAllocator
+{
+	public static final DocumentNoBlockAllocator instance = new DocumentNoBlockAllocator().registerCacheResetListeners();
+
+	private static final Logger logger = LogManager.getLogger(DocumentNoBlockAllocator.class);
+
+	@FunctionalInterface
+	public interface BlockReserver
+	{
+		/**
+		 * Increments the sequence in the database by {@code incrementNo * blockSize}.
+		 *
+		 * @return the first sequence number of the reserved block
+		 */
+		int reserveBlock(int blockSize);
+	}
+
+	@Value
+	@Builder
+	public static class BlockKey
+	{
+		int adSequenceId;
+		boolean adempiereSys;
+		/** only set if the sequence is restarted every year */
+		@Nullable
+		String calendarYear;
+	}
+
+	private final ConcurrentHashMap<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+
+	private final ICacheResetListener cacheResetListener = request -> reset();
+
+	@VisibleForTesting
+	DocumentNoBlockAllocator()
+	{
+	}
+
+	/**
+	 * Discards the reserved blocks when somebody changed the sequence (e.g. CurrentNext was set manually), because then the already reserved numbers are not valid anymore.
+	 */
+	@VisibleForTesting
+	DocumentNoBlockAllocator registerCacheResetListeners()
+	{
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence.Table_Name, cacheResetListener);
+		CacheMgt.get().addCacheResetListener(I_AD_Sequence_No.Table_Name, cacheResetListener);
+		return this;
+	}
+
+	@VisibleForTesting
+	void unregisterCacheResetListeners()
+	{
+		CacheMgt.get().removeCacheResetListener(I_AD_Sequence.Table_Name, cacheResetListener);
+		CacheMgt.get().removeCacheResetListener(I_AD_Sequence_No.Table_Name, cacheResetListener);
+	}
+
+	public int nextSeqNo(
+			@NonNull final BlockKey key,
+			final int incrementNo,
+			final int blockSize,
+			@NonNull final BlockReserver blockReserver)
+	{
+		if (blockSize <= 1)
+		{
+			return blockReserver.reserveBlock(1);
+		}
+
+		while (true)
+		{
+			final Block block = blocks.compute(key, (k, currentBlock) -> currentBlock != null && currentBlock.hasRemainingSeqNos()
+					? currentBlock
+					: reserveBlock(k, incrementNo, blockSize, blockReserver));
+
+			final int seqNo = block.nextSeqNo();
+			if (seqNo != Block.NONE)
+			{
+				return seqNo;
+			}
+
+			// the block was exhausted by other threads in the meantime => try with the next one
+		}
+	}
+
+	private static Block reserveBlock(
+			final BlockKey key,
+			final int incrementNo,
+			final int blockSize,
+			final BlockReserver blockReserver)
+	{
+		final int firstSeqNo = blockReserver.reserveBlock(blockSize);
+		final Block block = new Block(firstSeqNo, incrementNo, blockSize);
+		logger.debug("Reserved {} for {}", block, key);
+		return block;
+	}
+
+	public long reset()
+	{
+		final long count = blocks.size();
+		blocks.clear();
+		return count;
+	}
+
+	private static final class Block
+	{
+		private static final int NONE = -1;
+
+		private final int firstSeqNo;
+		private final int incrementNo;
+		private final int size;
+
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		private Block(final int firstSeqNo, final int incrementNo, final int size)
+		{
+			this.firstSeqNo = firstSeqNo;
+			this.incrementNo = incrementNo;
+			this.size = size;
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("firstSeqNo", firstSeqNo)
+					.add("incrementNo", incrementNo)
+					.add("size", size)
+					.add("nextIndex", nextIndex)
+					.toString();
+		}
+
+		public boolean hasRemainingSeqNos()
+		{
+			return nextIndex.get() < size;
+		}
+
+		/** @return next sequence number or {@link #NONE} if the block is exhausted */
+		public int nextSeqNo()
+		{
+			final int index = nextIndex.getAndIncrement();
+			return index < size
+					? firstSeqNo + index * incrementNo
+					: NONE;
+		}
+	}
+}
@@ -6,12 +6,15 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
 import org.adempiere.ad.expression.api.IStringExpression;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.compiere.model.I_C_DocType;
@@ -55,9 +58,16 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 	private static final transient Logger logger = LogManager.getLogger(DocumentNoBuilder.class);
 	private final transient IDocumentSequenceDAO documentSequenceDAO = Services.get(IDocumentSequenceDAO.class);
 	final IMsgBL msgBL = Services.get(IMsgBL.class);
+	private final transient ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	private static final AdMessageKey MSG_PROVIDER_NOT_APPLICABLE = AdMessageKey.of("de.metas.document.CustomSequenceNotProviderNoApplicable");
 
+	/**
+	 * Sysconfig prefix, followed by the AD_Sequence_ID. If set to more than one, the sequence is not gapless anymore,
+	 * but that many numbers are reserved with one database update and then handed out from memory (see {@link DocumentNoBlockAllocator}).
+	 */
+	private static final String SYSCONFIG_PREFIX_ReservedBlockSize = "de.metas.document.sequence.ReservedBlockSize.AD_Sequence_ID_";
+
 	private static final int QUERY_TIME_OUT = MSequence.QUERY_TIME_OUT;
 	private static final transient SimpleDateFormatThreadLocal DATEFORMAT_CalendarYear = new SimpleDateFormatThreadLocal("yyyy");
 
@@ -269,40 +279,69 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 		}
 		else
 		{
-			sequenceNo = retrieveAndIncrementSequenceCurrentNext(docSeqInfo);
+			final String calendarYear = !isAdempiereSys() && docSeqInfo.isStartNewYear()
+					? getCalendarYear(docSeqInfo.getDateColumn())
+					: null;
+
+			final DocumentNoBlockAllocator.BlockKey blockKey = DocumentNoBlockAllocator.BlockKey.builder()
+					.adSequenceId(docSeqInfo.getAdSequenceId())
+					.adempiereSys(isAdempiereSys())
+					.calendarYear(calendarYear)
+					.build();
+			sequenceNo = DocumentNoBlockAllocator.instance.nextSeqNo(
+					blockKey,
+					docSeqInfo.getIncrementNo(),
+					getReservedBlockSize(docSeqInfo),
+					blockSize -> retrieveAndIncrementSequenceCurrentNext(docSeqInfo, calendarYear, blockSize));
 		}
 		return Integer.toString(sequenceNo);
 	}
 
-	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
+	/**
+	 * @return how many sequence numbers shall be reserved at once; {@code <= 1} means that the sequence is gapless and each number is retrieved from database when it's needed.
+	 */
+	private int getReservedBlockSize(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		final String sysConfigName = SYSCONFIG_PREFIX_ReservedBlockSize + docSeqInfo.getAdSequenceId();
+		return sysConfigBL.getIntValue(sysConfigName, 0, getClientId().getRepoId());
+	}
+
+	/**
+	 * Increments the sequence by {@code count} numbers.
+	 *
+	 * @return the first of the {@code count} numbers
+	 */
+	private int retrieveAndIncrementSequenceCurrentNext(
+			@NonNull final DocumentSequenceInfo docSeqInfo,
+			@Nullable final String calendarYear,
+			final int count)
 	{
 		final String trxName = getTrxName();
+		final int increment = docSeqInfo.getIncrementNo() * count;
 		final List<Object> sqlParams = new ArrayList<>();
 		final String sql;
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 		else if (docSeqInfo.isStartNewYear())
 		{
-			final String calendarYear = getCalendarYear(docSeqInfo.getDateColumn());
-
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
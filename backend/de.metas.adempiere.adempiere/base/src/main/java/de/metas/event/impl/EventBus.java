@@ -232,7 +232,7 @@ final class EventBus implements IEventBus
 				eventToPost = event.withStatusWasLogged();
 
 				final EventLogService eventLogService = SpringContextHolder.instance.getBean(EventLogService.class);
-				eventLogService.saveEvent(eventToPost, this);
+				eventLogService.enqueueEvent(eventToPost, this);
 			}
 			else
 			{
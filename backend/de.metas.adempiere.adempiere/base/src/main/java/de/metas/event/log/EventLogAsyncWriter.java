@@ -0,0 +1,451 @@
+package de.metas.event.log;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimaps;
+
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Saves event logs and their entries in a background thread, in batches.
+ * <p>
+ * Events, entries and flush requests share one FIFO queue which is processed by one thread,
+ * so an event log is always saved before the entries which were created while handling it.
+ * The queue is bounded: if it's full, the callers wait for the writer (backpressure).
+ * <p>
+ * Entries whose event log was not found (e.g. because it's a remote event which was not yet saved by the sending node) are retried a few times.
+ * {@link #flush()} and {@link #shutdown()} also wait for those retries.
+ */
+final class EventLogAsyncWriter
+{
+	private static final Logger logger = LogManager.getLogger(EventLogAsyncWriter.class);
+
+	private static final long POLL_MILLIS = 100;
+
+	private final Consumer<List<EventLogCreateRequest>> eventsSaver;
+	private final Consumer<List<EventLogEntry>> entriesSaver;
+	private final int maxBatchSize;
+	private final Duration flushTimeout;
+	private final Duration retryDelay;
+	private final int maxAttempts;
+
+	private final BlockingQueue<Object> queue;
+	private final ExecutorService executor;
+	private volatile boolean shutdown = false;
+
+	private final Deque<EntriesToRetry> entriesToRetry = new ConcurrentLinkedDeque<>();
+	/** flush requests whose items were written, but which are still waiting for {@link #entriesToRetry} */
+	private final Queue<FlushRequest> flushRequestsWaitingForRetries = new ConcurrentLinkedQueue<>();
+
+	@Builder
+	private EventLogAsyncWriter(
+			@NonNull final Consumer<List<EventLogCreateRequest>> eventsSaver,
+			@NonNull final Consumer<List<EventLogEntry>> entriesSaver,
+			final int queueCapacity,
+			final int maxBatchSize,
+			@NonNull final Duration flushTimeout,
+			@NonNull final Duration retryDelay,
+			final int maxAttempts)
+	{
+		this.eventsSaver = eventsSaver;
+		this.entriesSaver = entriesSaver;
+		this.maxBatchSize = Math.max(maxBatchSize, 1);
+		this.flushTimeout = flushTimeout;
+		this.retryDelay = retryDelay;
+		this.maxAttempts = Math.max(maxAttempts, 1);
+
+		this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+		this.executor = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(EventLogAsyncWriter.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+		executor.execute(this::run);
+	}
+
+	@Value
+	private static class FlushRequest
+	{
+		CompletableFuture<Void> future = new CompletableFuture<>();
+	}
+
+	@Value
+	private static class EntriesToRetry
+	{
+		ImmutableList<EventLogEntry> entries;
+		int attempt;
+		long notBeforeMillis;
+	}
+
+	public void enqueueEvent(@NonNull final EventLogCreateRequest request)
+	{
+		enqueue(request);
+	}
+
+	public void enqueueEntries(@NonNull final Collection<EventLogEntry> entries)
+	{
+		entries.forEach(this::enqueue);
+	}
+
+	private void enqueue(final Object item)
+	{
+		boolean added = false;
+		try
+		{
+			while (!shutdown && !added)
+			{
+				added = queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		// the writer is not running anymore => save right away
+		if (!added)
+		{
+			write(ImmutableList.of(item));
+		}
+		if (shutdown)
+		{
+			writeRemainingItems();
+		}
+	}
+
+	/**
+	 * Waits until all items which were enqueued so far are saved, including the entries which are still to be retried.
+	 */
+	public void flush()
+	{
+		if (shutdown)
+		{
+			writeRemainingItems();
+			return;
+		}
+
+		final FlushRequest flushRequest = new FlushRequest();
+		enqueue(flushRequest);
+		try
+		{
+			flushRequest.getFuture().get(flushTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (final TimeoutException e)
+		{
+			logger.warn("Event logs were not saved within {}. Continuing anyway.", flushTimeout);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (final ExecutionException e)
+		{
+			logger.warn("Failed flushing event logs. Ignored.", e);
+		}
+	}
+
+	/**
+	 * Stops the writer thread and saves all items which are still in the queue, including the entries which are still to be retried.
+	 */
+	public void shutdown()
+	{
+		shutdown = true;
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(flushTimeout.toMillis(), TimeUnit.MILLISECONDS))
+			{
+				logger.warn("Event log writer did not stop within {}", flushTimeout);
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		writeRemainingItems();
+	}
+
+	private void run()
+	{
+		final List<Object> batch = new ArrayList<>(maxBatchSize);
+		while (!shutdown || !queue.isEmpty())
+		{
+			try
+			{
+				retryEntriesIfDue();
+				completeFlushRequestsIfNoRetriesPending();
+
+				final Object firstItem = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (firstItem == null)
+				{
+					continue;
+				}
+
+				batch.add(firstItem);
+				queue.drainTo(batch, maxBatchSize - 1);
+				write(batch);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (final Throwable e)
+			{
+				logger.warn("Failed saving event logs. Ignored.", e);
+			}
+			finally
+			{
+				batch.clear();
+			}
+		}
+	}
+
+	private synchronized void writeRemainingItems()
+	{
+		final List<Object> batch = new ArrayList<>();
+		while (queue.drainTo(batch, maxBatchSize) > 0)
+		{
+			write(batch);
+			batch.clear();
+		}
+
+		writeEntriesToRetry();
+		completeFlushRequests();
+	}
+
+	/**
+	 * Keeps on retrying the pending entries (respecting their retry delay), but not longer than the flush timeout.
+	 */
+	private void writeEntriesToRetry()
+	{
+		final long timeoutMillis = System.currentTimeMillis() + flushTimeout.toMillis();
+		while (!entriesToRetry.isEmpty())
+		{
+			if (System.currentTimeMillis() >= timeoutMillis)
+			{
+				logger.warn("Event log entries could not be saved within {}. Ignored: {}", flushTimeout, entriesToRetry);
+				entriesToRetry.clear();
+				return;
+			}
+
+			retryEntriesIfDue();
+			if (entriesToRetry.isEmpty())
+			{
+				return;
+			}
+
+			try
+			{
+				Thread.sleep(POLL_MILLIS);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				logger.warn("Interrupted while saving event log entries. Ignored: {}", entriesToRetry);
+				entriesToRetry.clear();
+				return;
+			}
+		}
+	}
+
+	private void completeFlushRequestsIfNoRetriesPending()
+	{
+		if (entriesToRetry.isEmpty())
+		{
+			completeFlushRequests();
+		}
+	}
+
+	private void completeFlushRequests()
+	{
+		for (FlushRequest flushRequest = flushRequestsWaitingForRetries.poll(); flushRequest != null; flushRequest = flushRequestsWaitingForRetries.poll())
+		{
+			flushRequest.getFuture().complete(null);
+		}
+	}
+
+	private void write(@NonNull final List<Object> items)
+	{
+		final List<EventLogCreateRequest> events = new ArrayList<>();
+		final List<EventLogEntry> entries = new ArrayList<>();
+		final List<FlushRequest> flushRequests = new ArrayList<>();
+		for (final Object item : items)
+		{
+			if (item instanceof EventLogCreateRequest)
+			{
+				events.add((EventLogCreateRequest)item);
+			}
+			else if (item instanceof EventLogEntry)
+			{
+				entries.add((EventLogEntry)item);
+			}
+			else if (item instanceof FlushRequest)
+			{
+				flushRequests.add((FlushRequest)item);
+			}
+			else
+			{
+				logger.warn("Ignoring unknown item: {}", item);
+			}
+		}
+
+		try
+		{
+			// the entries' event logs need to be saved first
+			writeEvents(events);
+			writeEntries(entries, 1);
+		}
+		finally
+		{
+			// the entries which are to be retried were enqueued before the flush requests, so they need to wait for them
+			flushRequestsWaitingForRetries.addAll(flushRequests);
+			completeFlushRequestsIfNoRetriesPending();
+		}
+	}
+
+	private void writeEvents(final List<EventLogCreateRequest> events)
+	{
+		if (events.isEmpty())
+		{
+			return;
+		}
+
+		try
+		{
+			eventsSaver.accept(events);
+		}
+		catch (final Exception batchEx)
+		{
+			logger.debug("Failed saving {} event logs in one batch. Trying one by one.", events.size(), batchEx);
+			for (final EventLogCreateRequest event : events)
+			{
+				try
+				{
+					eventsSaver.accept(ImmutableList.of(event));
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed saving {}. Ignored", event, ex);
+				}
+			}
+		}
+	}
+
+	private void writeEntries(final List<EventLogEntry> entries, final int attempt)
+	{
+		if (entries.isEmpty())
+		{
+			return;
+		}
+
+		final ImmutableListMultimap<UUID, EventLogEntry> entriesByEventUUID = Multimaps.index(entries, EventLogEntry::getUuid);
+		try
+		{
+			entriesSaver.accept(entries);
+		}
+		catch (final Exception batchEx)
+		{
+			if (entriesByEventUUID.keySet().size() == 1)
+			{
+				retryLaterOrIgnore(ImmutableList.copyOf(entries), attempt, batchEx);
+				return;
+			}
+
+			logger.debug("Failed saving {} event log entries in one batch. Trying event by event.", entries.size(), batchEx);
+			for (final UUID eventUUID : entriesByEventUUID.keySet())
+			{
+				final ImmutableList<EventLogEntry> eventEntries = entriesByEventUUID.get(eventUUID);
+				try
+				{
+					entriesSaver.accept(eventEntries);
+				}
+				catch (final Exception ex)
+				{
+					retryLaterOrIgnore(eventEntries, attempt, ex);
+				}
+			}
+		}
+	}
+
+	private void retryLaterOrIgnore(final ImmutableList<EventLogEntry> entries, final int attempt, final Exception ex)
+	{
+		if (attempt < maxAttempts)
+		{
+			logger.debug("Failed saving {}. Will retry.", entries, ex);
+			entriesToRetry.add(new EntriesToRetry(entries, attempt + 1, System.currentTimeMillis() + retryDelay.toMillis() * attempt));
+		}
+		else
+		{
+			logger.warn("Failed saving {}. Ignored", entries, ex);
+		}
+	}
+
+	private void retryEntriesIfDue()
+	{
+		final long now = System.currentTimeMillis();
+		for (int i = entriesToRetry.size(); i > 0; i--)
+		{
+			final EntriesToRetry retry = entriesToRetry.poll();
+			if (retry == null)
+			{
+				break;
+			}
+			else if (retry.getNotBeforeMillis() <= now)
+			{
+				writeEntries(retry.getEntries(), retry.getAttempt());
+			}
+			else
+			{
+				entriesToRetry.add(retry);
+			}
+		}
+	}
+}
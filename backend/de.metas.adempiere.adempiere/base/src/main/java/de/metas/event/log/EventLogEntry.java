@@ -2,7 +2,10 @@ package de.metas.event.log;
 
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
 import de.metas.error.AdIssueId;
+import de.metas.user.UserId;
 import lombok.Builder;
 import lombok.Builder.Default;
 import lombok.NonNull;
@@ -54,6 +57,10 @@ public class EventLogEntry
 	String message;
 	Class<?> eventHandlerClass;
 
+	/** the user who was logged in when the entry was created; if {@code null}, the current context's user is used when saving */
+	@Nullable
+	UserId createdBy;
+
 	public String getEventHandlerClassName()
 	{
 		return eventHandlerClass != null ? eventHandlerClass.getName() : null;
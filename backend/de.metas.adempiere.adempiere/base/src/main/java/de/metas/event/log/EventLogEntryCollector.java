@@ -8,6 +8,7 @@ import javax.annotation.Nullable;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.SpringContextHolder;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -92,6 +93,7 @@ public class EventLogEntryCollector implements IAutoCloseable
 				.adIssueId(eventLogRequest.getAdIssueId())
 				.message(eventLogRequest.getMessage())
 				.eventHandlerClass(eventLogRequest.getEventHandlerClass())
+				.createdBy(Env.getLoggedUserIdIfExists().orElse(null))
 				.build();
 
 		eventLogEntries.add(eventLogEntry);
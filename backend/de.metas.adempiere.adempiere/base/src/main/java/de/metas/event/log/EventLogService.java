@@ -5,17 +5,24 @@ import static org.adempiere.model.InterfaceWrapperHelper.newInstanceOutOfTrx;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 
+import javax.annotation.PreDestroy;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
+import org.compiere.util.Env;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableList;
 
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
+import de.metas.event.Type;
 import de.metas.event.model.I_AD_EventLog;
 import de.metas.event.model.I_AD_EventLog_Entry;
 import de.metas.event.remote.JacksonJsonEventSerializer;
@@ -47,14 +54,75 @@ import lombok.NonNull;
 @Service
 public class EventLogService
 {
+	private static final String SYSCONFIG_AsyncWrite = "de.metas.event.log.EventLogService.AsyncWrite";
+
+	private static final int ASYNC_QUEUE_CAPACITY = 10000;
+	private static final int ASYNC_MAX_BATCH_SIZE = 500;
 
 	private final EventLogsRepository eventLogsRepository;
 
+	private volatile EventLogAsyncWriter asyncWriter; // lazy
+
 	public EventLogService(@NonNull final EventLogsRepository eventLogsRepository)
 	{
 		this.eventLogsRepository = eventLogsRepository;
 	}
 
+	private boolean isAsyncWrite()
+	{
+		// in unit tests, the records shall be available right away
+		if (Adempiere.isUnitTestMode())
+		{
+			return false;
+		}
+
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_AsyncWrite, true);
+	}
+
+	private EventLogAsyncWriter getAsyncWriter()
+	{
+		final EventLogAsyncWriter asyncWriter = this.asyncWriter;
+		return asyncWriter != null ? asyncWriter : createAsyncWriterIfMissing();
+	}
+
+	private synchronized EventLogAsyncWriter createAsyncWriterIfMissing()
+	{
+		if (asyncWriter == null)
+		{
+			asyncWriter = EventLogAsyncWriter.builder()
+					.eventsSaver(eventLogsRepository::saveEvents)
+					.entriesSaver(eventLogsRepository::saveLogs)
+					.queueCapacity(ASYNC_QUEUE_CAPACITY)
+					.maxBatchSize(ASYNC_MAX_BATCH_SIZE)
+					.flushTimeout(Duration.ofSeconds(30))
+					.retryDelay(Duration.ofSeconds(1))
+					.maxAttempts(8) // the entries of remote events wait for the sending node's writer, so give it up to half a minute
+					.build();
+		}
+		return asyncWriter;
+	}
+
+	/**
+	 * Waits until all event logs and entries which were enqueued so far are saved.
+	 */
+	public void flush()
+	{
+		final EventLogAsyncWriter asyncWriter = this.asyncWriter;
+		if (asyncWriter != null)
+		{
+			asyncWriter.flush();
+		}
+	}
+
+	@PreDestroy
+	public synchronized void shutdown()
+	{
+		if (asyncWriter != null)
+		{
+			asyncWriter.shutdown();
+		}
+	}
+
 	public Event loadEventForReposting(@NonNull final EventLogId eventLogId)
 	{
 		return loadEventForReposting(eventLogId, ImmutableList.of());
@@ -64,6 +132,9 @@ public class EventLogService
 			@NonNull final EventLogId eventLogId,
 			@NonNull final List<String> handlersToIgnore)
 	{
+		// make sure that the entries which are still in the queue are also considered
+		flush();
+
 		final I_AD_EventLog eventLogRecord = loadOutOfTrx(eventLogId, I_AD_EventLog.class);
 
 		final String eventString = eventLogRecord.getEventData();
@@ -87,24 +158,67 @@ public class EventLogService
 				.build();
 	}
 
+	/**
+	 * Saves the given event's log right away.
+	 */
 	public EventLogId saveEvent(
 			@NonNull final Event event,
 			@NonNull final IEventBus eventBus)
 	{
-		final String eventString = JacksonJsonEventSerializer.instance.toString(event);
+		final EventLogCreateRequest request = createEventLogCreateRequest(event, eventBus);
 
 		final I_AD_EventLog eventLogRecord = newInstanceOutOfTrx(I_AD_EventLog.class);
-		eventLogRecord.setEvent_UUID(event.getUuid().toString());
-		eventLogRecord.setEventTime(Timestamp.from(event.getWhen()));
-		eventLogRecord.setEventData(eventString);
-		eventLogRecord.setEventTopicName(eventBus.getTopicName());
-		eventLogRecord.setEventTypeName(eventBus.getType().toString());
+		eventLogRecord.setEvent_UUID(request.getUuid().toString());
+		eventLogRecord.setEventTime(Timestamp.from(request.getEventTime()));
+		eventLogRecord.setEventData(request.getEventData());
+		eventLogRecord.setEventTopicName(request.getEventTopicName());
+		eventLogRecord.setEventTypeName(request.getEventTypeName());
 
 		save(eventLogRecord);
 
 		return EventLogId.ofRepoId(eventLogRecord.getAD_EventLog_ID());
 	}
 
+	/**
+	 * Saves the given event's log in background, together with other event logs, if enabled by sysconfig {@value #SYSCONFIG_AsyncWrite} (default).
+	 * <p>
+	 * This also applies to events which are posted to a {@link Type#REMOTE} bus.
+	 * The other nodes' handlers might write their entries before the event log is saved by this node;
+	 * those entries are retried by the receiving node's {@link EventLogAsyncWriter} until the event log is there.
+	 */
+	public void enqueueEvent(
+			@NonNull final Event event,
+			@NonNull final IEventBus eventBus)
+	{
+		if (isAsyncWrite())
+		{
+			getAsyncWriter().enqueueEvent(createEventLogCreateRequest(event, eventBus));
+		}
+		else
+		{
+			saveEvent(event, eventBus);
+		}
+	}
+
+	private static EventLogCreateRequest createEventLogCreateRequest(
+			@NonNull final Event event,
+			@NonNull final IEventBus eventBus)
+	{
+		return EventLogCreateRequest.builder()
+				.uuid(event.getUuid())
+				.eventTime(event.getWhen())
+				.eventData(JacksonJsonEventSerializer.instance.toString(event))
+				.eventTopicName(eventBus.getTopicName())
+				.eventTypeName(eventBus.getType().toString())
+				.clientId(Env.getClientId())
+				.orgId(Env.getOrgId())
+				.createdBy(Env.getLoggedUserIdIfExists().orElse(null))
+				.build();
+	}
+
+	/**
+	 * Saves the given entries in background (see {@link #enqueueEvent(Event, IEventBus)}) or right away.
+	 */
 	public void saveEventLogEntries(@NonNull final Collection<EventLogEntry> eventLogEntries)
 	{
 		if (eventLogEntries.isEmpty())
@@ -112,7 +226,13 @@ public class EventLogService
 			return;
 		}
 
-		// Save each entry
-		eventLogsRepository.saveLogs(eventLogEntries);
+		if (isAsyncWrite())
+		{
+			getAsyncWriter().enqueueEntries(eventLogEntries);
+		}
+		else
+		{
+			eventLogsRepository.saveLogs(eventLogEntries);
+		}
 	}
 }
@@ -7,6 +7,7 @@ import de.metas.error.AdIssueId;
 import de.metas.event.model.I_AD_EventLog;
 import de.metas.event.model.I_AD_EventLog_Entry;
 import de.metas.logging.LogManager;
+import de.metas.user.UserId;
 import de.metas.util.GuavaCollectors;
 import de.metas.util.NumberUtils;
 import de.metas.util.Services;
@@ -131,11 +132,12 @@ public class EventLogsRepository
 			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
 
 			final Timestamp timestamp = SystemTime.asTimestamp();
-			final int ad_user_id = Env.getAD_User_ID();
+			final int contextUserId = Env.getAD_User_ID();
 
 			for (final EventLogEntry logEntry : logEntries)
 			{
 				final EventLogId eventLogId = getEventLogIdUsingCacheOutOfTrx(logEntry.getUuid());
+				final int ad_user_id = UserId.toRepoIdOr(logEntry.getCreatedBy(), contextUserId);
 
 				final Object[] params = {
 						logEntry.getClientId(), // 1 - AD_Client_ID
@@ -175,6 +177,96 @@ public class EventLogsRepository
 		return eventLogsWithError;
 	}
 
+	/**
+	 * Inserts the given event logs with one JDBC batch, out of transaction.
+	 */
+	public void saveEvents(@NonNull final Collection<EventLogCreateRequest> requests)
+	{
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		final String sql = "INSERT INTO " + I_AD_EventLog.Table_Name + "("
+				+ I_AD_EventLog.COLUMNNAME_AD_Client_ID + "," // 1
+				+ I_AD_EventLog.COLUMNNAME_AD_Org_ID + "," // 2
+				+ I_AD_EventLog.COLUMNNAME_AD_EventLog_ID + "," // 3
+				+ I_AD_EventLog.COLUMNNAME_Created + "," // 4
+				+ I_AD_EventLog.COLUMNNAME_CreatedBy + "," // 5
+				+ I_AD_EventLog.COLUMNNAME_IsActive + "," // 6
+				+ I_AD_EventLog.COLUMNNAME_IsError + "," // 7
+				+ I_AD_EventLog.COLUMNNAME_IsErrorAcknowledged + "," // 8
+				+ I_AD_EventLog.COLUMNNAME_Event_UUID + "," // 9
+				+ I_AD_EventLog.COLUMNNAME_EventTime + "," // 10
+				+ I_AD_EventLog.COLUMNNAME_EventData + "," // 11
+				+ I_AD_EventLog.COLUMNNAME_EventTopicName + "," // 12
+				+ I_AD_EventLog.COLUMNNAME_EventTypeName + "," // 13
+				+ I_AD_EventLog.COLUMNNAME_Updated + "," // 14
+				+ I_AD_EventLog.COLUMNNAME_UpdatedBy // 15
+				+ ")"
+				+ " VALUES ("
+				+ "?," // 1 - AD_Client_ID
+				+ "?," // 2 - AD_Org_ID
+				+ DB.TO_TABLESEQUENCE_NEXTVAL(I_AD_EventLog.Table_Name) + "," // 3 - AD_EventLog_ID
+				+ "?," // 4 - Created
+				+ "?," // 5 - CreatedBy
+				+ "'Y'," // 6 - IsActive
+				+ "'N'," // 7 - IsError
+				+ "'N'," // 8 - IsErrorAcknowledged
+				+ "?," // 9 - Event_UUID
+				+ "?," // 10 - EventTime
+				+ "?," // 11 - EventData
+				+ "?," // 12 - EventTopicName
+				+ "?," // 13 - EventTypeName
+				+ "?," // 14 - Updated
+				+ "?" // 15 - UpdatedBy
+				+ ")";
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+
+			final Timestamp timestamp = SystemTime.asTimestamp();
+			final int contextUserId = Env.getAD_User_ID();
+
+			for (final EventLogCreateRequest request : requests)
+			{
+				final int ad_user_id = UserId.toRepoIdOr(request.getCreatedBy(), contextUserId);
+
+				final Object[] params = {
+						request.getClientId().getRepoId(), // 1 - AD_Client_ID
+						request.getOrgId().getRepoId(), // 2 - AD_Org_ID
+						// + DB.TO_TABLESEQUENCE_NEXTVAL(I_AD_EventLog.Table_Name) + "," // 3 - AD_EventLog_ID
+						timestamp, // 4 - Created
+						ad_user_id, // 5 - CreatedBy
+						// + "'Y'," // 6 - IsActive
+						// + "'N'," // 7 - IsError
+						// + "'N'," // 8 - IsErrorAcknowledged
+						request.getUuid().toString(), // 9 - Event_UUID
+						Timestamp.from(request.getEventTime()), // 10 - EventTime
+						request.getEventData(), // 11 - EventData
+						request.getEventTopicName(), // 12 - EventTopicName
+						request.getEventTypeName(), // 13 - EventTypeName
+						timestamp, // 14 - Updated
+						ad_user_id // 15 - UpdatedBy
+				};
+				DB.setParameters(pstmt, params);
+				pstmt.addBatch();
+			}
+
+			pstmt.executeBatch();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
 	private EventLogId getEventLogIdUsingCacheOutOfTrx(@NonNull final UUID uuid)
 	{
 		final Collection<EventLogId> eventLogIds = getEventLogIdsUsingCacheOutOfTrx(ImmutableSet.of(uuid));
@@ -127,6 +127,11 @@ public class ProcessExecutionResult
 	private String reportFilename;
 	@JsonInclude(JsonInclude.Include.NON_EMPTY)
 	private String reportContentType;
+	/**
+	 * Report data which was not loaded into memory. If set, {@link #reportData} is <code>null</code>.
+	 */
+	@JsonIgnore
+	private transient File reportTempFile;
 
 	/**
 	 * If the process fails with an Throwable, the Throwable is caught and stored here
@@ -529,6 +534,7 @@ public class ProcessExecutionResult
 	public void setReportData(final byte[] data, final String filename, final String contentType)
 	{
 		reportData = data;
+		reportTempFile = null;
 		reportFilename = filename;
 		reportContentType = contentType;
 	}
@@ -536,6 +542,7 @@ public class ProcessExecutionResult
 	public void setReportData(@NonNull final File file)
 	{
 		reportData = Util.readBytes(file);
+		reportTempFile = null;
 		reportFilename = file.getName();
 		reportContentType = MimeType.getMimeType(reportFilename);
 	}
@@ -543,12 +550,44 @@ public class ProcessExecutionResult
 	public void setReportData(@NonNull final ReportResultData reportResult)
 	{
 		reportData = reportResult.getReportData();
+		reportTempFile = null;
 		reportFilename = reportResult.getReportFilename();
 		reportContentType = reportResult.getReportContentType();
 	}
 
+	/**
+	 * Sets the report data as a temporary file, without loading it into memory. Use this for big reports, which can be streamed to the client.
+	 * <p>
+	 * From now on, the file is owned by this result.
+	 */
+	public void setReportTempFile(@NonNull final File tempFile, final String filename, final String contentType)
+	{
+		reportData = null;
+		reportTempFile = tempFile;
+		reportFilename = filename;
+		reportContentType = contentType;
+	}
+
+	/**
+	 * @return the report temporary file or <code>null</code> if the report data is kept in memory (or there is no report data at all)
+	 */
+	@Nullable
+	public File getReportTempFile()
+	{
+		return reportTempFile;
+	}
+
+	/**
+	 * @return report data; if the report was set as temporary file, the file is loaded into memory
+	 */
+	@JsonProperty("reportData") // also serialize the report data of a temporary file, which is not serialized itself
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
 	public byte[] getReportData()
 	{
+		if (reportData == null && reportTempFile != null)
+		{
+			return Util.readBytes(reportTempFile);
+		}
 		return reportData;
 	}
 
@@ -788,6 +827,7 @@ public class ProcessExecutionResult
 		// Reporting
 		printFormat = otherResult.printFormat;
 		reportData = otherResult.reportData;
+		reportTempFile = otherResult.reportTempFile;
 		reportFilename = otherResult.reportFilename;
 		reportContentType = otherResult.reportContentType;
 
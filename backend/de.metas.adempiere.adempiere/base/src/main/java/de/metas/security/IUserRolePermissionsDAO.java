@@ -56,12 +56,24 @@ public interface IUserRolePermissionsDAO extends ISingletonService
 	 */
 	void resetCacheAfterTrxCommit();
 
+	/**
+	 * Same as {@link #resetCacheAfterTrxCommit()} but only the permissions which were built from given roles (directly or as included roles) are reset.
+	 * The reset requests of the same transaction are collected and done together.
+	 */
+	void resetCacheAfterTrxCommit(Set<RoleId> roleIds);
+
 	/**
 	 * Resets all role and permissions related caches.
 	 * It won't broadcast the event.
 	 */
 	void resetLocalCache();
 
+	/**
+	 * Resets the permissions which were built from given roles.
+	 * It won't broadcast the event.
+	 */
+	void resetLocalCache(Set<RoleId> roleIds);
+
 	/**
 	 * Retrieves user/role permissions.
 	 *
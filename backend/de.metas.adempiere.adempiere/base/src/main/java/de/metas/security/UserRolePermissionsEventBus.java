@@ -1,14 +1,24 @@
 package de.metas.security;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventBusFactory;
 import de.metas.event.Topic;
 import de.metas.event.Type;
 import de.metas.logging.LogManager;
+import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -43,6 +53,8 @@ public final class UserRolePermissionsEventBus
 
 	private static final String EVENT_PROPERTY_Type = "eventType";
 	private static final String EVENTTYPE_CacheReset = "cacheReset";
+	private static final String EVENTTYPE_CacheResetForRoles = "cacheResetForRoles";
+	private static final String EVENT_PROPERTY_RoleIds = "roleIds";
 
 	private UserRolePermissionsEventBus()
 	{
@@ -63,6 +75,12 @@ public final class UserRolePermissionsEventBus
 				logger.debug("Got cache reset event: {}", event);
 				Services.get(IUserRolePermissionsDAO.class).resetLocalCache();
 			}
+			else if (EVENTTYPE_CacheResetForRoles.equals(type))
+			{
+				logger.debug("Got cache reset for roles event: {}", event);
+				final Set<RoleId> roleIds = parseRoleIds(event.getPropertyAsString(EVENT_PROPERTY_RoleIds));
+				Services.get(IUserRolePermissionsDAO.class).resetLocalCache(roleIds);
+			}
 		});
 
 		logger.info("Subscribed to event bus: {}", eventBus);
@@ -79,6 +97,43 @@ public final class UserRolePermissionsEventBus
 		logger.debug("Post cache reset event: {} to {}", event, eventBus);
 	}
 
+	public static void fireCacheResetEvent(@NonNull final Set<RoleId> roleIds)
+	{
+		final Event event = Event.builder()
+				.putProperty(EVENT_PROPERTY_Type, EVENTTYPE_CacheResetForRoles)
+				.putProperty(EVENT_PROPERTY_RoleIds, toRoleIdsString(roleIds))
+				.build();
+		final IEventBus eventBus = getEventBus();
+		eventBus.postEvent(event);
+
+		logger.debug("Post cache reset for roles event: {} to {}", event, eventBus);
+	}
+
+	private static String toRoleIdsString(final Set<RoleId> roleIds)
+	{
+		return roleIds.stream()
+				.map(RoleId::getRepoId)
+				.sorted()
+				.map(String::valueOf)
+				.collect(Collectors.joining(","));
+	}
+
+	private static ImmutableSet<RoleId> parseRoleIds(@Nullable final String roleIdsStr)
+	{
+		if (Check.isEmpty(roleIdsStr, true))
+		{
+			return ImmutableSet.of();
+		}
+
+		return Splitter.on(",")
+				.trimResults()
+				.omitEmptyStrings()
+				.splitToList(roleIdsStr)
+				.stream()
+				.map(roleIdStr -> RoleId.ofRepoId(Integer.parseInt(roleIdStr)))
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
 	private static final IEventBus getEventBus()
 	{
 		return Services.get(IEventBusFactory.class).getEventBus(EVENTBUS_TOPIC_Permissions);
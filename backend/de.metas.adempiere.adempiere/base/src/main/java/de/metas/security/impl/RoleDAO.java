@@ -343,7 +343,7 @@ public class RoleDAO implements IRoleDAO
 		userRole.setAD_Role_ID(adRoleId.getRepoId());
 		InterfaceWrapperHelper.save(userRole);
 
-		Services.get(IUserRolePermissionsDAO.class).resetCacheAfterTrxCommit();
+		Services.get(IUserRolePermissionsDAO.class).resetCacheAfterTrxCommit(ImmutableSet.of(adRoleId));
 	}
 
 	private boolean hasUserRoleAssignment(final UserId adUserId, final RoleId adRoleId)
@@ -0,0 +1,120 @@
+package de.metas.security.impl;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_AD_Role;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+
+import de.metas.cache.CachingKeysMapper;
+import de.metas.security.IUserRolePermissions;
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Remembers for each cached {@link UserRolePermissionsKey} which roles (the key's role and all included roles) its permissions were built from.
+ * <p>
+ * Used as {@link CachingKeysMapper} for <code>AD_Role</code> records, so that when a role or one of its access records is changed,
+ * only the permissions which depend on that role are invalidated.
+ * <p>
+ * Keys are forgotten as soon as they are handed out for invalidation.
+ * If a key is invalidated by other means (e.g. LRU), it's kept here until the next invalidation, which does no harm.
+ */
+final class UserRolePermissionsCacheIndex implements CachingKeysMapper<UserRolePermissionsKey>
+{
+	// NOTE: following maps shall be accessed from synchronized blocks
+	private final SetMultimap<RoleId, UserRolePermissionsKey> keysByRoleId = HashMultimap.create();
+	private final SetMultimap<UserRolePermissionsKey, RoleId> roleIdsByKey = HashMultimap.create();
+
+	public synchronized void add(@NonNull final UserRolePermissionsKey key, @NonNull final IUserRolePermissions permissions)
+	{
+		for (final RoleId roleId : extractRoleIds(key, permissions))
+		{
+			keysByRoleId.put(roleId, key);
+			roleIdsByKey.put(key, roleId);
+		}
+	}
+
+	/**
+	 * @return the keys which depend on any of the given roles; the keys are removed from this index
+	 */
+	public synchronized ImmutableSet<UserRolePermissionsKey> removeKeysByRoleIds(@NonNull final Collection<RoleId> roleIds)
+	{
+		final ImmutableSet<UserRolePermissionsKey> keys = roleIds.stream()
+				.flatMap(roleId -> keysByRoleId.get(roleId).stream())
+				.collect(ImmutableSet.toImmutableSet());
+
+		for (final UserRolePermissionsKey key : keys)
+		{
+			for (final RoleId roleId : roleIdsByKey.removeAll(key))
+			{
+				keysByRoleId.remove(roleId, key);
+			}
+		}
+
+		return keys;
+	}
+
+	public synchronized void clear()
+	{
+		keysByRoleId.clear();
+		roleIdsByKey.clear();
+	}
+
+	public synchronized int size()
+	{
+		return roleIdsByKey.keySet().size();
+	}
+
+	@Override
+	public Collection<UserRolePermissionsKey> computeCachingKeys(@NonNull final TableRecordReference recordRef)
+	{
+		final RoleId roleId = RoleId.ofRepoIdOrNull(recordRef.getRecord_ID());
+		if (roleId == null)
+		{
+			return ImmutableSet.of();
+		}
+		return removeKeysByRoleIds(ImmutableSet.of(roleId));
+	}
+
+	@Override
+	public boolean isResetAll(@NonNull final TableRecordReference recordRef)
+	{
+		return !I_AD_Role.Table_Name.equals(recordRef.getTableName());
+	}
+
+	private static Set<RoleId> extractRoleIds(final UserRolePermissionsKey key, final IUserRolePermissions permissions)
+	{
+		return ImmutableSet.<RoleId> builder()
+				.add(key.getRoleId())
+				.addAll(permissions.getAllRoleIds())
+				.build();
+	}
+}
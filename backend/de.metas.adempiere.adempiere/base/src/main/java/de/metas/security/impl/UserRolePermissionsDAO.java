@@ -11,6 +11,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.adempiere.ad.dao.IQueryBL;
@@ -56,7 +57,6 @@ import org.slf4j.Logger;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
@@ -107,6 +107,7 @@ import de.metas.security.requests.RemoveWorkflowAccessRequest;
 import de.metas.user.UserGroupId;
 import de.metas.user.UserId;
 import de.metas.util.Services;
+import lombok.Getter;
 import lombok.NonNull;
 
 public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
@@ -135,15 +136,21 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 
 	private final AtomicLong version = new AtomicLong(1);
 
+	/** Keeps track of which roles the aggregated permissions were built from */
+	private final UserRolePermissionsCacheIndex permissionsByKeyIndex = new UserRolePermissionsCacheIndex();
+
 	/** Aggregated permissions per key */
 	private CCache<UserRolePermissionsKey, IUserRolePermissions> //
 	permissionsByKey = CCache.<UserRolePermissionsKey, IUserRolePermissions> builder()
 			.tableName(I_AD_Role.Table_Name)
+			.invalidationKeysMapper(permissionsByKeyIndex)
 			.build();
 
 	/** Individual (not-aggregated) permissions per key */
+	private final UserRolePermissionsCacheIndex individialPermissionsByKeyIndex = new UserRolePermissionsCacheIndex();
 	private CCache<UserRolePermissionsKey, UserRolePermissions> individialPermissionsByKey = CCache.<UserRolePermissionsKey, UserRolePermissions> builder()
 			.tableName(I_AD_Role.Table_Name)
+			.invalidationKeysMapper(individialPermissionsByKeyIndex)
 			.build();
 
 	@Override
@@ -171,23 +178,31 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 		else
 		{
-			final String TRXPROPERTY_ResetCache = getClass().getName() + ".ResetCache";
+			CacheResetOnTrxCommitCollector.getCreate(trx, this).resetAll();
+			logger.info("Scheduled cache reset after trx commit: {}", trx);
+		}
+	}
 
-			final Supplier<Boolean> valueInitializer = () -> {
+	@Override
+	public void resetCacheAfterTrxCommit(@NonNull final Set<RoleId> roleIds)
+	{
+		if (roleIds.isEmpty())
+		{
+			return;
+		}
 
-				trx.getTrxListenerManager()
-						.newEventListener(TrxEventTiming.AFTER_COMMIT)
-						.registerWeakly(false) // register "hard", because that's how it was before
-						.invokeMethodJustOnce(false) // invoke the handling method on *every* commit, because that's how it was and I can't check now if it's really needed
-						.registerHandlingMethod(innerTrx -> {
+		final ITrx trx = Services.get(ITrxManager.class).getTrxOrNull(ITrx.TRXNAME_ThreadInherited);
 
-							logger.info("Reseting the cache because transaction was commited: {}", innerTrx);
-							resetCache(true);
-						});
-				logger.info("Scheduled cache reset after trx commit: {}", trx);
-				return Boolean.TRUE;
-			};
-			trx.getProperty(TRXPROPERTY_ResetCache, valueInitializer);
+		// If running out of transaction, reset the cache now
+		if (trx == null)
+		{
+			logger.info("No current running transaction. Reseting the cache for roles {} now.", roleIds);
+			resetCacheForRoles(roleIds, true);
+		}
+		else
+		{
+			CacheResetOnTrxCommitCollector.getCreate(trx, this).resetRoles(roleIds);
+			logger.debug("Scheduled cache reset for roles {} after trx commit: {}", roleIds, trx);
 		}
 	}
 
@@ -198,37 +213,259 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		resetCache(broadcast);
 	}
 
-	private static final AtomicBoolean resetCacheRunning = new AtomicBoolean(false);
+	@Override
+	public void resetLocalCache(@NonNull final Set<RoleId> roleIds)
+	{
+		final boolean broadcast = false;
+		resetCacheForRoles(roleIds, broadcast);
+	}
+
+	/**
+	 * Not null while the current thread is resetting the cache. Collects the resets which are requested meanwhile by the same thread (e.g. by cache reset listeners).
+	 * They are done after the running reset instead of recursively (avoid StackOverflowError).
+	 * Resets which are requested by other threads are not affected, i.e. they are never skipped.
+	 */
+	private static final ThreadLocal<RequestedCacheResets> cacheResetsRequestedWhileResetting = new ThreadLocal<>();
 
 	private void resetCache(final boolean broadcast)
 	{
-		// If already running, do nothing (avoid StackOverflowError)
-		final boolean alreadyRunning = resetCacheRunning.getAndSet(true);
-		if (alreadyRunning)
+		final RequestedCacheResets requested = new RequestedCacheResets();
+		requested.resetAll(broadcast);
+		runCacheResets(requested);
+	}
+
+	private void resetCacheForRoles(@NonNull final Set<RoleId> roleIds, final boolean broadcast)
+	{
+		if (roleIds.isEmpty())
 		{
 			return;
 		}
 
-		try
+		final RequestedCacheResets requested = new RequestedCacheResets();
+		requested.resetRoles(roleIds, broadcast);
+		runCacheResets(requested);
+	}
+
+	private void runCacheResets(@NonNull final RequestedCacheResets requested)
+	{
+		final RequestedCacheResets requestedWhileResetting = cacheResetsRequestedWhileResetting.get();
+		if (requestedWhileResetting != null)
+		{
+			requestedWhileResetting.addAll(requested);
+			return;
+		}
+
+		final RequestedCacheResets done = new RequestedCacheResets();
+		RequestedCacheResets toDo = requested;
+		while (!toDo.isEmpty())
+		{
+			final RequestedCacheResets nextToDo = new RequestedCacheResets();
+			cacheResetsRequestedWhileResetting.set(nextToDo);
+			try
+			{
+				if (toDo.isResetAll())
+				{
+					resetCacheNow();
+				}
+				else
+				{
+					resetCacheForRolesNow(toDo.getRoleIds());
+				}
+			}
+			finally
+			{
+				cacheResetsRequestedWhileResetting.remove();
+			}
+
+			if (toDo.isBroadcast())
+			{
+				if (toDo.isResetAll())
+				{
+					UserRolePermissionsEventBus.fireCacheResetEvent();
+				}
+				else
+				{
+					UserRolePermissionsEventBus.fireCacheResetEvent(toDo.getRoleIds());
+				}
+			}
+
+			done.addAll(toDo);
+			nextToDo.removeAll(done);
+			toDo = nextToDo;
+		}
+	}
+
+	private void resetCacheNow()
+	{
+		version.incrementAndGet();
+
+		individialPermissionsByKey.reset();
+		individialPermissionsByKeyIndex.clear();
+		permissionsByKey.reset();
+		permissionsByKeyIndex.clear();
+
+		final CacheMgt cacheManager = CacheMgt.get();
+		cacheManager.resetLocal(I_AD_Role.Table_Name); // cache reset role itself
+		ROLE_DEPENDENT_TABLENAMES.forEach(cacheManager::resetLocal);
+		logger.info("Finished permissions cache reset");
+	}
+
+	/**
+	 * Invalidates only the permissions which were built from given roles (directly or as included role).
+	 * The role dependent (access records) caches are still reset entirely, because they are cheap to reload.
+	 */
+	private void resetCacheForRolesNow(@NonNull final Set<RoleId> roleIds)
+	{
+		version.incrementAndGet();
+
+		final Set<UserRolePermissionsKey> individualKeys = individialPermissionsByKeyIndex.removeKeysByRoleIds(roleIds);
+		individialPermissionsByKey.removeAll(individualKeys);
+
+		final Set<UserRolePermissionsKey> keys = permissionsByKeyIndex.removeKeysByRoleIds(roleIds);
+		permissionsByKey.removeAll(keys);
+
+		final CacheMgt cacheManager = CacheMgt.get();
+		ROLE_DEPENDENT_TABLENAMES.forEach(cacheManager::resetLocal);
+		logger.info("Finished permissions cache reset for roles {}: {} permissions and {} individual permissions invalidated", roleIds, keys.size(), individualKeys.size());
+	}
+
+	/**
+	 * Cache resets which were requested by one thread. A full reset wins over role resets.
+	 */
+	private static final class RequestedCacheResets
+	{
+		@Getter
+		private boolean resetAll = false;
+		private final HashSet<RoleId> roleIds = new HashSet<>();
+		@Getter
+		private boolean broadcast = false;
+
+		public void resetAll(final boolean broadcast)
+		{
+			this.resetAll = true;
+			this.roleIds.clear();
+			this.broadcast = this.broadcast || broadcast;
+		}
+
+		public void resetRoles(@NonNull final Set<RoleId> roleIds, final boolean broadcast)
+		{
+			if (!resetAll)
+			{
+				this.roleIds.addAll(roleIds);
+			}
+			this.broadcast = this.broadcast || broadcast;
+		}
+
+		public void addAll(@NonNull final RequestedCacheResets other)
+		{
+			if (other.resetAll)
+			{
+				resetAll(other.broadcast);
+			}
+			else if (!other.roleIds.isEmpty())
+			{
+				resetRoles(other.roleIds, other.broadcast);
+			}
+		}
+
+		/** Forgets the resets which are covered by given (already done) resets */
+		public void removeAll(@NonNull final RequestedCacheResets done)
+		{
+			if (done.resetAll)
+			{
+				resetAll = false;
+				roleIds.clear();
+			}
+			else
+			{
+				roleIds.removeAll(done.roleIds);
+			}
+		}
+
+		public boolean isEmpty()
+		{
+			return !resetAll && roleIds.isEmpty();
+		}
+
+		public ImmutableSet<RoleId> getRoleIds()
+		{
+			return ImmutableSet.copyOf(roleIds);
+		}
+	}
+
+	/**
+	 * Collects the permissions cache resets which shall be done after the transaction is committed.
+	 * If any full reset was requested, the full reset wins.
+	 */
+	private static final class CacheResetOnTrxCommitCollector
+	{
+		public static CacheResetOnTrxCommitCollector getCreate(@NonNull final ITrx trx, @NonNull final UserRolePermissionsDAO dao)
 		{
-			version.incrementAndGet();
+			return trx.getProperty(TRX_PROPERTY, () -> {
+
+				final CacheResetOnTrxCommitCollector collector = new CacheResetOnTrxCommitCollector();
+
+				trx.getTrxListenerManager()
+						.newEventListener(TrxEventTiming.AFTER_COMMIT)
+						.registerWeakly(false) // register "hard", because that's how it was before
+						.invokeMethodJustOnce(false) // invoke the handling method on *every* commit, because the same trx might be committed more than once
+						.registerHandlingMethod(innerTrx -> {
 
-			individialPermissionsByKey.reset();
-			permissionsByKey.reset();
+							final CacheResetOnTrxCommitCollector innerCollector = innerTrx.getProperty(TRX_PROPERTY);
+							if (innerCollector == null)
+							{
+								return;
+							}
+							innerCollector.resetAndClear(dao);
+						});
 
-			final CacheMgt cacheManager = CacheMgt.get();
-			cacheManager.resetLocal(I_AD_Role.Table_Name); // cache reset role itself
-			ROLE_DEPENDENT_TABLENAMES.forEach(cacheManager::resetLocal);
-			logger.info("Finished permissions cache reset");
+				return collector;
+			});
 		}
-		finally
+
+		private static final String TRX_PROPERTY = CacheResetOnTrxCommitCollector.class.getName();
+
+		private boolean resetAll = false;
+		private final HashSet<RoleId> roleIds = new HashSet<>();
+
+		public synchronized void resetAll()
 		{
-			resetCacheRunning.compareAndSet(true, false);
+			resetAll = true;
+			roleIds.clear();
+		}
+
+		public synchronized void resetRoles(@NonNull final Set<RoleId> roleIds)
+		{
+			if (resetAll)
+			{
+				return;
+			}
+			this.roleIds.addAll(roleIds);
 		}
 
-		if (broadcast)
+		private void resetAndClear(final UserRolePermissionsDAO dao)
 		{
-			UserRolePermissionsEventBus.fireCacheResetEvent();
+			final boolean resetAll;
+			final ImmutableSet<RoleId> roleIds;
+			synchronized (this)
+			{
+				resetAll = this.resetAll;
+				roleIds = ImmutableSet.copyOf(this.roleIds);
+
+				this.resetAll = false;
+				this.roleIds.clear();
+			}
+
+			if (resetAll)
+			{
+				logger.info("Reseting the cache because transaction was commited");
+				dao.resetCache(true);
+			}
+			else if (!roleIds.isEmpty())
+			{
+				logger.info("Reseting the cache for roles {} because transaction was commited", roleIds);
+				dao.resetCacheForRoles(roleIds, true);
+			}
 		}
 	}
 
@@ -312,7 +549,40 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 	@Override
 	public IUserRolePermissions getUserRolePermissions(@NonNull final UserRolePermissionsKey key)
 	{
-		return permissionsByKey.getOrLoad(key, this::retrieveUserRolePermissions);
+		return getOrLoadIfNotStale(permissionsByKey, key, this::retrieveAndIndexUserRolePermissions);
+	}
+
+	/**
+	 * Gets the value from given cache or loads it.
+	 * If the cache was reset while the value was loaded, the value is returned but removed from cache again,
+	 * because it might have been built from data which was invalidated meanwhile.
+	 */
+	private <T> T getOrLoadIfNotStale(
+			@NonNull final CCache<UserRolePermissionsKey, T> cache,
+			@NonNull final UserRolePermissionsKey key,
+			@NonNull final Function<UserRolePermissionsKey, T> loader)
+	{
+		final long versionBeforeLoad = version.get();
+		final AtomicBoolean loaded = new AtomicBoolean(false);
+		final T value = cache.getOrLoad(key, keyToLoad -> {
+			loaded.set(true);
+			return loader.apply(keyToLoad);
+		});
+
+		if (loaded.get() && version.get() != versionBeforeLoad)
+		{
+			logger.debug("Permissions cache was reset while loading {}. Not caching it.", key);
+			cache.remove(key);
+		}
+
+		return value;
+	}
+
+	private IUserRolePermissions retrieveAndIndexUserRolePermissions(@NonNull final UserRolePermissionsKey key)
+	{
+		final IUserRolePermissions permissions = retrieveUserRolePermissions(key);
+		permissionsByKeyIndex.add(key, permissions);
+		return permissions;
 	}
 
 	private IUserRolePermissions retrieveUserRolePermissions(@NonNull final UserRolePermissionsKey key)
@@ -365,11 +635,15 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 	final UserRolePermissions getIndividialUserRolePermissions(final RoleId adRoleId, final UserId adUserId, final ClientId adClientId)
 	{
 		final UserRolePermissionsKey key = UserRolePermissionsKey.of(adRoleId, adUserId, adClientId, LocalDate.MIN);
-		return individialPermissionsByKey.getOrLoad(key, () -> new UserRolePermissionsBuilder(this)
-				.setRoleId(adRoleId)
-				.setUserId(adUserId)
-				.setClientId(adClientId)
-				.build());
+		return getOrLoadIfNotStale(individialPermissionsByKey, key, keyToLoad -> {
+			final UserRolePermissions permissions = new UserRolePermissionsBuilder(this)
+					.setRoleId(adRoleId)
+					.setUserId(adUserId)
+					.setClientId(adClientId)
+					.build();
+			individialPermissionsByKeyIndex.add(key, permissions);
+			return permissions;
+		});
 	}
 
 	public OrgPermissions retrieveOrgPermissions(final Role role, final UserId adUserId)
@@ -766,7 +1040,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		);
 
 		// Schedule cache reset
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -787,7 +1061,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		// Schedule cache reset
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -895,7 +1169,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		//
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -963,7 +1237,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		//
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -1033,7 +1307,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		//
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -1103,7 +1377,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		//
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -1173,7 +1447,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		//
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
@@ -1247,7 +1521,7 @@ public class UserRolePermissionsDAO implements IUserRolePermissionsDAO
 		}
 
 		//
-		resetCacheAfterTrxCommit();
+		resetCacheAfterTrxCommit(ImmutableSet.of(roleId));
 	}
 
 	@Override
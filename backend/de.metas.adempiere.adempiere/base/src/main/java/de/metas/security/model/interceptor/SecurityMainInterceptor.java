@@ -27,6 +27,7 @@ import org.adempiere.ad.modelvalidator.AbstractModelInterceptor;
 import org.adempiere.ad.modelvalidator.AbstractModuleInterceptor;
 import org.adempiere.ad.modelvalidator.IModelValidationEngine;
 import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Client;
 import org.compiere.model.I_AD_Role;
 import org.slf4j.Logger;
@@ -39,6 +40,7 @@ import de.metas.process.IADProcessDAO;
 import de.metas.process.JavaProcess;
 import de.metas.process.RelatedProcessDescriptor;
 import de.metas.security.IUserRolePermissionsDAO;
+import de.metas.security.RoleId;
 import de.metas.security.UserRolePermissionsEventBus;
 import de.metas.security.process.RecordPrivateAccess_Add;
 import de.metas.security.process.RecordPrivateAccess_Remove;
@@ -136,8 +138,57 @@ public class SecurityMainInterceptor extends AbstractModuleInterceptor
 				return;
 			}
 
-			logger.debug("Scheduling permissions cache reset (trigger={}, changeType={})", model, changeType);
-			Services.get(IUserRolePermissionsDAO.class).resetCacheAfterTrxCommit();
+			final IUserRolePermissionsDAO userRolePermissionsDAO = Services.get(IUserRolePermissionsDAO.class);
+			final ImmutableSet<RoleId> roleIds = extractRoleIds(model, changeType);
+			if (!roleIds.isEmpty())
+			{
+				logger.debug("Scheduling permissions cache reset for {} (trigger={}, changeType={})", roleIds, model, changeType);
+				userRolePermissionsDAO.resetCacheAfterTrxCommit(roleIds);
+			}
+			else
+			{
+				logger.debug("Scheduling permissions cache reset (trigger={}, changeType={})", model, changeType);
+				userRolePermissionsDAO.resetCacheAfterTrxCommit();
+			}
+		}
+
+		/**
+		 * @return the roles which are affected by given model, i.e. the current role and, if it was changed, also the old one;
+		 *         empty if the model is not role dependent (e.g. AD_User_OrgAccess)
+		 */
+		private static ImmutableSet<RoleId> extractRoleIds(final Object model, final ModelChangeType changeType)
+		{
+			if (!InterfaceWrapperHelper.hasModelColumnName(model, I_AD_Role.COLUMNNAME_AD_Role_ID))
+			{
+				return ImmutableSet.of();
+			}
+
+			final ImmutableSet.Builder<RoleId> roleIds = ImmutableSet.builder();
+
+			final RoleId roleId = RoleId.ofRepoIdOrNull(InterfaceWrapperHelper.create(model, RoleDependentRecord.class).getAD_Role_ID());
+			if (roleId != null)
+			{
+				roleIds.add(roleId);
+			}
+
+			if (changeType.isChange() && InterfaceWrapperHelper.isValueChanged(model, I_AD_Role.COLUMNNAME_AD_Role_ID))
+			{
+				final RoleId roleIdOld = RoleId.ofRepoIdOrNull(InterfaceWrapperHelper.createOld(model, RoleDependentRecord.class).getAD_Role_ID());
+				if (roleIdOld != null)
+				{
+					roleIds.add(roleIdOld);
+				}
+			}
+
+			return roleIds.build();
 		}
 	}
+
+	/**
+	 * Any record which has an <code>AD_Role_ID</code> column, e.g. the access records.
+	 */
+	public interface RoleDependentRecord
+	{
+		int getAD_Role_ID();
+	}
 }
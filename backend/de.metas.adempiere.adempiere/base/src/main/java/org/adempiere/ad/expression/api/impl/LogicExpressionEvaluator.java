@@ -4,6 +4,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
 import de.metas.logging.LogManager;
+import lombok.NonNull;
 import org.adempiere.ad.expression.api.ConstantLogicExpression;
 import org.adempiere.ad.expression.api.ILogicExpression;
 import org.adempiere.ad.expression.api.ILogicExpressionEvaluator;
@@ -231,22 +232,25 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 			{
 				final LogicTuple tuple = (LogicTuple)expr;
 
-				final String firstEval = ctx.getValue(tuple.getOperand1());
-				//noinspection StringEquality // we're using string == string instead of string.equals(string)
-				if (firstEval == VALUE_NotFound)
+				final LogicTupleOperand firstEval = ctx.getOperandValue(tuple.getOperand1(), tuple.getConstantOperand1());
+				if (firstEval == null)
 				{
 					logger.trace("tuple {} => null because first operand could not be evaluated", expr);
 					return null;
 				}
-				final String secondEval = ctx.getValue(tuple.getOperand2());
-				//noinspection StringEquality // we're using string == string instead of string.equals(string)
-				if (secondEval == VALUE_NotFound)
+				final LogicTupleOperand secondEval = ctx.getOperandValue(tuple.getOperand2(), tuple.getConstantOperand2());
+				if (secondEval == null)
 				{
 					logger.trace("tuple {} => null because second operand could not be evaluated", expr);
 					return null;
 				}
 
-				final String operator = tuple.getOperator();
+				final LogicTupleOperator operator = tuple.getOperatorResolved();
+				if (operator == null)
+				{
+					// shall not happen because expression was already compiled
+					throw new ExpressionEvaluationException("Unknown operator '" + tuple.getOperator() + "' while evaluating '" + expr + "'");
+				}
 				final boolean result = evaluateLogicTuple(firstEval, operator, secondEval);
 				logger.trace("tuple {} => \"{}\" {} \"{}\" => {}", expr, firstEval, operator, secondEval, result);
 
@@ -322,49 +326,45 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 			return false;
 		}
 
-		boolean stringCaseAlreadyChecked = false;
-		final String value1Str = stripQuotes(valueObj1);
-		final String value2Str = stripQuotes(valueObj2);
+		return evaluateLogicTuple(LogicTupleOperand.of(valueObj1), LogicTupleOperator.ofCode(operand), LogicTupleOperand.of(valueObj2));
+	}
+
+	/**
+	 * Evaluate Logic Tuple using already parsed operands.
+	 * <p>
+	 * If both values are numbers, they are compared as numbers, else as strings.
+	 * For equals, the string comparison is tried first (short circuit).
+	 */
+	static boolean evaluateLogicTuple(@NonNull final LogicTupleOperand value1, @NonNull final LogicTupleOperator operator, @NonNull final LogicTupleOperand value2)
+	{
+		final String value1Str = value1.getValueAsString();
+		final String value2Str = value2.getValueAsString();
 
 		//
 		// Try comparing as Strings first for Equals case (short circuit)
-		if (LogicTuple.OPERATOR_Equals.equals(operand))
+		final boolean isEquals = operator == LogicTupleOperator.EQUALS;
+		if (isEquals && value1Str.equals(value2Str))
 		{
-			if (evaluateLogicTupleForComparables(value1Str, operand, value2Str))
-			{
-				return true;
-			}
-			stringCaseAlreadyChecked = true;
+			return true;
 		}
 
 		//
-		// Try comparing BigDecimals
+		// Compare BigDecimals
 		// If both values are numbers there's no need to retry string comparison
-		try
+		final BigDecimal value1BD = value1.getValueAsBigDecimalOrNull();
+		final BigDecimal value2BD = value2.getValueAsBigDecimalOrNull();
+		if (value1BD != null && value2BD != null)
 		{
-			if (isPossibleNumber(value1Str)
-					&& isPossibleNumber(value2Str))
-			{
-				final BigDecimal value1BD = new BigDecimal(value1Str);
-				final BigDecimal value2BD = new BigDecimal(value2Str);
-				return evaluateLogicTupleForComparables(value1BD, operand, value2BD);
-			}
-		}
-		catch (final Exception ex)
-		{
-			logger.trace("Failed extracting BigDecimals but going forward (value1Str={}, value2Str={})", value1Str, value2Str, ex);
+			return operator.matches(value1BD.compareTo(value2BD));
 		}
 
 		//
-		// Try comparing as Strings first because it's faster then trying to convert to BigDecimal
-		if (!stringCaseAlreadyChecked)
+		// Compare Strings (if not already checked)
+		if (isEquals)
 		{
-			return evaluateLogicTupleForComparables(value1Str, operand, value2Str);
+			return false;
 		}
-
-		//
-		// Not matched
-		return false;
+		return operator.matches(value1Str.compareTo(value2Str));
 	}
 
 	@VisibleForTesting
@@ -395,37 +395,6 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 		return true;
 	}
 
-	@SuppressWarnings("IfCanBeSwitch")
-	private static <T> boolean evaluateLogicTupleForComparables(@Nullable final Comparable<T> value1, final String operand, @Nullable final T value2)
-	{
-		if (value1 == null || operand == null || value2 == null)
-		{
-			return false;
-		}
-
-		if (operand.equals(LogicTuple.OPERATOR_Equals))
-		{
-			return value1.compareTo(value2) == 0;
-		}
-		else if (operand.equals(LogicTuple.OPERATOR_LessThan))
-		{
-			return value1.compareTo(value2) < 0;
-		}
-		else if (operand.equals(LogicTuple.OPERATOR_GreaterThan))
-		{
-			return value1.compareTo(value2) > 0;
-		}
-		else if (operand.equals(LogicTuple.OPERATOR_NotEquals))
-		{
-			return value1.compareTo(value2) != 0;
-		}
-		else
-		{
-			// shall not happen because expression was already compiled
-			throw new ExpressionEvaluationException("Unknown operator '" + operand + "' while evaluating '" + value1 + " " + operand + " " + value2 + "'");
-		}
-	}
-
 	/**
 	 * Strips quotes (" or ') from given string
 	 *
@@ -607,6 +576,29 @@ public class LogicExpressionEvaluator implements ILogicExpressionEvaluator
 			}
 		}
 
+		/**
+		 * Gets tuple operand value. For constant operands the pre-parsed value is returned right away.
+		 *
+		 * @param constantOperand pre-parsed operand value or null if the operand is a parameter
+		 * @return value or null if the value was not found in context
+		 */
+		@Nullable
+		public LogicTupleOperand getOperandValue(final Object operand, @Nullable final LogicTupleOperand constantOperand) throws ExpressionEvaluationException
+		{
+			if (constantOperand != null)
+			{
+				return constantOperand;
+			}
+
+			final String value = getValue(operand);
+			//noinspection StringEquality // we're using string == string instead of string.equals(string)
+			if (value == VALUE_NotFound)
+			{
+				return null;
+			}
+			return LogicTupleOperand.of(value);
+		}
+
 		private String resolveCtxName(final CtxName ctxName)
 		{
 			final String value = ctxName.getValueAsString(params);
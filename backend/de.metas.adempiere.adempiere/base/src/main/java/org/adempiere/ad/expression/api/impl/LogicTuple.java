@@ -68,6 +68,11 @@ import javax.annotation.Nullable;
 
 	private final String operator;
 
+	/** pre-parsed operator and constant operands; null if unknown operator respectively if operand is a parameter */
+	private final LogicTupleOperator operatorResolved;
+	private final LogicTupleOperand constantOperand1;
+	private final LogicTupleOperand constantOperand2;
+
 	private final Boolean constantValue;
 
 	private ImmutableSet<CtxName> _parameters; // lazy
@@ -91,6 +96,10 @@ import javax.annotation.Nullable;
 		this.operand2 = operand2;
 		this.isParameter2 = operand2 instanceof CtxName;
 
+		this.operatorResolved = LogicTupleOperator.ofNullableCode(operator);
+		this.constantOperand1 = isParameter1 ? null : toConstantOperand(operand1);
+		this.constantOperand2 = isParameter2 ? null : toConstantOperand(operand2);
+
 		this.constantValue = constantValue;
 
 		expressionStr = (operand1 instanceof CtxName ? ((CtxName)operand1).toStringWithMarkers() : operand1.toString())
@@ -108,10 +117,20 @@ import javax.annotation.Nullable;
 		operand2 = from.operand2;
 		isParameter2 = from.isParameter2;
 		operator = from.operator;
+		operatorResolved = from.operatorResolved;
+		constantOperand1 = from.constantOperand1;
+		constantOperand2 = from.constantOperand2;
 
 		this.constantValue = constantValue;
 	}
 
+	private static LogicTupleOperand toConstantOperand(final Object operand)
+	{
+		// NOTE: same as the evaluator would do: we can trim whitespaces; if user really wants to have spaces at the beginning/ending of the string, he/she shall quote it
+		final String valueStr = LogicExpressionEvaluator.stripQuotes(operand.toString().trim());
+		return LogicTupleOperand.of(valueStr);
+	}
+
 	@Override
 	public int hashCode()
 	{
@@ -242,6 +261,33 @@ import javax.annotation.Nullable;
 		return operator;
 	}
 
+	/**
+	 * @return operator or null if the operator is not known
+	 */
+	@Nullable
+	/* package */ LogicTupleOperator getOperatorResolved()
+	{
+		return operatorResolved;
+	}
+
+	/**
+	 * @return pre-parsed first operand or null if the operand is a parameter
+	 */
+	@Nullable
+	/* package */ LogicTupleOperand getConstantOperand1()
+	{
+		return constantOperand1;
+	}
+
+	/**
+	 * @return pre-parsed second operand or null if the operand is a parameter
+	 */
+	@Nullable
+	/* package */ LogicTupleOperand getConstantOperand2()
+	{
+		return constantOperand2;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,91 @@
+package org.adempiere.ad.expression.api.impl;
+
+import java.math.BigDecimal;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A {@link LogicTuple} operand value, ready to be compared: quotes are stripped and, if the value looks like a number, it's also parsed to {@link BigDecimal}.
+ * <p>
+ * For constant operands, this is done once when the tuple is created, so the evaluation does not have to parse them again and again.
+ */
+/* package */ final class LogicTupleOperand
+{
+	public static LogicTupleOperand of(@NonNull final String valueStr)
+	{
+		final String valueStrNorm = LogicExpressionEvaluator.stripQuotes(valueStr);
+		return new LogicTupleOperand(valueStrNorm, parseBigDecimalOrNull(valueStrNorm));
+	}
+
+	private final String valueStr;
+	private final BigDecimal valueBD;
+
+	private LogicTupleOperand(@NonNull final String valueStr, @Nullable final BigDecimal valueBD)
+	{
+		this.valueStr = valueStr;
+		this.valueBD = valueBD;
+	}
+
+	@Override
+	public String toString()
+	{
+		return valueStr;
+	}
+
+	public String getValueAsString()
+	{
+		return valueStr;
+	}
+
+	/**
+	 * @return value as number or null if the value is not a number
+	 */
+	@Nullable
+	public BigDecimal getValueAsBigDecimalOrNull()
+	{
+		return valueBD;
+	}
+
+	@Nullable
+	private static BigDecimal parseBigDecimalOrNull(final String valueStr)
+	{
+		if (!LogicExpressionEvaluator.isPossibleNumber(valueStr))
+		{
+			return null;
+		}
+
+		try
+		{
+			return new BigDecimal(valueStr);
+		}
+		catch (final NumberFormatException ex)
+		{
+			// e.g. "1-2"
+			return null;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package org.adempiere.ad.expression.api.impl;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.expression.exceptions.ExpressionEvaluationException;
+
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link LogicTuple} comparison operator, resolved once when the tuple is compiled.
+ */
+/* package */ enum LogicTupleOperator
+{
+	EQUALS(LogicTuple.OPERATOR_Equals), //
+	NOT_EQUALS(LogicTuple.OPERATOR_NotEquals), //
+	LESS_THAN(LogicTuple.OPERATOR_LessThan), //
+	GREATER_THAN(LogicTuple.OPERATOR_GreaterThan) //
+	;
+
+	@Getter
+	private final String code;
+
+	LogicTupleOperator(@NonNull final String code)
+	{
+		this.code = code;
+	}
+
+	private static final Map<String, LogicTupleOperator> operatorsByCode = ImmutableMap.<String, LogicTupleOperator> builder()
+			.put(EQUALS.getCode(), EQUALS)
+			.put(NOT_EQUALS.getCode(), NOT_EQUALS)
+			.put(LESS_THAN.getCode(), LESS_THAN)
+			.put(GREATER_THAN.getCode(), GREATER_THAN)
+			.build();
+
+	@Nullable
+	public static LogicTupleOperator ofNullableCode(@Nullable final String code)
+	{
+		return code != null ? operatorsByCode.get(code) : null;
+	}
+
+	public static LogicTupleOperator ofCode(@NonNull final String code)
+	{
+		final LogicTupleOperator operator = ofNullableCode(code);
+		if (operator == null)
+		{
+			throw new ExpressionEvaluationException("Unknown operator '" + code + "'");
+		}
+		return operator;
+	}
+
+	/**
+	 * @param compareResult result of <code>value1.compareTo(value2)</code>
+	 * @return true if <code>value1 operator value2</code>
+	 */
+	public boolean matches(final int compareResult)
+	{
+		switch (this)
+		{
+			case EQUALS:
+				return compareResult == 0;
+			case NOT_EQUALS:
+				return compareResult != 0;
+			case LESS_THAN:
+				return compareResult < 0;
+			case GREATER_THAN:
+				return compareResult > 0;
+			default:
+				throw new ExpressionEvaluationException("Unknown operator: " + this);
+		}
+	}
+}
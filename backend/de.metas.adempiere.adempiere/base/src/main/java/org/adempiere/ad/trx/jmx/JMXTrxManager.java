@@ -31,6 +31,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.jmx.IJMXNameAware;
+import org.compiere.util.DB;
 
 import de.metas.util.Check;
 
@@ -184,4 +185,18 @@ public class JMXTrxManager implements JMXTrxManagerMBean, IJMXNameAware
 		return getTrxManager().isDebugConnectionBackendId();
 	}
 
+	@Override
+	public String[] getStatementReuseStats()
+	{
+		return DB.getStatementReuseStats()
+				.stream()
+				.map(stat -> "prepared=" + stat.getPrepareCount() + ", reused=" + stat.getReuseCount() + ": " + stat.getSql())
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public void resetStatementReuseStats()
+	{
+		DB.resetStatementReuseStats();
+	}
 }
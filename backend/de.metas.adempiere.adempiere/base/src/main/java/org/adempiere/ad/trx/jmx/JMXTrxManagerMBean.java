@@ -48,4 +48,11 @@ public interface JMXTrxManagerMBean
 
 	boolean isDebugConnectionBackendId();
 
+	/**
+	 * @return per SQL prepared/reused statement counters, most reused first
+	 */
+	String[] getStatementReuseStats();
+
+	void resetStatementReuseStats();
+
 }
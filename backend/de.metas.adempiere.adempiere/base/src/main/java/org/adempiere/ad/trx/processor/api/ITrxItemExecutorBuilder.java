@@ -25,7 +25,10 @@ package org.adempiere.ad.trx.processor.api;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.adempiere.ad.trx.api.ITrxSavepoint;
 import org.adempiere.ad.trx.processor.spi.ITrxItemProcessor;
@@ -123,7 +126,8 @@ public interface ITrxItemExecutorBuilder<IT, RT>
 	{
 		Preconditions.checkNotNull(processor, "processor is null");
 
-		setProcessor(new TrxItemProcessorAdapter<IT, RT>()
+		// the adapter is stateful, so we need a new one for each lane when processing in parallel
+		setProcessorFactory(() -> new TrxItemProcessorAdapter<IT, RT>()
 		{
 			@Override
 			public void process(IT item) throws Exception
@@ -134,6 +138,36 @@ public interface ITrxItemExecutorBuilder<IT, RT>
 		return this;
 	}
 
+	/**
+	 * Configures a factory which creates a new processor each time it's called.
+	 * Use it instead of {@link #setProcessor(ITrxItemProcessor)} if you want to process in parallel (see {@link #setParallelism(int)}), because each lane needs its own processor.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setProcessorFactory(Supplier<? extends ITrxItemProcessor<IT, RT>> processorFactory);
+
+	/**
+	 * Sets in how many threads the items shall be processed. Default is one, i.e. all items are processed in the caller's thread.
+	 * <p>
+	 * If greater than one, the items are distributed by their partition key (see {@link #setPartitionKey(Function)}),
+	 * and each chunk is still processed and committed in its own transaction.
+	 * Items are processed in parallel only if there is no parent transaction (see {@link #setContext(Properties, String)}).
+	 * Also see {@link #setProcessorFactory(Supplier)} and {@link #setResultsCombiner(BinaryOperator)}.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setParallelism(int parallelism);
+
+	/**
+	 * Sets the function which tells which items depend on each other. Required if processing in parallel.
+	 * <p>
+	 * Items with the same partition key are processed in the same thread, in the order in which they were provided.
+	 * Note that a chunk (see {@link ITrxItemProcessor}) can only contain items with the same partition key.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setPartitionKey(Function<? super IT, ?> partitionKeyFunction);
+
+	/**
+	 * Sets how the results of the processors shall be combined when processing in parallel.
+	 * If not set, at most one processor may return a not-null result.
+	 */
+	ITrxItemExecutorBuilder<IT, RT> setResultsCombiner(BinaryOperator<RT> resultsCombiner);
+
 	/**
 	 * Sets exception handler to be used if processing fails.
 	 *
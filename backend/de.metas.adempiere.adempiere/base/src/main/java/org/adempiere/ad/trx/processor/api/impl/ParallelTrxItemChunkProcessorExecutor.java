@@ -0,0 +1,421 @@
+package org.adempiere.ad.trx.processor.api.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.processor.api.ITrxItemExceptionHandler;
+import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder.OnItemErrorPolicy;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorContext;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutor;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
+import org.adempiere.ad.trx.processor.api.TrxItemProcessorConfigException;
+import org.adempiere.ad.trx.processor.spi.ITrxItemChunkProcessor;
+import org.adempiere.ad.trx.processor.spi.ITrxItemProcessor;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
+import de.metas.util.Services;
+import de.metas.util.collections.IteratorUtils;
+import lombok.NonNull;
+
+/**
+ * Executor which distributes the items to {@link #parallelism} lanes, by their partition key.
+ * <p>
+ * Each lane is processed by a {@link TrxItemChunkProcessorExecutor} in its own thread, with its own processor (see {@link #processorFactory}),
+ * so each chunk is processed and committed in its own transaction, like in the single threaded case.
+ * All items with the same partition key end up in the same lane, in the order in which they were provided.
+ * <p>
+ * If a lane fails, no more items are dispatched; the other lanes complete their current chunk and stop.
+ * The given exception handler is called from all lanes, so it shall be thread-safe.
+ *
+ * @param <IT>
+ * @param <RT>
+ */
+class ParallelTrxItemChunkProcessorExecutor<IT, RT> implements ITrxItemProcessorExecutor<IT, RT>
+{
+	// services
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final ITrxItemProcessorExecutorService trxItemProcessorExecutorService = Services.get(ITrxItemProcessorExecutorService.class);
+
+	private static final transient Logger logger = LogManager.getLogger(ParallelTrxItemChunkProcessorExecutor.class);
+
+	private static final int LANE_QUEUE_CAPACITY = 1000;
+	private static final long LANE_QUEUE_POLL_MILLIS = 100;
+
+	//
+	// Configuration parameters
+	private final ITrxItemProcessorContext processorCtx;
+	private final Supplier<ITrxItemChunkProcessor<IT, RT>> processorFactory;
+	private final Function<? super IT, ?> partitionKeyFunction;
+	private final int parallelism;
+	@Nullable
+	private final BinaryOperator<RT> resultsCombiner;
+
+	private final OnItemErrorPolicy onItemErrorPolicy;
+
+	private ITrxItemExceptionHandler exceptionHandler; // non-final for historical reasons
+
+	private boolean useTrxSavepoints; // non-final for historical reasons
+
+	ParallelTrxItemChunkProcessorExecutor(
+			@NonNull final ITrxItemProcessorContext processorCtx,
+			@NonNull final Supplier<ITrxItemChunkProcessor<IT, RT>> processorFactory,
+			@NonNull final Function<? super IT, ?> partitionKeyFunction,
+			final int parallelism,
+			@Nullable final BinaryOperator<RT> resultsCombiner,
+			@NonNull final ITrxItemExceptionHandler exceptionHandler,
+			@NonNull final OnItemErrorPolicy onItemErrorPolicy,
+			final boolean useTrxSavePoints)
+	{
+		if (parallelism <= 1)
+		{
+			throw new TrxItemProcessorConfigException("parallelism shall be greater than one but it was " + parallelism);
+		}
+
+		this.processorCtx = processorCtx;
+		this.processorFactory = processorFactory;
+		this.partitionKeyFunction = partitionKeyFunction;
+		this.parallelism = parallelism;
+		this.resultsCombiner = resultsCombiner;
+
+		this.exceptionHandler = exceptionHandler;
+		this.onItemErrorPolicy = onItemErrorPolicy;
+		this.useTrxSavepoints = useTrxSavePoints;
+	}
+
+	@Override
+	public ITrxItemProcessorExecutor<IT, RT> setExceptionHandler(@NonNull final ITrxItemExceptionHandler exceptionHandler)
+	{
+		this.exceptionHandler = exceptionHandler;
+		return this;
+	}
+
+	@Override
+	public ITrxItemProcessorExecutor<IT, RT> setUseTrxSavepoints(final boolean useTrxSavepoints)
+	{
+		this.useTrxSavepoints = useTrxSavepoints;
+		return this;
+	}
+
+	/**
+	 * @throws UnsupportedOperationException always, because each lane has its own processor
+	 */
+	@Override
+	public ITrxItemProcessor<IT, RT> getProcessor()
+	{
+		throw new UnsupportedOperationException("Each lane of " + this + " has its own processor");
+	}
+
+	@Override
+	public RT execute(@NonNull final Iterator<? extends IT> items)
+	{
+		//
+		// The chunks of all lanes could only share the parent transaction if they were processed one after the other.
+		if (!trxManager.isNull(processorCtx.getTrx()))
+		{
+			logger.debug("Processing items in current thread because there is a parent transaction: {}", processorCtx.getTrx());
+			return newLaneExecutor(processorCtx).execute(items);
+		}
+
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		final List<Lane> lanes = new ArrayList<>(parallelism);
+		for (int i = 0; i < parallelism; i++)
+		{
+			lanes.add(new Lane(i, failed));
+		}
+
+		final ILoggable loggable = Loggables.get();
+		final ExecutorService executor = Executors.newFixedThreadPool(parallelism, CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(ParallelTrxItemChunkProcessorExecutor.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+		try
+		{
+			final List<CompletableFuture<RT>> futures = new ArrayList<>(parallelism);
+			for (final Lane lane : lanes)
+			{
+				// each lane gets its own context, because the processors might change it
+				final Properties laneCtx = Env.copyCtx(processorCtx.getCtx());
+				final ITrxItemProcessorContext laneProcessorCtx = trxItemProcessorExecutorService.createProcessorContext(laneCtx, processorCtx.getTrx(), processorCtx.getParams());
+
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					try (final IAutoCloseable ctxRestorer = Env.switchContext(laneCtx);
+							final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable))
+					{
+						return newLaneExecutor(laneProcessorCtx).execute(lane.iterator());
+					}
+					catch (final RuntimeException e)
+					{
+						failed.set(true);
+						throw e;
+					}
+				}, executor));
+			}
+
+			try
+			{
+				dispatch(items, lanes, failed);
+			}
+			catch (final RuntimeException e)
+			{
+				// let the lanes complete their current chunk, then propagate the error
+				failed.set(true);
+				awaitQuietly(futures);
+				throw e;
+			}
+			finally
+			{
+				lanes.forEach(Lane::markAllItemsDispatched);
+			}
+
+			return combineResults(futures);
+		}
+		finally
+		{
+			IteratorUtils.closeQuietly(items);
+			executor.shutdownNow();
+		}
+	}
+
+	private TrxItemChunkProcessorExecutor<IT, RT> newLaneExecutor(@NonNull final ITrxItemProcessorContext laneProcessorCtx)
+	{
+		return new TrxItemChunkProcessorExecutor<>(
+				laneProcessorCtx,
+				processorFactory.get(),
+				exceptionHandler,
+				onItemErrorPolicy,
+				useTrxSavepoints);
+	}
+
+	private void dispatch(final Iterator<? extends IT> items, final List<Lane> lanes, final AtomicBoolean failed)
+	{
+		while (items.hasNext())
+		{
+			final IT item = items.next();
+			final Object partitionKey = partitionKeyFunction.apply(item);
+			final Lane lane = lanes.get(Math.floorMod(Objects.hashCode(partitionKey), parallelism));
+			if (!lane.add(item))
+			{
+				logger.debug("Stop dispatching items because processing failed");
+				return;
+			}
+		}
+	}
+
+	private RT combineResults(final List<CompletableFuture<RT>> futures)
+	{
+		final List<RT> results = new ArrayList<>(futures.size());
+		try
+		{
+			for (final CompletableFuture<RT> future : futures)
+			{
+				results.add(future.join());
+			}
+		}
+		catch (final CompletionException e)
+		{
+			awaitQuietly(futures);
+			throw AdempiereException.wrapIfNeeded(e.getCause());
+		}
+
+		if (resultsCombiner != null)
+		{
+			return results.stream().reduce(resultsCombiner).orElse(null);
+		}
+
+		final long countResults = results.stream().filter(Objects::nonNull).count();
+		if (countResults > 1)
+		{
+			throw new TrxItemProcessorConfigException("The processors returned " + countResults + " results, but no resultsCombiner was configured");
+		}
+		return results.stream().filter(Objects::nonNull).findFirst().orElse(null);
+	}
+
+	private static void awaitQuietly(final List<? extends CompletableFuture<?>> futures)
+	{
+		for (final CompletableFuture<?> future : futures)
+		{
+			try
+			{
+				future.join();
+			}
+			catch (final Exception e)
+			{
+				// the first error is propagated by our caller
+				logger.debug("Lane failed", e);
+			}
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ParallelTrxItemChunkProcessorExecutor [parallelism=" + parallelism + ", processorFactory=" + processorFactory + ", partitionKeyFunction=" + partitionKeyFunction
+				+ ", exceptionHandler=" + exceptionHandler + ", onItemErrorPolicy=" + onItemErrorPolicy + ", useTrxSavepoints=" + useTrxSavepoints + ", processorCtx=" + processorCtx + "]";
+	}
+
+	/**
+	 * Bounded queue between the dispatching thread and one worker thread.
+	 */
+	private final class Lane
+	{
+		private final int index;
+		private final AtomicBoolean failed;
+		private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(LANE_QUEUE_CAPACITY);
+		private final Object endMarker = new Object();
+
+		private Lane(final int index, final AtomicBoolean failed)
+		{
+			this.index = index;
+			this.failed = failed;
+		}
+
+		/**
+		 * @return false if the item was not added because processing failed
+		 */
+		public boolean add(@NonNull final IT item)
+		{
+			try
+			{
+				while (!failed.get())
+				{
+					if (queue.offer(item, LANE_QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS))
+					{
+						return true;
+					}
+				}
+				return false;
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(e);
+			}
+		}
+
+		public void markAllItemsDispatched()
+		{
+			try
+			{
+				while (!failed.get())
+				{
+					if (queue.offer(endMarker, LANE_QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS))
+					{
+						return;
+					}
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		public Iterator<IT> iterator()
+		{
+			return new Iterator<IT>()
+			{
+				private Object next = null;
+				private boolean ended = false;
+
+				@Override
+				public boolean hasNext()
+				{
+					if (next != null)
+					{
+						return true;
+					}
+					if (ended)
+					{
+						return false;
+					}
+
+					try
+					{
+						while (!failed.get())
+						{
+							final Object item = queue.poll(LANE_QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+							if (item == endMarker)
+							{
+								break;
+							}
+							else if (item != null)
+							{
+								next = item;
+								return true;
+							}
+						}
+					}
+					catch (final InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+						throw AdempiereException.wrapIfNeeded(e);
+					}
+
+					ended = true;
+					return false;
+				}
+
+				@Override
+				@SuppressWarnings("unchecked")
+				public IT next()
+				{
+					if (!hasNext())
+					{
+						throw new NoSuchElementException("No more items in lane " + index);
+					}
+
+					final IT item = (IT)next;
+					next = null;
+					return item;
+				}
+			};
+		}
+	}
+}
@@ -24,6 +24,9 @@ package org.adempiere.ad.trx.processor.api.impl;
 
 import java.util.Iterator;
 import java.util.Properties;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
@@ -31,6 +34,7 @@ import org.adempiere.ad.trx.processor.api.ITrxItemExceptionHandler;
 import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorContext;
 import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutor;
+import org.adempiere.ad.trx.processor.api.TrxItemProcessorConfigException;
 import org.adempiere.ad.trx.processor.spi.ITrxItemChunkProcessor;
 import org.adempiere.ad.trx.processor.spi.ITrxItemProcessor;
 import org.compiere.util.Env;
@@ -51,6 +55,7 @@ import lombok.NonNull;
 	private String _trxName = ITrx.TRXNAME_ThreadInherited;
 
 	private ITrxItemProcessor<IT, RT> _processor;
+	private Supplier<? extends ITrxItemProcessor<IT, RT>> _processorFactory;
 	private ITrxItemExceptionHandler _exceptionHandler = ITrxItemProcessorExecutor.DEFAULT_ExceptionHandler;
 
 	private boolean _useTrxSavepoints = ITrxItemProcessorExecutor.DEFAULT_UseTrxSavepoints;
@@ -59,6 +64,10 @@ import lombok.NonNull;
 
 	private OnItemErrorPolicy _onItemErrorPolicy = ITrxItemProcessorExecutor.DEFAULT_OnItemErrorPolicy; // #302
 
+	private int _parallelism = 1;
+	private Function<? super IT, ?> _partitionKeyFunction;
+	private BinaryOperator<RT> _resultsCombiner;
+
 	public TrxItemExecutorBuilder(@NonNull final TrxItemProcessorExecutorService executorService)
 	{
 		this.executorService = executorService;
@@ -81,6 +90,11 @@ import lombok.NonNull;
 		// Create processing context
 		final ITrxItemProcessorContext processorCtx = createProcessorContext();
 
+		if (_parallelism > 1)
+		{
+			return buildParallel(processorCtx);
+		}
+
 		// Get the processor and wrap it
 		final ITrxItemChunkProcessor<IT, RT> processor = createProcessor();
 
@@ -94,6 +108,27 @@ import lombok.NonNull;
 		return executor;
 	}
 
+	private ITrxItemProcessorExecutor<IT, RT> buildParallel(final ITrxItemProcessorContext processorCtx)
+	{
+		if (_processorFactory == null)
+		{
+			throw new TrxItemProcessorConfigException("A processor factory is required when processing in parallel, because each lane needs its own processor");
+		}
+		if (_partitionKeyFunction == null)
+		{
+			throw new TrxItemProcessorConfigException("A partition key function is required when processing in parallel");
+		}
+
+		return new ParallelTrxItemChunkProcessorExecutor<>(processorCtx,
+				this::createProcessor,
+				_partitionKeyFunction,
+				_parallelism,
+				_resultsCombiner,
+				getExceptionHandler(),
+				_onItemErrorPolicy,
+				_useTrxSavepoints);
+	}
+
 	private final ITrxItemChunkProcessor<IT, RT> createProcessor()
 	{
 		ITrxItemProcessor<IT, RT> processor = getProcessor();
@@ -148,11 +183,25 @@ import lombok.NonNull;
 	public ITrxItemExecutorBuilder<IT, RT> setProcessor(final ITrxItemProcessor<IT, RT> processor)
 	{
 		this._processor = processor;
+		this._processorFactory = null;
+		return this;
+	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setProcessorFactory(@NonNull final Supplier<? extends ITrxItemProcessor<IT, RT>> processorFactory)
+	{
+		this._processor = null;
+		this._processorFactory = processorFactory;
 		return this;
 	}
 
 	private final ITrxItemProcessor<IT, RT> getProcessor()
 	{
+		if (_processorFactory != null)
+		{
+			return _processorFactory.get();
+		}
+
 		Check.assumeNotNull(_processor, "processor is set");
 		return _processor;
 	}
@@ -196,4 +245,25 @@ import lombok.NonNull;
 		this._useTrxSavepoints = useTrxSavepoints;
 		return this;
 	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setParallelism(final int parallelism)
+	{
+		this._parallelism = Math.max(parallelism, 1);
+		return this;
+	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setPartitionKey(@NonNull final Function<? super IT, ?> partitionKeyFunction)
+	{
+		this._partitionKeyFunction = partitionKeyFunction;
+		return this;
+	}
+
+	@Override
+	public ITrxItemExecutorBuilder<IT, RT> setResultsCombiner(@NonNull final BinaryOperator<RT> resultsCombiner)
+	{
+		this._resultsCombiner = resultsCombiner;
+		return this;
+	}
 }
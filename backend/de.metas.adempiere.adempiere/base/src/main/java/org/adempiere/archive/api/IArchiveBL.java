@@ -125,4 +125,9 @@ public interface IArchiveBL extends ISingletonService
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	/**
+	 * @see org.adempiere.archive.spi.IArchiveStorage#setBinaryData(I_AD_Archive, InputStream)
+	 */
+	void setBinaryData(I_AD_Archive archive, InputStream data);
 }
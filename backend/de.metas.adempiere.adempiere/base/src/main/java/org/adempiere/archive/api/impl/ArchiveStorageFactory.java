@@ -30,11 +30,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import lombok.NonNull;
 import org.adempiere.archive.api.IArchiveStorageFactory;
 import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
 import org.adempiere.archive.spi.impl.DBArchiveStorage;
 import org.adempiere.archive.spi.impl.FilesystemArchiveStorage;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.IClientDAO;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.proxy.Cached;
 import org.compiere.model.I_AD_Archive;
 import org.compiere.model.I_AD_Client;
@@ -48,6 +50,11 @@ import de.metas.util.Services;
 
 public class ArchiveStorageFactory implements IArchiveStorageFactory
 {
+	/**
+	 * If enabled, the new archives of tenants which store their archives on filesystem are stored by {@link ContentAddressedArchiveStorage}.
+	 */
+	private static final String SYSCONFIG_ContentAddressedStorage = "org.adempiere.archive.ContentAddressedStorage";
+
 	private final Map<ArrayKey, Class<? extends IArchiveStorage>> storageClasses = new ConcurrentHashMap<ArrayKey, Class<? extends IArchiveStorage>>();
 
 	public ArchiveStorageFactory()
@@ -55,6 +62,7 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 		// Register defaults
 		registerArchiveStorage(STORAGETYPE_Database, AccessMode.ALL, DBArchiveStorage.class);
 		registerArchiveStorage(STORAGETYPE_Filesystem, AccessMode.SERVER, FilesystemArchiveStorage.class);
+		registerArchiveStorage(STORAGETYPE_ContentAddressed, AccessMode.SERVER, ContentAddressedArchiveStorage.class);
 	}
 
 	private static final ArrayKey createStorageClassesKey(@NonNull final String storageType, @NonNull final AccessMode accessMode)
@@ -96,7 +104,8 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 		final I_AD_Client client = Services.get(IClientDAO.class).retriveClient(ctx, adClientId);
 		if (client.isStoreArchiveOnFileSystem())
 		{
-			return STORAGETYPE_Filesystem;
+			final boolean contentAddressed = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ContentAddressedStorage, false, adClientId);
+			return contentAddressed ? STORAGETYPE_ContentAddressed : STORAGETYPE_Filesystem;
 		}
 		else
 		{
@@ -106,7 +115,11 @@ public class ArchiveStorageFactory implements IArchiveStorageFactory
 
 	private String getStorageType(final I_AD_Archive archive)
 	{
-		if (archive.isFileSystem())
+		if (ContentAddressedArchiveStorage.isContentAddressed(archive))
+		{
+			return STORAGETYPE_ContentAddressed;
+		}
+		else if (archive.isFileSystem())
 		{
 			return STORAGETYPE_Filesystem;
 		}
@@ -0,0 +1,83 @@
+package org.adempiere.archive.interceptor;
+
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.archive.spi.IArchiveStorage;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_AD_Archive;
+import org.compiere.model.ModelValidator;
+import org.springframework.stereotype.Component;
+
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Maintains the <code>ContentHash</code> and deletes the files of the {@link ContentAddressedArchiveStorage} which are not referenced anymore.
+ */
+@Interceptor(I_AD_Archive.class)
+@Component
+public class AD_Archive
+{
+	@ModelChange(timings = { ModelValidator.TYPE_BEFORE_NEW, ModelValidator.TYPE_BEFORE_CHANGE }, ifColumnsChanged = I_AD_Archive.COLUMNNAME_BinaryData)
+	public void updateContentHash(final I_AD_Archive archive)
+	{
+		final String contentHash = archive.isFileSystem() ? ContentAddressedArchiveStorage.extractContentHash(archive.getBinaryData()) : null;
+		archive.setContentHash(contentHash);
+	}
+
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_DELETE)
+	public void afterDelete(final I_AD_Archive archive)
+	{
+		deleteContentIfNotReferencedAfterCommit(archive);
+	}
+
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_CHANGE, ifColumnsChanged = I_AD_Archive.COLUMNNAME_BinaryData)
+	public void afterBinaryDataChanged(final I_AD_Archive archive)
+	{
+		final I_AD_Archive archiveOld = InterfaceWrapperHelper.createOld(archive, I_AD_Archive.class);
+		deleteContentIfNotReferencedAfterCommit(archiveOld);
+	}
+
+	private void deleteContentIfNotReferencedAfterCommit(@NonNull final I_AD_Archive archive)
+	{
+		final String contentHash = ContentAddressedArchiveStorage.extractContentHash(archive.getBinaryData());
+		if (contentHash == null)
+		{
+			return;
+		}
+
+		final IArchiveStorage storage = Services.get(IArchiveStorageFactory.class).getArchiveStorage(archive);
+		if (!(storage instanceof ContentAddressedArchiveStorage))
+		{
+			return;
+		}
+
+		Services.get(ITrxManager.class)
+				.runAfterCommit(() -> ((ContentAddressedArchiveStorage)storage).deleteIfNotReferenced(contentHash));
+	}
+}
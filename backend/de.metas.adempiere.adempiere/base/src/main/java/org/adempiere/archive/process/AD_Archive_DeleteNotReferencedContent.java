@@ -0,0 +1,55 @@
+package org.adempiere.archive.process;
+
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.archive.api.IArchiveStorageFactory.AccessMode;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
+
+import de.metas.process.JavaProcess;
+import de.metas.process.RunOutOfTrx;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Deletes the files of the current tenant's {@link ContentAddressedArchiveStorage} which are not referenced by any archive anymore.
+ * <p>
+ * The files are usually deleted right after their last archive was deleted, but not if they were modified recently or if the server was down.
+ * This process is meant to be scheduled (e.g. nightly) to catch those files.
+ */
+public class AD_Archive_DeleteNotReferencedContent extends JavaProcess
+{
+	private final IArchiveStorageFactory archiveStorageFactory = Services.get(IArchiveStorageFactory.class);
+
+	@Override
+	@RunOutOfTrx
+	protected String doIt()
+	{
+		final ContentAddressedArchiveStorage storage = (ContentAddressedArchiveStorage)archiveStorageFactory.getArchiveStorage(
+				getCtx(),
+				IArchiveStorageFactory.STORAGETYPE_ContentAddressed,
+				AccessMode.SERVER);
+
+		final int countDeleted = storage.deleteNotReferencedFiles();
+		return "@Deleted@ #" + countDeleted;
+	}
+}
@@ -0,0 +1,119 @@
+package org.adempiere.archive.process;
+
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.archive.api.IArchiveBL;
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.archive.api.IArchiveStorageFactory.AccessMode;
+import org.adempiere.archive.spi.impl.ContentAddressedArchiveStorage;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.I_AD_Archive;
+
+import de.metas.process.JavaProcess;
+import de.metas.process.RunOutOfTrx;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Moves all archives of the current tenant to the {@link ContentAddressedArchiveStorage}, so that archives with the same content share one file.
+ * <p>
+ * Each archive is moved in its own transaction, so the process can be cancelled and restarted at any time.
+ * The files of archives which were previously stored on filesystem are not deleted.
+ */
+public class AD_Archive_MoveToContentAddressedStorage extends JavaProcess
+{
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IArchiveBL archiveBL = Services.get(IArchiveBL.class);
+	private final IArchiveStorageFactory archiveStorageFactory = Services.get(IArchiveStorageFactory.class);
+
+	@Override
+	@RunOutOfTrx
+	protected String doIt()
+	{
+		final ContentAddressedArchiveStorage storage = (ContentAddressedArchiveStorage)archiveStorageFactory.getArchiveStorage(
+				getCtx(),
+				IArchiveStorageFactory.STORAGETYPE_ContentAddressed,
+				AccessMode.SERVER);
+
+		final List<Integer> archiveIds = queryBL.createQueryBuilderOutOfTrx(I_AD_Archive.class)
+				.addEqualsFilter(I_AD_Archive.COLUMNNAME_AD_Client_ID, getAD_Client_ID())
+				.orderBy(I_AD_Archive.COLUMNNAME_AD_Archive_ID)
+				.create()
+				.listIds();
+
+		final Set<String> contentHashes = new HashSet<>();
+		int countMoved = 0;
+		int countErrors = 0;
+		for (final int archiveId : archiveIds)
+		{
+			try
+			{
+				final String contentHash = trxManager.callInNewTrx(() -> moveToStorage(archiveId, storage));
+				if (contentHash != null)
+				{
+					contentHashes.add(contentHash);
+					countMoved++;
+				}
+			}
+			catch (final Exception ex)
+			{
+				countErrors++;
+				addLog("Failed moving AD_Archive_ID={}: {}", archiveId, ex.getLocalizedMessage());
+				log.warn("Failed moving AD_Archive_ID={}. Skipped.", archiveId, ex);
+			}
+		}
+
+		return "@Updated@ #" + countMoved + " (" + contentHashes.size() + " distinct), @Error@ #" + countErrors;
+	}
+
+	/**
+	 * @return content hash or <code>null</code> if the archive was already moved or has no data
+	 */
+	private String moveToStorage(final int archiveId, final ContentAddressedArchiveStorage storage) throws Exception
+	{
+		final I_AD_Archive archive = InterfaceWrapperHelper.load(archiveId, I_AD_Archive.class);
+		if (ContentAddressedArchiveStorage.isContentAddressed(archive))
+		{
+			return null;
+		}
+
+		try (final InputStream data = archiveBL.getBinaryDataAsStream(archive))
+		{
+			if (data == null)
+			{
+				return null;
+			}
+			storage.setBinaryData(archive, data);
+		}
+		InterfaceWrapperHelper.save(archive);
+
+		return ContentAddressedArchiveStorage.extractContentHash(archive.getBinaryData());
+	}
+}
@@ -23,11 +23,15 @@ package org.adempiere.archive.spi;
  */
 
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
+import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.I_AD_Archive;
 
+import com.google.common.io.ByteStreams;
+
 /**
  * Archive Storage (e.g. database, filesystem etc)
  * 
@@ -56,4 +60,22 @@ public interface IArchiveStorage
 	InputStream getBinaryDataAsStream(I_AD_Archive archive);
 
 	void setBinaryData(I_AD_Archive archive, byte[] data);
+
+	/**
+	 * Same as {@link #setBinaryData(I_AD_Archive, byte[])}, but reads the data from given stream.
+	 * <p>
+	 * The default implementation loads the whole stream; storages which can persist the data without loading it shall override this method.
+	 * The stream is not closed by this method.
+	 */
+	default void setBinaryData(final I_AD_Archive archive, final InputStream data)
+	{
+		try
+		{
+			setBinaryData(archive, ByteStreams.toByteArray(data));
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading the archive data", e);
+		}
+	}
 }
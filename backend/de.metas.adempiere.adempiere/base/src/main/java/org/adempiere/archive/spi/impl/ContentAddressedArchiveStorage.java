@@ -0,0 +1,422 @@
+package org.adempiere.archive.spi.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.IClientDAO;
+import org.compiere.model.I_AD_Archive;
+import org.compiere.model.I_AD_Client;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Stores the archive data in the tenant's archive folder, under the SHA-256 hash of the content.
+ * <p>
+ * Archives with the same content share the same file. The <code>AD_Archive.BinaryData</code> only contains a reference to that file, like
+ * <code>%ARCHIVE_FOLDER%cas/ab/cd/abcd...</code>. That reference is also understood by {@link FilesystemArchiveStorage}.
+ * <p>
+ * The data is never loaded as a whole when using the stream based methods.
+ * <p>
+ * A file is referenced by all the <code>AD_Archive</code> records that have the same (indexed) <code>ContentHash</code>. When it is not referenced anymore,
+ * {@link #deleteIfNotReferenced(String)} deletes it. Files which were written or reused recently are kept anyway,
+ * because a transaction which is not yet committed might reference them. Such files, and also the files of archives which were deleted while the
+ * server was down, are deleted later by {@link #deleteNotReferencedFiles()}.
+ */
+public class ContentAddressedArchiveStorage extends AbstractArchiveStorage
+{
+	private static final Logger logger = LogManager.getLogger(ContentAddressedArchiveStorage.class);
+
+	private static final String ARCHIVE_FOLDER_PLACEHOLDER = "%ARCHIVE_FOLDER%";
+	private static final String FOLDER_NAME = "cas";
+	private static final String REFERENCE_PREFIX = ARCHIVE_FOLDER_PLACEHOLDER + FOLDER_NAME + "/";
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final int HASH_LENGTH = 64;
+	private static final String TEMP_FILE_PREFIX = "upload";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	private static final Duration DELETE_GRACE_PERIOD = Duration.ofHours(1);
+
+	private Path storageRoot;
+
+	@Override
+	public void init(final Properties ctx, final int adClientId)
+	{
+		final I_AD_Client client = Services.get(IClientDAO.class).retriveClient(ctx, adClientId);
+		this.storageRoot = Paths.get(FilesystemArchiveStorage.getArchivePath(client), FOLDER_NAME);
+		logger.info("Content addressed archive storage: {}, Config={}", storageRoot, client);
+	}
+
+	@Override
+	public I_AD_Archive newArchive(final Properties ctx, final String trxName)
+	{
+		final I_AD_Archive archive = super.newArchive(ctx, trxName);
+		archive.setIsFileSystem(true);
+		return archive;
+	}
+
+	/**
+	 * @return true if given archive's data is stored by this storage
+	 */
+	public static boolean isContentAddressed(@NonNull final I_AD_Archive archive)
+	{
+		return archive.isFileSystem() && extractContentHash(archive.getBinaryData()) != null;
+	}
+
+	/**
+	 * @return the SHA-256 hash (lowercase hex) of the archive's content or <code>null</code> if given data is not a reference of this storage
+	 */
+	@Nullable
+	public static String extractContentHash(@Nullable final byte[] binaryData)
+	{
+		// cheap check first, the binary data of DB archives can be big
+		if (binaryData == null || binaryData.length != REFERENCE_PREFIX.length() + 6 + HASH_LENGTH)
+		{
+			return null;
+		}
+
+		final String reference = new String(binaryData, StandardCharsets.UTF_8);
+		if (!reference.startsWith(REFERENCE_PREFIX))
+		{
+			return null;
+		}
+
+		final String contentHash = reference.substring(reference.length() - HASH_LENGTH);
+		return toReference(contentHash).equals(reference) ? contentHash : null;
+	}
+
+	private static String toReference(@NonNull final String contentHash)
+	{
+		return REFERENCE_PREFIX + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+	}
+
+	private Path getFile(@NonNull final String contentHash)
+	{
+		Check.assumeNotNull(storageRoot, "storage initialized");
+		return storageRoot.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+	}
+
+	@VisibleForTesting
+	Path getFile(@NonNull final I_AD_Archive archive)
+	{
+		final String contentHash = extractContentHash(archive.getBinaryData());
+		if (contentHash == null)
+		{
+			throw new AdempiereException("Archive is not stored by " + this)
+					.setParameter("archive", archive);
+		}
+		return getFile(contentHash);
+	}
+
+	@Override
+	public byte[] getBinaryData(final I_AD_Archive archive)
+	{
+		try (final InputStream in = getBinaryDataAsStream(archive))
+		{
+			return in != null ? ByteStreams.toByteArray(in) : null;
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading archive data", e)
+					.setParameter("archive", archive);
+		}
+	}
+
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		if (archive.getBinaryData() == null)
+		{
+			return null;
+		}
+
+		final Path file = getFile(archive);
+		try
+		{
+			return new BufferedInputStream(Files.newInputStream(file));
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading archive data", e)
+					.setParameter("archive", archive)
+					.setParameter("file", file);
+		}
+	}
+
+	@Override
+	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final byte[] data)
+	{
+		setBinaryData(archive, new ByteArrayInputStream(data));
+	}
+
+	/**
+	 * Writes the data into a temporary file while computing its hash. If the content is already stored, the temporary file is discarded.
+	 */
+	@Override
+	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final InputStream data)
+	{
+		Check.assumeNotNull(storageRoot, "storage initialized");
+
+		Path tempFile = null;
+		try
+		{
+			Files.createDirectories(storageRoot);
+			tempFile = Files.createTempFile(storageRoot, TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+
+			final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+			final long size;
+			try (final OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest))
+			{
+				size = ByteStreams.copy(data, out);
+			}
+			if (size <= 0)
+			{
+				throw new AdempiereException("Archive data may not be empty")
+						.setParameter("archive", archive);
+			}
+
+			final String contentHash = BaseEncoding.base16().lowerCase().encode(digest.digest());
+			final Path file = getFile(contentHash);
+			if (Files.exists(file))
+			{
+				touch(file);
+				logger.debug("Content {} is already stored. Reusing it for {}", contentHash, archive);
+			}
+			else
+			{
+				Files.createDirectories(file.getParent());
+				try
+				{
+					Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+					tempFile = null;
+				}
+				catch (final FileAlreadyExistsException e)
+				{
+					// stored concurrently by somebody else
+					touch(file);
+				}
+			}
+
+			archive.setBinaryData(toReference(contentHash).getBytes(StandardCharsets.UTF_8));
+			archive.setContentHash(contentHash);
+			archive.setIsFileSystem(true);
+		}
+		catch (final IOException | NoSuchAlgorithmException e)
+		{
+			throw new AdempiereException("Failed storing archive data", e)
+					.setParameter("archive", archive);
+		}
+		finally
+		{
+			deleteQuietly(tempFile);
+		}
+	}
+
+	/**
+	 * Deletes the file of given content hash if no <code>AD_Archive</code> references it anymore.
+	 * <p>
+	 * To be called after the transaction which removed a reference was committed.
+	 */
+	public void deleteIfNotReferenced(@NonNull final String contentHash)
+	{
+		final Path file = getFile(contentHash);
+		try
+		{
+			if (!Files.exists(file))
+			{
+				return;
+			}
+
+			if (isModifiedRecently(file))
+			{
+				logger.debug("Not deleting {} because it was modified recently", file);
+				return;
+			}
+
+			final int countReferences = countReferences(contentHash);
+			if (countReferences > 0)
+			{
+				logger.debug("Not deleting {} because it's still referenced by {} archives", file, countReferences);
+				return;
+			}
+
+			Files.delete(file);
+			logger.debug("Deleted not referenced {}", file);
+		}
+		catch (final IOException e)
+		{
+			logger.warn("Failed deleting {}. Ignored.", file, e);
+		}
+	}
+
+	/**
+	 * Deletes all files which are not referenced anymore and the leftovers of failed uploads, unless they were modified recently.
+	 *
+	 * @return number of deleted files
+	 */
+	public int deleteNotReferencedFiles()
+	{
+		Check.assumeNotNull(storageRoot, "storage initialized");
+		if (!Files.isDirectory(storageRoot))
+		{
+			return 0;
+		}
+
+		final List<Path> files;
+		try (final Stream<Path> stream = Files.walk(storageRoot))
+		{
+			files = stream.filter(Files::isRegularFile).collect(ImmutableList.toImmutableList());
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed listing the files of " + this, e);
+		}
+
+		int countDeleted = 0;
+		for (final Path file : files)
+		{
+			if (deleteIfObsolete(file))
+			{
+				countDeleted++;
+			}
+		}
+
+		logger.info("Deleted {} of {} files from {}", countDeleted, files.size(), storageRoot);
+		return countDeleted;
+	}
+
+	private boolean deleteIfObsolete(@NonNull final Path file)
+	{
+		try
+		{
+			if (isModifiedRecently(file))
+			{
+				return false;
+			}
+
+			final String fileName = file.getFileName().toString();
+			if (fileName.startsWith(TEMP_FILE_PREFIX) && fileName.endsWith(TEMP_FILE_SUFFIX))
+			{
+				Files.deleteIfExists(file);
+				logger.debug("Deleted leftover temporary file {}", file);
+				return true;
+			}
+
+			if (fileName.length() != HASH_LENGTH || !file.equals(getFile(fileName)))
+			{
+				logger.debug("Skip {} because it was not created by this storage", file);
+				return false;
+			}
+
+			if (countReferences(fileName) > 0)
+			{
+				return false;
+			}
+
+			Files.deleteIfExists(file);
+			logger.debug("Deleted not referenced {}", file);
+			return true;
+		}
+		catch (final IOException e)
+		{
+			logger.warn("Failed deleting {}. Ignored.", file, e);
+			return false;
+		}
+	}
+
+	private static boolean isModifiedRecently(@NonNull final Path file) throws IOException
+	{
+		final Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+		return lastModified.isAfter(Instant.now().minus(DELETE_GRACE_PERIOD));
+	}
+
+	/**
+	 * Counts the references using the indexed <code>AD_Archive.ContentHash</code> column.
+	 */
+	@VisibleForTesting
+	protected int countReferences(@NonNull final String contentHash)
+	{
+		final String sql = "SELECT COUNT(1) FROM " + I_AD_Archive.Table_Name
+				+ " WHERE " + I_AD_Archive.COLUMNNAME_ContentHash + "=?";
+		return DB.getSQLValueEx(null, sql, contentHash);
+	}
+
+	private static void touch(@NonNull final Path file) throws IOException
+	{
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+	}
+
+	private static void deleteQuietly(@Nullable final Path file)
+	{
+		if (file == null)
+		{
+			return;
+		}
+		try
+		{
+			Files.deleteIfExists(file);
+		}
+		catch (final IOException e)
+		{
+			logger.warn("Failed deleting {}. Ignored.", file, e);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ContentAddressedArchiveStorage [RootPath=" + storageRoot + "]";
+	}
+}
@@ -25,6 +25,7 @@ package org.adempiere.archive.spi.impl;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.Properties;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
@@ -107,6 +108,34 @@ public class DBArchiveStorage extends AbstractArchiveStorage
 		return inflatedData;
 	} // getBinaryData
 
+	/**
+	 * Inflates the data while it's read, instead of inflating it into a byte array first.
+	 */
+	@Override
+	public InputStream getBinaryDataAsStream(final I_AD_Archive archive)
+	{
+		final byte[] deflatedData = archive.getBinaryData();
+		if (deflatedData == null || deflatedData.length == 0)
+		{
+			return null;
+		}
+
+		try
+		{
+			final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(deflatedData));
+			final ZipEntry entry = zip.getNextEntry();
+			if (entry == null)
+			{
+				return null;
+			}
+			return zip;
+		}
+		catch (final Exception e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
 	@Override
 	public void setBinaryData(@NonNull final I_AD_Archive archive, @NonNull final byte[] uncompressedData)
 	{
@@ -53,6 +53,8 @@ import de.metas.util.Services;
 	private transient ST p_stmt = null;
 	/** Value Object, never null */
 	private final CStatementVO p_vo;
+	/** Transaction in which the statement was created; null if out of transaction */
+	private final Trx m_trx;
 
 	public AbstractCStatementProxy(final CStatementVO vo)
 	{
@@ -61,11 +63,12 @@ import de.metas.util.Services;
 			throw new DBException("CStatementVO shall not be null");
 		}
 		this.p_vo = vo;
+		final Trx trx = getTrx(p_vo);
+		this.m_trx = trx;
 
 		try
 		{
 			Connection conn = null;
-			final Trx trx = getTrx(p_vo);
 			if (trx != null)
 			{
 				conn = trx.getConnection();
@@ -103,6 +106,22 @@ import de.metas.util.Services;
 
 	protected abstract ST createStatement(final Connection conn, final CStatementVO vo) throws SQLException;
 
+	/**
+	 * Called when this proxy is closed. Closes the underlying statement, but implementations might give it back to a cache instead.
+	 */
+	protected void closeStatement(final ST stmt) throws SQLException
+	{
+		stmt.close();
+	}
+
+	/**
+	 * @return transaction in which the statement was created or <code>null</code> if it was created out of transaction
+	 */
+	protected final Trx getTrxOrNull()
+	{
+		return m_trx;
+	}
+
 	protected final ST getStatementImpl()
 	{
 		return p_stmt;
@@ -146,7 +165,7 @@ import de.metas.util.Services;
 		{
 			if (p_stmt != null)
 			{
-				p_stmt.close();
+				closeStatement(p_stmt);
 			}
 		}
 		finally
@@ -54,6 +54,7 @@ import org.compiere.util.CCachedRowSet;
 import org.compiere.util.CPreparedStatement;
 import org.compiere.util.CStatementVO;
 import org.compiere.util.DB;
+import org.compiere.util.Trx;
 
 import de.metas.util.Check;
 
@@ -88,12 +89,42 @@ import de.metas.util.Check;
 	@Override
 	protected PreparedStatement createStatement(final Connection conn, final CStatementVO vo) throws SQLException
 	{
+		final TrxStatementCache statementCache = getStatementCacheOrNull(conn);
+		if (statementCache != null)
+		{
+			return statementCache.borrow(vo.getSql(),
+					vo.getResultSetType(),
+					vo.getResultSetConcurrency());
+		}
+
 		final PreparedStatement pstmt = conn.prepareStatement(vo.getSql(),
 				vo.getResultSetType(),
 				vo.getResultSetConcurrency());
+		StatementReuseStats.instance.incrementPrepared(vo.getSql());
 		return pstmt;
 	}
 
+	@Override
+	protected void closeStatement(final PreparedStatement pstmt) throws SQLException
+	{
+		final Trx trx = getTrxOrNull();
+		final TrxStatementCache statementCache = trx != null ? trx.getStatementCacheIfExists() : null;
+		if (statementCache != null)
+		{
+			statementCache.release(pstmt);
+		}
+		else
+		{
+			pstmt.close();
+		}
+	}
+
+	private TrxStatementCache getStatementCacheOrNull(final Connection conn)
+	{
+		final Trx trx = getTrxOrNull();
+		return trx != null ? trx.getStatementCache(conn) : null;
+	}
+
 	@Override
 	public final RowSet getRowSet()
 	{
@@ -0,0 +1,112 @@
+package org.adempiere.sql.impl;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Per-SQL counters of how often a prepared statement was created vs. taken from a {@link TrxStatementCache}.
+ * <p>
+ * To keep the memory bounded (think of SQLs with inlined values), at most {@value #MAX_TRACKED_SQLS} distinct SQLs are tracked.
+ * Everything else is counted under {@link #SQL_Other}.
+ */
+public final class StatementReuseStats
+{
+	public static final transient StatementReuseStats instance = new StatementReuseStats();
+
+	static final String SQL_Other = "<other>";
+	private static final int MAX_TRACKED_SQLS = 2000;
+
+	private final ConcurrentHashMap<String, Counters> countersBySql = new ConcurrentHashMap<>();
+
+	@Value
+	@Builder
+	public static class StatementReuseStat
+	{
+		@NonNull
+		String sql;
+		long prepareCount;
+		long reuseCount;
+	}
+
+	private static final class Counters
+	{
+		private final AtomicLong prepareCount = new AtomicLong();
+		private final AtomicLong reuseCount = new AtomicLong();
+	}
+
+	/* package */ StatementReuseStats()
+	{
+	}
+
+	void incrementPrepared(@NonNull final String sql)
+	{
+		getCounters(sql).prepareCount.incrementAndGet();
+	}
+
+	void incrementReused(@NonNull final String sql)
+	{
+		getCounters(sql).reuseCount.incrementAndGet();
+	}
+
+	private Counters getCounters(final String sql)
+	{
+		final Counters counters = countersBySql.get(sql);
+		if (counters != null)
+		{
+			return counters;
+		}
+
+		final String sqlEffective = countersBySql.size() < MAX_TRACKED_SQLS ? sql : SQL_Other;
+		return countersBySql.computeIfAbsent(sqlEffective, k -> new Counters());
+	}
+
+	/**
+	 * @return stats, most reused statements first
+	 */
+	public ImmutableList<StatementReuseStat> getStats()
+	{
+		return countersBySql.entrySet()
+				.stream()
+				.map(e -> StatementReuseStat.builder()
+						.sql(e.getKey())
+						.prepareCount(e.getValue().prepareCount.get())
+						.reuseCount(e.getValue().reuseCount.get())
+						.build())
+				.sorted(Comparator.comparing(StatementReuseStat::getReuseCount).reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public void reset()
+	{
+		countersBySql.clear();
+	}
+}
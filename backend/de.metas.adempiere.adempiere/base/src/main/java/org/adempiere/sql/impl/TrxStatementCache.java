@@ -0,0 +1,231 @@
+package org.adempiere.sql.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Cache of {@link PreparedStatement}s bound to one transaction's {@link Connection}.
+ * <p>
+ * Statements are borrowed by {@link CPreparedStatementProxy} and given back when the proxy is closed.
+ * A statement which is currently borrowed is never handed out a second time (e.g. nested loops over the same SQL),
+ * in that case a new statement is prepared.
+ * Together with pgjdbc's <code>prepareThreshold</code>, reused statements become server side prepared statements, so the database does not have to parse and plan them again.
+ * <p>
+ * The cache is closed when the transaction's connection is closed.
+ */
+public final class TrxStatementCache
+{
+	private static final Logger logger = LogManager.getLogger(TrxStatementCache.class);
+
+	/** System property (not AD_SysConfig, because reading that would use the statement cache itself) */
+	private static final String SYSTEM_PROPERTY_MaxSize = "org.adempiere.sql.impl.TrxStatementCache.maxSize";
+	private static final int DEFAULT_MaxSize = 50;
+
+	/**
+	 * @return max number of idle statements per transaction; 0 means the cache is disabled
+	 */
+	public static int getConfiguredMaxSize()
+	{
+		return Integer.getInteger(SYSTEM_PROPERTY_MaxSize, DEFAULT_MaxSize);
+	}
+
+	@Value
+	private static class StatementKey
+	{
+		String sql;
+		int resultSetType;
+		int resultSetConcurrency;
+	}
+
+	private final Connection connection;
+	private final int maxSize;
+	private final StatementReuseStats stats;
+
+	private final LinkedHashMap<StatementKey, PreparedStatement> idleStatements = new LinkedHashMap<>(16, 0.75f, true);
+	private final IdentityHashMap<PreparedStatement, StatementKey> borrowedStatements = new IdentityHashMap<>();
+	private boolean closed = false;
+
+	public TrxStatementCache(@NonNull final Connection connection, final int maxSize)
+	{
+		this(connection, maxSize, StatementReuseStats.instance);
+	}
+
+	/* package */ TrxStatementCache(
+			@NonNull final Connection connection,
+			final int maxSize,
+			@NonNull final StatementReuseStats stats)
+	{
+		this.connection = connection;
+		this.maxSize = maxSize;
+		this.stats = stats;
+	}
+
+	public boolean isForConnection(final Connection connection)
+	{
+		return this.connection == connection;
+	}
+
+	/**
+	 * @return an idle cached statement for the given SQL or a newly prepared one. Give it back using {@link #release(PreparedStatement)}.
+	 */
+	public synchronized PreparedStatement borrow(
+			@NonNull final String sql,
+			final int resultSetType,
+			final int resultSetConcurrency) throws SQLException
+	{
+		final StatementKey key = new StatementKey(normalizeSql(sql), resultSetType, resultSetConcurrency);
+
+		PreparedStatement pstmt = closed ? null : idleStatements.remove(key);
+		if (pstmt != null)
+		{
+			stats.incrementReused(key.getSql());
+		}
+		else
+		{
+			pstmt = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			stats.incrementPrepared(key.getSql());
+		}
+
+		if (!closed)
+		{
+			borrowedStatements.put(pstmt, key);
+		}
+		return pstmt;
+	}
+
+	/**
+	 * Gives back a statement which was borrowed using {@link #borrow(String, int, int)}.
+	 * The statement is either kept for reuse or closed.
+	 */
+	public synchronized void release(@NonNull final PreparedStatement pstmt) throws SQLException
+	{
+		final StatementKey key = borrowedStatements.remove(pstmt);
+		if (key == null || closed || idleStatements.containsKey(key) || !resetNoFail(pstmt))
+		{
+			pstmt.close();
+			return;
+		}
+
+		idleStatements.put(key, pstmt);
+		evictIfNeeded();
+	}
+
+	private void evictIfNeeded()
+	{
+		final Iterator<PreparedStatement> it = idleStatements.values().iterator();
+		while (idleStatements.size() > maxSize && it.hasNext())
+		{
+			final PreparedStatement eldest = it.next();
+			it.remove();
+			closeNoFail(eldest);
+		}
+	}
+
+	/**
+	 * Closes all idle statements. Borrowed statements are closed when they are released.
+	 */
+	public synchronized void close()
+	{
+		closed = true;
+		for (final PreparedStatement pstmt : idleStatements.values())
+		{
+			closeNoFail(pstmt);
+		}
+		idleStatements.clear();
+	}
+
+	public synchronized int size()
+	{
+		return idleStatements.size();
+	}
+
+	private static String normalizeSql(final String sql)
+	{
+		return sql.trim();
+	}
+
+	/**
+	 * Closes a result set which was left open and resets the statement settings which the previous user might have changed,
+	 * so it can be used like a freshly prepared one.
+	 */
+	private static boolean resetNoFail(final PreparedStatement pstmt)
+	{
+		try
+		{
+			if (pstmt.isClosed())
+			{
+				return false;
+			}
+
+			final ResultSet rs = pstmt.getResultSet();
+			if (rs != null)
+			{
+				rs.close();
+			}
+
+			pstmt.clearParameters();
+			pstmt.clearBatch();
+			pstmt.clearWarnings();
+			pstmt.setMaxRows(0);
+			pstmt.setQueryTimeout(0);
+			pstmt.setFetchSize(0);
+			return true;
+		}
+		catch (final SQLException ex)
+		{
+			logger.debug("Failed resetting {}. Not caching it.", pstmt, ex);
+			return false;
+		}
+	}
+
+	private static void closeNoFail(final PreparedStatement pstmt)
+	{
+		try
+		{
+			pstmt.close();
+		}
+		catch (final SQLException ex)
+		{
+			logger.warn("Failed closing {}. Ignored.", pstmt, ex);
+		}
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "TrxStatementCache[idle=" + idleStatements.size() + ", borrowed=" + borrowedStatements.size() + ", maxSize=" + maxSize + ", closed=" + closed + "]";
+	}
+}
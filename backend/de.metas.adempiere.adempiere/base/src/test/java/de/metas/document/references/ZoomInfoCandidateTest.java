@@ -0,0 +1,88 @@
+package de.metas.document.references;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.ad.element.api.AdWindowId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.MQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.i18n.TranslatableStrings;
+import de.metas.util.lang.Priority;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ZoomInfoCandidateTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static ZoomInfoCandidate candidate(final int recordsCount, final int recordsCountLimit)
+	{
+		return ZoomInfoCandidate.builder()
+				.id(ZoomInfoId.ofString("generic-123"))
+				.internalName("test")
+				.targetWindow(ZoomTargetWindow.ofAdWindowId(AdWindowId.ofRepoId(123)))
+				.priority(Priority.LOWEST)
+				.query(new MQuery("C_Order"))
+				.destinationDisplay(TranslatableStrings.anyLanguage("Orders"))
+				.recordsCountSupplier(() -> recordsCount)
+				.recordsCountLimit(recordsCountLimit)
+				.build();
+	}
+
+	@Test
+	public void exactRecordsCount()
+	{
+		final ZoomInfo zoomInfo = candidate(250, 0).evaluate().get();
+
+		assertThat(zoomInfo.getCaption().getDefaultValue()).isEqualTo("Orders (#250)");
+		assertThat(zoomInfo.getRecordCount()).isEqualTo(250);
+	}
+
+	@Test
+	public void recordsCountBelowLimit()
+	{
+		final ZoomInfo zoomInfo = candidate(100, 100).evaluate().get();
+
+		assertThat(zoomInfo.getCaption().getDefaultValue()).isEqualTo("Orders (#100)");
+	}
+
+	@Test
+	public void recordsCountAboveLimit()
+	{
+		final ZoomInfo zoomInfo = candidate(101, 100).evaluate().get();
+
+		assertThat(zoomInfo.getCaption().getDefaultValue()).isEqualTo("Orders (#100+)");
+	}
+
+	@Test
+	public void noRecords()
+	{
+		assertThat(candidate(0, 100).evaluate()).isEmpty();
+	}
+}
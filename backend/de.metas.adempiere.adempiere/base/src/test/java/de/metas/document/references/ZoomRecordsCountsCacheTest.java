@@ -0,0 +1,131 @@
+package de.metas.document.references;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ZoomRecordsCountsCacheTest
+{
+	private static final String COUNT_ORDERS = "SELECT COUNT(1) FROM C_Order WHERE C_BPartner_ID=1";
+	private static final String COUNT_INVOICES = "SELECT COUNT(1) FROM C_Invoice WHERE C_BPartner_ID=1";
+	private static final ImmutableMap<String, String> TARGET_TABLE_NAMES_BY_COUNT_SQL = ImmutableMap.of(
+			COUNT_ORDERS, "C_Order",
+			COUNT_INVOICES, "C_Invoice");
+
+	private static final TableRecordReference BPARTNER = TableRecordReference.of("C_BPartner", 1);
+
+	private ZoomRecordsCountsCache cache;
+
+	/** current records counts in "database" */
+	private final Map<String, Integer> recordsCountsInDB = new HashMap<>();
+	/** count SQLs which were retrieved, in the order in which they were retrieved */
+	private final List<String> retrievedCountSqls = new ArrayList<>();
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		cache = new ZoomRecordsCountsCache();
+
+		recordsCountsInDB.put(COUNT_ORDERS, 0);
+		recordsCountsInDB.put(COUNT_INVOICES, 3);
+	}
+
+	private ImmutableMap<String, Integer> getRecordsCounts()
+	{
+		final Function<ImmutableList<String>, Map<String, Integer>> retriever = countSqls -> {
+			retrievedCountSqls.addAll(countSqls);
+			return countSqls.stream().collect(ImmutableMap.toImmutableMap(countSql -> countSql, recordsCountsInDB::get));
+		};
+		return cache.getRecordsCounts(BPARTNER, TARGET_TABLE_NAMES_BY_COUNT_SQL, retriever);
+	}
+
+	@Test
+	public void countsAreCached()
+	{
+		assertThat(getRecordsCounts()).containsEntry(COUNT_ORDERS, 0).containsEntry(COUNT_INVOICES, 3);
+		assertThat(getRecordsCounts()).containsEntry(COUNT_ORDERS, 0).containsEntry(COUNT_INVOICES, 3);
+
+		assertThat(retrievedCountSqls).containsExactlyInAnyOrder(COUNT_ORDERS, COUNT_INVOICES);
+	}
+
+	@Test
+	public void newTargetRecord_resetsCounts()
+	{
+		assertThat(getRecordsCounts()).containsEntry(COUNT_ORDERS, 0);
+
+		// a new order is created for the business partner
+		recordsCountsInDB.put(COUNT_ORDERS, 1);
+		assertThat(cache.reset(CacheInvalidateMultiRequest.rootRecord("C_Order", 100))).isEqualTo(1);
+
+		assertThat(getRecordsCounts()).containsEntry(COUNT_ORDERS, 1);
+	}
+
+	@Test
+	public void sourceRecordChanged_resetsCounts()
+	{
+		getRecordsCounts();
+
+		assertThat(cache.reset(CacheInvalidateMultiRequest.rootRecord("C_BPartner", 1))).isEqualTo(1);
+
+		getRecordsCounts();
+		assertThat(retrievedCountSqls).hasSize(4);
+	}
+
+	@Test
+	public void unrelatedRecordChanged_keepsCounts()
+	{
+		getRecordsCounts();
+
+		assertThat(cache.reset(CacheInvalidateMultiRequest.rootRecord("C_BPartner", 2))).isZero();
+		assertThat(cache.reset(CacheInvalidateMultiRequest.rootRecord("M_Product", 1))).isZero();
+		assertThat(cache.reset(CacheInvalidateMultiRequest.allRecordsForTable("M_Product"))).isZero();
+
+		getRecordsCounts();
+		assertThat(retrievedCountSqls).hasSize(2);
+	}
+
+	@Test
+	public void allRecordsOfSourceTable_resetsCounts()
+	{
+		getRecordsCounts();
+
+		assertThat(cache.reset(CacheInvalidateMultiRequest.allRecordsForTable("C_BPartner"))).isEqualTo(1);
+	}
+}
@@ -0,0 +1,207 @@
+package de.metas.document.sequence.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Sequence;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.cache.CacheMgt;
+import de.metas.document.sequence.impl.DocumentNoBlockAllocator.BlockKey;
+import de.metas.document.sequence.impl.DocumentNoBlockAllocator.BlockReserver;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentNoBlockAllocatorTest
+{
+	private static final int THREADS = 8;
+	private static final int DOCUMENTS_PER_THREAD = 250;
+	private static final int INCREMENT_NO = 1;
+
+	private static final BlockKey KEY = BlockKey.builder().adSequenceId(123).build();
+
+	private DocumentNoBlockAllocator allocator;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		allocator = new DocumentNoBlockAllocator().registerCacheResetListeners();
+	}
+
+	@AfterEach
+	public void unregisterCacheResetListeners()
+	{
+		allocator.unregisterCacheResetListeners();
+	}
+
+	/**
+	 * Simulates {@code UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? ... RETURNING CurrentNext - ?}:
+	 * the row is locked while the update is running, so all callers are serialized.
+	 */
+	private static class FakeSequence implements BlockReserver
+	{
+		private int currentNext = 1000;
+		private final AtomicInteger countReservations = new AtomicInteger();
+
+		@Override
+		public synchronized int reserveBlock(final int blockSize)
+		{
+			countReservations.incrementAndGet();
+			LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200)); // database roundtrip
+
+			currentNext += INCREMENT_NO * blockSize;
+			return currentNext - INCREMENT_NO * blockSize;
+		}
+	}
+
+	private static final class Result
+	{
+		private final Set<Integer> seqNos = ConcurrentHashMap.newKeySet();
+		private final AtomicInteger countSeqNos = new AtomicInteger();
+	}
+
+	private Result createDocumentsInParallel(final FakeSequence sequence, final int blockSize) throws Exception
+	{
+		final Result result = new Result();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < THREADS; thread++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < DOCUMENTS_PER_THREAD; i++)
+					{
+						final int seqNo = allocator.nextSeqNo(KEY, INCREMENT_NO, blockSize, sequence);
+						result.seqNos.add(seqNo);
+						result.countSeqNos.incrementAndGet();
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		return result;
+	}
+
+	@Test
+	public void gapless() throws Exception
+	{
+		final FakeSequence sequence = new FakeSequence();
+		final Result result = createDocumentsInParallel(sequence, 1);
+
+		assertThat(result.seqNos).hasSize(THREADS * DOCUMENTS_PER_THREAD);
+		assertThat(result.seqNos).allSatisfy(seqNo -> assertThat(seqNo).isBetween(1000, 1000 + THREADS * DOCUMENTS_PER_THREAD - 1));
+		assertThat(sequence.countReservations.get()).isEqualTo(THREADS * DOCUMENTS_PER_THREAD);
+	}
+
+	@Test
+	public void gapless_nothingIsReserved()
+	{
+		final AtomicInteger currentNext = new AtomicInteger(1);
+		final BlockReserver reserver = blockSize -> currentNext.getAndAdd(blockSize);
+
+		assertThat(allocator.nextSeqNo(KEY, 1, 0, reserver)).isEqualTo(1);
+		assertThat(allocator.nextSeqNo(KEY, 1, 1, reserver)).isEqualTo(2);
+		assertThat(currentNext.get()).isEqualTo(3);
+
+		// a changed sequence is used right away
+		currentNext.set(500);
+		assertThat(allocator.nextSeqNo(KEY, 1, 1, reserver)).isEqualTo(500);
+		assertThat(allocator.reset()).isZero();
+	}
+
+	@Test
+	public void reservedBlocks_noDuplicates() throws Exception
+	{
+		final FakeSequence sequence = new FakeSequence();
+		final Result result = createDocumentsInParallel(sequence, 100);
+
+		assertThat(result.countSeqNos.get()).isEqualTo(THREADS * DOCUMENTS_PER_THREAD);
+		assertThat(result.seqNos).hasSize(THREADS * DOCUMENTS_PER_THREAD);
+		assertThat(result.seqNos).allSatisfy(seqNo -> assertThat(seqNo).isBetween(1000, 1000 + THREADS * DOCUMENTS_PER_THREAD - 1));
+		assertThat(sequence.countReservations.get()).isEqualTo(THREADS * DOCUMENTS_PER_THREAD / 100);
+	}
+
+	@Test
+	public void reservedBlocks_incrementNo()
+	{
+		final AtomicInteger currentNext = new AtomicInteger(10);
+		final BlockReserver reserver = blockSize -> currentNext.getAndAdd(5 * blockSize);
+
+		assertThat(allocator.nextSeqNo(KEY, 5, 3, reserver)).isEqualTo(10);
+		assertThat(allocator.nextSeqNo(KEY, 5, 3, reserver)).isEqualTo(15);
+		assertThat(allocator.nextSeqNo(KEY, 5, 3, reserver)).isEqualTo(20);
+		assertThat(allocator.nextSeqNo(KEY, 5, 3, reserver)).isEqualTo(25);
+		assertThat(currentNext.get()).isEqualTo(40);
+	}
+
+	@Test
+	public void differentKeysUseDifferentBlocks()
+	{
+		final AtomicInteger currentNext = new AtomicInteger(1);
+		final BlockReserver reserver = blockSize -> currentNext.getAndAdd(blockSize);
+		final BlockKey key2020 = BlockKey.builder().adSequenceId(123).calendarYear("2020").build();
+		final BlockKey key2021 = BlockKey.builder().adSequenceId(123).calendarYear("2021").build();
+
+		assertThat(allocator.nextSeqNo(key2020, 1, 10, reserver)).isEqualTo(1);
+		assertThat(allocator.nextSeqNo(key2021, 1, 10, reserver)).isEqualTo(11);
+		assertThat(allocator.nextSeqNo(key2020, 1, 10, reserver)).isEqualTo(2);
+	}
+
+	@Test
+	public void sequenceChanged_reservedBlockIsDiscarded()
+	{
+		final AtomicInteger currentNext = new AtomicInteger(1);
+		final BlockReserver reserver = blockSize -> currentNext.getAndAdd(blockSize);
+
+		assertThat(allocator.nextSeqNo(KEY, 1, 10, reserver)).isEqualTo(1);
+
+		currentNext.set(500);
+		CacheMgt.get().reset(I_AD_Sequence.Table_Name);
+
+		assertThat(allocator.nextSeqNo(KEY, 1, 10, reserver)).isEqualTo(500);
+	}
+}
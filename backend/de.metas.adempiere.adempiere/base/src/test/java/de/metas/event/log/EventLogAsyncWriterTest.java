@@ -0,0 +1,280 @@
+package de.metas.event.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.organization.OrgId;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class EventLogAsyncWriterTest
+{
+	/** what was saved, in the order in which it was saved, e.g. "event:uuid" or "entry:uuid" */
+	private final List<String> saved = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicInteger countEventsSaverCalls = new AtomicInteger();
+
+	private EventLogAsyncWriter writer;
+
+	@AfterEach
+	public void shutdownWriter()
+	{
+		if (writer != null)
+		{
+			writer.shutdown();
+		}
+	}
+
+	private EventLogAsyncWriter createWriter(
+			final int queueCapacity,
+			final Consumer<List<EventLogCreateRequest>> eventsSaver,
+			final Consumer<List<EventLogEntry>> entriesSaver)
+	{
+		writer = EventLogAsyncWriter.builder()
+				.eventsSaver(events -> {
+					countEventsSaverCalls.incrementAndGet();
+					eventsSaver.accept(events);
+					events.forEach(event -> saved.add("event:" + event.getUuid()));
+				})
+				.entriesSaver(entries -> {
+					entriesSaver.accept(entries);
+					entries.forEach(entry -> saved.add("entry:" + entry.getUuid()));
+				})
+				.queueCapacity(queueCapacity)
+				.maxBatchSize(100)
+				.flushTimeout(Duration.ofSeconds(10))
+				.retryDelay(Duration.ofMillis(10))
+				.maxAttempts(3)
+				.build();
+		return writer;
+	}
+
+	private static EventLogCreateRequest event(final UUID uuid)
+	{
+		return EventLogCreateRequest.builder()
+				.uuid(uuid)
+				.eventTime(Instant.now())
+				.eventData("{}")
+				.clientId(ClientId.METASFRESH)
+				.orgId(OrgId.ANY)
+				.build();
+	}
+
+	private static EventLogEntry entry(final UUID uuid)
+	{
+		return EventLogEntry.builder()
+				.uuid(uuid)
+				.clientId(ClientId.METASFRESH.getRepoId())
+				.orgId(OrgId.ANY.getRepoId())
+				.message("handled")
+				.build();
+	}
+
+	private static void sleep(final long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	private static void waitUntil(final BooleanSupplier condition)
+	{
+		final long timeoutMillis = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean())
+		{
+			assertThat(System.currentTimeMillis()).as("timeout").isLessThan(timeoutMillis);
+			sleep(10);
+		}
+	}
+
+	@Test
+	public void eventsAreSavedBeforeTheirEntries_inBatches()
+	{
+		createWriter(10000, events -> sleep(1), entries -> {});
+
+		final List<UUID> uuids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			final UUID uuid = UUID.randomUUID();
+			uuids.add(uuid);
+			writer.enqueueEvent(event(uuid));
+			writer.enqueueEntries(ImmutableList.of(entry(uuid), entry(uuid)));
+		}
+		writer.flush();
+
+		assertThat(saved).hasSize(3000);
+		for (final UUID uuid : uuids)
+		{
+			assertThat(saved.indexOf("event:" + uuid)).isLessThan(saved.indexOf("entry:" + uuid));
+		}
+		assertThat(countEventsSaverCalls.get()).isLessThan(1000);
+	}
+
+	@Test
+	public void fullQueue_callerWaits() throws Exception
+	{
+		final CountDownLatch saverBlocked = new CountDownLatch(1);
+		createWriter(10, events -> {
+			try
+			{
+				saverBlocked.await();
+			}
+			catch (final InterruptedException e)
+			{
+				throw AdempiereException.wrapIfNeeded(e);
+			}
+		}, entries -> {});
+
+		final CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+			for (int i = 0; i < 50; i++)
+			{
+				writer.enqueueEvent(event(UUID.randomUUID()));
+			}
+		});
+
+		sleep(300);
+		assertThat(producer).isNotDone();
+
+		saverBlocked.countDown();
+		producer.get(10, TimeUnit.SECONDS);
+		writer.flush();
+
+		assertThat(saved).hasSize(50);
+	}
+
+	@Test
+	public void shutdown_savesEverything()
+	{
+		createWriter(10000, events -> sleep(5), entries -> {});
+
+		for (int i = 0; i < 200; i++)
+		{
+			writer.enqueueEvent(event(UUID.randomUUID()));
+		}
+		writer.shutdown();
+		assertThat(saved).hasSize(200);
+
+		// after shutdown, everything is saved right away
+		writer.enqueueEvent(event(UUID.randomUUID()));
+		assertThat(saved).hasSize(201);
+	}
+
+	@Test
+	public void entriesOfNotYetSavedEvent_areRetried()
+	{
+		final UUID uuid = UUID.randomUUID();
+		final AtomicInteger countAttempts = new AtomicInteger();
+		createWriter(10000, events -> {}, entries -> {
+			// simulate a remote event whose log is saved by the other node a bit later
+			if (countAttempts.incrementAndGet() <= 2)
+			{
+				throw new AdempiereException("No EventLog found for " + uuid);
+			}
+		});
+
+		writer.enqueueEntries(ImmutableList.of(entry(uuid)));
+
+		waitUntil(() -> saved.contains("entry:" + uuid));
+		assertThat(countAttempts.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void entriesOfMissingEvent_doNotBlockOtherEntries()
+	{
+		final UUID missingUUID = UUID.randomUUID();
+		final UUID uuid = UUID.randomUUID();
+		createWriter(10000, events -> {}, entries -> {
+			if (entries.stream().anyMatch(entry -> entry.getUuid().equals(missingUUID)))
+			{
+				throw new AdempiereException("No EventLog found for " + missingUUID);
+			}
+		});
+
+		writer.enqueueEvent(event(uuid));
+		writer.enqueueEntries(ImmutableList.of(entry(missingUUID), entry(uuid)));
+		writer.flush();
+
+		// the entries of the other event are not affected
+		assertThat(saved).containsExactly("event:" + uuid, "entry:" + uuid);
+	}
+
+	@Test
+	public void flush_waitsForEntriesToRetry()
+	{
+		final UUID uuid = UUID.randomUUID();
+		final AtomicInteger countAttempts = new AtomicInteger();
+		createWriter(10000, events -> {}, entries -> {
+			if (countAttempts.incrementAndGet() <= 2)
+			{
+				throw new AdempiereException("No EventLog found for " + uuid);
+			}
+		});
+
+		writer.enqueueEntries(ImmutableList.of(entry(uuid)));
+		writer.flush();
+
+		assertThat(saved).containsExactly("entry:" + uuid);
+	}
+
+	@Test
+	public void shutdown_writesEntriesToRetry()
+	{
+		final UUID uuid = UUID.randomUUID();
+		final AtomicInteger countAttempts = new AtomicInteger();
+		createWriter(10000, events -> {}, entries -> {
+			if (countAttempts.incrementAndGet() <= 2)
+			{
+				throw new AdempiereException("No EventLog found for " + uuid);
+			}
+		});
+
+		writer.enqueueEntries(ImmutableList.of(entry(uuid)));
+		waitUntil(() -> countAttempts.get() >= 1);
+		writer.shutdown();
+
+		assertThat(saved).containsExactly("entry:" + uuid);
+	}
+}
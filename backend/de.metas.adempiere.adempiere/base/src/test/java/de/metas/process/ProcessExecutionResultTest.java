@@ -1,6 +1,8 @@
 package de.metas.process;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -163,4 +165,98 @@ public class ProcessExecutionResultTest
 
 		assertEqualsAsJson(result, resultCopy);
 	}
+
+	@Test
+	public void reportTempFile() throws Exception
+	{
+		final File tempFile = createReportTempFile(new byte[] { 1, 2, 3 });
+		try
+		{
+			final ProcessExecutionResult result = ProcessExecutionResult.newInstanceForADPInstanceId(PInstanceId.ofRepoId(12345));
+			result.setReportTempFile(tempFile, "report.csv", "text/csv");
+
+			Assert.assertSame(tempFile, result.getReportTempFile());
+			Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, result.getReportData());
+			Assert.assertEquals("report.csv", result.getReportFilename());
+			Assert.assertEquals("text/csv", result.getReportContentType());
+
+			// the file is not deleted by reading it
+			Assert.assertTrue(tempFile.exists());
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	@Test
+	public void setReportData_replacesReportTempFile() throws Exception
+	{
+		final File tempFile = createReportTempFile(new byte[] { 1, 2, 3 });
+		try
+		{
+			final ProcessExecutionResult result = ProcessExecutionResult.newInstanceForADPInstanceId(PInstanceId.ofRepoId(12345));
+			result.setReportTempFile(tempFile, "report.csv", "text/csv");
+			result.setReportData(new byte[] { 4, 5 }, "report.pdf", "application/pdf");
+
+			Assert.assertNull(result.getReportTempFile());
+			Assert.assertArrayEquals(new byte[] { 4, 5 }, result.getReportData());
+			Assert.assertEquals("report.pdf", result.getReportFilename());
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	@Test
+	public void updateFrom_reportTempFile() throws Exception
+	{
+		final File tempFile = createReportTempFile(new byte[] { 1, 2, 3 });
+		try
+		{
+			final ProcessExecutionResult result = ProcessExecutionResult.newInstanceForADPInstanceId(PInstanceId.ofRepoId(12345));
+			result.setReportTempFile(tempFile, "report.csv", "text/csv");
+
+			final ProcessExecutionResult resultCopy = ProcessExecutionResult.newInstanceForADPInstanceId(result.getPinstanceId());
+			resultCopy.updateFrom(result);
+
+			Assert.assertSame(tempFile, resultCopy.getReportTempFile());
+			Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, resultCopy.getReportData());
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	@Test
+	public void testJsonSerializeDeserialize_reportTempFile() throws Exception
+	{
+		final File tempFile = createReportTempFile(new byte[] { 1, 2, 3 });
+		try
+		{
+			final ProcessExecutionResult result = ProcessExecutionResult.newInstanceForADPInstanceId(PInstanceId.ofRepoId(12345));
+			result.setReportTempFile(tempFile, "report.csv", "text/csv");
+
+			final ProcessExecutionResult resultFromJson = fromJson(toJson(result));
+
+			// the temp file is not serialized, but its content is
+			Assert.assertNull(resultFromJson.getReportTempFile());
+			Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, resultFromJson.getReportData());
+			Assert.assertEquals("report.csv", resultFromJson.getReportFilename());
+			Assert.assertEquals("text/csv", resultFromJson.getReportContentType());
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile.toPath());
+		}
+	}
+
+	private static File createReportTempFile(final byte[] data) throws IOException
+	{
+		final File tempFile = File.createTempFile("ProcessExecutionResultTest", ".tmp");
+		Files.write(tempFile.toPath(), data);
+		return tempFile;
+	}
 }
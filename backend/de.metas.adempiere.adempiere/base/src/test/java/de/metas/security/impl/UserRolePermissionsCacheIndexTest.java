@@ -0,0 +1,105 @@
+package de.metas.security.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_AD_Role;
+import org.compiere.model.I_AD_User_OrgAccess;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.security.IUserRolePermissions;
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class UserRolePermissionsCacheIndexTest
+{
+	private static final RoleId ROLE_1 = RoleId.ofRepoId(1000001);
+	private static final RoleId ROLE_2 = RoleId.ofRepoId(1000002);
+	private static final RoleId ROLE_INCLUDED = RoleId.ofRepoId(1000003);
+
+	private UserRolePermissionsCacheIndex index;
+
+	@BeforeEach
+	public void init()
+	{
+		index = new UserRolePermissionsCacheIndex();
+	}
+
+	private static UserRolePermissionsKey key(final RoleId roleId, final int userRepoId)
+	{
+		return UserRolePermissionsKey.of(roleId, UserId.ofRepoId(userRepoId), ClientId.ofRepoId(1000000), LocalDate.of(2019, 10, 1));
+	}
+
+	private static IUserRolePermissions permissions(final RoleId roleId, final RoleId... includedRoleIds)
+	{
+		final IUserRolePermissions permissions = mock(IUserRolePermissions.class);
+		when(permissions.getAllRoleIds()).thenReturn(ImmutableSet.<RoleId> builder().add(roleId).add(includedRoleIds).build());
+		return permissions;
+	}
+
+	@Test
+	public void onlyKeysDependingOnTheRoleAreReturned()
+	{
+		final UserRolePermissionsKey key1 = key(ROLE_1, 100);
+		final UserRolePermissionsKey key2 = key(ROLE_2, 100);
+		index.add(key1, permissions(ROLE_1));
+		index.add(key2, permissions(ROLE_2));
+
+		assertThat(index.removeKeysByRoleIds(ImmutableSet.of(ROLE_1))).containsExactly(key1);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void changingIncludedRoleInvalidatesIncludingRoles()
+	{
+		final UserRolePermissionsKey key1 = key(ROLE_1, 100);
+		final UserRolePermissionsKey key2 = key(ROLE_2, 101);
+		index.add(key1, permissions(ROLE_1, ROLE_INCLUDED));
+		index.add(key2, permissions(ROLE_2));
+
+		assertThat(index.computeCachingKeys(TableRecordReference.of(I_AD_Role.Table_Name, ROLE_INCLUDED.getRepoId())))
+				.containsExactly(key1);
+
+		// key1 was handed out for invalidation, so it's no longer indexed, also not for its own role
+		assertThat(index.removeKeysByRoleIds(ImmutableSet.of(ROLE_1))).isEmpty();
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void notRoleRecordsResetAll()
+	{
+		assertThat(index.isResetAll(TableRecordReference.of(I_AD_Role.Table_Name, ROLE_1.getRepoId()))).isFalse();
+		assertThat(index.isResetAll(TableRecordReference.of(I_AD_User_OrgAccess.Table_Name, 1))).isTrue();
+	}
+}
@@ -0,0 +1,114 @@
+package org.adempiere.ad.expression.api.impl;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
+import org.adempiere.ad.expression.api.ILogicExpression;
+import org.adempiere.service.ISysConfigDAO;
+import org.adempiere.service.impl.PlainSysConfigDAO;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.CtxName;
+import org.compiere.util.Evaluatee;
+import org.compiere.util.Evaluatees;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Evaluates the logic expressions from {@link LogicExpressionsDatabase} against random contexts and prints how long it took.
+ * <p>
+ * Not a test; run the {@link #main(String[])} method.
+ */
+public class LogicExpressionEvaluator_Benchmark
+{
+	public static void main(final String[] args)
+	{
+		AdempiereTestHelper.get().init();
+		Services.registerService(ISysConfigDAO.class, new PlainSysConfigDAO());
+
+		final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		new LogicExpressionEvaluator_Benchmark().run(iterations);
+	}
+
+	private static final List<String> VALUES = ImmutableList.of("Y", "N", "0", "1", "100", "-1", "CO", "SO", "'C'", "10.5");
+
+	private final Random random = new Random(12345);
+
+	private void run(final int iterations)
+	{
+		final List<ILogicExpression> expressions = LogicExpressionsDatabase.VALID_EXPRESSIONS
+				.stream()
+				.map(LogicExpressionCompiler.instance::compile)
+				.collect(ImmutableList.toImmutableList());
+
+		final List<Evaluatee> contexts = expressions
+				.stream()
+				.map(expression -> randomContext(expression.getParameters()))
+				.collect(ImmutableList.toImmutableList());
+
+		// warm up
+		evaluate(expressions, contexts, iterations);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int countTrue = evaluate(expressions, contexts, iterations);
+		stopwatch.stop();
+
+		final long countEvaluations = (long)iterations * expressions.size();
+		System.out.println("Evaluated " + countEvaluations + " expressions (" + countTrue + " true) in " + stopwatch);
+		System.out.println("=> " + (stopwatch.elapsed(TimeUnit.NANOSECONDS) / countEvaluations) + "ns/expression");
+	}
+
+	private static int evaluate(final List<ILogicExpression> expressions, final List<Evaluatee> contexts, final int iterations)
+	{
+		int countTrue = 0;
+		for (int i = 0; i < iterations; i++)
+		{
+			for (int j = 0, size = expressions.size(); j < size; j++)
+			{
+				if (LogicExpressionEvaluator.instance.evaluate(contexts.get(j), expressions.get(j), OnVariableNotFound.ReturnNoResult))
+				{
+					countTrue++;
+				}
+			}
+		}
+		return countTrue;
+	}
+
+	private Evaluatee randomContext(final Set<CtxName> parameters)
+	{
+		final ImmutableMap.Builder<String, String> map = ImmutableMap.builder();
+		for (final CtxName parameter : parameters)
+		{
+			map.put(parameter.getName(), VALUES.get(random.nextInt(VALUES.size())));
+		}
+		return Evaluatees.ofMap(map.build());
+	}
+}
@@ -0,0 +1,199 @@
+package org.adempiere.ad.expression.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.CtxNames;
+import org.compiere.util.Evaluatees;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Checks that evaluating {@link LogicTuple}s with pre-parsed operands gives the same results as the former "parse on each evaluation" string comparison.
+ */
+public class LogicTupleEvaluationTest
+{
+	private static final int ITERATIONS = 20000;
+
+	private static final List<String> VALUES = ImmutableList.of(
+			"0", "0.00", "00", "+0", "-0", "1", "01", "1.0", "1.5", "-1", "+1", "10", "9", "100", "-10.0001", "10.0001000",
+			"1-2", "+", "-", ".", "..", "1..2", "--1", "",
+			"Y", "N", "y", "A", "AB", "ab", "CO", "X1", " Y", "Y ", " 1 ", "1 ",
+			"'Y'", "\"Y\"", "'1'", "\"10\"", "''", "'", "\"", "'A", "A'", "\"'Y'\"", "'\"1\"'");
+
+	private static final List<String> OPERATORS = LogicTuple.OPERATORS;
+
+	private Random random;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		random = new Random(12345);
+	}
+
+	@Test
+	public void randomValues()
+	{
+		for (int i = 0; i < ITERATIONS; i++)
+		{
+			final String value1 = randomValue();
+			final String operator = randomOperator();
+			final String value2 = randomValue();
+
+			assertThat(LogicExpressionEvaluator.evaluateLogicTuple(value1, operator, value2))
+					.as("%s %s %s", value1, operator, value2)
+					.isEqualTo(evaluateLogicTuple_Reference(value1, operator, value2));
+		}
+	}
+
+	@Test
+	public void randomConstantTuples()
+	{
+		for (int i = 0; i < ITERATIONS; i++)
+		{
+			final String value1 = randomValue();
+			final String operator = randomOperator();
+			final String value2 = randomValue();
+			final LogicTuple tuple = LogicTuple.parseFrom(value1, operator, value2);
+
+			final boolean result = LogicExpressionEvaluator.instance.evaluate(Evaluatees.empty(), tuple, OnVariableNotFound.Fail);
+
+			assertThat(result)
+					.as("%s", tuple)
+					.isEqualTo(evaluateLogicTuple_Reference(trimAndStripQuotes(value1), operator, trimAndStripQuotes(value2)));
+		}
+	}
+
+	@Test
+	public void randomParameterTuples()
+	{
+		for (int i = 0; i < ITERATIONS; i++)
+		{
+			final String value1 = randomNotEmptyValue();
+			final String operator = randomOperator();
+			final String value2 = randomValue();
+			final LogicTuple tuple = LogicTuple.of(CtxNames.parse("Param"), operator, value2);
+
+			final boolean result = LogicExpressionEvaluator.instance.evaluate(Evaluatees.ofSingleton("Param", value1), tuple, OnVariableNotFound.Fail);
+
+			assertThat(result)
+					.as("%s with Param=%s", tuple, value1)
+					.isEqualTo(evaluateLogicTuple_Reference(value1, operator, trimAndStripQuotes(value2)));
+		}
+	}
+
+	private String randomValue()
+	{
+		return VALUES.get(random.nextInt(VALUES.size()));
+	}
+
+	private String randomNotEmptyValue()
+	{
+		String value;
+		do
+		{
+			value = randomValue();
+		}
+		while (value.trim().isEmpty());
+		return value;
+	}
+
+	private String randomOperator()
+	{
+		return OPERATORS.get(random.nextInt(OPERATORS.size()));
+	}
+
+	private static String trimAndStripQuotes(final String value)
+	{
+		return LogicExpressionEvaluator.stripQuotes(value.trim());
+	}
+
+	/**
+	 * The former implementation of {@link LogicExpressionEvaluator#evaluateLogicTuple(String, String, String)}, kept as reference.
+	 */
+	private static boolean evaluateLogicTuple_Reference(final String valueObj1, final String operand, final String valueObj2)
+	{
+		boolean stringCaseAlreadyChecked = false;
+		final String value1Str = LogicExpressionEvaluator.stripQuotes(valueObj1);
+		final String value2Str = LogicExpressionEvaluator.stripQuotes(valueObj2);
+
+		if (LogicTuple.OPERATOR_Equals.equals(operand))
+		{
+			if (compare_Reference(value1Str, operand, value2Str))
+			{
+				return true;
+			}
+			stringCaseAlreadyChecked = true;
+		}
+
+		try
+		{
+			if (LogicExpressionEvaluator.isPossibleNumber(value1Str)
+					&& LogicExpressionEvaluator.isPossibleNumber(value2Str))
+			{
+				final BigDecimal value1BD = new BigDecimal(value1Str);
+				final BigDecimal value2BD = new BigDecimal(value2Str);
+				return compare_Reference(value1BD, operand, value2BD);
+			}
+		}
+		catch (final NumberFormatException ex)
+		{
+			// go forward
+		}
+
+		if (!stringCaseAlreadyChecked)
+		{
+			return compare_Reference(value1Str, operand, value2Str);
+		}
+
+		return false;
+	}
+
+	private static <T> boolean compare_Reference(final Comparable<T> value1, final String operand, final T value2)
+	{
+		final int compareResult = value1.compareTo(value2);
+		switch (operand)
+		{
+			case LogicTuple.OPERATOR_Equals:
+				return compareResult == 0;
+			case LogicTuple.OPERATOR_LessThan:
+				return compareResult < 0;
+			case LogicTuple.OPERATOR_GreaterThan:
+				return compareResult > 0;
+			case LogicTuple.OPERATOR_NotEquals:
+				return compareResult != 0;
+			default:
+				throw new IllegalArgumentException("Unknown operator: " + operand);
+		}
+	}
+}
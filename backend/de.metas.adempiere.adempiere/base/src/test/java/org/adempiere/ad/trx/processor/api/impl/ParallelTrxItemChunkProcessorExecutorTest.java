@@ -0,0 +1,239 @@
+package org.adempiere.ad.trx.processor.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.processor.api.FailTrxItemExceptionHandler;
+import org.adempiere.ad.trx.processor.api.ITrxItemExecutorBuilder;
+import org.adempiere.ad.trx.processor.api.ITrxItemProcessorExecutorService;
+import org.adempiere.ad.trx.processor.api.TrxItemProcessorConfigException;
+import org.adempiere.ad.trx.processor.spi.TrxItemProcessorAdapter;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.util.Services;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ParallelTrxItemChunkProcessorExecutorTest
+{
+	private static final int KEYS = 20;
+	private static final int ITEMS_PER_KEY = 200;
+	private static final int PARALLELISM = 4;
+
+	private ITrxItemProcessorExecutorService executorService;
+
+	@Value
+	private static class TestItem
+	{
+		int key;
+		int seqNo;
+	}
+
+	/** Records which item was processed in which thread and transaction */
+	private static class ProcessedItems
+	{
+		private final Map<Integer, List<Integer>> seqNosByKey = new ConcurrentHashMap<>();
+		private final Map<String, Set<String>> threadNamesByTrxName = new ConcurrentHashMap<>();
+		private final Map<String, List<TestItem>> itemsByTrxName = new ConcurrentHashMap<>();
+		private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+		private final Map<String, Set<Properties>> ctxsByThreadName = new ConcurrentHashMap<>();
+
+		public void add(final TestItem item, final String trxName, final Properties ctx)
+		{
+			final String threadName = Thread.currentThread().getName();
+			ctxsByThreadName.computeIfAbsent(threadName, k -> Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()))).add(ctx);
+
+			seqNosByKey.computeIfAbsent(item.getKey(), k -> Collections.synchronizedList(new ArrayList<>())).add(item.getSeqNo());
+			threadNamesByTrxName.computeIfAbsent(trxName, k -> ConcurrentHashMap.newKeySet()).add(threadName);
+			itemsByTrxName.computeIfAbsent(trxName, k -> Collections.synchronizedList(new ArrayList<>())).add(item);
+			threadNames.add(threadName);
+		}
+	}
+
+	/** Counts the processed items of one lane */
+	private static class CountingProcessor extends TrxItemProcessorAdapter<TestItem, Integer>
+	{
+		private final ProcessedItems processedItems;
+		private int count = 0;
+
+		private CountingProcessor(final ProcessedItems processedItems)
+		{
+			this.processedItems = processedItems;
+		}
+
+		@Override
+		public void process(final TestItem item)
+		{
+			if (item.getSeqNo() < 0)
+			{
+				throw new AdempiereException("failing on purpose: " + item);
+			}
+
+			processedItems.add(item, getTrxName(), getCtx());
+			count++;
+		}
+
+		@Override
+		public Integer getResult()
+		{
+			return count;
+		}
+	}
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		executorService = Services.get(ITrxItemProcessorExecutorService.class);
+	}
+
+	private static List<TestItem> createItems()
+	{
+		// items of different keys are interleaved, like e.g. shipment schedules ordered by date
+		final List<TestItem> items = new ArrayList<>();
+		for (int seqNo = 0; seqNo < ITEMS_PER_KEY; seqNo++)
+		{
+			for (int key = 0; key < KEYS; key++)
+			{
+				items.add(new TestItem(key, seqNo));
+			}
+		}
+		return items;
+	}
+
+	private ITrxItemExecutorBuilder<TestItem, Integer> newParallelExecutor(final ProcessedItems processedItems)
+	{
+		return executorService.<TestItem, Integer> createExecutor()
+				.setContext(Env.getCtx(), ITrx.TRXNAME_None)
+				.setProcessorFactory(() -> new CountingProcessor(processedItems))
+				.setParallelism(PARALLELISM)
+				.setPartitionKey(TestItem::getKey)
+				.setResultsCombiner(Integer::sum);
+	}
+
+	@Test
+	public void allItemsProcessed_inOrderPerKey()
+	{
+		final ProcessedItems processedItems = new ProcessedItems();
+
+		final Integer countProcessed = newParallelExecutor(processedItems)
+				.process(createItems());
+
+		assertThat(countProcessed).isEqualTo(KEYS * ITEMS_PER_KEY);
+		assertThat(processedItems.seqNosByKey).hasSize(KEYS);
+		for (final List<Integer> seqNos : processedItems.seqNosByKey.values())
+		{
+			assertThat(seqNos).hasSize(ITEMS_PER_KEY).isSorted();
+		}
+		assertThat(processedItems.threadNames).hasSize(PARALLELISM);
+	}
+
+	@Test
+	public void eachLaneHasItsOwnCtx()
+	{
+		final ProcessedItems processedItems = new ProcessedItems();
+		Env.setContext(Env.getCtx(), "#TestMarker", "Y");
+
+		newParallelExecutor(processedItems)
+				.process(createItems());
+
+		final Set<Properties> laneCtxs = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (final Set<Properties> ctxs : processedItems.ctxsByThreadName.values())
+		{
+			assertThat(ctxs).hasSize(1);
+			laneCtxs.addAll(ctxs);
+		}
+		assertThat(laneCtxs).hasSize(PARALLELISM);
+		assertThat(laneCtxs).allSatisfy(ctx -> assertThat(ctx.getProperty("#TestMarker")).isEqualTo("Y"));
+	}
+
+	@Test
+	public void eachChunkInItsOwnTrx()
+	{
+		final ProcessedItems processedItems = new ProcessedItems();
+
+		newParallelExecutor(processedItems)
+				.setItemsPerBatch(10)
+				.process(createItems());
+
+		assertThat(processedItems.itemsByTrxName).doesNotContainKey(null);
+		assertThat(processedItems.itemsByTrxName.values()).allSatisfy(chunkItems -> assertThat(chunkItems).hasSize(10));
+		assertThat(processedItems.threadNamesByTrxName.values()).allSatisfy(threadNames -> assertThat(threadNames).hasSize(1));
+		assertThat(processedItems.itemsByTrxName).hasSize(KEYS * ITEMS_PER_KEY / 10);
+	}
+
+	@Test
+	public void failingItem()
+	{
+		final ProcessedItems processedItems = new ProcessedItems();
+		final List<TestItem> items = createItems();
+		items.add(KEYS * 10, new TestItem(3, -1));
+
+		final ITrxItemExecutorBuilder<TestItem, Integer> executor = newParallelExecutor(processedItems)
+				.setExceptionHandler(FailTrxItemExceptionHandler.instance);
+
+		assertThatThrownBy(() -> executor.process(items)).hasMessageContaining("failing on purpose");
+		assertThat(processedItems.seqNosByKey.get(3)).hasSizeLessThan(ITEMS_PER_KEY);
+	}
+
+	@Test
+	public void partitionKeyIsRequired()
+	{
+		final ITrxItemExecutorBuilder<TestItem, Integer> executor = executorService.<TestItem, Integer> createExecutor()
+				.setContext(Env.getCtx(), ITrx.TRXNAME_None)
+				.setProcessorFactory(() -> new CountingProcessor(new ProcessedItems()))
+				.setParallelism(PARALLELISM);
+
+		assertThatThrownBy(executor::build).isInstanceOf(TrxItemProcessorConfigException.class);
+	}
+
+	@Test
+	public void parentTrx_processedInCurrentThread()
+	{
+		final ProcessedItems processedItems = new ProcessedItems();
+		final String currentThreadName = Thread.currentThread().getName();
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> newParallelExecutor(processedItems)
+				.setContext(Env.getCtx(), ITrx.TRXNAME_ThreadInherited)
+				.process(createItems()));
+
+		assertThat(processedItems.threadNames).containsExactly(currentThreadName);
+		assertThat(processedItems.seqNosByKey.values()).allSatisfy(seqNos -> assertThat(seqNos).hasSize(ITEMS_PER_KEY));
+	}
+}
@@ -0,0 +1,233 @@
+package org.adempiere.archive.spi.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.Random;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.archive.api.IArchiveStorageFactory;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_AD_Archive;
+import org.compiere.model.I_AD_Client;
+import org.compiere.util.Env;
+import org.compiere.util.Ini;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.ByteStreams;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ContentAddressedArchiveStorageTest
+{
+	@Rule
+	public TemporaryFolder storageFolder = new TemporaryFolder();
+
+	private int countReferences = 0;
+	private ContentAddressedArchiveStorage storage;
+
+	private final Random random = new Random();
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		Ini.setClient(false);
+
+		final Properties ctx = Env.getCtx();
+		final I_AD_Client client = InterfaceWrapperHelper.create(ctx, I_AD_Client.class, ITrx.TRXNAME_None);
+		client.setWindowsArchivePath(storageFolder.getRoot().getAbsolutePath());
+		client.setUnixArchivePath(client.getWindowsArchivePath());
+		client.setStoreArchiveOnFileSystem(true);
+		InterfaceWrapperHelper.save(client);
+
+		Env.setContext(ctx, "#AD_Client_ID", client.getAD_Client_ID());
+
+		storage = new ContentAddressedArchiveStorage()
+		{
+			@Override
+			protected int countReferences(final String contentHash)
+			{
+				return countReferences;
+			}
+		};
+		storage.init(ctx, client.getAD_Client_ID());
+	}
+
+	private I_AD_Archive newArchive()
+	{
+		final I_AD_Archive archive = storage.newArchive(Env.getCtx(), ITrx.TRXNAME_None);
+		archive.setAD_Org_ID(0);
+		return archive;
+	}
+
+	private byte[] createTestDataBytes()
+	{
+		final byte[] data = new byte[4096];
+		random.nextBytes(data);
+		return data;
+	}
+
+	@Test
+	public void sameContent_isStoredOnce() throws IOException
+	{
+		final byte[] data = createTestDataBytes();
+
+		final I_AD_Archive archive1 = newArchive();
+		storage.setBinaryData(archive1, data);
+		InterfaceWrapperHelper.save(archive1);
+
+		final I_AD_Archive archive2 = newArchive();
+		storage.setBinaryData(archive2, new ByteArrayInputStream(data));
+		InterfaceWrapperHelper.save(archive2);
+
+		assertThat(archive1.isFileSystem()).isTrue();
+		assertThat(ContentAddressedArchiveStorage.isContentAddressed(archive1)).isTrue();
+		assertThat(archive1.getContentHash()).isEqualTo(ContentAddressedArchiveStorage.extractContentHash(archive1.getBinaryData()));
+		assertThat(archive2.getBinaryData()).isEqualTo(archive1.getBinaryData());
+		assertThat(storage.getFile(archive2)).isEqualTo(storage.getFile(archive1));
+
+		assertThat(storage.getBinaryData(archive1)).isEqualTo(data);
+		try (final InputStream in = storage.getBinaryDataAsStream(archive2))
+		{
+			assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+		}
+
+		// only the content file, no leftover temporary files
+		assertThat(Files.walk(storageFolder.getRoot().toPath()).filter(Files::isRegularFile).count()).isEqualTo(1);
+	}
+
+	@Test
+	public void differentContent_isStoredSeparately()
+	{
+		final I_AD_Archive archive1 = newArchive();
+		storage.setBinaryData(archive1, createTestDataBytes());
+
+		final I_AD_Archive archive2 = newArchive();
+		storage.setBinaryData(archive2, createTestDataBytes());
+
+		assertThat(archive2.getBinaryData()).isNotEqualTo(archive1.getBinaryData());
+		assertThat(storage.getFile(archive1)).exists();
+		assertThat(storage.getFile(archive2)).exists();
+	}
+
+	@Test
+	public void readableByFilesystemArchiveStorage()
+	{
+		final byte[] data = createTestDataBytes();
+		final I_AD_Archive archive = newArchive();
+		storage.setBinaryData(archive, data);
+
+		final FilesystemArchiveStorage filesystemStorage = new FilesystemArchiveStorage();
+		filesystemStorage.init(Env.getCtx(), Env.getAD_Client_ID(Env.getCtx()));
+
+		assertThat(filesystemStorage.getBinaryData(archive)).isEqualTo(data);
+	}
+
+	@Test
+	public void archiveStorageFactory_returnsThisStorageForReferences()
+	{
+		final I_AD_Archive archive = newArchive();
+		storage.setBinaryData(archive, createTestDataBytes());
+		InterfaceWrapperHelper.save(archive);
+
+		final IArchiveStorageFactory archiveStorageFactory = Services.get(IArchiveStorageFactory.class);
+		assertThat(archiveStorageFactory.getArchiveStorage(archive)).isInstanceOf(ContentAddressedArchiveStorage.class);
+	}
+
+	@Test
+	public void deleteIfNotReferenced() throws IOException
+	{
+		final I_AD_Archive archive = newArchive();
+		storage.setBinaryData(archive, createTestDataBytes());
+		final String contentHash = ContentAddressedArchiveStorage.extractContentHash(archive.getBinaryData());
+		final Path file = storage.getFile(archive);
+
+		// recently written => kept
+		countReferences = 0;
+		storage.deleteIfNotReferenced(contentHash);
+		assertThat(file).exists();
+
+		// still referenced => kept
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+		countReferences = 1;
+		storage.deleteIfNotReferenced(contentHash);
+		assertThat(file).exists();
+
+		// not referenced anymore => deleted
+		countReferences = 0;
+		storage.deleteIfNotReferenced(contentHash);
+		assertThat(file).doesNotExist();
+	}
+
+	@Test
+	public void deleteNotReferencedFiles() throws IOException
+	{
+		final I_AD_Archive archive = newArchive();
+		storage.setBinaryData(archive, createTestDataBytes());
+		final Path file = storage.getFile(archive);
+
+		final Path leftoverTempFile = Files.createTempFile(file.getParent().getParent().getParent(), "upload", ".tmp");
+
+		// recently written => kept
+		countReferences = 0;
+		assertThat(storage.deleteNotReferencedFiles()).isEqualTo(0);
+		assertThat(file).exists();
+		assertThat(leftoverTempFile).exists();
+
+		// still referenced => kept; leftover temporary file => deleted
+		Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+		Files.setLastModifiedTime(leftoverTempFile, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+		countReferences = 1;
+		assertThat(storage.deleteNotReferencedFiles()).isEqualTo(1);
+		assertThat(file).exists();
+		assertThat(leftoverTempFile).doesNotExist();
+
+		// not referenced anymore => deleted
+		countReferences = 0;
+		assertThat(storage.deleteNotReferencedFiles()).isEqualTo(1);
+		assertThat(file).doesNotExist();
+	}
+
+	@Test
+	public void extractContentHash_notAReference()
+	{
+		assertThat(ContentAddressedArchiveStorage.extractContentHash(null)).isNull();
+		assertThat(ContentAddressedArchiveStorage.extractContentHash("%ARCHIVE_FOLDER%1000000/0/123.pdf".getBytes())).isNull();
+		assertThat(ContentAddressedArchiveStorage.extractContentHash(createTestDataBytes())).isNull();
+	}
+}
@@ -0,0 +1,151 @@
+package org.adempiere.sql.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.adempiere.sql.impl.StatementReuseStats.StatementReuseStat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TrxStatementCacheTest
+{
+	private static final int TYPE = ResultSet.TYPE_FORWARD_ONLY;
+	private static final int CONCURRENCY = ResultSet.CONCUR_READ_ONLY;
+
+	private Connection connection;
+	private StatementReuseStats stats;
+
+	@BeforeEach
+	public void beforeEach() throws SQLException
+	{
+		connection = mock(Connection.class);
+		when(connection.prepareStatement(anyString(), anyInt(), anyInt()))
+				.thenAnswer(invocation -> mock(PreparedStatement.class));
+
+		stats = new StatementReuseStats();
+	}
+
+	@Test
+	public void releasedStatementIsReused() throws SQLException
+	{
+		final TrxStatementCache cache = new TrxStatementCache(connection, 10, stats);
+
+		final PreparedStatement pstmt1 = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		cache.release(pstmt1);
+		final PreparedStatement pstmt2 = cache.borrow("SELECT 1 ", TYPE, CONCURRENCY);
+
+		assertThat(pstmt2).isSameAs(pstmt1);
+		verify(pstmt1).clearParameters();
+		assertThat(stats.getStats()).containsExactly(StatementReuseStat.builder()
+				.sql("SELECT 1")
+				.prepareCount(1)
+				.reuseCount(1)
+				.build());
+	}
+
+	@Test
+	public void openResultSetIsClosedOnRelease() throws SQLException
+	{
+		final TrxStatementCache cache = new TrxStatementCache(connection, 10, stats);
+
+		final PreparedStatement pstmt = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		final ResultSet rs = mock(ResultSet.class);
+		when(pstmt.getResultSet()).thenReturn(rs);
+		cache.release(pstmt);
+
+		verify(rs).close();
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void borrowedStatementIsNotHandedOutTwice() throws SQLException
+	{
+		final TrxStatementCache cache = new TrxStatementCache(connection, 10, stats);
+
+		final PreparedStatement pstmt1 = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		final PreparedStatement pstmt2 = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		assertThat(pstmt2).isNotSameAs(pstmt1);
+
+		cache.release(pstmt1);
+		cache.release(pstmt2);
+
+		// only one idle statement per SQL is kept
+		assertThat(cache.size()).isEqualTo(1);
+		verify(pstmt2).close();
+	}
+
+	@Test
+	public void leastRecentlyUsedStatementsAreEvicted() throws SQLException
+	{
+		final TrxStatementCache cache = new TrxStatementCache(connection, 2, stats);
+
+		final PreparedStatement pstmt1 = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		final PreparedStatement pstmt2 = cache.borrow("SELECT 2", TYPE, CONCURRENCY);
+		final PreparedStatement pstmt3 = cache.borrow("SELECT 3", TYPE, CONCURRENCY);
+		cache.release(pstmt1);
+		cache.release(pstmt2);
+		cache.release(pstmt3);
+
+		assertThat(cache.size()).isEqualTo(2);
+		verify(pstmt1).close();
+	}
+
+	@Test
+	public void closeClosesIdleStatementsAndLaterReleasedOnes() throws SQLException
+	{
+		final TrxStatementCache cache = new TrxStatementCache(connection, 10, stats);
+
+		final PreparedStatement idle = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		cache.release(idle);
+		final PreparedStatement borrowed = cache.borrow("SELECT 2", TYPE, CONCURRENCY);
+
+		cache.close();
+		verify(idle).close();
+
+		cache.release(borrowed);
+		verify(borrowed).close();
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void differentResultSetTypesAreNotMixed() throws SQLException
+	{
+		final TrxStatementCache cache = new TrxStatementCache(connection, 10, stats);
+
+		final PreparedStatement pstmt1 = cache.borrow("SELECT 1", TYPE, CONCURRENCY);
+		cache.release(pstmt1);
+
+		assertThat(cache.borrow("SELECT 1", TYPE, ResultSet.CONCUR_UPDATABLE)).isNotSameAs(pstmt1);
+	}
+}
@@ -0,0 +1,9 @@
+-- 2020-09-21T09:12:41.115Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Process (AccessLevel,AD_Client_ID,AD_Org_ID,AD_Process_ID,AllowProcessReRun,Classname,CopyFromProcess,Created,CreatedBy,Description,EntityType,IsActive,IsApplySecuritySettings,IsBetaFunctionality,IsDirectPrint,IsOneInstanceOnly,IsReport,IsServerProcess,IsTranslateExcelHeaders,IsUseBPartnerLanguage,LockWaitTimeout,Name,RefreshAllAfterExecution,ShowHelp,Type,Updated,UpdatedBy,Value) VALUES ('6',0,0,541260,'Y','org.adempiere.archive.process.AD_Archive_MoveToContentAddressedStorage','N',TO_TIMESTAMP('2020-09-21 11:12:40','YYYY-MM-DD HH24:MI:SS'),100,'Moves all archives of the current tenant to the content addressed storage, so that archives with the same content share one file.','D','Y','N','N','N','Y','N','Y','Y','Y',0,'Move archives to content addressed storage','N','N','Java',TO_TIMESTAMP('2020-09-21 11:12:40','YYYY-MM-DD HH24:MI:SS'),100,'AD_Archive_MoveToContentAddressedStorage')
+;
+
+-- 2020-09-21T09:12:41.138Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Process_Trl (AD_Language,AD_Process_ID, Description,Help,Name, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Process_ID, t.Description,t.Help,t.Name, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Process t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' AND l.IsBaseLanguage='N') AND t.AD_Process_ID=541260 AND NOT EXISTS (SELECT 1 FROM AD_Process_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Process_ID=t.AD_Process_ID)
+;
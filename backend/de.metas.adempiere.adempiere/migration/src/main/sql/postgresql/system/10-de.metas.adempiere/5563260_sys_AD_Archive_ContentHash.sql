@@ -0,0 +1,53 @@
+-- 2020-09-28T08:02:11.412Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Element (AD_Client_ID,AD_Element_ID,AD_Org_ID,ColumnName,Created,CreatedBy,Description,EntityType,IsActive,Name,PrintName,Updated,UpdatedBy) VALUES (0,577790,0,'ContentHash',TO_TIMESTAMP('2020-09-28 10:02:11','YYYY-MM-DD HH24:MI:SS'),100,'SHA-256 Hash des Inhalts, wenn das Archiv im inhaltsadressierten Speicher abgelegt ist','D','Y','Inhalts-Hash','Inhalts-Hash',TO_TIMESTAMP('2020-09-28 10:02:11','YYYY-MM-DD HH24:MI:SS'),100)
+;
+
+-- 2020-09-28T08:02:11.418Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Element_Trl (AD_Language,AD_Element_ID, CommitWarning,Description,Help,Name,PO_Description,PO_Help,PO_Name,PO_PrintName,PrintName,WEBUI_NameBrowse,WEBUI_NameNew,WEBUI_NameNewBreadcrumb, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Element_ID, t.CommitWarning,t.Description,t.Help,t.Name,t.PO_Description,t.PO_Help,t.PO_Name,t.PO_PrintName,t.PrintName,t.WEBUI_NameBrowse,t.WEBUI_NameNew,t.WEBUI_NameNewBreadcrumb, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Element t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' OR l.IsBaseLanguage='Y') AND t.AD_Element_ID=577790 AND NOT EXISTS (SELECT 1 FROM AD_Element_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Element_ID=t.AD_Element_ID)
+;
+
+-- 2020-09-28T08:02:44.517Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Column (AD_Client_ID,AD_Column_ID,AD_Element_ID,AD_Org_ID,AD_Reference_ID,AD_Table_ID,ColumnName,Created,CreatedBy,DDL_NoForeignKey,Description,EntityType,FacetFilterSeqNo,FieldLength,IsActive,IsAdvancedText,IsAllowLogging,IsAlwaysUpdateable,IsAutoApplyValidationRule,IsAutocomplete,IsCalculated,IsDimension,IsDLMPartitionBoundary,IsEncrypted,IsFacetFilter,IsForceIncludeInGeneratedModel,IsGenericZoomKeyColumn,IsGenericZoomOrigin,IsIdentifier,IsKey,IsLazyLoading,IsMandatory,IsParent,IsRangeFilter,IsSelectionColumn,IsShowFilterIncrementButtons,IsStaleable,IsSyncDatabase,IsTranslated,IsUpdateable,IsUseDocSequence,MaxFacetsToFetch,Name,SelectionColumnSeqNo,SeqNo,Updated,UpdatedBy,Version) VALUES (0,570910,577790,0,10,754,'ContentHash',TO_TIMESTAMP('2020-09-28 10:02:44','YYYY-MM-DD HH24:MI:SS'),100,'N','SHA-256 Hash des Inhalts, wenn das Archiv im inhaltsadressierten Speicher abgelegt ist','D',0,64,'Y','N','Y','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','N','Y','N',0,'Inhalts-Hash',0,0,TO_TIMESTAMP('2020-09-28 10:02:44','YYYY-MM-DD HH24:MI:SS'),100,0)
+;
+
+-- 2020-09-28T08:02:44.522Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Column_Trl (AD_Language,AD_Column_ID, Name, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Column_ID, t.Name, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Column t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' AND l.IsBaseLanguage='N') AND t.AD_Column_ID=570910 AND NOT EXISTS (SELECT 1 FROM AD_Column_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Column_ID=t.AD_Column_ID)
+;
+
+-- 2020-09-28T08:02:44.528Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+/* DDL */  select update_Column_Translation_From_AD_Element(577790) 
+;
+
+-- 2020-09-28T08:02:51.109Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+/* DDL */ SELECT public.db_alter_table('AD_Archive','ALTER TABLE public.AD_Archive ADD COLUMN ContentHash VARCHAR(64)')
+;
+
+-- archives which were already moved to the content addressed storage; their BinaryData is %ARCHIVE_FOLDER%cas/ab/cd/<sha-256>
+UPDATE AD_Archive SET ContentHash=right(convert_from(BinaryData, 'UTF8'), 64)
+WHERE IsFileSystem='Y' AND ContentHash IS NULL
+  AND length(BinaryData)=90
+  AND convert_from(BinaryData, 'UTF8') ~ '^%ARCHIVE_FOLDER%cas/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}$'
+;
+
+CREATE INDEX IF NOT EXISTS ad_archive_contenthash
+    ON public.ad_archive
+    (contenthash)
+    WHERE contenthash IS NOT NULL;
+COMMENT ON INDEX ad_archive_contenthash is 
+'This index supports counting the archives which reference a file of the content addressed archive storage';
+
+-- 2020-09-28T08:05:12.734Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Process (AccessLevel,AD_Client_ID,AD_Org_ID,AD_Process_ID,AllowProcessReRun,Classname,CopyFromProcess,Created,CreatedBy,Description,EntityType,IsActive,IsApplySecuritySettings,IsBetaFunctionality,IsDirectPrint,IsOneInstanceOnly,IsReport,IsServerProcess,IsTranslateExcelHeaders,IsUseBPartnerLanguage,LockWaitTimeout,Name,RefreshAllAfterExecution,ShowHelp,Type,Updated,UpdatedBy,Value) VALUES ('6',0,0,541261,'Y','org.adempiere.archive.process.AD_Archive_DeleteNotReferencedContent','N',TO_TIMESTAMP('2020-09-28 10:05:12','YYYY-MM-DD HH24:MI:SS'),100,'Deletes the files of the content addressed archive storage which are not referenced by any archive anymore. Meant to be scheduled, e.g. nightly.','D','Y','N','N','N','Y','N','Y','Y','Y',0,'Delete not referenced archive files','N','N','Java',TO_TIMESTAMP('2020-09-28 10:05:12','YYYY-MM-DD HH24:MI:SS'),100,'AD_Archive_DeleteNotReferencedContent')
+;
+
+-- 2020-09-28T08:05:12.741Z
+-- I forgot to set the DICTIONARY_ID_COMMENTS System Configurator
+INSERT INTO AD_Process_Trl (AD_Language,AD_Process_ID, Description,Help,Name, IsTranslated,AD_Client_ID,AD_Org_ID,Created,Createdby,Updated,UpdatedBy) SELECT l.AD_Language, t.AD_Process_ID, t.Description,t.Help,t.Name, 'N',t.AD_Client_ID,t.AD_Org_ID,t.Created,t.Createdby,t.Updated,t.UpdatedBy FROM AD_Language l, AD_Process t WHERE l.IsActive='Y'AND (l.IsSystemLanguage='Y' AND l.IsBaseLanguage='N') AND t.AD_Process_ID=541261 AND NOT EXISTS (SELECT 1 FROM AD_Process_Trl tt WHERE tt.AD_Language=l.AD_Language AND tt.AD_Process_ID=t.AD_Process_ID)
+;
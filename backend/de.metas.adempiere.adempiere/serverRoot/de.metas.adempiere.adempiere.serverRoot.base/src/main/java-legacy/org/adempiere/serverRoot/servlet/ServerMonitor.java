@@ -259,7 +259,12 @@ public class ServerMonitor extends HttpServlet
 			return false;
 		}
 		//
-		server.runNow();
+		if (!server.runNow())
+		{
+			m_message = new p();
+			m_message.addElement(new strong("Server is already running, not run again: "));
+			m_message.addElement(serverID);
+		}
 		//
 		return true;
 	}	// processRunParameter
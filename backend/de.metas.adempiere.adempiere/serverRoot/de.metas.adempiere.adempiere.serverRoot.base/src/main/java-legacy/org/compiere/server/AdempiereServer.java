@@ -20,6 +20,7 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.sql.Timestamp;
 import java.util.Properties;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -40,23 +41,34 @@ import org.compiere.util.TimeUtil;
 import org.compiere.wf.MWorkflowProcessor;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
 
 /**
  * Adempiere Server Base
+ * <p>
+ * Servers are not running in their own threads, but are scheduled on the shared {@link AdempiereServerExecutor}.
+ * After each run, the next run is scheduled for exactly the time when it is due.
+ * <p>
+ * In a cluster, all nodes are scheduling all servers, but a due run is only done by the node which gets the {@link AdempiereServerClusterLock}.
+ * After getting the lock, the DateNextRun is re-queried, so a run which was already done by another node is not done again.
  *
  * @author Jorg Janke
  * @version $Id: AdempiereServer.java,v 1.3 2006/10/09 00:23:26 jjanke Exp $
  */
-public abstract class AdempiereServer extends Thread
+public abstract class AdempiereServer
 {
 	/**
-	 * Create New Server Thread
+	 * Create New Server
 	 *
 	 * @param model model
-	 * @return server tread or null
+	 * @return server
 	 */
 	public static AdempiereServer create(AdempiereProcessor model)
 	{
@@ -86,6 +98,12 @@ public abstract class AdempiereServer extends Thread
 		throw new IllegalArgumentException("Unknown Processor");
 	}	// create
 
+	/**
+	 * If the server is currently running on another node, check again after this time.
+	 * Keep it short, so we take over quickly if the other node dies.
+	 */
+	private static final long LOCKED_RETRY_MS = 60 * 1000;
+
 	/**************************************************************************
 	 * Server Base Class
 	 *
@@ -94,12 +112,13 @@ public abstract class AdempiereServer extends Thread
 	 */
 	public AdempiereServer(final AdempiereProcessor model, final int initialNapSecs)
 	{
-		super(
-				AdempiereServerGroup.get(), // ThreadGroup
-				null, // Runnable
-				model.getClass().getSimpleName() + "-" + model.getName(), // Thread Name
-				0 // stackSize (0=this parameter is to be ignored)
-		);
+		this(model, initialNapSecs, AdempiereServerClusterLock.newInstance(model.getServerID()));
+	}
+
+	@VisibleForTesting
+	AdempiereServer(final AdempiereProcessor model, final int initialNapSecs, final AdempiereServerClusterLock clusterLock)
+	{
+		name = model.getClass().getSimpleName() + "-" + model.getName();
 		p_model = model;
 		m_ctx = Env.deriveCtx(model.getCtx());
 
@@ -107,29 +126,41 @@ public abstract class AdempiereServer extends Thread
 		Env.setContext(m_ctx, Env.CTXNAME_AD_Client_ID, adClient.getAD_Client_ID());
 
 		m_initialNapSecs = initialNapSecs;
+		this.clusterLock = clusterLock;
 	}	// ServerBase
 
+	/** Server Name */
+	private final String name;
 	/** The Processor Model */
 	private final AdempiereProcessor p_model;
 	/** Initial nap is seconds */
 	private int m_initialNapSecs = 0;
 
-	/** Miliseconds to sleep - 10 Min default */
-	private long m_sleepMS = 600000;
-	/** Sleeping */
-	private final AtomicBoolean sleeping = new AtomicBoolean(false);
+	private final AdempiereServerExecutor executor = AdempiereServerExecutor.get();
+	private final AdempiereServerClusterLock clusterLock;
+	/** The scheduled next run; guarded by <code>this</code> */
+	private ScheduledFuture<?> nextRunFuture;
+	private volatile boolean started = false;
+	private volatile boolean interrupted = false;
+	/** Doing work on this node */
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
 	/** Server start time */
-	private long serverStartTimeMillis = 0;
-	/** Number of Work executions */
-	private int p_runCount = 0;
+	private volatile long serverStartTimeMillis = 0;
 	/** Time start of work */
-	private long workStartTimeMillis = 0;
-	/** Number MS of last Run */
+	private volatile long workStartTimeMillis = 0;
+	/** When to run next */
+	private volatile long m_nextWork = 0;
+
+	// Metrics; guarded by this
+	private int p_runCount = 0;
 	private long m_runLastMS = 0;
-	/** Number of MS total */
+	private long m_runMaxMS = 0;
 	private long m_runTotalMS = 0;
-	/** When to run next */
-	private long m_nextWork = 0;
+	private long m_lagLastMS = 0;
+	private long m_lagMaxMS = 0;
+	private int m_skippedRunsCount = 0;
+	private int m_overlappingRunsCount = 0;
 
 	/** Logger */
 	protected final transient Logger log = LogManager.getLogger(getClass());
@@ -146,60 +177,97 @@ public abstract class AdempiereServer extends Thread
 		return m_ctx;
 	}	// getCtx
 
+	public final String getName()
+	{
+		return name;
+	}
+
 	/**
-	 * @return Returns the sleepMS.
+	 * Schedules the first run of this server, after the initial nap.
+	 * Like a thread, a server can be started only once.
 	 */
-	private final long getSleepMS()
+	public final synchronized void start()
 	{
-		return m_sleepMS;
-	}	// getSleepMS
+		if (started)
+		{
+			throw new IllegalStateException(name + " was already started");
+		}
+		started = true;
+
+		log.debug("{}: pre-nap - {} seconds", name, m_initialNapSecs);
+		scheduleNextRun(System.currentTimeMillis() + m_initialNapSecs * 1000L);
+	}
 
 	/**
-	 * Sleep for set time
-	 *
-	 * @return true if not interrupted
+	 * Stops this server. A run which is currently in progress is not aborted, but no further run is scheduled.
 	 */
-	protected final boolean sleep()
+	public final synchronized void interrupt()
 	{
-		final String threadName = getName();
-
-		if (isInterrupted())
+		interrupted = true;
+		if (nextRunFuture != null)
 		{
-			log.info("{}: interrupted", threadName);
-			return false;
+			nextRunFuture.cancel(false);
 		}
+		// if currently running, the connection is closed when the run is finished
+		clusterLock.closeIfNotAcquired();
+		log.info("{}: interrupted", name);
+	}
 
-		final long sleepMillis = getSleepMS();
-		log.debug("{}: sleeping {}", threadName, TimeUtil.formatElapsed(sleepMillis));
+	public final boolean isInterrupted()
+	{
+		return interrupted;
+	}
 
-		sleeping.getAndSet(true);
-		try
+	/**
+	 * @return true if this server was started and has a pending or running execution
+	 */
+	public final boolean isAlive()
+	{
+		if (!started)
+		{
+			return false;
+		}
+		if (running.get())
 		{
-			Thread.sleep(sleepMillis);
 			return true;
 		}
-		catch (final InterruptedException e)
+
+		final ScheduledFuture<?> nextRunFuture;
+		synchronized (this)
 		{
-			log.info("{}: interrupted", threadName);
-			return false;
+			nextRunFuture = this.nextRunFuture;
 		}
-		finally
+		return nextRunFuture != null && !nextRunFuture.isDone();
+	}
+
+	private synchronized void scheduleNextRun(final long nextRunMillis)
+	{
+		if (interrupted)
 		{
-			sleeping.set(false);
+			nextRunFuture = null;
+			serverStartTimeMillis = 0;
+			return;
 		}
-	}	// sleep
+
+		m_nextWork = nextRunMillis;
+		nextRunFuture = executor.schedule(this::executeScheduledRun, nextRunMillis - System.currentTimeMillis());
+	}
 
 	/**
 	 * Run Now
+	 * <p>
+	 * The run is skipped if the server is already running, on this node or on another one.
+	 *
+	 * @return true if the server was run, false if it was skipped
 	 */
-	public final void runNow()
+	public final boolean runNow()
 	{
 		DB.saveConstraints();
 		try
 		{
 			DB.getConstraints().addAllowedTrxNamePrefix(ITrx.TRXNAME_PREFIX_LOCAL);
 
-			runNow0();
+			return runIfPossible(false).isDone();
 		}
 		finally
 		{
@@ -207,170 +275,249 @@ public abstract class AdempiereServer extends Thread
 		}
 	}
 
-	private final void runNow0()
+	/**
+	 * Called by {@link AdempiereServerExecutor} when the server is due, or at least when it was due according to the last known DateNextRun.
+	 */
+	private void executeScheduledRun()
 	{
-		final String name = getName();
-		log.debug("Starting {}", name);
-		
-		workStartTimeMillis = System.currentTimeMillis();
-		
-		doWork();
-		
-		// ---------------
+		if (interrupted)
+		{
+			return;
+		}
 
-		final long now = System.currentTimeMillis();
-		p_runCount++;
-		m_runLastMS = now - workStartTimeMillis;
-		m_runTotalMS += m_runLastMS;
-		//
-		p_model.setDateLastRun(new Timestamp(now));
-		save(p_model, ITrx.TRXNAME_None);
+		long nextRunMillis;
 
-		//
-		if (log.isDebugEnabled())
+		// 03034: do the actual work in a try-catch block to make sure that the server doesn't just end
+		// if an unexpected (and maybe temporary) problem arises
+		DB.saveConstraints();
+		try
 		{
-			log.debug("Finished {}: {}", name, getStatistics());
+			DB.getConstraints().addAllowedTrxNamePrefix(ITrx.TRXNAME_PREFIX_LOCAL);
+
+			if (serverStartTimeMillis <= 0)
+			{
+				serverStartTimeMillis = System.currentTimeMillis();
+				onStart();
+			}
+
+			nextRunMillis = runIfPossible(true).getNextCheckMillis();
 		}
-	}	// runNow
+		catch (final Exception ex)
+		{
+			final ServerThreadException serverThreadEx = new ServerThreadException(p_model.getName(), ex);
+			log.error("{}: run failed", name, serverThreadEx);
 
-	/**************************************************************************
-	 * Run async
-	 */
-	@Override
-	public void run()
-	{
-		final String threadName = getName();
-		try
+			nextRunMillis = System.currentTimeMillis() + calculateSleep();
+		}
+		finally
 		{
-			final int initialNapSecs = m_initialNapSecs;
-			log.debug("{}: pre-nap - {} seconds", threadName, initialNapSecs);
-			sleep(m_initialNapSecs * 1000);
+			DB.restoreConstraints();
 		}
-		catch (InterruptedException ex)
+
+		scheduleNextRun(nextRunMillis);
+	}
+
+	/**
+	 * Does the work if this server is not running on this node or on another node.
+	 *
+	 * @param scheduled if true, the work is done only if it's due, and DateNextRun is updated afterwards
+	 */
+	@VisibleForTesting
+	RunOutcome runIfPossible(final boolean scheduled)
+	{
+		if (!running.compareAndSet(false, true))
 		{
-			log.error("{}: pre-nap interrupted", threadName, ex);
-			return;
+			synchronized (this)
+			{
+				m_overlappingRunsCount++;
+			}
+			log.warn("{}: already running on this node. Skipped.", name);
+			return RunOutcome.skipped(System.currentTimeMillis() + LOCKED_RETRY_MS);
 		}
 
-		serverStartTimeMillis = System.currentTimeMillis();
 		try
 		{
-			while (true)
+			// Cheap check first, without using the lock's connection
+			if (scheduled)
 			{
-				// 03034: do the actual work in a try-catch block to make sure that the server thread doesn't just end
-				// if an unexpected (and maybe temporary) problem arises in the thread
-				DB.saveConstraints();
-				try
-				{
-					DB.getConstraints().addAllowedTrxNamePrefix(ITrx.TRXNAME_PREFIX_LOCAL);
-
-					final boolean doBreak = run0();
-					if (doBreak)
-					{
-						break;
-					}
-				}
-				catch (final Exception ex)
-				{
-					final ServerThreadException serverThreadEx = new ServerThreadException(p_model.getName(), ex);
-					log.error("{}: run failed", threadName, serverThreadEx);
-				}
-				finally
+				final long plannedRunMillis = getPlannedRunMillis();
+				if (plannedRunMillis > System.currentTimeMillis())
 				{
-					DB.restoreConstraints();
+					return RunOutcome.notDue(plannedRunMillis);
 				}
-				// me_03034 end
+			}
 
-				if (!sleep())
+			if (!clusterLock.tryAcquire())
+			{
+				synchronized (this)
 				{
-					break;
+					m_skippedRunsCount++;
 				}
+				log.debug("{}: running on another node. Skipped.", name);
+				return RunOutcome.skipped(System.currentTimeMillis() + LOCKED_RETRY_MS);
+			}
+
+			try
+			{
+				return runLocked(scheduled);
+			}
+			finally
+			{
+				clusterLock.release();
 			}
 		}
 		finally
 		{
-			serverStartTimeMillis = 0;
+			// a stopped server, or one which was created just to run it once (e.g. SchedulerRunNow), doesn't keep the connection
+			if (interrupted || !started)
+			{
+				clusterLock.closeIfNotAcquired();
+			}
+			running.set(false);
 		}
-	}	// run
+	}
 
-	/**
-	 * This method does the actual work of the {@link #run()} method.
-	 *
-	 * @return <code>true</code> if the calling {@link #run()} should break out of its <code>while(true)</code> block.
-	 *
-	 * @see http://dewiki908/mediawiki/index.php/03034:_ADempiere_ServerProcesses_can_die_%282012072510000033%29
-	 */
-	private final boolean run0() throws Exception
+	private RunOutcome runLocked(final boolean scheduled)
 	{
-		// note that this is basically the original code that has formerly been part of the run() method.
-		if (m_nextWork <= 0)
+		if (!scheduled)
 		{
-			Timestamp dateNextRun = getDateNextRun(true);
-			if (dateNextRun != null)
-			{
-				m_nextWork = dateNextRun.getTime();
-			}
+			doWorkAndRecordMetrics(-1);
+			p_model.setDateLastRun(new Timestamp(System.currentTimeMillis()));
+			p_model.saveOutOfTrx();
+			return RunOutcome.done(m_nextWork);
+		}
+
+		// Another node might have done the work while we were trying to get the lock
+		final long plannedRunMillis = getPlannedRunMillis();
+		if (plannedRunMillis > System.currentTimeMillis())
+		{
+			return RunOutcome.notDue(plannedRunMillis);
 		}
-		long now = System.currentTimeMillis();
-		if (m_nextWork > now)
+
+		final long workStartMillis = doWorkAndRecordMetrics(plannedRunMillis);
+		final long now = System.currentTimeMillis();
+		final long nextRunMillis = calculateNextRunMillis(plannedRunMillis, workStartMillis, now);
+
+		p_model.setDateLastRun(new Timestamp(isIgnoreProcessingTime() ? workStartMillis : now));
+		p_model.setDateNextRun(new Timestamp(nextRunMillis));
+		p_model.saveOutOfTrx();
+		return RunOutcome.done(nextRunMillis);
+	}
+
+	@Value
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	@VisibleForTesting
+	static class RunOutcome
+	{
+		static RunOutcome done(final long nextCheckMillis)
 		{
-			m_sleepMS = m_nextWork - now;
-			if (!sleep())
-			{
-				return true;
-			}
+			return new RunOutcome(true, false, nextCheckMillis);
 		}
-		if (isInterrupted())
+
+		static RunOutcome notDue(final long nextCheckMillis)
 		{
-			log.info("{}: interrupted", getName());
-			return true;
+			return new RunOutcome(false, false, nextCheckMillis);
+		}
+
+		static RunOutcome skipped(final long nextCheckMillis)
+		{
+			return new RunOutcome(false, true, nextCheckMillis);
 		}
 
-		// ---------------
-		workStartTimeMillis = System.currentTimeMillis();
+		/** The work was done by this node */
+		boolean done;
+		/** The server was due, but running on this node or on another one */
+		boolean skipped;
+		/** When to check this server again (millis) */
+		long nextCheckMillis;
+	}
+
+	/**
+	 * @param plannedRunMillis when the run was planned, used to calculate the lag; <code>-1</code> if the run was not scheduled.
+	 * @return work start time (millis)
+	 */
+	private long doWorkAndRecordMetrics(final long plannedRunMillis)
+	{
+		log.debug("Starting {}", name);
+
+		final long workStartMillis = System.currentTimeMillis();
+		workStartTimeMillis = workStartMillis;
+
 		doWork();
-		now = System.currentTimeMillis();
-		// ---------------
 
-		p_runCount++;
-		m_runLastMS = now - workStartTimeMillis;
-		m_runTotalMS += m_runLastMS;
-		//
-		m_sleepMS = calculateSleep();
-		Timestamp lastRun = new Timestamp(now);
-		if (p_model instanceof AdempiereProcessor2)
+		final long runMillis = System.currentTimeMillis() - workStartMillis;
+		synchronized (this)
 		{
-			AdempiereProcessor2 ap = (AdempiereProcessor2)p_model;
-			if (ap.isIgnoreProcessingTime())
+			p_runCount++;
+			m_runLastMS = runMillis;
+			m_runMaxMS = Math.max(m_runMaxMS, runMillis);
+			m_runTotalMS += runMillis;
+			if (plannedRunMillis >= 0)
 			{
-				lastRun = new Timestamp(workStartTimeMillis);
-				if (m_nextWork <= 0)
-				{
-					m_nextWork = workStartTimeMillis;
-				}
-				m_nextWork = m_nextWork + m_sleepMS;
-				while (m_nextWork < now)
-				{
-					m_nextWork = m_nextWork + m_sleepMS;
-				}
-			}
-			else
-			{
-				m_nextWork = now + m_sleepMS;
+				m_lagLastMS = plannedRunMillis > 0 ? Math.max(workStartMillis - plannedRunMillis, 0) : 0;
+				m_lagMaxMS = Math.max(m_lagMaxMS, m_lagLastMS);
 			}
 		}
-		else
+
+		log.debug("Finished {}: {}", name, getStatistics());
+		return workStartMillis;
+	}
+
+	private long getPlannedRunMillis()
+	{
+		final Timestamp dateNextRun = getDateNextRun(true);
+		return dateNextRun != null ? dateNextRun.getTime() : 0;
+	}
+
+	private boolean isIgnoreProcessingTime()
+	{
+		return p_model instanceof AdempiereProcessor2
+				&& ((AdempiereProcessor2)p_model).isIgnoreProcessingTime();
+	}
+
+	/**
+	 * Called once, right before this server is due for the first time.
+	 */
+	protected void onStart()
+	{
+		// nothing on this level
+	}
+
+	/**
+	 * Calculates when the server shall run next, after a run was done.
+	 *
+	 * @param plannedRunMillis when the run was planned; <code>0</code> if unknown
+	 * @param workStartMillis when the run was started
+	 * @param nowMillis when the run was finished
+	 * @return next run (millis)
+	 */
+	protected long calculateNextRunMillis(final long plannedRunMillis, final long workStartMillis, final long nowMillis)
+	{
+		return calculateFixedDelayNextRunMillis(plannedRunMillis, workStartMillis, nowMillis, calculateSleep(), isIgnoreProcessingTime());
+	}
+
+	/**
+	 * @param ignoreProcessingTime if true, the runs are kept in their rhythm (runs which were missed meanwhile are skipped); else the next run is <code>sleepMillis</code> after the run finished
+	 */
+	@VisibleForTesting
+	static long calculateFixedDelayNextRunMillis(
+			final long plannedRunMillis,
+			final long workStartMillis,
+			final long nowMillis,
+			final long sleepMillis,
+			final boolean ignoreProcessingTime)
+	{
+		if (!ignoreProcessingTime)
 		{
-			m_nextWork = now + m_sleepMS;
+			return nowMillis + sleepMillis;
 		}
-		//
-		p_model.setDateLastRun(lastRun);
-		p_model.setDateNextRun(new Timestamp(m_nextWork));
-		p_model.saveOutOfTrx();
-
-		log.debug(getName() + ": " + getStatistics());
 
-		return false;
+		long nextRunMillis = (plannedRunMillis > 0 ? plannedRunMillis : workStartMillis) + sleepMillis;
+		while (nextRunMillis < nowMillis)
+		{
+			nextRunMillis += sleepMillis;
+		}
+		return nextRunMillis;
 	}
 
 	/**
@@ -380,12 +527,32 @@ public abstract class AdempiereServer extends Thread
 	 */
 	public final String getStatistics()
 	{
-		return "Run #" + p_runCount
-				+ " - Last=" + TimeUtil.formatElapsed(m_runLastMS)
-				+ " - Total=" + TimeUtil.formatElapsed(m_runTotalMS)
+		final AdempiereServerMetrics metrics = getMetrics();
+		return "Run #" + metrics.getRunCount()
+				+ " - Last=" + TimeUtil.formatElapsed(metrics.getLastRunMillis())
+				+ " - Max=" + TimeUtil.formatElapsed(metrics.getMaxRunMillis())
+				+ " - Total=" + TimeUtil.formatElapsed(metrics.getTotalRunMillis())
+				+ " - Lag=" + TimeUtil.formatElapsed(metrics.getLastLagMillis())
+				+ " (Max=" + TimeUtil.formatElapsed(metrics.getMaxLagMillis()) + ")"
+				+ " - Skipped=" + metrics.getSkippedRunsCount()
+				+ " - Overlapping=" + metrics.getOverlappingRunsCount()
 				+ " - Next " + TimeUtil.formatElapsed(m_nextWork - System.currentTimeMillis());
 	}	// getStatistics
 
+	public final synchronized AdempiereServerMetrics getMetrics()
+	{
+		return AdempiereServerMetrics.builder()
+				.runCount(p_runCount)
+				.lastRunMillis(m_runLastMS)
+				.maxRunMillis(m_runMaxMS)
+				.totalRunMillis(m_runTotalMS)
+				.lastLagMillis(m_lagLastMS)
+				.maxLagMillis(m_lagMaxMS)
+				.skippedRunsCount(m_skippedRunsCount)
+				.overlappingRunsCount(m_overlappingRunsCount)
+				.build();
+	}
+
 	/**
 	 * Do the actual Work
 	 */
@@ -503,13 +670,13 @@ public abstract class AdempiereServer extends Thread
 	}	// calculateSleep
 
 	/**
-	 * Is Sleeping
+	 * Is Sleeping, i.e. waiting for the next run
 	 *
 	 * @return sleeping
 	 */
 	public final boolean isSleeping()
 	{
-		return sleeping.get();
+		return isAlive() && !running.get();
 	}	// isSleeping
 
 	@Override
@@ -518,8 +685,6 @@ public abstract class AdempiereServer extends Thread
 		final boolean sleeping = isSleeping();
 
 		final StringBuilder sb = new StringBuilder(getName())
-				.append(",Prio=").append(getPriority())
-				.append(",").append(getThreadGroup())
 				.append(",Alive=").append(isAlive())
 				.append(",Sleeping=").append(sleeping)
 				.append(",Last=").append(getDateLastRun());
@@ -555,7 +720,7 @@ public abstract class AdempiereServer extends Thread
 		this.m_initialNapSecs = initialNapSeconds;
 	}
 
-	protected final int getRunCount()
+	protected final synchronized int getRunCount()
 	{
 		return p_runCount;
 	}
@@ -0,0 +1,217 @@
+package org.compiere.server;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+import org.adempiere.exceptions.DBException;
+import org.compiere.db.CConnection;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Cluster wide lock of one {@link AdempiereServer}, backed by a postgres session level advisory lock.
+ * <p>
+ * The lock is held on a dedicated connection which is not taken from the connection pool.
+ * The connection is opened on first {@link #tryAcquire()} and then kept for the server's lifetime,
+ * so checking whether a due server can run does not open a new physical connection each time.
+ * If unlocking fails or the connection is found broken, the connection is closed (which also releases the lock) and a new one is opened next time.
+ * If the node dies, postgres closes the session and hence releases the lock too.
+ * <p>
+ * Call {@link #release()} in a finally block after the lock was acquired, and {@link #closeIfNotAcquired()} when the server is stopped.
+ */
+final class AdempiereServerClusterLock
+{
+	private static final Logger logger = LogManager.getLogger(AdempiereServerClusterLock.class);
+
+	/** First part of the advisory lock key, so we don't collide with other advisory locks */
+	private static final String LOCK_NAMESPACE = "AdempiereServer";
+
+	private static final String SQL_TryLock = "SELECT pg_try_advisory_lock(hashtext(?), hashtext(?))";
+	private static final String SQL_Unlock = "SELECT pg_advisory_unlock(hashtext(?), hashtext(?))";
+
+	public static AdempiereServerClusterLock newInstance(@NonNull final String serverID)
+	{
+		return new AdempiereServerClusterLock(serverID, AdempiereServerClusterLock::createDedicatedConnection);
+	}
+
+	private static Connection createDedicatedConnection()
+	{
+		final CConnection cc = CConnection.get();
+		try
+		{
+			final Connection connection = cc.getDatabase().getDriverConnection(cc.getConnectionURL(), cc.getDbUid(), cc.getDbPwd());
+			connection.setAutoCommit(true);
+			return connection;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex);
+		}
+	}
+
+	private final String serverID;
+	private final Supplier<Connection> connectionFactory;
+
+	// guarded by this
+	private Connection connection;
+	private boolean acquired = false;
+
+	@VisibleForTesting
+	AdempiereServerClusterLock(@NonNull final String serverID, @NonNull final Supplier<Connection> connectionFactory)
+	{
+		this.serverID = serverID;
+		this.connectionFactory = connectionFactory;
+	}
+
+	/**
+	 * @return true if this node got the lock, i.e. is the one which shall run the server now
+	 */
+	public synchronized boolean tryAcquire()
+	{
+		if (acquired)
+		{
+			throw new IllegalStateException(this + " is already acquired");
+		}
+
+		final boolean reusingConnection = connection != null;
+		try
+		{
+			acquired = executeBooleanFunction(SQL_TryLock);
+		}
+		catch (final RuntimeException ex)
+		{
+			closeConnection();
+			if (!reusingConnection)
+			{
+				throw ex;
+			}
+
+			// e.g. the idle connection was dropped by the database or by a firewall
+			logger.info("Connection of {} is broken. Retrying with a new connection.", serverID, ex);
+			try
+			{
+				acquired = executeBooleanFunction(SQL_TryLock);
+			}
+			catch (final RuntimeException retryEx)
+			{
+				closeConnection();
+				throw retryEx;
+			}
+		}
+
+		return acquired;
+	}
+
+	public synchronized boolean isAcquired()
+	{
+		return acquired;
+	}
+
+	/**
+	 * Releases the lock, if acquired. The connection is kept for the next {@link #tryAcquire()}.
+	 */
+	public synchronized void release()
+	{
+		if (!acquired)
+		{
+			return;
+		}
+		acquired = false;
+
+		try
+		{
+			if (!executeBooleanFunction(SQL_Unlock))
+			{
+				logger.warn("Advisory lock for {} was not held on unlock", serverID);
+			}
+		}
+		catch (final Exception ex)
+		{
+			// closing the (not pooled) connection ends the session and hence releases the lock anyways
+			logger.warn("Failed unlocking {}. Closing the connection.", serverID, ex);
+			closeConnection();
+		}
+	}
+
+	/**
+	 * Closes the connection, unless the lock is currently held (in which case {@link #release()} still has to be called).
+	 */
+	public synchronized void closeIfNotAcquired()
+	{
+		if (acquired)
+		{
+			return;
+		}
+		closeConnection();
+	}
+
+	private void closeConnection()
+	{
+		final Connection connection = this.connection;
+		this.connection = null;
+		DB.close(connection);
+	}
+
+	private boolean executeBooleanFunction(final String sql)
+	{
+		if (connection == null)
+		{
+			connection = connectionFactory.get();
+		}
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = connection.prepareStatement(sql);
+			pstmt.setString(1, LOCK_NAMESPACE);
+			pstmt.setString(2, serverID);
+			rs = pstmt.executeQuery();
+			return rs.next() && rs.getBoolean(1);
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "AdempiereServerClusterLock[" + serverID + ",acquired=" + acquired + "]";
+	}
+}
@@ -0,0 +1,131 @@
+package org.compiere.server;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Shared, bounded worker pool on which all {@link AdempiereServer}s are running.
+ * <p>
+ * Instead of one sleeping thread per server, each server schedules its next run on this executor with the exact delay until it is due.
+ * The number of workers can be configured using the {@value #SYSCONFIG_PoolSize} system property.
+ * If all workers are busy, due runs are delayed; see {@link AdempiereServerMetrics#getLastLagMillis()}.
+ */
+final class AdempiereServerExecutor
+{
+	private static final Logger logger = LogManager.getLogger(AdempiereServerExecutor.class);
+
+	private static final String SYSCONFIG_PoolSize = "org.compiere.server.AdempiereServerExecutor.poolSize";
+	private static final int DEFAULT_PoolSize = 8;
+
+	private static volatile AdempiereServerExecutor instance;
+
+	public static AdempiereServerExecutor get()
+	{
+		AdempiereServerExecutor executor = instance;
+		if (executor == null)
+		{
+			synchronized (AdempiereServerExecutor.class)
+			{
+				executor = instance;
+				if (executor == null)
+				{
+					executor = instance = new AdempiereServerExecutor(getConfiguredPoolSize());
+				}
+			}
+		}
+		return executor;
+	}
+
+	private static int getConfiguredPoolSize()
+	{
+		final int poolSize = Integer.getInteger(SYSCONFIG_PoolSize, DEFAULT_PoolSize);
+		if (poolSize <= 0)
+		{
+			logger.warn("Invalid {}={}. Using {}", SYSCONFIG_PoolSize, poolSize, DEFAULT_PoolSize);
+			return DEFAULT_PoolSize;
+		}
+		return poolSize;
+	}
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private AdempiereServerExecutor(final int poolSize)
+	{
+		executor = new ScheduledThreadPoolExecutor(poolSize, new AdempiereServerThreadFactory());
+		executor.setRemoveOnCancelPolicy(true);
+		executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+		logger.info("Created executor with poolSize={}", poolSize);
+	}
+
+	public ScheduledFuture<?> schedule(@NonNull final Runnable task, final long delayMillis)
+	{
+		return executor.schedule(task, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+	}
+
+	public int getPoolSize()
+	{
+		return executor.getCorePoolSize();
+	}
+
+	public int getActiveCount()
+	{
+		return executor.getActiveCount();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "AdempiereServerExecutor[poolSize=" + getPoolSize()
+				+ ",active=" + getActiveCount()
+				+ ",queued=" + executor.getQueue().size()
+				+ "]";
+	}
+
+	/**
+	 * Creates the worker threads in {@link AdempiereServerGroup}, so they are still listed by {@link AdempiereServerGroup#dump()}.
+	 */
+	private static final class AdempiereServerThreadFactory implements ThreadFactory
+	{
+		private final AtomicInteger threadNo = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(final Runnable runnable)
+		{
+			final Thread thread = new Thread(AdempiereServerGroup.get(), runnable, "AdempiereServer-" + threadNo.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.NORM_PRIORITY - 2);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.compiere.server;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runtime metrics of one {@link AdempiereServer} on this node.
+ */
+@Value
+@Builder
+public class AdempiereServerMetrics
+{
+	/** Number of runs done by this node */
+	int runCount;
+
+	long lastRunMillis;
+	long maxRunMillis;
+	long totalRunMillis;
+
+	/** How late the last run started, compared to its planned DateNextRun */
+	long lastLagMillis;
+	long maxLagMillis;
+
+	/** Number of due runs which were skipped because the server was already running on another node */
+	int skippedRunsCount;
+
+	/** Number of runs which were requested while the server was already running on this node */
+	int overlappingRunsCount;
+}
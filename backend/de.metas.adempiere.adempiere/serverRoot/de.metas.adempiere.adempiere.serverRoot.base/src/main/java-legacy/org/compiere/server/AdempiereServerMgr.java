@@ -126,7 +126,6 @@ public final class AdempiereServerMgr
 			MRequestProcessor pModel = requestModels[i];
 			AdempiereServer server = AdempiereServer.create(pModel);
 			server.start();
-			server.setPriority(Thread.NORM_PRIORITY - 2);
 			m_servers.add(server);
 		}
 		// Workflow
@@ -136,7 +135,6 @@ public final class AdempiereServerMgr
 			MWorkflowProcessor pModel = workflowModels[i];
 			AdempiereServer server = AdempiereServer.create(pModel);
 			server.start();
-			server.setPriority(Thread.NORM_PRIORITY - 2);
 			m_servers.add(server);
 		}
 		// Alert
@@ -146,7 +144,6 @@ public final class AdempiereServerMgr
 			MAlertProcessor pModel = alertModels[i];
 			AdempiereServer server = AdempiereServer.create(pModel);
 			server.start();
-			server.setPriority(Thread.NORM_PRIORITY - 2);
 			m_servers.add(server);
 		}
 		// Scheduler
@@ -156,7 +153,6 @@ public final class AdempiereServerMgr
 			MScheduler pModel = schedulerModels[i];
 			AdempiereServer server = AdempiereServer.create(pModel);
 			server.start();
-			server.setPriority(Thread.NORM_PRIORITY - 2);
 			m_servers.add(server);
 		}
 		
@@ -167,7 +163,6 @@ public final class AdempiereServerMgr
 			final AdempiereProcessor adempiereProcessor = Services.get(IIMPProcessorBL.class).asAdempiereProcessor(importModel);
 			AdempiereServer server = AdempiereServer.create(adempiereProcessor);
 			server.start();
-			server.setPriority(Thread.NORM_PRIORITY - 1);
 			m_servers.add(server);
 		}
 
@@ -195,7 +190,6 @@ public final class AdempiereServerMgr
 		}
 		final AdempiereServer server = AdempiereServer.create(pModel);
 		server.start();
-		server.setPriority(Thread.NORM_PRIORITY - 2);
 		m_servers.add(server);
 	}
 
@@ -251,7 +245,6 @@ public final class AdempiereServerMgr
 					else
 						m_servers.set(i, server);
 					server.start();
-					server.setPriority(Thread.NORM_PRIORITY - 2);
 				}
 			}
 			catch (Exception e)
@@ -314,7 +307,6 @@ public final class AdempiereServerMgr
 			else
 				m_servers.set(index, server);
 			server.start();
-			server.setPriority(Thread.NORM_PRIORITY - 2);
 			Thread.yield();
 		}
 		catch (Exception e)
@@ -344,7 +336,6 @@ public final class AdempiereServerMgr
 			{
 				if (server.isAlive() && !server.isInterrupted())
 				{
-					server.setPriority(Thread.MAX_PRIORITY - 1);
 					server.interrupt();
 				}
 			}
@@ -534,6 +525,7 @@ public final class AdempiereServerMgr
 		sb.append("Servers=").append(m_servers.size())
 				.append(",ContextSize=").append(_ctx.size())
 				.append(",Started=").append(m_start)
+				.append(",").append(AdempiereServerExecutor.get())
 				.append("]");
 		return sb.toString();
 	}	// toString
@@ -55,6 +55,7 @@ import org.compiere.util.Trx;
 import org.compiere.util.TrxRunnableAdapter;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 
@@ -126,11 +127,6 @@ public class Scheduler extends AdempiereServer
 	/** last outcome; stored in the scheduler log. */
 	private boolean m_success = false;
 
-	//
-	// Cron4J scheduling
-	private it.sauronsoftware.cron4j.Scheduler cronScheduler;
-	private Predictor predictor;
-
 	/**
 	 * Sets AD_Scheduler.Status and save the record
 	 *
@@ -712,48 +708,73 @@ public class Scheduler extends AdempiereServer
 		}
 	}
 
+	private boolean isCronScheduling()
+	{
+		if (!X_AD_Scheduler.SCHEDULETYPE_CronSchedulingPattern.equals(m_model.getScheduleType()))
+		{
+			return false;
+		}
+
+		final String cronPattern = m_model.getCronPattern();
+		return cronPattern != null && cronPattern.trim().length() > 0 && SchedulingPattern.validate(cronPattern);
+	}
+
 	/**
-	 * This implementation evaluated a cron pattern to do the scheduling. If the model's scheduling type is not "cron",
-	 * then the super classe's scheduling is used instead.
+	 * If the model's scheduling type is "cron" and there is no upcoming run yet, then the next run is set to the next time matching the cron pattern.
+	 * An upcoming run is kept, because it might have been planned by another node which is already running this scheduler.
 	 */
 	@Override
-	public void run()
+	protected void onStart()
 	{
-		if (!X_AD_Scheduler.SCHEDULETYPE_CronSchedulingPattern.equals(m_model.getScheduleType()))
+		if (!isCronScheduling())
 		{
-			super.run();
 			return;
 		}
 
-		final String cronPattern = m_model.getCronPattern();
-		if (cronPattern != null && cronPattern.trim().length() > 0 && SchedulingPattern.validate(cronPattern))
+		final Timestamp dateNextRun = getDateNextRun(true);
+		final long plannedRunMillis = dateNextRun != null ? dateNextRun.getTime() : 0;
+		final long startRunMillis = calculateCronStartRunMillis(m_model.getCronPattern(), plannedRunMillis, System.currentTimeMillis());
+		if (startRunMillis != plannedRunMillis)
 		{
-			cronScheduler = new it.sauronsoftware.cron4j.Scheduler();
-			cronScheduler.schedule(cronPattern, () -> {
-				runNow();
-				final long next = predictor.nextMatchingTime();
-				setDateNextRun(new Timestamp(next));
-			});
-			predictor = new Predictor(cronPattern);
-			final long next = predictor.nextMatchingTime();
-			setDateNextRun(new Timestamp(next));
-			cronScheduler.start();
-			while (true)
-			{
-				if (!sleep())
-				{
-					cronScheduler.stop();
-					break;
-				}
-				else if (!cronScheduler.isStarted())
-				{
-					break;
-				}
-			}
+			setDateNextRun(new Timestamp(startRunMillis));
 		}
-		else
+	}
+
+	/**
+	 * @param plannedRunMillis the currently planned run; <code>0</code> if none
+	 * @return the planned run if it's upcoming, else the next time matching the cron pattern
+	 */
+	@VisibleForTesting
+	static long calculateCronStartRunMillis(final String cronPattern, final long plannedRunMillis, final long nowMillis)
+	{
+		if (plannedRunMillis >= nowMillis)
+		{
+			return plannedRunMillis;
+		}
+		return calculateCronNextRunMillis(cronPattern, nowMillis);
+	}
+
+	/**
+	 * This implementation evaluates a cron pattern to do the scheduling. If the model's scheduling type is not "cron",
+	 * then the super class's scheduling is used instead.
+	 */
+	@Override
+	protected long calculateNextRunMillis(final long plannedRunMillis, final long workStartMillis, final long nowMillis)
+	{
+		if (!isCronScheduling())
 		{
-			super.run();
+			return super.calculateNextRunMillis(plannedRunMillis, workStartMillis, nowMillis);
 		}
+
+		return calculateCronNextRunMillis(m_model.getCronPattern(), nowMillis);
+	}
+
+	/**
+	 * @return the next time after <code>nowMillis</code> which matches the cron pattern; i.e. the times which were missed while running are not caught up
+	 */
+	@VisibleForTesting
+	static long calculateCronNextRunMillis(final String cronPattern, final long nowMillis)
+	{
+		return new Predictor(cronPattern, nowMillis).nextMatchingTime();
 	}
 }	// Scheduler
@@ -26,6 +26,7 @@ package de.metas.adempiere.process;
  */
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.FillMandatoryException;
 import org.compiere.model.I_AD_Scheduler;
 import org.compiere.model.MScheduler;
@@ -62,7 +63,10 @@ public class SchedulerRunNow extends JavaProcess
 		}
 		final MScheduler schedulerModel = new MScheduler(getCtx(), p_AD_Scheduler_ID, ITrx.TRXNAME_None);
 		Scheduler scheduler = new Scheduler(schedulerModel);
-		scheduler.runNow();
+		if (!scheduler.runNow())
+		{
+			throw new AdempiereException("Scheduler is already running, on this node or on another one. Not run again.");
+		}
 
 		return "Ok";
 	}
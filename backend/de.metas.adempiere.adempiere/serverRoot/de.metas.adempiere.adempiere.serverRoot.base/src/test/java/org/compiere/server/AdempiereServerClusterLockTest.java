@@ -0,0 +1,142 @@
+package org.compiere.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AdempiereServerClusterLockTest
+{
+	private FakeLockConnectionFactory connectionFactory;
+
+	@BeforeEach
+	public void init()
+	{
+		connectionFactory = new FakeLockConnectionFactory();
+	}
+
+	private AdempiereServerClusterLock newClusterLock()
+	{
+		return new AdempiereServerClusterLock("TestServer", connectionFactory);
+	}
+
+	@Test
+	public void acquireAndRelease()
+	{
+		final AdempiereServerClusterLock clusterLock = newClusterLock();
+
+		assertThat(clusterLock.tryAcquire()).isTrue();
+		assertThat(clusterLock.isAcquired()).isTrue();
+
+		clusterLock.release();
+		assertThat(clusterLock.isAcquired()).isFalse();
+		assertThat(connectionFactory.executedFunctions).containsExactly("lock", "unlock");
+	}
+
+	@Test
+	public void connectionIsKeptBetweenRuns() throws SQLException
+	{
+		final AdempiereServerClusterLock clusterLock = newClusterLock();
+
+		for (int i = 0; i < 3; i++)
+		{
+			assertThat(clusterLock.tryAcquire()).isTrue();
+			clusterLock.release();
+		}
+
+		assertThat(connectionFactory.connections).hasSize(1);
+		verify(connectionFactory.connections.get(0), never()).close();
+	}
+
+	@Test
+	public void lockedByAnotherNode()
+	{
+		connectionFactory.lockAvailable = false;
+		final AdempiereServerClusterLock clusterLock = newClusterLock();
+
+		assertThat(clusterLock.tryAcquire()).isFalse();
+		assertThat(clusterLock.isAcquired()).isFalse();
+
+		clusterLock.release();
+		assertThat(connectionFactory.executedFunctions).containsExactly("lock");
+
+		// the other node is done
+		connectionFactory.lockAvailable = true;
+		assertThat(clusterLock.tryAcquire()).isTrue();
+		assertThat(connectionFactory.connections).hasSize(1);
+	}
+
+	@Test
+	public void failedUnlock_closesConnection() throws SQLException
+	{
+		final AdempiereServerClusterLock clusterLock = newClusterLock();
+		assertThat(clusterLock.tryAcquire()).isTrue();
+
+		connectionFactory.failNextStatement = true;
+		clusterLock.release();
+
+		// closing the session releases the lock in database
+		assertThat(clusterLock.isAcquired()).isFalse();
+		verify(connectionFactory.connections.get(0)).close();
+
+		assertThat(clusterLock.tryAcquire()).isTrue();
+		assertThat(connectionFactory.connections).hasSize(2);
+	}
+
+	@Test
+	public void brokenConnection_isReplaced() throws SQLException
+	{
+		final AdempiereServerClusterLock clusterLock = newClusterLock();
+		assertThat(clusterLock.tryAcquire()).isTrue();
+		clusterLock.release();
+
+		connectionFactory.failNextStatement = true;
+		assertThat(clusterLock.tryAcquire()).isTrue();
+
+		assertThat(connectionFactory.connections).hasSize(2);
+		verify(connectionFactory.connections.get(0)).close();
+		verify(connectionFactory.connections.get(1), never()).close();
+	}
+
+	@Test
+	public void closeIfNotAcquired() throws SQLException
+	{
+		final AdempiereServerClusterLock clusterLock = newClusterLock();
+		assertThat(clusterLock.tryAcquire()).isTrue();
+
+		// e.g. the server was stopped while running
+		clusterLock.closeIfNotAcquired();
+		verify(connectionFactory.connections.get(0), never()).close();
+
+		clusterLock.release();
+		clusterLock.closeIfNotAcquired();
+		verify(connectionFactory.connections.get(0)).close();
+		assertThat(connectionFactory.executedFunctions).containsExactly("lock", "unlock");
+	}
+}
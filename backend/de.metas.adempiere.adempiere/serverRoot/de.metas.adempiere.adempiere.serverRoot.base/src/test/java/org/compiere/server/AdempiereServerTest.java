@@ -0,0 +1,252 @@
+package org.compiere.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.AdempiereProcessor;
+import org.compiere.model.X_R_RequestProcessor;
+import org.compiere.server.AdempiereServer.RunOutcome;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AdempiereServerTest
+{
+	private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+	@Nested
+	public class calculateFixedDelayNextRunMillis
+	{
+		private static final long PLANNED = 1_000_000;
+
+		@Test
+		public void afterProcessingTime()
+		{
+			final long workStart = PLANNED + 5_000;
+			final long now = workStart + 30_000;
+
+			assertThat(AdempiereServer.calculateFixedDelayNextRunMillis(PLANNED, workStart, now, MINUTE, false))
+					.isEqualTo(now + MINUTE);
+		}
+
+		@Test
+		public void ignoreProcessingTime_keepsRhythm()
+		{
+			final long workStart = PLANNED + 5_000;
+			final long now = workStart + 30_000;
+
+			assertThat(AdempiereServer.calculateFixedDelayNextRunMillis(PLANNED, workStart, now, MINUTE, true))
+					.isEqualTo(PLANNED + MINUTE);
+		}
+
+		@Test
+		public void ignoreProcessingTime_skipsMissedRuns()
+		{
+			final long workStart = PLANNED + 5_000;
+			final long now = PLANNED + 2 * MINUTE + 30_000;
+
+			assertThat(AdempiereServer.calculateFixedDelayNextRunMillis(PLANNED, workStart, now, MINUTE, true))
+					.isEqualTo(PLANNED + 3 * MINUTE);
+		}
+
+		@Test
+		public void ignoreProcessingTime_unknownPlannedRun()
+		{
+			final long workStart = PLANNED + 5_000;
+			final long now = workStart + 30_000;
+
+			assertThat(AdempiereServer.calculateFixedDelayNextRunMillis(0, workStart, now, MINUTE, true))
+					.isEqualTo(workStart + MINUTE);
+		}
+	}
+
+	@Nested
+	public class runIfPossible
+	{
+		private FakeLockConnectionFactory connectionFactory;
+		private AdempiereProcessor model;
+		private Timestamp dateNextRun;
+		private TestServer server;
+
+		@BeforeEach
+		public void init()
+		{
+			AdempiereTestHelper.get().init();
+			AdempiereTestHelper.setupContext_AD_Client_IfNotSet();
+
+			connectionFactory = new FakeLockConnectionFactory();
+
+			model = mock(AdempiereProcessor.class);
+			when(model.getCtx()).thenReturn(Env.getCtx());
+			when(model.getName()).thenReturn("Test");
+			when(model.getServerID()).thenReturn("Test1");
+			when(model.getFrequencyType()).thenReturn(X_R_RequestProcessor.FREQUENCYTYPE_Minute);
+			when(model.getFrequency()).thenReturn(1);
+			when(model.getDateNextRun(true)).thenAnswer(invocation -> dateNextRun);
+			doAnswer(invocation -> {
+				dateNextRun = (Timestamp)invocation.getArguments()[0];
+				return null;
+			}).when(model).setDateNextRun(any(Timestamp.class));
+
+			server = new TestServer(model, new AdempiereServerClusterLock("Test1", connectionFactory));
+		}
+
+		@Test
+		public void notDue()
+		{
+			final long planned = System.currentTimeMillis() + 10 * MINUTE;
+			dateNextRun = new Timestamp(planned);
+
+			final RunOutcome outcome = server.runIfPossible(true);
+
+			assertThat(outcome.isDone()).isFalse();
+			assertThat(outcome.isSkipped()).isFalse();
+			assertThat(outcome.getNextCheckMillis()).isEqualTo(planned);
+			assertThat(server.workCount).isEqualTo(0);
+			// no lock needed to find out that it's not due
+			assertThat(connectionFactory.connections).isEmpty();
+		}
+
+		@Test
+		public void due_recordsLagAndPlansNextRun()
+		{
+			final long planned = System.currentTimeMillis() - 5_000;
+			dateNextRun = new Timestamp(planned);
+
+			final RunOutcome outcome = server.runIfPossible(true);
+
+			assertThat(outcome.isDone()).isTrue();
+			assertThat(server.workCount).isEqualTo(1);
+			assertThat(server.getMetrics().getLastLagMillis()).isGreaterThanOrEqualTo(5_000);
+			assertThat(server.getMetrics().getMaxLagMillis()).isEqualTo(server.getMetrics().getLastLagMillis());
+			assertThat(outcome.getNextCheckMillis()).isGreaterThan(System.currentTimeMillis());
+			assertThat(dateNextRun.getTime()).isEqualTo(outcome.getNextCheckMillis());
+			assertThat(connectionFactory.executedFunctions).containsExactly("lock", "unlock");
+		}
+
+		@Test
+		public void due_lockedByAnotherNode()
+		{
+			dateNextRun = new Timestamp(System.currentTimeMillis() - 5_000);
+			connectionFactory.lockAvailable = false;
+
+			final RunOutcome outcome = server.runIfPossible(true);
+
+			assertThat(outcome.isDone()).isFalse();
+			assertThat(outcome.isSkipped()).isTrue();
+			assertThat(server.workCount).isEqualTo(0);
+			assertThat(server.getMetrics().getSkippedRunsCount()).isEqualTo(1);
+			assertThat(connectionFactory.executedFunctions).containsExactly("lock");
+		}
+
+		@Test
+		public void due_doneByAnotherNodeMeanwhile()
+		{
+			final long planned = System.currentTimeMillis() + 10 * MINUTE;
+			when(model.getDateNextRun(true)).thenReturn(
+					new Timestamp(System.currentTimeMillis() - 5_000), // before getting the lock
+					new Timestamp(planned)); // after getting the lock
+
+			final RunOutcome outcome = server.runIfPossible(true);
+
+			assertThat(outcome.isDone()).isFalse();
+			assertThat(outcome.isSkipped()).isFalse();
+			assertThat(outcome.getNextCheckMillis()).isEqualTo(planned);
+			assertThat(server.workCount).isEqualTo(0);
+			assertThat(connectionFactory.executedFunctions).containsExactly("lock", "unlock");
+		}
+
+		@Test
+		public void runNow()
+		{
+			assertThat(server.runNow()).isTrue();
+			assertThat(server.workCount).isEqualTo(1);
+		}
+
+		@Test
+		public void runNow_lockedByAnotherNode()
+		{
+			connectionFactory.lockAvailable = false;
+
+			assertThat(server.runNow()).isFalse();
+			assertThat(server.workCount).isEqualTo(0);
+			assertThat(server.getMetrics().getSkippedRunsCount()).isEqualTo(1);
+		}
+
+		@Test
+		public void runNow_alreadyRunningOnThisNode()
+		{
+			final Boolean[] nestedRunNowResult = new Boolean[1];
+			server.work = () -> nestedRunNowResult[0] = server.runNow();
+
+			assertThat(server.runNow()).isTrue();
+			assertThat(nestedRunNowResult[0]).isFalse();
+			assertThat(server.workCount).isEqualTo(1);
+			assertThat(server.getMetrics().getOverlappingRunsCount()).isEqualTo(1);
+		}
+
+		@Test
+		public void notStartedServer_doesNotKeepTheConnection() throws Exception
+		{
+			server.runNow();
+
+			assertThat(connectionFactory.connections).hasSize(1);
+			verify(connectionFactory.connections.get(0)).close();
+		}
+	}
+
+	private static class TestServer extends AdempiereServer
+	{
+		private Runnable work = () -> {};
+		private int workCount = 0;
+
+		private TestServer(final AdempiereProcessor model, final AdempiereServerClusterLock clusterLock)
+		{
+			super(model, 0, clusterLock);
+		}
+
+		@Override
+		protected void doWork()
+		{
+			workCount++;
+			work.run();
+		}
+
+		@Override
+		public String getServerInfo()
+		{
+			return "test";
+		}
+	}
+}
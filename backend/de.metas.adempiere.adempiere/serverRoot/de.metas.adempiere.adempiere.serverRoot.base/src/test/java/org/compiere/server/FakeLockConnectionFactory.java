@@ -0,0 +1,88 @@
+package org.compiere.server;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Creates mocked connections which answer the advisory lock functions used by {@link AdempiereServerClusterLock}.
+ */
+class FakeLockConnectionFactory implements Supplier<Connection>
+{
+	/** What <code>pg_try_advisory_lock</code> returns, i.e. false if another node holds the lock */
+	boolean lockAvailable = true;
+	/** If set, the next statement fails, as if the connection was broken */
+	boolean failNextStatement = false;
+
+	final List<Connection> connections = new ArrayList<>();
+	/** "lock" or "unlock", in the order they were executed */
+	final List<String> executedFunctions = new ArrayList<>();
+
+	@Override
+	public Connection get()
+	{
+		try
+		{
+			final Connection connection = mock(Connection.class);
+			when(connection.prepareStatement(anyString())).thenAnswer(invocation -> newStatement((String)invocation.getArguments()[0]));
+			connections.add(connection);
+			return connection;
+		}
+		catch (final SQLException ex)
+		{
+			throw new RuntimeException(ex);
+		}
+	}
+
+	private PreparedStatement newStatement(final String sql) throws SQLException
+	{
+		if (failNextStatement)
+		{
+			failNextStatement = false;
+			throw new SQLException("connection is broken");
+		}
+
+		final boolean isTryLock = sql.contains("pg_try_advisory_lock");
+
+		final ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true);
+		when(rs.getBoolean(1)).thenReturn(isTryLock ? lockAvailable : true);
+
+		final PreparedStatement pstmt = mock(PreparedStatement.class);
+		when(pstmt.executeQuery()).thenAnswer(invocation -> {
+			executedFunctions.add(isTryLock ? "lock" : "unlock");
+			return rs;
+		});
+		return pstmt;
+	}
+}
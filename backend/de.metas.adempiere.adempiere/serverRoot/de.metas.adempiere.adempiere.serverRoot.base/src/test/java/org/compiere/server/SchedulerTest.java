@@ -0,0 +1,80 @@
+package org.compiere.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.serverRoot.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SchedulerTest
+{
+	private static final String EVERY_15_MINUTES = "*/15 * * * *";
+
+	private static long millis(final int hour, final int minute, final int second)
+	{
+		return LocalDateTime.of(2020, 3, 10, hour, minute, second)
+				.atZone(ZoneId.systemDefault()) // cron4j is using the default time zone
+				.toInstant()
+				.toEpochMilli();
+	}
+
+	@Test
+	public void cronNextRun()
+	{
+		assertThat(Scheduler.calculateCronNextRunMillis(EVERY_15_MINUTES, millis(10, 0, 20)))
+				.isEqualTo(millis(10, 15, 0));
+	}
+
+	@Test
+	public void cronNextRun_missedRunsAreNotCaughtUp()
+	{
+		// planned at 10:00, but the run took until 10:40
+		assertThat(Scheduler.calculateCronNextRunMillis(EVERY_15_MINUTES, millis(10, 40, 30)))
+				.isEqualTo(millis(10, 45, 0));
+	}
+
+	@Test
+	public void cronStartRun_upcomingRunIsKept()
+	{
+		// might have been planned by another node
+		assertThat(Scheduler.calculateCronStartRunMillis(EVERY_15_MINUTES, millis(11, 0, 0), millis(10, 40, 30)))
+				.isEqualTo(millis(11, 0, 0));
+	}
+
+	@Test
+	public void cronStartRun_pastRunIsNotCaughtUp()
+	{
+		assertThat(Scheduler.calculateCronStartRunMillis(EVERY_15_MINUTES, millis(9, 0, 0), millis(10, 40, 30)))
+				.isEqualTo(millis(10, 45, 0));
+	}
+
+	@Test
+	public void cronStartRun_noPlannedRun()
+	{
+		assertThat(Scheduler.calculateCronStartRunMillis(EVERY_15_MINUTES, 0, millis(10, 40, 30)))
+				.isEqualTo(millis(10, 45, 0));
+	}
+}
@@ -21,10 +21,15 @@ import java.util.Set;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.I_M_Cost;
 import org.compiere.model.I_M_CostElement;
 import org.compiere.model.I_M_Product;
+import org.eevolution.api.IProductBOMDAO;
+import org.eevolution.api.LowLevelParallelExecutor;
+import org.eevolution.api.ProductBOMGraph;
 import org.eevolution.costing.BOMCostCalculator;
 import org.eevolution.costing.BatchProcessBOMCostCalculatorRepository;
 
@@ -47,6 +52,12 @@ public class RollupBillOfMaterial extends JavaProcess
 {
 	// services
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final IProductBOMDAO productBOMsRepo = Services.get(IProductBOMDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	/** How many products of the same low level shall be rolled up in parallel, each one in its own transaction */
+	private static final String SYSCONFIG_Parallelism = "org.eevolution.process.RollupBillOfMaterial.Parallelism";
 
 	// Parameters
 	private ClientId clientId;
@@ -122,32 +133,23 @@ public class RollupBillOfMaterial extends JavaProcess
 				.repository(bomCostCalculatorRepo)
 				.build();
 
-		final int maxLowLevel = getMaxLowLevel();
-		for (int lowLevel = maxLowLevel; lowLevel >= 0; lowLevel--)
-		{
-			for (final ProductId productId : getProductIdsByLowLevel(lowLevel))
-			{
-				calculator.rollup(productId);
-			}
-		}
-
-		return MSG_OK;
-	}
-
-	private int getMaxLowLevel()
-	{
-		return createProductsQuery()
-				.addNotNull(I_M_Product.COLUMNNAME_LowLevel)
-				.create()
-				.maxInt(I_M_Product.COLUMNNAME_LowLevel);
-	}
-
-	private Set<ProductId> getProductIdsByLowLevel(final int lowLevel)
-	{
-		return createProductsQuery()
-				.addEqualsFilter(I_M_Product.COLUMN_LowLevel, lowLevel)
+		final ProductBOMGraph bomGraph = productBOMsRepo.retrieveProductBOMGraph(clientId);
+		final Set<ProductId> productIds = createProductsQuery()
 				.create()
 				.listIds(ProductId::ofRepoId);
+
+		final int parallelism = sysConfigBL.getIntValue(SYSCONFIG_Parallelism, 1, clientId.getRepoId());
+		LowLevelParallelExecutor.builder()
+				.productIdsByLowLevel(bomGraph.groupByLowLevel(productIds))
+				.componentsFirst(true)
+				.parallelism(parallelism)
+				.action(parallelism > 1
+						? bomProductId -> trxManager.runInNewTrx(() -> calculator.rollup(bomProductId))
+						: calculator::rollup)
+				.build()
+				.execute();
+
+		return MSG_OK;
 	}
 
 	private IQueryBuilder<I_M_Product> createProductsQuery()
@@ -26,7 +26,10 @@ import java.math.BigDecimal;
 
 import org.adempiere.ad.wrapper.POJOWrapper;
 import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
 import org.eevolution.api.BOMComponentType;
+import org.eevolution.api.IProductBOMDAO;
+import org.eevolution.api.ProductBOMGraph;
 import org.eevolution.exceptions.BOMCycleException;
 import org.eevolution.mrp.api.impl.MRPTestHelper;
 import org.junit.Assert;
@@ -34,6 +37,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.metas.product.ProductId;
+import de.metas.util.Services;
 
 public class ProductLowLevelCalculatorTest
 {
@@ -179,5 +183,9 @@ public class ProductLowLevelCalculatorTest
 		final ProductLowLevelCalculator llcCalculator = ProductLowLevelCalculator.newInstance();
 		final int llcActual = llcCalculator.getLowLevel(ProductId.ofRepoId(product.getM_Product_ID()));
 		Assert.assertEquals("Invalid LLC for product " + product.getValue(), llcExpected, llcActual);
+
+		final ProductBOMGraph bomGraph = Services.get(IProductBOMDAO.class).retrieveProductBOMGraph(Env.getClientId());
+		final int llcFromGraph = bomGraph.getLowLevel(ProductId.ofRepoId(product.getM_Product_ID()));
+		Assert.assertEquals("Invalid LLC from BOM graph for product " + product.getValue(), llcExpected, llcFromGraph);
 	}
 }
@@ -64,6 +64,8 @@ public interface IUnlockCommand
 
 	IUnlockCommand setRecordByTableRecordId(String tableName, int recordId);
 
+	IUnlockCommand addRecords(Collection<TableRecordReference> records);
+
 	Iterator<TableRecordReference> getRecordsToUnlockIterator();
 
 	IUnlockCommand setRecordsBySelection(Class<?> modelClass, PInstanceId adPIstanceId);
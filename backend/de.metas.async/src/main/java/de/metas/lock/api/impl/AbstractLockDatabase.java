@@ -139,7 +139,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 	 * @param lockCommand
 	 * @return how many records were locked
 	 */
-	private final int lockByIterator(final ILockCommand lockCommand)
+	protected int lockByIterator(final ILockCommand lockCommand)
 	{
 		final Iterator<TableRecordReference> records = lockCommand.getRecordsToLockIterator();
 		Check.assumeNotNull(records, "records not null");
@@ -244,7 +244,7 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 
 	protected abstract int unlockByOwner(final IUnlockCommand unlockCommand);
 
-	private final int unlockByIterator(IUnlockCommand unlockCommand)
+	protected int unlockByIterator(final IUnlockCommand unlockCommand)
 	{
 		final Iterator<TableRecordReference> records = unlockCommand.getRecordsToUnlockIterator();
 		Check.assumeNotNull(records, "records not null");
@@ -33,12 +33,25 @@ import de.metas.lock.api.ILockManager;
 import de.metas.lock.api.IUnlockCommand;
 import de.metas.lock.api.LockOwner;
 import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.BulkSqlLockDatabase;
 import de.metas.lock.spi.impl.SqlLockDatabase;
 import de.metas.util.Check;
 
 public class LockManager implements ILockManager
 {
-	private final ILockDatabase lockDatabase = new SqlLockDatabase();
+	/** Set this system property to <code>true</code> to lock/unlock given records in bulk, see {@link BulkSqlLockDatabase} */
+	private static final String SYSTEM_PROPERTY_UseBulkLockDatabase = "de.metas.lock.UseBulkLockDatabase";
+
+	private final ILockDatabase lockDatabase = createLockDatabase();
+
+	private static ILockDatabase createLockDatabase()
+	{
+		if (Boolean.getBoolean(SYSTEM_PROPERTY_UseBulkLockDatabase))
+		{
+			return new BulkSqlLockDatabase();
+		}
+		return new SqlLockDatabase();
+	}
 
 	public ILockDatabase getLockDatabase()
 	{
@@ -136,6 +136,13 @@ public class UnlockCommand implements IUnlockCommand
 		return this;
 	}
 
+	@Override
+	public IUnlockCommand addRecords(final Collection<TableRecordReference> records)
+	{
+		_recordsToUnlock.addRecords(records);
+		return this;
+	}
+
 	@Override
 	public IUnlockCommand setRecordsBySelection(final Class<?> modelClass, final PInstanceId adPIstanceId)
 	{
@@ -0,0 +1,239 @@
+package de.metas.lock.spi.impl;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBUniqueConstraintException;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.DB;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.ListMultimap;
+
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.IUnlockCommand;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.exceptions.UnlockFailedException;
+import de.metas.lock.model.I_T_Lock;
+import de.metas.process.PInstanceId;
+import lombok.NonNull;
+
+/**
+ * {@link SqlLockDatabase} which locks/unlocks given records in bulk instead of one by one.
+ * <p>
+ * The records are written to <code>T_Selection</code> chunk-wise and then locked with one <code>INSERT ... SELECT</code> per chunk and table
+ * (respectively unlocked with one <code>DELETE</code>).
+ * If {@link ILockCommand#isFailIfAlreadyLocked()} is false, records which are already locked are skipped using <code>ON CONFLICT DO NOTHING</code>.
+ * <p>
+ * Note that, unlike {@link SqlLockDatabase}, locking is all or nothing: if one record is already locked and we were asked to fail,
+ * none of the chunk's records are locked and the locks which were already acquired for the previous chunks are released again.
+ * <p>
+ * {@link #isLocked(int, int, LockOwner)} always asks <code>T_Lock</code>, because the locks might be released by other nodes (e.g. by {@link #removeAutoCleanupLocks()}).
+ */
+public class BulkSqlLockDatabase extends SqlLockDatabase
+{
+	private static final int CHUNK_SIZE = 1000;
+
+	@Override
+	protected int lockByIterator(final ILockCommand lockCommand)
+	{
+		// Changing the lock owner is done record by record
+		if (lockCommand.getParentLock() != null)
+		{
+			return super.lockByIterator(lockCommand);
+		}
+
+		final ListMultimap<Integer, Integer> lockedRecordIdsByTableId = ArrayListMultimap.create();
+		try
+		{
+			final Iterator<TableRecordReference> records = lockCommand.getRecordsToLockIterator();
+			final Iterator<List<TableRecordReference>> chunks = Iterators.partition(records, CHUNK_SIZE);
+			while (chunks.hasNext())
+			{
+				final ImmutableListMultimap<Integer, Integer> recordIdsByTableId = groupRecordIdsByTableId(chunks.next());
+				for (final Integer adTableId : recordIdsByTableId.keySet())
+				{
+					lockedRecordIdsByTableId.putAll(adTableId, lockRecordIds(lockCommand, adTableId, recordIdsByTableId.get(adTableId)));
+				}
+			}
+		}
+		catch (final RuntimeException e)
+		{
+			// the previous chunks were locked out of transaction, so we have to release them explicitly
+			releaseLocksNoFail(lockCommand.getOwner(), lockedRecordIdsByTableId, e);
+			throw e;
+		}
+
+		return lockedRecordIdsByTableId.size();
+	}
+
+	/** @return the IDs of the records which were actually locked */
+	private List<Integer> lockRecordIds(
+			@NonNull final ILockCommand lockCommand,
+			final int adTableId,
+			@NonNull final List<Integer> recordIds)
+	{
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		final PInstanceId selectionId = DB.createT_Selection(recordIds, ITrx.TRXNAME_None);
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder("INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				//
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", T_Selection_ID" // Record_ID
+				+ ", " + toSqlParam(lockOwner.getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(lockCommand.isAutoCleanup(), sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
+				//
+				+ " FROM T_Selection"
+				+ " WHERE AD_PInstance_ID=" + toSqlParam(selectionId, sqlParams));
+		if (!lockCommand.isFailIfAlreadyLocked())
+		{
+			sql.append(" ON CONFLICT DO NOTHING");
+		}
+		sql.append(" RETURNING " + I_T_Lock.COLUMNNAME_Record_ID);
+
+		final List<Integer> lockedRecordIds = new ArrayList<>(recordIds.size());
+		try
+		{
+			DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None, 0, rs -> lockedRecordIds.add(rs.getInt(1)));
+		}
+		catch (final DBUniqueConstraintException e)
+		{
+			throw new LockFailedException("Some of the records were already locked", e)
+					.setLockCommand(lockCommand)
+					.setSql(sql.toString(), sqlParams.toArray());
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql.toString(), sqlParams.toArray());
+		}
+		finally
+		{
+			DB.deleteT_Selection(selectionId, ITrx.TRXNAME_None);
+		}
+
+		return lockedRecordIds;
+	}
+
+	private void releaseLocksNoFail(
+			@NonNull final LockOwner lockOwner,
+			@NonNull final ListMultimap<Integer, Integer> recordIdsByTableId,
+			@NonNull final RuntimeException lockException)
+	{
+		for (final Integer adTableId : recordIdsByTableId.keySet())
+		{
+			final Iterator<List<Integer>> chunks = Iterators.partition(recordIdsByTableId.get(adTableId).iterator(), CHUNK_SIZE);
+			while (chunks.hasNext())
+			{
+				try
+				{
+					deleteLocks(lockOwner, adTableId, chunks.next());
+				}
+				catch (final RuntimeException e)
+				{
+					logger.warn("Failed releasing the locks of {} for AD_Table_ID={} after a failed lock attempt. Ignored.", lockOwner, adTableId, e);
+					lockException.addSuppressed(e);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected int unlockByIterator(final IUnlockCommand unlockCommand)
+	{
+		final Iterator<TableRecordReference> records = unlockCommand.getRecordsToUnlockIterator();
+		int countUnlocked = 0;
+		final Iterator<List<TableRecordReference>> chunks = Iterators.partition(records, CHUNK_SIZE);
+		while (chunks.hasNext())
+		{
+			final ImmutableListMultimap<Integer, Integer> recordIdsByTableId = groupRecordIdsByTableId(chunks.next());
+			for (final Integer adTableId : recordIdsByTableId.keySet())
+			{
+				try
+				{
+					countUnlocked += deleteLocks(unlockCommand.getOwner(), adTableId, recordIdsByTableId.get(adTableId));
+				}
+				catch (final UnlockFailedException e)
+				{
+					throw e.setUnlockCommand(unlockCommand);
+				}
+			}
+		}
+
+		return countUnlocked;
+	}
+
+	private int deleteLocks(
+			@NonNull final LockOwner lockOwner,
+			final int adTableId,
+			@NonNull final List<Integer> recordIds)
+	{
+		final PInstanceId selectionId = DB.createT_Selection(recordIds, ITrx.TRXNAME_None);
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final StringBuilder sql = new StringBuilder("DELETE FROM " + I_T_Lock.Table_Name + " WHERE 1=1 ");
+		appendTableSelectionWhereClause(adTableId, selectionId, sql, sqlParams);
+		appendLockOwnerWhereClause(lockOwner, sql, sqlParams);
+
+		try
+		{
+			return DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+		}
+		catch (final Exception e)
+		{
+			throw new UnlockFailedException("Failed unlocking records", e)
+					.setSql(sql.toString(), sqlParams.toArray());
+		}
+		finally
+		{
+			DB.deleteT_Selection(selectionId, ITrx.TRXNAME_None);
+		}
+	}
+
+	private static ImmutableListMultimap<Integer, Integer> groupRecordIdsByTableId(final List<TableRecordReference> records)
+	{
+		return records.stream()
+				.filter(record -> record.getRecord_ID() >= 0)
+				.collect(ImmutableListMultimap.toImmutableListMultimap(TableRecordReference::getAD_Table_ID, TableRecordReference::getRecord_ID));
+	}
+}
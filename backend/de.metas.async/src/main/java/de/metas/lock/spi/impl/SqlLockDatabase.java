@@ -52,7 +52,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	 * @param sql
 	 * @param sqlParams sql parameters list or null
 	 */
-	private final void appendLockOwnerWhereClause(final LockOwner lockOwner, final StringBuilder sql, final List<Object> sqlParams)
+	protected final void appendLockOwnerWhereClause(final LockOwner lockOwner, final StringBuilder sql, final List<Object> sqlParams)
 	{
 		Check.assumeNotNull(lockOwner, "lockOwner not null");
 		if (lockOwner.isAnyOwner())
@@ -72,7 +72,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
-	private static final String toSqlParam(final Object param, final List<Object> sqlParams)
+	protected static final String toSqlParam(final Object param, final List<Object> sqlParams)
 	{
 		if (sqlParams != null)
 		{
@@ -98,7 +98,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_Record_ID).append("=").append(toSqlParam(recordId, sqlParams));
 	}
 
-	private final void appendTableSelectionWhereClause(final int adTableId, @NonNull final PInstanceId pinstanceId, final StringBuilder sql, final List<Object> sqlParams)
+	protected final void appendTableSelectionWhereClause(final int adTableId, @NonNull final PInstanceId pinstanceId, final StringBuilder sql, final List<Object> sqlParams)
 	{
 		Check.assume(adTableId > 0, "adTableId > 0");
 		sql.append(" AND ").append(I_T_Lock.COLUMNNAME_AD_Table_ID).append("=").append(toSqlParam(adTableId, sqlParams));
@@ -0,0 +1,163 @@
+package de.metas.lock.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_AD_Table;
+import org.compiere.util.Env;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.spi.impl.BulkSqlLockDatabase;
+import de.metas.util.Check;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The locked records don't have to exist, we only write into T_Lock.
+ */
+@Ignore
+// requires database connection
+public class BulkSqlLockDatabase_DBTest
+{
+	private static final int RECORD_ID_OFFSET = 900000000; // make sure we don't collide with real locks
+
+	private BulkSqlLockDatabase lockDatabase;
+	private LockOwner otherOwner;
+	private LockOwner owner;
+
+	public static void main(final String[] args)
+	{
+		final BulkSqlLockDatabase_DBTest test = new BulkSqlLockDatabase_DBTest();
+		test.setupAdempiere();
+
+		test.init();
+		test.alreadyLockedRecords_areSkipped();
+		test.cleanup();
+
+		test.init();
+		test.failingChunk_releasesPreviousChunks();
+		test.cleanup();
+	}
+
+	private void setupAdempiere()
+	{
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Before
+	public void init()
+	{
+		lockDatabase = new BulkSqlLockDatabase();
+		otherOwner = LockOwner.newOwner("BulkSqlLockDatabase_DBTest_Other");
+		owner = LockOwner.newOwner("BulkSqlLockDatabase_DBTest");
+	}
+
+	@After
+	public void cleanup()
+	{
+		final List<TableRecordReference> records = records(0, 3000);
+		new UnlockCommand(lockDatabase).setOwner(otherOwner).addRecords(records).release();
+		new UnlockCommand(lockDatabase).setOwner(owner).addRecords(records).release();
+	}
+
+	/**
+	 * Like {@code SqlLockDatabase#lockByIterator}, locking records which are all locked by someone else shall not fail if we were not asked to.
+	 */
+	@Test
+	public void alreadyLockedRecords_areSkipped()
+	{
+		final List<TableRecordReference> records = records(0, 10);
+		lock(otherOwner, records, true);
+
+		final ILock lock = lock(owner, records, false);
+
+		assertThat(lock.getCountLocked()).isEqualTo(0);
+		assertLocked(owner, records, false);
+	}
+
+	@Test
+	public void failingChunk_releasesPreviousChunks()
+	{
+		// the records are locked in chunks of 1000; the last chunk contains a record which is already locked
+		final List<TableRecordReference> records = records(0, 2500);
+		lock(otherOwner, records.subList(2400, 2401), true);
+
+		assertThatThrownBy(() -> lock(owner, records, true))
+				.isInstanceOf(LockFailedException.class);
+
+		assertLocked(owner, records, false);
+		assertLocked(otherOwner, records.subList(2400, 2401), true);
+	}
+
+	private ILock lock(final LockOwner lockOwner, final List<TableRecordReference> records, final boolean failIfAlreadyLocked)
+	{
+		final LockCommand lockCommand = new LockCommand(lockDatabase);
+		lockCommand.setOwner(lockOwner)
+				.setAutoCleanup(true)
+				.setFailIfAlreadyLocked(failIfAlreadyLocked);
+		records.forEach(lockCommand::addRecord);
+		return lockCommand.acquire();
+	}
+
+	private void assertLocked(final LockOwner lockOwner, final List<TableRecordReference> records, final boolean expectedLocked)
+	{
+		for (final TableRecordReference record : records)
+		{
+			assertThat(lockDatabase.isLocked(record.getAD_Table_ID(), record.getRecord_ID(), lockOwner))
+					.as("locked by %s: %s", lockOwner, record)
+					.isEqualTo(expectedLocked);
+		}
+	}
+
+	private static List<TableRecordReference> records(final int from, final int to)
+	{
+		final int adTableId = InterfaceWrapperHelper.getTableId(I_AD_Table.class);
+		return IntStream.range(from, to)
+				.mapToObj(i -> TableRecordReference.of(adTableId, RECORD_ID_OFFSET + i))
+				.collect(Collectors.toList());
+	}
+}
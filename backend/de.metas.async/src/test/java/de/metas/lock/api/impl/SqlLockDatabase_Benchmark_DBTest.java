@@ -0,0 +1,139 @@
+package de.metas.lock.api.impl;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_AD_Table;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.BulkSqlLockDatabase;
+import de.metas.lock.spi.impl.SqlLockDatabase;
+import de.metas.util.Check;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compares lock/isLocked/unlock throughput of {@link SqlLockDatabase} and {@link BulkSqlLockDatabase}.
+ * <p>
+ * The locked records don't have to exist, we only write into T_Lock.
+ */
+@Ignore
+// requires database connection
+public class SqlLockDatabase_Benchmark_DBTest
+{
+	private static final int COUNT_RECORDS = 20000;
+	private static final int RECORD_ID_OFFSET = 900000000; // make sure we don't collide with real locks
+
+	public static void main(final String[] args)
+	{
+		final SqlLockDatabase_Benchmark_DBTest test = new SqlLockDatabase_Benchmark_DBTest();
+		test.setupAdempiere();
+		test.compareThroughput();
+	}
+
+	private void setupAdempiere()
+	{
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void compareThroughput()
+	{
+		final int adTableId = InterfaceWrapperHelper.getTableId(I_AD_Table.class);
+		final List<TableRecordReference> records = IntStream.range(0, COUNT_RECORDS)
+				.mapToObj(i -> TableRecordReference.of(adTableId, RECORD_ID_OFFSET + i))
+				.collect(Collectors.toList());
+
+		// warm up
+		run(new SqlLockDatabase(), records.subList(0, 100));
+		run(new BulkSqlLockDatabase(), records.subList(0, 100));
+
+		run(new SqlLockDatabase(), records);
+		run(new BulkSqlLockDatabase(), records);
+	}
+
+	private void run(final ILockDatabase lockDatabase, final List<TableRecordReference> records)
+	{
+		final String name = lockDatabase.getClass().getSimpleName();
+		final LockOwner lockOwner = LockOwner.newOwner("Benchmark");
+
+		final ILockCommand lockCommand = new LockCommand(lockDatabase)
+				.setOwner(lockOwner)
+				.setAutoCleanup(true)
+				.setFailIfAlreadyLocked(true);
+		records.forEach(lockCommand::addRecord);
+
+		final Stopwatch lockStopwatch = Stopwatch.createStarted();
+		final ILock lock = lockCommand.acquire();
+		lockStopwatch.stop();
+
+		final Stopwatch isLockedStopwatch = Stopwatch.createStarted();
+		for (final TableRecordReference record : records)
+		{
+			Check.assume(lockDatabase.isLocked(record.getAD_Table_ID(), record.getRecord_ID(), lockOwner), "{} is locked", record);
+		}
+		isLockedStopwatch.stop();
+
+		final Stopwatch unlockStopwatch = Stopwatch.createStarted();
+		new UnlockCommand(lockDatabase)
+				.setOwner(lockOwner)
+				.addRecords(records)
+				.release();
+		unlockStopwatch.stop();
+
+		System.out.println(name + ": " + lock.getCountLocked() + " records"
+				+ "\n\t lock: " + lockStopwatch + " (" + perSecond(records.size(), lockStopwatch) + " records/sec)"
+				+ "\n\t isLocked: " + isLockedStopwatch + " (" + perSecond(records.size(), isLockedStopwatch) + " records/sec)"
+				+ "\n\t unlock: " + unlockStopwatch + " (" + perSecond(records.size(), unlockStopwatch) + " records/sec)");
+	}
+
+	private static long perSecond(final int count, final Stopwatch stopwatch)
+	{
+		final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		return count * 1000L / millis;
+	}
+}
@@ -1,7 +1,9 @@
 package de.metas.rest_api.ordercandidates.impl;
 
 import java.util.Comparator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
@@ -45,6 +47,7 @@ import de.metas.util.Check;
 import de.metas.util.Services;
 import de.metas.util.collections.CollectionUtils;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -75,6 +78,12 @@ final class BPartnerEndpointAdapter
 	private final BpartnerRestController bpartnerRestController;
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
+	/**
+	 * Per-request lookup cache. Bulk requests usually repeat the same few bpartners on every line,
+	 * so we invoke the bpartner endpoint only once per distinct JSON.
+	 */
+	private final Map<BPartnerInfoCacheKey, BPartnerInfo> bpartnerInfosByKey = new ConcurrentHashMap<>();
+
 	public BPartnerEndpointAdapter(@NonNull final BpartnerRestController bpartnerRestController)
 	{
 		this.bpartnerRestController = bpartnerRestController;
@@ -85,7 +94,24 @@ final class BPartnerEndpointAdapter
 			final boolean billTo,
 			@Nullable final String orgCode)
 	{
-		return getCreateBPartnerInfo0(jsonBPartnerInfo, billTo, orgCode);
+		if (jsonBPartnerInfo == null)
+		{
+			return null;
+		}
+
+		return bpartnerInfosByKey.computeIfAbsent(
+				new BPartnerInfoCacheKey(jsonBPartnerInfo, billTo, orgCode),
+				key -> getCreateBPartnerInfo0(key.getJsonBPartnerInfo(), key.isBillTo(), key.getOrgCode()));
+	}
+
+	@Value
+	private static class BPartnerInfoCacheKey
+	{
+		@NonNull
+		JsonRequestBPartnerLocationAndContact jsonBPartnerInfo;
+		boolean billTo;
+		@Nullable
+		String orgCode;
 	}
 
 	private BPartnerInfo getCreateBPartnerInfo0(
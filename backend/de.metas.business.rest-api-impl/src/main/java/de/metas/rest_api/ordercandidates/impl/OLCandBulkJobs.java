@@ -0,0 +1,334 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.logging.LogManager;
+import de.metas.rest_api.common.JsonErrorItem;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus.Status;
+import de.metas.rest_api.utils.JsonErrors;
+import lombok.Getter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs asynchronous order line candidate bulk imports.
+ * <p>
+ * The request payload is first spooled to a temporary file (so we don't keep the HTTP request open while processing),
+ * then it's read chunk by chunk using {@link OLCandBulkRequestStreamReader} and each chunk is handed over to a chunk processor,
+ * which is expected to create and commit the candidates of that chunk.
+ * Memory usage therefore depends on the chunk size and not on the payload size.
+ * <p>
+ * Limitations: jobs and their status are kept only in the memory of the node which accepted the request.
+ * So with more than one node, the status can only be polled via the same node (sticky sessions),
+ * and when the node is stopped, jobs which did not complete are lost. The chunks which were processed until then stay committed.
+ * On shutdown, we wait for running jobs up to {@link #SHUTDOWN_TIMEOUT} and log the IDs of the jobs which did not complete,
+ * so that their payloads can be resubmitted.
+ */
+final class OLCandBulkJobs
+{
+	private static final Logger logger = LogManager.getLogger(OLCandBulkJobs.class);
+
+	private static final int CHUNK_SIZE = 500;
+	@VisibleForTesting
+	static final int MAX_CONCURRENT_JOBS = 2;
+	/** Jobs which are waiting for a free worker; every one of them has its payload spooled to disk, so we don't accept more */
+	@VisibleForTesting
+	static final int MAX_QUEUED_JOBS = 10;
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(1);
+
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	private final BlockingQueue<Runnable> queuedJobs = new LinkedBlockingQueue<>(MAX_QUEUED_JOBS);
+	private final ExecutorService executor = new ThreadPoolExecutor(
+			MAX_CONCURRENT_JOBS, MAX_CONCURRENT_JOBS,
+			1, TimeUnit.MINUTES,
+			queuedJobs,
+			new ThreadFactoryBuilder()
+					.setNameFormat(OLCandBulkJobs.class.getSimpleName() + "-%d")
+					.setDaemon(true)
+					.build());
+
+	private final Cache<String, Job> jobsById = CacheBuilder.newBuilder()
+			.expireAfterAccess(24, TimeUnit.HOURS)
+			.build();
+
+	/**
+	 * @param chunkProcessor creates the candidates of the given chunk (in its own transaction) and returns how many it created
+	 * @throws JobRejectedException if {@link #MAX_QUEUED_JOBS} jobs are already waiting or if the server is shutting down
+	 */
+	public JsonOLCandCreateBulkJobStatus submit(
+			@NonNull final InputStream payload,
+			@NonNull final ToIntFunction<JsonOLCandCreateBulkRequest> chunkProcessor)
+	{
+		// check before spooling, so that we don't write payloads to disk which we will reject anyways
+		assertAcceptingJobs();
+
+		final File payloadFile = spoolToTempFile(payload);
+
+		final Job job = new Job(UUID.randomUUID().toString(), payloadFile);
+		jobsById.put(job.getJobId(), job);
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		try
+		{
+			executor.submit(() -> {
+				try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+				{
+					job.run(chunkProcessor);
+				}
+				finally
+				{
+					deleteNoFail(payloadFile);
+				}
+			});
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			jobsById.invalidate(job.getJobId());
+			deleteNoFail(payloadFile);
+			throw executor.isShutdown() ? JobRejectedException.shuttingDown(ex) : JobRejectedException.tooManyJobs(ex);
+		}
+
+		return job.toJson();
+	}
+
+	private void assertAcceptingJobs()
+	{
+		if (executor.isShutdown())
+		{
+			throw JobRejectedException.shuttingDown(null);
+		}
+		if (queuedJobs.remainingCapacity() <= 0)
+		{
+			throw JobRejectedException.tooManyJobs(null);
+		}
+	}
+
+	/**
+	 * Thrown if a bulk job is not accepted. The caller can try again later.
+	 */
+	public static final class JobRejectedException extends AdempiereException
+	{
+		private static JobRejectedException tooManyJobs(@Nullable final Throwable cause)
+		{
+			return new JobRejectedException("Too many bulk jobs are waiting; try again later", false, cause);
+		}
+
+		private static JobRejectedException shuttingDown(@Nullable final Throwable cause)
+		{
+			return new JobRejectedException("Bulk jobs are not accepted anymore because the server is shutting down", true, cause);
+		}
+
+		@Getter
+		private final boolean shuttingDown;
+
+		private JobRejectedException(
+				@NonNull final String message,
+				final boolean shuttingDown,
+				@Nullable final Throwable cause)
+		{
+			super(message, cause);
+			this.shuttingDown = shuttingDown;
+		}
+	}
+
+	/**
+	 * Stops accepting jobs and waits for the running ones. Jobs which did not complete within {@link #SHUTDOWN_TIMEOUT} are interrupted and logged.
+	 */
+	public void shutdown()
+	{
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+			{
+				executor.shutdownNow();
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		final List<Job> notCompletedJobs = jobsById.asMap()
+				.values()
+				.stream()
+				.filter(Job::isNotCompleted)
+				.collect(ImmutableList.toImmutableList());
+		for (final Job job : notCompletedJobs)
+		{
+			logger.warn("Bulk job {} did not complete because the server is shutting down; {} candidates were created until now", job.getJobId(), job.getCountCreated());
+			deleteNoFail(job.getPayloadFile());
+		}
+	}
+
+	@Nullable
+	public JsonOLCandCreateBulkJobStatus getStatusOrNull(@NonNull final String jobId)
+	{
+		final Job job = jobsById.getIfPresent(jobId);
+		return job != null ? job.toJson() : null;
+	}
+
+	private static File spoolToTempFile(@NonNull final InputStream payload)
+	{
+		try
+		{
+			final File file = File.createTempFile("OLCandBulk", ".json");
+			Files.copy(payload, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return file;
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed reading the bulk request payload", ex);
+		}
+	}
+
+	private static void deleteNoFail(@NonNull final File file)
+	{
+		if (file.exists() && !file.delete())
+		{
+			logger.warn("Could not delete temporary file {}", file);
+		}
+	}
+
+	private final class Job
+	{
+		private final String jobId;
+		private final File payloadFile;
+		private volatile Status status = Status.QUEUED;
+		private final AtomicInteger countRead = new AtomicInteger(0);
+		private final AtomicInteger countCreated = new AtomicInteger(0);
+		private volatile Instant started;
+		private volatile Instant finished;
+		private volatile JsonErrorItem error;
+
+		private Job(@NonNull final String jobId, @NonNull final File payloadFile)
+		{
+			this.jobId = jobId;
+			this.payloadFile = payloadFile;
+		}
+
+		public String getJobId()
+		{
+			return jobId;
+		}
+
+		public File getPayloadFile()
+		{
+			return payloadFile;
+		}
+
+		public int getCountCreated()
+		{
+			return countCreated.get();
+		}
+
+		public boolean isNotCompleted()
+		{
+			return status == Status.QUEUED || status == Status.RUNNING;
+		}
+
+		private void run(@NonNull final ToIntFunction<JsonOLCandCreateBulkRequest> chunkProcessor)
+		{
+			started = Instant.now();
+			status = Status.RUNNING;
+			try (final InputStream in = new FileInputStream(payloadFile);
+					final OLCandBulkRequestStreamReader reader = new OLCandBulkRequestStreamReader(jsonObjectMapper, in, CHUNK_SIZE))
+			{
+				for (JsonOLCandCreateBulkRequest chunk = reader.nextChunk(); chunk != null; chunk = reader.nextChunk())
+				{
+					countRead.addAndGet(chunk.getRequests().size());
+					countCreated.addAndGet(chunkProcessor.applyAsInt(chunk));
+				}
+
+				status = Status.COMPLETED;
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Bulk job {} failed after creating {} candidates", jobId, countCreated.get(), ex);
+				error = JsonErrors.ofThrowable(ex, Env.getADLanguageOrBaseLanguage());
+				status = Status.FAILED;
+			}
+			finally
+			{
+				finished = Instant.now();
+			}
+		}
+
+		public JsonOLCandCreateBulkJobStatus toJson()
+		{
+			final JsonOLCandCreateBulkJobStatus.JsonOLCandCreateBulkJobStatusBuilder result = JsonOLCandCreateBulkJobStatus.builder()
+					.jobId(jobId)
+					.status(status)
+					.countRead(countRead.get())
+					.countCreated(countCreated.get())
+					.started(started)
+					.finished(finished);
+
+			final JsonErrorItem error = this.error;
+			if (error != null)
+			{
+				result.error(error);
+			}
+
+			return result.build();
+		}
+	}
+}
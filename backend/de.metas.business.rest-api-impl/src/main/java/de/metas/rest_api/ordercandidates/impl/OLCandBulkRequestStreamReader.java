@@ -0,0 +1,159 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reads a {@link JsonOLCandCreateBulkRequest} payload incrementally and returns it in chunks,
+ * so that only one chunk of {@link JsonOLCandCreateRequest}s is in memory at a time.
+ * <p>
+ * Accepts both the regular bulk format (<code>{"requests":[...]}</code>) and a plain JSON array of requests.
+ */
+final class OLCandBulkRequestStreamReader implements Closeable
+{
+	private static final String PROPERTY_Requests = "requests";
+
+	private final ObjectMapper jsonObjectMapper;
+	private final JsonParser parser;
+	private final int chunkSize;
+
+	private boolean positionedOnArray = false;
+	private boolean endReached = false;
+
+	OLCandBulkRequestStreamReader(
+			@NonNull final ObjectMapper jsonObjectMapper,
+			@NonNull final InputStream in,
+			final int chunkSize) throws IOException
+	{
+		Check.assume(chunkSize > 0, "chunkSize > 0 but it was {}", chunkSize);
+
+		this.jsonObjectMapper = jsonObjectMapper;
+		this.parser = jsonObjectMapper.getFactory().createParser(in);
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		parser.close();
+	}
+
+	/**
+	 * @return next chunk or <code>null</code> if there are no more requests
+	 */
+	@Nullable
+	public JsonOLCandCreateBulkRequest nextChunk() throws IOException
+	{
+		if (endReached)
+		{
+			return null;
+		}
+
+		if (!positionedOnArray)
+		{
+			positionOnRequestsArray();
+			positionedOnArray = true;
+		}
+
+		final List<JsonOLCandCreateRequest> requests = new ArrayList<>(chunkSize);
+		while (requests.size() < chunkSize)
+		{
+			final JsonToken token = parser.nextToken();
+			if (token == JsonToken.END_ARRAY || token == null)
+			{
+				endReached = true;
+				break;
+			}
+			if (token != JsonToken.START_OBJECT)
+			{
+				throw newInvalidPayloadException("Expected a request object but got " + token);
+			}
+
+			requests.add(jsonObjectMapper.readValue(parser, JsonOLCandCreateRequest.class));
+		}
+
+		if (requests.isEmpty())
+		{
+			return null;
+		}
+
+		return JsonOLCandCreateBulkRequest.builder()
+				.requests(requests)
+				.build();
+	}
+
+	private void positionOnRequestsArray() throws IOException
+	{
+		final JsonToken firstToken = parser.nextToken();
+		if (firstToken == JsonToken.START_ARRAY)
+		{
+			return;
+		}
+		if (firstToken != JsonToken.START_OBJECT)
+		{
+			throw newInvalidPayloadException("Expected a JSON object or array but got " + firstToken);
+		}
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME)
+		{
+			final String fieldName = parser.getCurrentName();
+			final JsonToken valueToken = parser.nextToken();
+			if (PROPERTY_Requests.equals(fieldName))
+			{
+				if (valueToken != JsonToken.START_ARRAY)
+				{
+					throw newInvalidPayloadException("Expected property '" + PROPERTY_Requests + "' to be an array");
+				}
+				return;
+			}
+
+			parser.skipChildren();
+		}
+
+		// no requests property at all
+		endReached = true;
+	}
+
+	private static AdempiereException newInvalidPayloadException(final String message)
+	{
+		return new AdempiereException("Invalid bulk request payload: " + message);
+	}
+}
@@ -3,12 +3,14 @@ package de.metas.rest_api.ordercandidates.impl;
 import static de.metas.util.lang.CoalesceUtil.coalesce;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
@@ -18,8 +20,10 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -61,6 +65,7 @@ import de.metas.rest_api.ordercandidates.impl.ProductMasterDataProvider.ProductI
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
 import de.metas.rest_api.ordercandidates.response.JsonAttachment;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
 import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkResponse;
 import de.metas.rest_api.utils.ApiAPMHelper;
 import de.metas.rest_api.utils.JsonErrors;
@@ -102,6 +107,9 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 	public static final String DATA_SOURCE_INTERNAL_NAME = "SOURCE." + OrderCandidatesRestControllerImpl.class.getName();
 
 	private static final Logger logger = LogManager.getLogger(OrderCandidatesRestControllerImpl.class);
+
+	private static final String BULK_ASYNC_RETRY_AFTER_SECONDS = "60";
+
 	private final IOrgDAO orgDAO = Services.get(IOrgDAO.class);
 
 	private final JsonConverters jsonConverters;
@@ -111,6 +119,8 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 
 	private PermissionServiceFactory permissionServiceFactory;
 
+	private final OLCandBulkJobs bulkJobs = new OLCandBulkJobs();
+
 	public OrderCandidatesRestControllerImpl(
 			@NonNull final JsonConverters jsonConverters,
 			@NonNull final OLCandRepository olCandRepo,
@@ -124,6 +134,12 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 		this.permissionServiceFactory = PermissionServiceFactories.currentContext();
 	}
 
+	@PreDestroy
+	public void shutdown()
+	{
+		bulkJobs.shutdown();
+	}
+
 	@VisibleForTesting
 	public void setPermissionServiceFactory(@NonNull final PermissionServiceFactory permissionServiceFactory)
 	{
@@ -145,10 +161,7 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 		{
 			bulkRequest.validate();
 
-			final MasterdataProvider masterdataProvider = MasterdataProvider.builder()
-					.permissionService(permissionServiceFactory.createPermissionService())
-					.bpartnerRestController(bpartnerRestController)
-					.build();
+			final MasterdataProvider masterdataProvider = createMasterdataProvider();
 
 			final ITrxManager trxManager = Services.get(ITrxManager.class);
 
@@ -175,6 +188,70 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 		}
 	}
 
+	@PostMapping(PATH_BULK_ASYNC)
+	@Override
+	public ResponseEntity<JsonOLCandCreateBulkJobStatus> createOrderLineCandidatesAsync(@NonNull final InputStream bulkRequestStream)
+	{
+		// one provider for the whole job, so that its lookup caches are shared by all chunks
+		final MasterdataProvider masterdataProvider = createMasterdataProvider();
+
+		final JsonOLCandCreateBulkJobStatus jobStatus;
+		try
+		{
+			jobStatus = bulkJobs.submit(
+					bulkRequestStream,
+					chunk -> createOrderLineCandidatesChunk(chunk, masterdataProvider));
+		}
+		catch (final OLCandBulkJobs.JobRejectedException ex)
+		{
+			logger.info("Rejected bulk job: {}", ex.getLocalizedMessage());
+			return ResponseEntity
+					.status(ex.isShuttingDown() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS)
+					.header(HttpHeaders.RETRY_AFTER, BULK_ASYNC_RETRY_AFTER_SECONDS)
+					.build();
+		}
+
+		return new ResponseEntity<>(jobStatus, HttpStatus.ACCEPTED);
+	}
+
+	@GetMapping(PATH_BULK_ASYNC + "/{jobId}")
+	@Override
+	public ResponseEntity<JsonOLCandCreateBulkJobStatus> getBulkJobStatus(@PathVariable("jobId") @NonNull final String jobId)
+	{
+		final JsonOLCandCreateBulkJobStatus jobStatus = bulkJobs.getStatusOrNull(jobId);
+		if (jobStatus == null)
+		{
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(jobStatus);
+	}
+
+	/**
+	 * Creates the candidates of one chunk of an asynchronous bulk request. The master data and the candidates are committed right away.
+	 *
+	 * @return number of created candidates
+	 */
+	private int createOrderLineCandidatesChunk(
+			@NonNull final JsonOLCandCreateBulkRequest chunk,
+			@NonNull final MasterdataProvider masterdataProvider)
+	{
+		chunk.validate();
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		trxManager.runInNewTrx(() -> createOrUpdateMasterdataBulk(chunk, masterdataProvider));
+
+		final List<OLCand> olCands = trxManager.callInNewTrx(() -> createOLCands(chunk, masterdataProvider));
+		return olCands.size();
+	}
+
+	private MasterdataProvider createMasterdataProvider()
+	{
+		return MasterdataProvider.builder()
+				.permissionService(permissionServiceFactory.createPermissionService())
+				.bpartnerRestController(bpartnerRestController)
+				.build();
+	}
+
 	private void assertCanCreate(
 			@NonNull final JsonOLCandCreateRequest request,
 			@NonNull final MasterdataProvider masterdataProvider)
@@ -308,6 +385,14 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 	private JsonOLCandCreateBulkResponse creatOrderLineCandidates0(
 			@NonNull final JsonOLCandCreateBulkRequest bulkRequest,
 			@NonNull final MasterdataProvider masterdataProvider)
+	{
+		final List<OLCand> olCands = createOLCands(bulkRequest, masterdataProvider);
+		return jsonConverters.toJson(olCands, masterdataProvider);
+	}
+
+	private List<OLCand> createOLCands(
+			@NonNull final JsonOLCandCreateBulkRequest bulkRequest,
+			@NonNull final MasterdataProvider masterdataProvider)
 	{
 		final List<OLCandCreateRequest> requests = bulkRequest
 				.getRequests()
@@ -316,8 +401,7 @@ public class OrderCandidatesRestControllerImpl implements OrderCandidatesRestEnd
 				.map(request -> fromJson(request, masterdataProvider))
 				.collect(ImmutableList.toImmutableList());
 
-		final List<OLCand> olCands = olCandRepo.create(requests);
-		return jsonConverters.toJson(olCands, masterdataProvider);
+		return olCandRepo.create(requests);
 	}
 
 	private OLCandCreateRequest fromJson(
@@ -0,0 +1,96 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.rest_api.ordercandidates.impl.OLCandBulkJobs.JobRejectedException;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class OLCandBulkJobsTest
+{
+	private OLCandBulkJobs bulkJobs;
+	private final CountDownLatch jobsMayComplete = new CountDownLatch(1);
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		bulkJobs = new OLCandBulkJobs();
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		jobsMayComplete.countDown();
+		bulkJobs.shutdown();
+	}
+
+	@Test
+	public void fullQueue_rejectsJob()
+	{
+		for (int i = 0; i < OLCandBulkJobs.MAX_CONCURRENT_JOBS + OLCandBulkJobs.MAX_QUEUED_JOBS; i++)
+		{
+			bulkJobs.submit(payload(), this::waitUntilJobsMayComplete);
+		}
+
+		assertThatThrownBy(() -> bulkJobs.submit(payload(), this::waitUntilJobsMayComplete))
+				.isInstanceOfSatisfying(JobRejectedException.class, ex -> assertThat(ex.isShuttingDown()).isFalse());
+	}
+
+	@Test
+	public void shuttingDown_rejectsJob()
+	{
+		bulkJobs.shutdown();
+
+		assertThatThrownBy(() -> bulkJobs.submit(payload(), this::waitUntilJobsMayComplete))
+				.isInstanceOfSatisfying(JobRejectedException.class, ex -> assertThat(ex.isShuttingDown()).isTrue());
+	}
+
+	private InputStream payload()
+	{
+		return getClass().getResourceAsStream("/JsonOLCandCreateBulkRequest.json");
+	}
+
+	private int waitUntilJobsMayComplete(final JsonOLCandCreateBulkRequest chunk)
+	{
+		try
+		{
+			jobsMayComplete.await();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		return chunk.getRequests().size();
+	}
+}
@@ -0,0 +1,102 @@
+package de.metas.rest_api.ordercandidates.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
+import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
+
+/*
+ * #%L
+ * de.metas.business.rest-api-impl
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class OLCandBulkRequestStreamReaderTest
+{
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	@Test
+	public void sameRequestsAsFullDeserialization() throws IOException
+	{
+		final JsonOLCandCreateBulkRequest expected = JsonOLCandUtil.fromResource("/JsonOLCandCreateBulkRequest.json");
+
+		final List<JsonOLCandCreateRequest> actual = new ArrayList<>();
+		final List<Integer> chunkSizes = new ArrayList<>();
+		try (final InputStream in = getClass().getResourceAsStream("/JsonOLCandCreateBulkRequest.json");
+				final OLCandBulkRequestStreamReader reader = new OLCandBulkRequestStreamReader(jsonObjectMapper, in, 1))
+		{
+			for (JsonOLCandCreateBulkRequest chunk = reader.nextChunk(); chunk != null; chunk = reader.nextChunk())
+			{
+				chunkSizes.add(chunk.getRequests().size());
+				actual.addAll(chunk.getRequests());
+			}
+		}
+
+		assertThat(actual).isEqualTo(expected.getRequests());
+		assertThat(chunkSizes).allMatch(size -> size == 1);
+	}
+
+	@Test
+	public void plainArrayAndUnknownProperties() throws IOException
+	{
+		final JsonOLCandCreateBulkRequest expected = JsonOLCandUtil.fromResource("/JsonOLCandCreateBulkRequest.json");
+		final String requestsJson = jsonObjectMapper.writeValueAsString(expected.getRequests());
+
+		assertThat(readAll("{\"someOtherProperty\":{\"a\":[1,2]},\"requests\":" + requestsJson + "}"))
+				.isEqualTo(expected.getRequests());
+		assertThat(readAll(requestsJson))
+				.isEqualTo(expected.getRequests());
+	}
+
+	@Test
+	public void emptyPayloads() throws IOException
+	{
+		assertThat(readAll("{\"requests\":[]}")).isEmpty();
+		assertThat(readAll("[]")).isEmpty();
+		assertThat(readAll("{}")).isEmpty();
+	}
+
+	private List<JsonOLCandCreateRequest> readAll(final String json) throws IOException
+	{
+		final List<JsonOLCandCreateRequest> result = new ArrayList<>();
+		try (final OLCandBulkRequestStreamReader reader = new OLCandBulkRequestStreamReader(
+				jsonObjectMapper,
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+				2))
+		{
+			for (JsonOLCandCreateBulkRequest chunk = reader.nextChunk(); chunk != null; chunk = reader.nextChunk())
+			{
+				result.addAll(chunk.getRequests());
+			}
+		}
+		return result;
+	}
+}
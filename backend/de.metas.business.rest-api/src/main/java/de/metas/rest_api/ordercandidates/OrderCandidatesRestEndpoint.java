@@ -1,6 +1,7 @@
 package de.metas.rest_api.ordercandidates;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import org.springframework.web.multipart.MultipartFile;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateBulkRequest;
 import de.metas.rest_api.ordercandidates.request.JsonOLCandCreateRequest;
 import de.metas.rest_api.ordercandidates.response.JsonAttachment;
+import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkJobStatus;
 import de.metas.rest_api.ordercandidates.response.JsonOLCandCreateBulkResponse;
 import de.metas.util.web.MetasfreshRestAPIConstants;
 
@@ -40,10 +42,25 @@ public interface OrderCandidatesRestEndpoint
 
 	String PATH_BULK = "/bulk";
 
+	String PATH_BULK_ASYNC = "/bulk/async";
+
 	ResponseEntity<JsonOLCandCreateBulkResponse> createOrderLineCandidate(JsonOLCandCreateRequest request);
 
 	ResponseEntity<JsonOLCandCreateBulkResponse> createOrderLineCandidates(JsonOLCandCreateBulkRequest bulkRequest);
 
+	/**
+	 * Same payload as {@link #createOrderLineCandidates(JsonOLCandCreateBulkRequest)}, but the payload is read as a stream and processed in the background.
+	 * <p>
+	 * The job is known only to the server node which accepted it, and it's lost if that node is stopped before the job completed.
+	 * <p>
+	 * If too many jobs are already waiting, the job is rejected with HTTP 429 (or 503 if the server is shutting down) and a {@code Retry-After} header.
+	 *
+	 * @return the initial status of the job, which can be polled using {@link #getBulkJobStatus(String)}
+	 */
+	ResponseEntity<JsonOLCandCreateBulkJobStatus> createOrderLineCandidatesAsync(InputStream bulkRequestStream);
+
+	ResponseEntity<JsonOLCandCreateBulkJobStatus> getBulkJobStatus(String jobId);
+
 	ResponseEntity<JsonAttachment> attachFile(
 			String dataSourceName,
 			String externalReference,
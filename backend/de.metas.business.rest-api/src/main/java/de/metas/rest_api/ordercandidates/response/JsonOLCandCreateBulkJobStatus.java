@@ -0,0 +1,93 @@
+package de.metas.rest_api.ordercandidates.response;
+
+import java.time.Instant;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.rest_api.common.JsonErrorItem;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business.rest-api
+ * %%
+ * Copyright (C) 2019 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@ApiModel(description = "Progress of an asynchronous order line candidates bulk import")
+@Value
+public class JsonOLCandCreateBulkJobStatus
+{
+	public enum Status
+	{
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	@ApiModelProperty(value = "Use this ID to poll the job's progress")
+	String jobId;
+
+	Status status;
+
+	@ApiModelProperty(value = "Number of order line candidate requests which were read from the payload so far")
+	int countRead;
+
+	@ApiModelProperty(value = "Number of order line candidates which were created and committed so far.<br>"
+			+ "Candidates are committed chunk-wise, so if the job failed, these candidates still exist.")
+	int countCreated;
+
+	@JsonInclude(Include.NON_NULL)
+	Instant started;
+
+	@JsonInclude(Include.NON_NULL)
+	Instant finished;
+
+	@JsonInclude(Include.NON_EMPTY)
+	List<JsonErrorItem> errors;
+
+	@JsonCreator
+	@Builder
+	private JsonOLCandCreateBulkJobStatus(
+			@JsonProperty("jobId") @NonNull final String jobId,
+			@JsonProperty("status") @NonNull final Status status,
+			@JsonProperty("countRead") final int countRead,
+			@JsonProperty("countCreated") final int countCreated,
+			@JsonProperty("started") @Nullable final Instant started,
+			@JsonProperty("finished") @Nullable final Instant finished,
+			@JsonProperty("errors") @Singular @Nullable final List<JsonErrorItem> errors)
+	{
+		this.jobId = jobId;
+		this.status = status;
+		this.countRead = countRead;
+		this.countCreated = countCreated;
+		this.started = started;
+		this.finished = finished;
+		this.errors = errors != null ? ImmutableList.copyOf(errors) : ImmutableList.of();
+	}
+}
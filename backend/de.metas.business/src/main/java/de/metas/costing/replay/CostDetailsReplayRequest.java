@@ -0,0 +1,61 @@
+package de.metas.costing.replay;
+
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.product.ProductId;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+public class CostDetailsReplayRequest
+{
+	ImmutableSet<ProductId> productIds;
+
+	/** if null, the costs of all accounting schemas are replayed */
+	AcctSchemaId acctSchemaId;
+
+	/** if true, nothing is saved, just the changes are reported */
+	boolean dryRun;
+
+	@Builder
+	private CostDetailsReplayRequest(
+			@NonNull final Set<ProductId> productIds,
+			@Nullable final AcctSchemaId acctSchemaId,
+			final boolean dryRun)
+	{
+		Check.assumeNotEmpty(productIds, "productIds is not empty");
+
+		this.productIds = ImmutableSet.copyOf(productIds);
+		this.acctSchemaId = acctSchemaId;
+		this.dryRun = dryRun;
+	}
+}
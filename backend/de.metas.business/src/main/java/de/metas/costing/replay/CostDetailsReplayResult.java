@@ -0,0 +1,87 @@
+package de.metas.costing.replay;
+
+import java.math.BigDecimal;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.costing.CostDetailId;
+import de.metas.costing.CostSegmentAndElement;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+@Builder
+public class CostDetailsReplayResult
+{
+	boolean dryRun;
+
+	int countSegments;
+	/** segments whose costing method is not supported */
+	int countSegmentsSkipped;
+	int countCostDetails;
+
+	@Singular
+	ImmutableList<CostDetailChange> costDetailChanges;
+	@Singular
+	ImmutableList<CurrentCostChange> currentCostChanges;
+
+	@Value
+	@Builder
+	public static class CostDetailChange
+	{
+		@NonNull
+		CostDetailId costDetailId;
+
+		@NonNull
+		BigDecimal oldAmt;
+		@NonNull
+		BigDecimal newAmt;
+	}
+
+	@Value
+	@Builder
+	public static class CurrentCostChange
+	{
+		@NonNull
+		CostSegmentAndElement costSegmentAndElement;
+
+		@NonNull
+		BigDecimal oldCostPrice;
+		@NonNull
+		BigDecimal newCostPrice;
+
+		@NonNull
+		BigDecimal oldCurrentQty;
+		@NonNull
+		BigDecimal newCurrentQty;
+
+		@NonNull
+		BigDecimal oldCumulatedAmt;
+		@NonNull
+		BigDecimal newCumulatedAmt;
+	}
+}
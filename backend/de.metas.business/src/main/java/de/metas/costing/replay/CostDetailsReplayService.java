@@ -0,0 +1,499 @@
+package de.metas.costing.replay;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
+import org.adempiere.service.ClientId;
+import org.compiere.model.I_M_Cost;
+import org.compiere.model.I_M_CostDetail;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.acct.api.AcctSchema;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.api.IAcctSchemaDAO;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.costing.CostDetailId;
+import de.metas.costing.CostElement;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostSegmentAndElement;
+import de.metas.costing.CostingLevel;
+import de.metas.costing.CurrentCost;
+import de.metas.costing.ICostElementRepository;
+import de.metas.costing.ICurrentCostsRepository;
+import de.metas.costing.IProductCostingBL;
+import de.metas.costing.replay.CostDetailsReplayResult.CostDetailChange;
+import de.metas.costing.replay.CostDetailsReplayResult.CostDetailsReplayResultBuilder;
+import de.metas.costing.replay.CostDetailsReplayResult.CurrentCostChange;
+import de.metas.logging.LogManager;
+import de.metas.organization.OrgId;
+import de.metas.product.IProductBL;
+import de.metas.product.ProductId;
+import de.metas.quantity.Quantity;
+import de.metas.uom.IUOMConversionBL;
+import de.metas.uom.IUOMDAO;
+import de.metas.uom.UomId;
+import de.metas.util.Services;
+import de.metas.util.StringUtils;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Rebuilds the current costs (<code>M_Cost</code>) and the cost details (<code>M_CostDetail</code>) of given products
+ * by replaying all their cost details in memory, instead of reversing and re-creating them one by one.
+ * <p>
+ * Useful after an inbound cost detail amount (e.g. a wrong receipt price) was corrected.
+ * The cost segments are independent of each other, so they are replayed in parallel.
+ *
+ * @see CostSegmentReplayer
+ */
+@Service
+public class CostDetailsReplayService
+{
+	private static final Logger logger = LogManager.getLogger(CostDetailsReplayService.class);
+
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IAcctSchemaDAO acctSchemasRepo = Services.get(IAcctSchemaDAO.class);
+	private final IProductCostingBL productCostingBL = Services.get(IProductCostingBL.class);
+	private final IProductBL productBL = Services.get(IProductBL.class);
+	private final IUOMDAO uomsRepo = Services.get(IUOMDAO.class);
+	private final IUOMConversionBL uomConversionBL = Services.get(IUOMConversionBL.class);
+	private final ICostElementRepository costElementRepo;
+	private final ICurrentCostsRepository currentCostsRepo;
+
+	private static final int SAVE_BATCH_SIZE = 500;
+
+	public CostDetailsReplayService(
+			@NonNull final ICostElementRepository costElementRepo,
+			@NonNull final ICurrentCostsRepository currentCostsRepo)
+	{
+		this.costElementRepo = costElementRepo;
+		this.currentCostsRepo = currentCostsRepo;
+	}
+
+	public CostDetailsReplayResult replay(@NonNull final CostDetailsReplayRequest request)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		final SegmentsLoader loader = new SegmentsLoader();
+		loader.load(request);
+
+		final ImmutableList<CostSegmentReplayResult> replayResults = loader.getSegments()
+				.parallelStream()
+				.map(CostSegmentReplayer::replay)
+				.collect(ImmutableList.toImmutableList());
+
+		final CostDetailsReplayResultBuilder result = CostDetailsReplayResult.builder()
+				.dryRun(request.isDryRun())
+				.countSegments(replayResults.size())
+				.countSegmentsSkipped(loader.getCountSegmentsSkipped())
+				.countCostDetails(loader.getCountCostDetails());
+		replayResults.forEach(replayResult -> collectChanges(replayResult, result));
+
+		if (!request.isDryRun())
+		{
+			trxManager.runInThreadInheritedTrx(() -> save(replayResults));
+		}
+
+		logger.info("Replayed {} cost details of {} cost segments in {} (dryRun={})",
+				loader.getCountCostDetails(), replayResults.size(), stopwatch, request.isDryRun());
+
+		return result.build();
+	}
+
+	private void collectChanges(final CostSegmentReplayResult replayResult, final CostDetailsReplayResultBuilder result)
+	{
+		for (int i = 0, size = replayResult.size(); i < size; i++)
+		{
+			if (replayResult.isChanged(i))
+			{
+				result.costDetailChange(CostDetailChange.builder()
+						.costDetailId(CostDetailId.ofRepoId(replayResult.getCostDetailId(i)))
+						.oldAmt(replayResult.getOldAmt(i))
+						.newAmt(replayResult.getNewAmt(i))
+						.build());
+			}
+		}
+
+		final CurrentCost currentCost = currentCostsRepo.getOrNull(replayResult.getCostSegmentAndElement());
+		final BigDecimal oldCostPrice = currentCost != null ? currentCost.getCostPrice().toCostAmount().getValue() : BigDecimal.ZERO;
+		final BigDecimal oldCurrentQty = currentCost != null ? currentCost.getCurrentQty().toBigDecimal() : BigDecimal.ZERO;
+		final BigDecimal oldCumulatedAmt = currentCost != null ? currentCost.getCumulatedAmt().getValue() : BigDecimal.ZERO;
+		final BigDecimal newCostPrice = replayResult.getOwnCostPrice().add(replayResult.getComponentsCostPrice());
+		if (oldCostPrice.compareTo(newCostPrice) != 0
+				|| oldCurrentQty.compareTo(replayResult.getCurrentQty()) != 0
+				|| oldCumulatedAmt.compareTo(replayResult.getCumulatedAmt()) != 0)
+		{
+			result.currentCostChange(CurrentCostChange.builder()
+					.costSegmentAndElement(replayResult.getCostSegmentAndElement())
+					.oldCostPrice(oldCostPrice)
+					.newCostPrice(newCostPrice)
+					.oldCurrentQty(oldCurrentQty)
+					.newCurrentQty(replayResult.getCurrentQty())
+					.oldCumulatedAmt(oldCumulatedAmt)
+					.newCumulatedAmt(replayResult.getCumulatedAmt())
+					.build());
+		}
+	}
+
+	private void save(final List<CostSegmentReplayResult> replayResults)
+	{
+		final String sql = "UPDATE " + I_M_CostDetail.Table_Name + " SET "
+				+ I_M_CostDetail.COLUMNNAME_Amt + "=?"
+				+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPrice + "=?"
+				+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPriceLL + "=?"
+				+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CurrentQty + "=?"
+				+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CumulatedAmt + "=?"
+				+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CumulatedQty + "=?"
+				+ ", " + I_M_CostDetail.COLUMNNAME_Updated + "=now()"
+				+ " WHERE " + I_M_CostDetail.COLUMNNAME_M_CostDetail_ID + "=?";
+
+		final SqlBatchUpdater costDetailsUpdater = new SqlBatchUpdater(sql);
+		for (final CostSegmentReplayResult replayResult : replayResults)
+		{
+			for (int i = 0, size = replayResult.size(); i < size; i++)
+			{
+				if (!replayResult.isChanged(i))
+				{
+					continue;
+				}
+
+				costDetailsUpdater.add(
+						replayResult.getNewAmt(i),
+						replayResult.prevOwnCostPrices[i],
+						replayResult.prevComponentsCostPrices[i],
+						replayResult.prevCurrentQtys[i],
+						replayResult.prevCumulatedAmts[i],
+						replayResult.prevCumulatedQtys[i],
+						replayResult.getCostDetailId(i));
+			}
+		}
+		costDetailsUpdater.flush();
+
+		final SqlBatchUpdater currentCostsUpdater = new SqlBatchUpdater("UPDATE " + I_M_Cost.Table_Name + " SET "
+				+ I_M_Cost.COLUMNNAME_CurrentCostPrice + "=?"
+				+ ", " + I_M_Cost.COLUMNNAME_CurrentCostPriceLL + "=?"
+				+ ", " + I_M_Cost.COLUMNNAME_CurrentQty + "=?"
+				+ ", " + I_M_Cost.COLUMNNAME_CumulatedAmt + "=?"
+				+ ", " + I_M_Cost.COLUMNNAME_CumulatedQty + "=?"
+				+ ", " + I_M_Cost.COLUMNNAME_Updated + "=now()"
+				+ " WHERE " + I_M_Cost.COLUMNNAME_M_Cost_ID + "=?");
+		for (final CostSegmentReplayResult replayResult : replayResults)
+		{
+			final CurrentCost currentCost = currentCostsRepo.getOrCreate(replayResult.getCostSegmentAndElement());
+			currentCostsUpdater.add(
+					replayResult.getOwnCostPrice(),
+					replayResult.getComponentsCostPrice(),
+					replayResult.getCurrentQty(),
+					replayResult.getCumulatedAmt(),
+					replayResult.getCumulatedQty(),
+					currentCost.getId().getRepoId());
+		}
+		currentCostsUpdater.flush();
+
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(ITrx.TRXNAME_ThreadInherited, CacheInvalidateMultiRequest.allRecordsForTable(I_M_CostDetail.Table_Name));
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(ITrx.TRXNAME_ThreadInherited, CacheInvalidateMultiRequest.allRecordsForTable(I_M_Cost.Table_Name));
+	}
+
+	private static final class SqlBatchUpdater
+	{
+		private final String sql;
+		private final List<Object[]> batch = new ArrayList<>();
+
+		private SqlBatchUpdater(@NonNull final String sql)
+		{
+			this.sql = sql;
+		}
+
+		public void add(final Object... sqlParams)
+		{
+			batch.add(sqlParams);
+			if (batch.size() >= SAVE_BATCH_SIZE)
+			{
+				flush();
+			}
+		}
+
+		public void flush()
+		{
+			if (batch.isEmpty())
+			{
+				return;
+			}
+
+			PreparedStatement pstmt = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+				for (final Object[] sqlParams : batch)
+				{
+					DB.setParameters(pstmt, sqlParams);
+					pstmt.addBatch();
+				}
+				pstmt.executeBatch();
+				batch.clear();
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sql);
+			}
+			finally
+			{
+				DB.close(pstmt);
+			}
+		}
+	}
+
+	/**
+	 * Loads the cost details of given products and splits them by cost segment and element.
+	 */
+	private final class SegmentsLoader
+	{
+		private static final String COLUMNNAME_Reversed_CostDetail_ID = "Reversed_CostDetail_ID";
+
+		private final Map<CostSegmentAndElement, CostSegmentDetails.Builder> segmentBuilders = new LinkedHashMap<>();
+		private final Set<CostSegmentAndElement> skippedSegments = new HashSet<>();
+		private int countCostDetails = 0;
+
+		private final Map<ProductId, UomId> stockUomIds = new HashMap<>();
+		private final Map<ProductId, Map<AcctSchemaId, CostingLevel>> costingLevels = new HashMap<>();
+
+		public void load(final CostDetailsReplayRequest request)
+		{
+			final List<Object> sqlParams = new ArrayList<>();
+			final StringBuilder sql = new StringBuilder("SELECT "
+					+ I_M_CostDetail.COLUMNNAME_M_CostDetail_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_AD_Client_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_AD_Org_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_C_AcctSchema_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_M_CostElement_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_M_Product_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_M_AttributeSetInstance_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_M_MatchPO_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_M_MatchInv_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_IsChangingCosts
+					+ ", " + I_M_CostDetail.COLUMNNAME_Qty
+					+ ", " + I_M_CostDetail.COLUMNNAME_C_UOM_ID
+					+ ", " + I_M_CostDetail.COLUMNNAME_Amt
+					+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPrice
+					+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPriceLL
+					+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CurrentQty
+					+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CumulatedAmt
+					+ ", " + I_M_CostDetail.COLUMNNAME_Prev_CumulatedQty
+					+ ", COALESCE("
+					+ sqlReversedCostDetailId("M_InOutLine", "ReversalLine_ID", I_M_CostDetail.COLUMNNAME_M_InOutLine_ID)
+					+ ", " + sqlReversedCostDetailId("M_InventoryLine", "ReversalLine_ID", I_M_CostDetail.COLUMNNAME_M_InventoryLine_ID)
+					+ ", " + sqlReversedCostDetailId("M_MovementLine", "ReversalLine_ID", I_M_CostDetail.COLUMNNAME_M_MovementLine_ID)
+					+ ", " + sqlReversedCostDetailId("PP_Cost_Collector", "Reversal_ID", I_M_CostDetail.COLUMNNAME_PP_Cost_Collector_ID)
+					+ ", 0) AS " + COLUMNNAME_Reversed_CostDetail_ID
+					+ " FROM " + I_M_CostDetail.Table_Name + " cd"
+					+ " WHERE " + I_M_CostDetail.COLUMNNAME_IsActive + "='Y'"
+					+ " AND " + I_M_CostDetail.COLUMNNAME_M_Product_ID + " IN " + DB.buildSqlList(request.getProductIds(), sqlParams));
+			if (request.getAcctSchemaId() != null)
+			{
+				sql.append(" AND ").append(I_M_CostDetail.COLUMNNAME_C_AcctSchema_ID).append("=?");
+				sqlParams.add(request.getAcctSchemaId());
+			}
+			sql.append(" ORDER BY ").append(I_M_CostDetail.COLUMNNAME_M_CostDetail_ID);
+
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql.toString(), ITrx.TRXNAME_ThreadInherited);
+				DB.setParameters(pstmt, sqlParams);
+				rs = pstmt.executeQuery();
+				while (rs.next())
+				{
+					loadRow(rs);
+				}
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sql.toString(), sqlParams);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+
+		/**
+		 * @return SQL which selects the cost detail that was reversed by the cost detail <code>cd</code>, or <code>NULL</code> if <code>cd</code> is not a reversal.
+		 *         Like in <code>DocLine.isReversalLine()</code>, the reversal is the line with the greater ID.
+		 *         The reversed cost detail needs to have the same direction, because e.g. movements have an outbound and an inbound cost detail.
+		 */
+		private String sqlReversedCostDetailId(final String lineTableName, final String reversalColumnName, final String lineColumnName)
+		{
+			return "(SELECT rcd." + I_M_CostDetail.COLUMNNAME_M_CostDetail_ID
+					+ " FROM " + lineTableName + " l"
+					+ " INNER JOIN " + I_M_CostDetail.Table_Name + " rcd ON rcd." + lineColumnName + "=l." + reversalColumnName
+					+ " WHERE l." + lineColumnName + "=cd." + lineColumnName
+					+ " AND l." + reversalColumnName + "<l." + lineColumnName
+					+ " AND rcd." + I_M_CostDetail.COLUMNNAME_C_AcctSchema_ID + "=cd." + I_M_CostDetail.COLUMNNAME_C_AcctSchema_ID
+					+ " AND rcd." + I_M_CostDetail.COLUMNNAME_M_CostElement_ID + "=cd." + I_M_CostDetail.COLUMNNAME_M_CostElement_ID
+					+ " AND rcd." + I_M_CostDetail.COLUMNNAME_IsSOTrx + "=cd." + I_M_CostDetail.COLUMNNAME_IsSOTrx
+					+ " ORDER BY rcd." + I_M_CostDetail.COLUMNNAME_M_CostDetail_ID
+					+ " LIMIT 1)";
+		}
+
+		private void loadRow(final ResultSet rs) throws SQLException
+		{
+			final AcctSchemaId acctSchemaId = AcctSchemaId.ofRepoId(rs.getInt(I_M_CostDetail.COLUMNNAME_C_AcctSchema_ID));
+			final ProductId productId = ProductId.ofRepoId(rs.getInt(I_M_CostDetail.COLUMNNAME_M_Product_ID));
+			final CostElementId costElementId = CostElementId.ofRepoId(rs.getInt(I_M_CostDetail.COLUMNNAME_M_CostElement_ID));
+
+			final CostSegmentAndElement costSegmentAndElement = CostSegmentAndElement.builder()
+					.costingLevel(getCostingLevel(productId, acctSchemaId))
+					.acctSchemaId(acctSchemaId)
+					.costTypeId(getAcctSchema(acctSchemaId).getCosting().getCostTypeId())
+					.clientId(ClientId.ofRepoId(rs.getInt(I_M_CostDetail.COLUMNNAME_AD_Client_ID)))
+					.orgId(OrgId.ofRepoIdOrAny(rs.getInt(I_M_CostDetail.COLUMNNAME_AD_Org_ID)))
+					.productId(productId)
+					.attributeSetInstanceId(AttributeSetInstanceId.ofRepoIdOrNone(rs.getInt(I_M_CostDetail.COLUMNNAME_M_AttributeSetInstance_ID)))
+					.costElementId(costElementId)
+					.build();
+			if (skippedSegments.contains(costSegmentAndElement))
+			{
+				return;
+			}
+
+			CostSegmentDetails.Builder segmentBuilder = segmentBuilders.get(costSegmentAndElement);
+			if (segmentBuilder == null)
+			{
+				final CostElement costElement = costElementRepo.getById(costElementId);
+				if (!CostSegmentReplayer.isSupported(costElement.getCostingMethod()))
+				{
+					logger.info("Skip replaying {} because costing method of {} is not supported", costSegmentAndElement, costElement);
+					skippedSegments.add(costSegmentAndElement);
+					return;
+				}
+
+				segmentBuilder = CostSegmentDetails.builder(
+						costSegmentAndElement,
+						costElement.getCostingMethod(),
+						getAcctSchema(acctSchemaId).getCosting().getCostingPrecision());
+				segmentBuilders.put(costSegmentAndElement, segmentBuilder);
+			}
+
+			final byte docType;
+			if (rs.getInt(I_M_CostDetail.COLUMNNAME_M_MatchPO_ID) > 0)
+			{
+				docType = CostSegmentDetails.DOCTYPE_MatchPO;
+			}
+			else if (rs.getInt(I_M_CostDetail.COLUMNNAME_M_MatchInv_ID) > 0)
+			{
+				docType = CostSegmentDetails.DOCTYPE_MatchInv;
+			}
+			else
+			{
+				docType = CostSegmentDetails.DOCTYPE_Other;
+			}
+
+			final BigDecimal qty = toStockUOM(
+					productId,
+					rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Qty),
+					UomId.ofRepoId(rs.getInt(I_M_CostDetail.COLUMNNAME_C_UOM_ID)));
+
+			segmentBuilder.add(
+					rs.getInt(I_M_CostDetail.COLUMNNAME_M_CostDetail_ID),
+					docType,
+					rs.getInt(COLUMNNAME_Reversed_CostDetail_ID),
+					StringUtils.toBoolean(rs.getString(I_M_CostDetail.COLUMNNAME_IsChangingCosts)),
+					qty,
+					zeroIfNull(rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Amt)),
+					zeroIfNull(rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPrice)),
+					zeroIfNull(rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Prev_CurrentCostPriceLL)),
+					zeroIfNull(rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Prev_CurrentQty)),
+					zeroIfNull(rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Prev_CumulatedAmt)),
+					zeroIfNull(rs.getBigDecimal(I_M_CostDetail.COLUMNNAME_Prev_CumulatedQty)));
+			countCostDetails++;
+		}
+
+		private AcctSchema getAcctSchema(final AcctSchemaId acctSchemaId)
+		{
+			return acctSchemasRepo.getById(acctSchemaId);
+		}
+
+		private CostingLevel getCostingLevel(final ProductId productId, final AcctSchemaId acctSchemaId)
+		{
+			return costingLevels
+					.computeIfAbsent(productId, k -> new HashMap<>())
+					.computeIfAbsent(acctSchemaId, k -> productCostingBL.getCostingLevel(productId, getAcctSchema(acctSchemaId)));
+		}
+
+		private BigDecimal toStockUOM(final ProductId productId, final BigDecimal qty, final UomId uomId)
+		{
+			final UomId stockUomId = stockUomIds.computeIfAbsent(productId, productBL::getStockUOMId);
+			if (UomId.equals(uomId, stockUomId))
+			{
+				return zeroIfNull(qty);
+			}
+
+			final Quantity qtyInStockUOM = uomConversionBL.convertQuantityTo(Quantity.of(zeroIfNull(qty), uomsRepo.getById(uomId)), productId, stockUomId);
+			return qtyInStockUOM.toBigDecimal();
+		}
+
+		public List<CostSegmentDetails> getSegments()
+		{
+			return segmentBuilders.values()
+					.stream()
+					.map(CostSegmentDetails.Builder::build)
+					.collect(ImmutableList.toImmutableList());
+		}
+
+		public int getCountSegmentsSkipped()
+		{
+			return skippedSegments.size();
+		}
+
+		public int getCountCostDetails()
+		{
+			return countCostDetails;
+		}
+	}
+
+	private static BigDecimal zeroIfNull(final BigDecimal value)
+	{
+		return value != null ? value : BigDecimal.ZERO;
+	}
+}
@@ -0,0 +1,183 @@
+package de.metas.costing.replay;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.metas.costing.CostSegmentAndElement;
+import de.metas.costing.CostingMethod;
+import de.metas.currency.CurrencyPrecision;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * All <code>M_CostDetail</code>s of one cost segment and element, ordered by <code>M_CostDetail_ID</code>, stored column-wise.
+ * <p>
+ * Quantities are in the UOM of the current cost (i.e. product's stock UOM). Amounts are in accounting schema currency.
+ */
+@ToString(of = { "costSegmentAndElement", "costingMethod" })
+final class CostSegmentDetails
+{
+	static final byte DOCTYPE_Other = 0;
+	static final byte DOCTYPE_MatchPO = 1;
+	static final byte DOCTYPE_MatchInv = 2;
+
+	@Getter
+	private final CostSegmentAndElement costSegmentAndElement;
+	@Getter
+	private final CostingMethod costingMethod;
+	@Getter
+	private final CurrencyPrecision precision;
+
+	final int[] costDetailIds;
+	final byte[] docTypes;
+	/** the cost detail which was reversed by the cost detail, or 0 if it's not a reversal */
+	final int[] reversalOfCostDetailIds;
+	final boolean[] changingCosts;
+	final BigDecimal[] qtys;
+	final BigDecimal[] amts;
+
+	final BigDecimal[] prevOwnCostPrices;
+	final BigDecimal[] prevComponentsCostPrices;
+	final BigDecimal[] prevCurrentQtys;
+	final BigDecimal[] prevCumulatedAmts;
+	final BigDecimal[] prevCumulatedQtys;
+
+	private CostSegmentDetails(@NonNull final Builder builder)
+	{
+		costSegmentAndElement = builder.costSegmentAndElement;
+		costingMethod = builder.costingMethod;
+		precision = builder.precision;
+
+		final int size = builder.costDetailIds.size();
+		costDetailIds = new int[size];
+		docTypes = new byte[size];
+		reversalOfCostDetailIds = new int[size];
+		changingCosts = new boolean[size];
+		for (int i = 0; i < size; i++)
+		{
+			costDetailIds[i] = builder.costDetailIds.get(i);
+			docTypes[i] = builder.docTypes.get(i);
+			reversalOfCostDetailIds[i] = builder.reversalOfCostDetailIds.get(i);
+			changingCosts[i] = builder.changingCosts.get(i);
+		}
+
+		qtys = toArray(builder.qtys);
+		amts = toArray(builder.amts);
+
+		prevOwnCostPrices = toArray(builder.prevOwnCostPrices);
+		prevComponentsCostPrices = toArray(builder.prevComponentsCostPrices);
+		prevCurrentQtys = toArray(builder.prevCurrentQtys);
+		prevCumulatedAmts = toArray(builder.prevCumulatedAmts);
+		prevCumulatedQtys = toArray(builder.prevCumulatedQtys);
+	}
+
+	private static BigDecimal[] toArray(final List<BigDecimal> list)
+	{
+		return list.toArray(new BigDecimal[list.size()]);
+	}
+
+	public static Builder builder(
+			@NonNull final CostSegmentAndElement costSegmentAndElement,
+			@NonNull final CostingMethod costingMethod,
+			@NonNull final CurrencyPrecision precision)
+	{
+		return new Builder(costSegmentAndElement, costingMethod, precision);
+	}
+
+	public int size()
+	{
+		return costDetailIds.length;
+	}
+
+	public static final class Builder
+	{
+		private final CostSegmentAndElement costSegmentAndElement;
+		private final CostingMethod costingMethod;
+		private final CurrencyPrecision precision;
+
+		private final List<Integer> costDetailIds = new ArrayList<>();
+		private final List<Byte> docTypes = new ArrayList<>();
+		private final List<Integer> reversalOfCostDetailIds = new ArrayList<>();
+		private final List<Boolean> changingCosts = new ArrayList<>();
+		private final List<BigDecimal> qtys = new ArrayList<>();
+		private final List<BigDecimal> amts = new ArrayList<>();
+
+		private final List<BigDecimal> prevOwnCostPrices = new ArrayList<>();
+		private final List<BigDecimal> prevComponentsCostPrices = new ArrayList<>();
+		private final List<BigDecimal> prevCurrentQtys = new ArrayList<>();
+		private final List<BigDecimal> prevCumulatedAmts = new ArrayList<>();
+		private final List<BigDecimal> prevCumulatedQtys = new ArrayList<>();
+
+		private Builder(
+				final CostSegmentAndElement costSegmentAndElement,
+				final CostingMethod costingMethod,
+				final CurrencyPrecision precision)
+		{
+			this.costSegmentAndElement = costSegmentAndElement;
+			this.costingMethod = costingMethod;
+			this.precision = precision;
+		}
+
+		public Builder add(
+				final int costDetailId,
+				final byte docType,
+				final int reversalOfCostDetailId,
+				final boolean changingCosts,
+				@NonNull final BigDecimal qty,
+				@NonNull final BigDecimal amt,
+				@NonNull final BigDecimal prevOwnCostPrice,
+				@NonNull final BigDecimal prevComponentsCostPrice,
+				@NonNull final BigDecimal prevCurrentQty,
+				@NonNull final BigDecimal prevCumulatedAmt,
+				@NonNull final BigDecimal prevCumulatedQty)
+		{
+			this.costDetailIds.add(costDetailId);
+			this.docTypes.add(docType);
+			this.reversalOfCostDetailIds.add(reversalOfCostDetailId);
+			this.changingCosts.add(changingCosts);
+			this.qtys.add(qty);
+			this.amts.add(amt);
+
+			this.prevOwnCostPrices.add(prevOwnCostPrice);
+			this.prevComponentsCostPrices.add(prevComponentsCostPrice);
+			this.prevCurrentQtys.add(prevCurrentQty);
+			this.prevCumulatedAmts.add(prevCumulatedAmt);
+			this.prevCumulatedQtys.add(prevCumulatedQty);
+			return this;
+		}
+
+		public boolean isEmpty()
+		{
+			return costDetailIds.isEmpty();
+		}
+
+		public CostSegmentDetails build()
+		{
+			return new CostSegmentDetails(this);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package de.metas.costing.replay;
+
+import java.math.BigDecimal;
+
+import javax.annotation.Nullable;
+
+import de.metas.costing.CostSegmentAndElement;
+import lombok.Getter;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Recomputed values of the cost details of one cost segment (same indexes as in {@link CostSegmentDetails}) and the resulting current costs.
+ * <p>
+ * The previous amounts are <code>null</code> for the cost details which are not changing costs, because there are no previous amounts recorded for them.
+ */
+final class CostSegmentReplayResult
+{
+	private final CostSegmentDetails details;
+
+	final BigDecimal[] amts;
+	final BigDecimal[] prevOwnCostPrices;
+	final BigDecimal[] prevComponentsCostPrices;
+	final BigDecimal[] prevCurrentQtys;
+	final BigDecimal[] prevCumulatedAmts;
+	final BigDecimal[] prevCumulatedQtys;
+
+	@Getter
+	private BigDecimal ownCostPrice;
+	@Getter
+	private BigDecimal componentsCostPrice;
+	@Getter
+	private BigDecimal currentQty;
+	@Getter
+	private BigDecimal cumulatedAmt;
+	@Getter
+	private BigDecimal cumulatedQty;
+
+	CostSegmentReplayResult(@NonNull final CostSegmentDetails details)
+	{
+		this.details = details;
+
+		final int size = details.size();
+		amts = new BigDecimal[size];
+		prevOwnCostPrices = new BigDecimal[size];
+		prevComponentsCostPrices = new BigDecimal[size];
+		prevCurrentQtys = new BigDecimal[size];
+		prevCumulatedAmts = new BigDecimal[size];
+		prevCumulatedQtys = new BigDecimal[size];
+	}
+
+	void setCurrentCosts(
+			@NonNull final BigDecimal ownCostPrice,
+			@NonNull final BigDecimal componentsCostPrice,
+			@NonNull final BigDecimal currentQty,
+			@NonNull final BigDecimal cumulatedAmt,
+			@NonNull final BigDecimal cumulatedQty)
+	{
+		this.ownCostPrice = ownCostPrice;
+		this.componentsCostPrice = componentsCostPrice;
+		this.currentQty = currentQty;
+		this.cumulatedAmt = cumulatedAmt;
+		this.cumulatedQty = cumulatedQty;
+	}
+
+	public CostSegmentAndElement getCostSegmentAndElement()
+	{
+		return details.getCostSegmentAndElement();
+	}
+
+	public int size()
+	{
+		return details.size();
+	}
+
+	public int getCostDetailId(final int index)
+	{
+		return details.costDetailIds[index];
+	}
+
+	public BigDecimal getOldAmt(final int index)
+	{
+		return details.amts[index];
+	}
+
+	public BigDecimal getNewAmt(final int index)
+	{
+		return amts[index];
+	}
+
+	public boolean hasPreviousAmounts(final int index)
+	{
+		return prevOwnCostPrices[index] != null;
+	}
+
+	public boolean isChanged(final int index)
+	{
+		return !equals(details.amts[index], amts[index])
+				|| hasPreviousAmounts(index)
+						&& (!equals(details.prevOwnCostPrices[index], prevOwnCostPrices[index])
+								|| !equals(details.prevComponentsCostPrices[index], prevComponentsCostPrices[index])
+								|| !equals(details.prevCurrentQtys[index], prevCurrentQtys[index])
+								|| !equals(details.prevCumulatedAmts[index], prevCumulatedAmts[index])
+								|| !equals(details.prevCumulatedQtys[index], prevCumulatedQtys[index]));
+	}
+
+	private static boolean equals(@Nullable final BigDecimal value1, @Nullable final BigDecimal value2)
+	{
+		if (value1 == value2)
+		{
+			return true;
+		}
+		if (value1 == null || value2 == null)
+		{
+			return false;
+		}
+		return value1.compareTo(value2) == 0;
+	}
+}
@@ -0,0 +1,257 @@
+package de.metas.costing.replay;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.costing.CostingMethod;
+import de.metas.currency.CurrencyPrecision;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Recomputes the current costs of one cost segment by replaying all its cost details in memory.
+ * <p>
+ * The computation follows the {@link de.metas.costing.methods.CostingMethodHandler} implementations:
+ * <ul>
+ * <li>only the cost details which are flagged as changing costs are affecting the current costs
+ * <li>the amounts of inbound cost details are taken as they are
+ * <li>reversals are taking the negated amount of the reversed cost detail, like {@link de.metas.costing.impl.CostingService#createReversalCostDetails} does.
+ * For average PO costing they are changing the weighted average, also if they are outbound (see {@link de.metas.costing.methods.AveragePOCostingMethodHandler})
+ * <li>the amounts of outbound cost details are recomputed from the current cost price, where the costing method says so
+ * <li>for standard costing the cost price is maintained by the user, so the recorded previous cost price of each cost detail is used
+ * </ul>
+ * The state before the first cost detail which is changing costs is taken from its recorded previous amounts.
+ */
+final class CostSegmentReplayer
+{
+	private static final ImmutableSet<CostingMethod> SUPPORTED_COSTING_METHODS = ImmutableSet.of(
+			CostingMethod.AveragePO,
+			CostingMethod.AverageInvoice,
+			CostingMethod.StandardCosting,
+			CostingMethod.LastPOPrice,
+			CostingMethod.LastInvoice);
+
+	public static boolean isSupported(final CostingMethod costingMethod)
+	{
+		return SUPPORTED_COSTING_METHODS.contains(costingMethod);
+	}
+
+	public static CostSegmentReplayResult replay(@NonNull final CostSegmentDetails details)
+	{
+		return new CostSegmentReplayer(details).replay();
+	}
+
+	private final CostSegmentDetails details;
+	private final CostingMethod costingMethod;
+	private final CurrencyPrecision precision;
+
+	// current costs
+	private BigDecimal ownCostPrice = BigDecimal.ZERO;
+	private BigDecimal componentsCostPrice = BigDecimal.ZERO;
+	private BigDecimal currentQty = BigDecimal.ZERO;
+	private BigDecimal cumulatedAmt = BigDecimal.ZERO;
+	private BigDecimal cumulatedQty = BigDecimal.ZERO;
+
+	private CostSegmentReplayer(@NonNull final CostSegmentDetails details)
+	{
+		if (!isSupported(details.getCostingMethod()))
+		{
+			throw new AdempiereException("Costing method not supported: " + details.getCostingMethod());
+		}
+
+		this.details = details;
+		this.costingMethod = details.getCostingMethod();
+		this.precision = details.getPrecision();
+	}
+
+	private CostSegmentReplayResult replay()
+	{
+		final int size = details.size();
+		final CostSegmentReplayResult result = new CostSegmentReplayResult(details);
+
+		final Map<Integer, Integer> indexesByCostDetailId = new HashMap<>(size);
+		boolean initialized = false;
+		for (int i = 0; i < size; i++)
+		{
+			indexesByCostDetailId.put(details.costDetailIds[i], i);
+
+			if (!details.changingCosts[i])
+			{
+				result.amts[i] = details.amts[i];
+				continue;
+			}
+
+			if (!initialized || costingMethod == CostingMethod.StandardCosting)
+			{
+				ownCostPrice = details.prevOwnCostPrices[i];
+				componentsCostPrice = details.prevComponentsCostPrices[i];
+			}
+			if (!initialized)
+			{
+				currentQty = details.prevCurrentQtys[i];
+				cumulatedAmt = details.prevCumulatedAmts[i];
+				cumulatedQty = details.prevCumulatedQtys[i];
+				initialized = true;
+			}
+
+			result.prevOwnCostPrices[i] = ownCostPrice;
+			result.prevComponentsCostPrices[i] = componentsCostPrice;
+			result.prevCurrentQtys[i] = currentQty;
+			result.prevCumulatedAmts[i] = cumulatedAmt;
+			result.prevCumulatedQtys[i] = cumulatedQty;
+
+			final boolean reversal = details.reversalOfCostDetailIds[i] > 0;
+			final Integer reversedIndex = reversal ? indexesByCostDetailId.get(details.reversalOfCostDetailIds[i]) : null;
+			final BigDecimal amt = reversedIndex != null
+					? result.amts[reversedIndex].negate()
+					: details.amts[i]; // not a reversal or the reversed cost detail is not part of this segment
+
+			result.amts[i] = apply(details.docTypes[i], reversal, details.qtys[i], amt);
+		}
+
+		result.setCurrentCosts(ownCostPrice, componentsCostPrice, currentQty, cumulatedAmt, cumulatedQty);
+		return result;
+	}
+
+	/**
+	 * Applies given cost detail to current costs.
+	 *
+	 * @return effective amount of the cost detail
+	 */
+	private BigDecimal apply(final byte docType, final boolean reversal, final BigDecimal qty, final BigDecimal amt)
+	{
+		switch (costingMethod)
+		{
+			case AveragePO:
+			{
+				if (docType == CostSegmentDetails.DOCTYPE_MatchPO || qty.signum() > 0 || reversal)
+				{
+					addWeightedAverage(amt, qty);
+					return amt;
+				}
+				else
+				{
+					final BigDecimal amtEffective = precision.roundIfNeeded(getCostPrice().multiply(qty));
+					addToCurrentQtyAndCumulate(qty, amtEffective);
+					return amtEffective;
+				}
+			}
+			case AverageInvoice:
+			{
+				if (docType == CostSegmentDetails.DOCTYPE_MatchInv || qty.signum() > 0)
+				{
+					addWeightedAverage(amt, qty);
+					return amt;
+				}
+				else
+				{
+					final BigDecimal amtEffective = precision.roundIfNeeded(getCostPrice().multiply(qty));
+					addToCurrentQtyAndCumulate(qty, amtEffective);
+					return amtEffective;
+				}
+			}
+			case StandardCosting:
+			{
+				final BigDecimal amtEffective = getCostPrice().multiply(qty);
+				addToCurrentQtyAndCumulate(qty, amtEffective);
+				return amtEffective;
+			}
+			case LastPOPrice:
+			{
+				if (docType == CostSegmentDetails.DOCTYPE_MatchPO)
+				{
+					setLastPrice(amt, qty);
+				}
+				addToCurrentQtyAndCumulate(qty, amt);
+				return amt;
+			}
+			case LastInvoice:
+			{
+				if (docType == CostSegmentDetails.DOCTYPE_MatchInv)
+				{
+					setLastPrice(amt, qty);
+				}
+				addToCurrentQtyAndCumulate(qty, amt);
+				return amt;
+			}
+			default:
+			{
+				throw new AdempiereException("Costing method not supported: " + costingMethod);
+			}
+		}
+	}
+
+	private BigDecimal getCostPrice()
+	{
+		return ownCostPrice.add(componentsCostPrice);
+	}
+
+	/** @see de.metas.costing.CurrentCost#addWeightedAverage */
+	private void addWeightedAverage(final BigDecimal amt, final BigDecimal qty)
+	{
+		if (qty.signum() == 0)
+		{
+			throw new AdempiereException("qty not zero");
+		}
+
+		final BigDecimal newAmt = ownCostPrice.multiply(currentQty).add(amt);
+		final BigDecimal newQty = currentQty.add(qty);
+		if (newQty.signum() != 0)
+		{
+			ownCostPrice = newAmt.divide(newQty, precision.toInt(), RoundingMode.HALF_UP);
+		}
+		currentQty = newQty;
+
+		cumulatedAmt = cumulatedAmt.add(amt);
+		cumulatedQty = cumulatedQty.add(qty);
+	}
+
+	/** @see de.metas.costing.CurrentCost#addToCurrentQtyAndCumulate */
+	private void addToCurrentQtyAndCumulate(final BigDecimal qty, final BigDecimal amt)
+	{
+		currentQty = currentQty.add(qty);
+		cumulatedAmt = cumulatedAmt.add(amt);
+		cumulatedQty = cumulatedQty.add(qty);
+	}
+
+	/** @see de.metas.costing.methods.LastPOCostingMethodHandler */
+	private void setLastPrice(final BigDecimal amt, final BigDecimal qty)
+	{
+		if (qty.signum() > 0)
+		{
+			ownCostPrice = amt.divide(qty, precision.toInt(), RoundingMode.HALF_UP);
+			componentsCostPrice = BigDecimal.ZERO;
+		}
+		else if (qty.signum() == 0)
+		{
+			ownCostPrice = ownCostPrice.add(amt);
+		}
+	}
+}
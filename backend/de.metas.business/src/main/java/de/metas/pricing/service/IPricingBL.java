@@ -23,6 +23,7 @@ package de.metas.pricing.service;
  */
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Set;
 
 import de.metas.bpartner.BPartnerId;
@@ -66,6 +67,14 @@ public interface IPricingBL extends ISingletonService
 
 	IPricingResult calculatePrice(IPricingContext pricingCtx);
 
+	/**
+	 * Calculates the prices for many lines at once. The results are the same as calling {@link #calculatePrice(IPricingContext)} for each context,
+	 * but the pricing rules are set up once and the main product prices are loaded with one query per price list version.
+	 *
+	 * @return pricing results, in the same order as the given contexts
+	 */
+	List<IPricingResult> calculatePrices(List<IPricingContext> pricingCtxs);
+
 	/**
 	 * Creates an initial {@link IPricingResult}. Copies some of the given <code>pricingCtx</code>'s properties to the pricing result.
 	 *
@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
 import de.metas.logging.LogManager;
@@ -82,6 +83,7 @@ public class ProductPriceQuery
 
 	private PriceListVersionId _priceListVersionId;
 	private ProductId _productId;
+	private ImmutableSet<ProductId> _productIds;
 
 	private AttributePricing _attributePricing = AttributePricing.IGNORE;
 	private I_M_AttributeSetInstance _attributePricing_asiToMatch;
@@ -103,6 +105,7 @@ public class ProductPriceQuery
 				.omitNullValues()
 				.add("priceListVersionId", _priceListVersionId)
 				.add("productId", _productId)
+				.add("productIds", _productIds)
 				//
 				.add("attributePricing", _attributePricing)
 				.add("onlyValidPrices", _onlyValidPrices)
@@ -224,8 +227,16 @@ public class ProductPriceQuery
 		final IQueryBuilder<I_M_ProductPrice> queryBuilder = Services.get(IQueryBL.class)
 				.createQueryBuilder(I_M_ProductPrice.class)
 				.addOnlyActiveRecordsFilter()
-				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, getPriceListVersionId())
-				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, getProductId());
+				.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID, getPriceListVersionId());
+
+		if (_productIds != null)
+		{
+			queryBuilder.addInArrayFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, _productIds);
+		}
+		else
+		{
+			queryBuilder.addEqualsFilter(I_M_ProductPrice.COLUMNNAME_M_Product_ID, getProductId());
+		}
 
 		// Ignore invalid prices
 		final boolean isOnlyValidPrices = isOnlyValidPrices();
@@ -300,6 +311,18 @@ public class ProductPriceQuery
 	public ProductPriceQuery setProductId(final ProductId productId)
 	{
 		_productId = productId;
+		_productIds = null;
+		return this;
+	}
+
+	/**
+	 * Matches the product prices of any of the given products. Useful to fetch the prices of many products in one go.
+	 */
+	public ProductPriceQuery setProductIds(@NonNull final Collection<ProductId> productIds)
+	{
+		Check.assumeNotEmpty(productIds, "productIds is not empty");
+		_productId = null;
+		_productIds = ImmutableSet.copyOf(productIds);
 		return this;
 	}
 
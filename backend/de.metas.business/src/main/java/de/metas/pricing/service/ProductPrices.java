@@ -6,8 +6,11 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -17,12 +20,16 @@ import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.model.I_M_PriceList;
 import org.compiere.model.I_M_PriceList_Version;
 import org.compiere.model.I_M_PricingSystem;
 import org.compiere.model.I_M_ProductPrice;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -174,10 +181,79 @@ public class ProductPrices
 			@NonNull final I_M_PriceList_Version plv,
 			@NonNull final ProductId productId)
 	{
+		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+		final PrefetchedMainProductPrices prefetched = prefetchedMainProductPricesHolder.get().get(priceListVersionId);
+		if (prefetched != null && prefetched.isPrefetched(productId))
+		{
+			return prefetched.getMainPrices(productId);
+		}
+
 		return newMainProductPriceQuery(plv, productId)
 				.list();
 	}
 
+	/**
+	 * Loads the main product prices of all given products in one query.
+	 * Until the returned closeable is closed, {@link #retrieveMainProductPriceOrNull(I_M_PriceList_Version, ProductId)} will serve those products from the prefetched prices
+	 * when called from the current thread.
+	 */
+	public static IAutoCloseable prefetchMainProductPrices(
+			@NonNull final I_M_PriceList_Version plv,
+			@NonNull final Collection<ProductId> productIds)
+	{
+		if (productIds.isEmpty())
+		{
+			return () -> {};
+		}
+
+		final PriceListVersionId priceListVersionId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+		final ImmutableListMultimap<ProductId, I_M_ProductPrice> mainPricesByProductId = newQuery(plv)
+				.setProductIds(productIds)
+				.noAttributePricing()
+				.onlyValidPrices(true)
+				.addMatchersIfAbsent(MATCHERS_MainProductPrice) // IMORTANT: keep it last
+				.list()
+				.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(
+						productPrice -> ProductId.ofRepoId(productPrice.getM_Product_ID()),
+						productPrice -> productPrice));
+
+		final Map<PriceListVersionId, PrefetchedMainProductPrices> prefetchedMap = prefetchedMainProductPricesHolder.get();
+		final PrefetchedMainProductPrices previous = prefetchedMap.put(
+				priceListVersionId,
+				new PrefetchedMainProductPrices(ImmutableSet.copyOf(productIds), mainPricesByProductId));
+
+		return () -> {
+			if (previous != null)
+			{
+				prefetchedMap.put(priceListVersionId, previous);
+			}
+			else
+			{
+				prefetchedMap.remove(priceListVersionId);
+			}
+		};
+	}
+
+	private static final ThreadLocal<Map<PriceListVersionId, PrefetchedMainProductPrices>> prefetchedMainProductPricesHolder = ThreadLocal.withInitial(HashMap::new);
+
+	@lombok.Value
+	private static class PrefetchedMainProductPrices
+	{
+		ImmutableSet<ProductId> productIds;
+		ImmutableListMultimap<ProductId, I_M_ProductPrice> mainPricesByProductId;
+
+		public boolean isPrefetched(final ProductId productId)
+		{
+			return productIds.contains(productId);
+		}
+
+		public List<I_M_ProductPrice> getMainPrices(final ProductId productId)
+		{
+			return mainPricesByProductId.get(productId);
+		}
+	}
+
 	private static final ProductPriceQuery newMainProductPriceQuery(final I_M_PriceList_Version plv, final ProductId productId)
 	{
 		return newQuery(plv)
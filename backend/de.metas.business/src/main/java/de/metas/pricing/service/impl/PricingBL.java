@@ -24,6 +24,10 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -41,6 +45,9 @@ import org.slf4j.Logger;
 
 import java.util.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.SetMultimap;
 
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
@@ -164,7 +171,8 @@ public class PricingBL implements IPricingBL
 		final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
 		try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
 		{
-			final IPricingResult result = calculatePrice0(pricingCtx);
+			final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
+			final IPricingResult result = calculatePrice0(pricingCtxToUse, createPricingRules());
 			return result.setLoggableMessages(plainStringLoggable.getSingleMessages());
 		}
 		catch (final ProductNotOnPriceListException e)
@@ -173,9 +181,100 @@ public class PricingBL implements IPricingBL
 		}
 	}
 
-	private IPricingResult calculatePrice0(final IPricingContext pricingCtx)
+	@Override
+	public List<IPricingResult> calculatePrices(@NonNull final List<IPricingContext> pricingCtxs)
+	{
+		if (pricingCtxs.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList<IPricingContext> pricingCtxsToUse = pricingCtxs.stream()
+				.map(this::setupPricingContext)
+				.collect(ImmutableList.toImmutableList());
+
+		// the rules are the same for all lines, so we create them just once
+		final AggregatedPricingRule rules = createPricingRules();
+
+		final List<IAutoCloseable> prefetchedProductPrices = new ArrayList<>();
+		try
+		{
+			prefetchMainProductPrices(pricingCtxsToUse, prefetchedProductPrices);
+
+			final ImmutableList.Builder<IPricingResult> results = ImmutableList.builder();
+			for (final IPricingContext pricingCtxToUse : pricingCtxsToUse)
+			{
+				final PlainStringLoggable plainStringLoggable = Loggables.newPlainStringLoggable();
+				try (IAutoCloseable c = Loggables.temporarySetLoggable(plainStringLoggable))
+				{
+					final IPricingResult result = calculatePrice0(pricingCtxToUse, rules);
+					results.add(result.setLoggableMessages(plainStringLoggable.getSingleMessages()));
+				}
+				catch (final ProductNotOnPriceListException e)
+				{
+					throw e.setParameter("Log", plainStringLoggable.getConcatenatedMessages()); // augment&rethrow
+				}
+			}
+			return results.build();
+		}
+		finally
+		{
+			closeAllNoFail(Lists.reverse(prefetchedProductPrices));
+		}
+	}
+
+	/**
+	 * Groups the given (already set up) pricing contexts by price list version and loads the main product prices of each group in one query.
+	 * <p>
+	 * Each closeable is added to the given list as soon as it was created, so the caller can close the ones which were already prefetched, also when a later prefetch fails.
+	 *
+	 * @param closeables closeables which shall be closed when the prefetched prices are no longer needed
+	 */
+	private static void prefetchMainProductPrices(
+			@NonNull final List<IPricingContext> pricingCtxs,
+			@NonNull final List<IAutoCloseable> closeables)
+	{
+		final Map<PriceListVersionId, I_M_PriceList_Version> plvsById = new HashMap<>();
+		final SetMultimap<PriceListVersionId, ProductId> productIdsByPLVId = MultimapBuilder.hashKeys().hashSetValues().build();
+		for (final IPricingContext pricingCtx : pricingCtxs)
+		{
+			final ProductId productId = pricingCtx.getProductId();
+			final I_M_PriceList_Version plv = pricingCtx.getM_PriceList_Version();
+			if (productId == null || plv == null)
+			{
+				continue;
+			}
+
+			final PriceListVersionId plvId = PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID());
+			plvsById.putIfAbsent(plvId, plv);
+			productIdsByPLVId.put(plvId, productId);
+		}
+
+		for (final PriceListVersionId plvId : productIdsByPLVId.keySet())
+		{
+			closeables.add(ProductPrices.prefetchMainProductPrices(plvsById.get(plvId), productIdsByPLVId.get(plvId)));
+		}
+	}
+
+	private static void closeAllNoFail(@NonNull final List<IAutoCloseable> closeables)
+	{
+		for (final IAutoCloseable closeable : closeables)
+		{
+			try
+			{
+				closeable.close();
+			}
+			catch (final RuntimeException e)
+			{
+				logger.warn("Failed closing {}. Ignored.", closeable, e);
+			}
+		}
+	}
+
+	private IPricingResult calculatePrice0(
+			@NonNull final IPricingContext pricingCtxToUse,
+			@NonNull final AggregatedPricingRule rules)
 	{
-		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -196,7 +295,6 @@ public class PricingBL implements IPricingBL
 			// return result;
 		}
 
-		final AggregatedPricingRule rules = createPricingRules();
 		rules.calculate(pricingCtxToUse, result);
 
 		//
@@ -208,7 +306,7 @@ public class PricingBL implements IPricingBL
 		{
 			throw ProductNotOnPriceListException.builder()
 					.pricingCtx(pricingCtxToUse)
-					.productId(pricingCtx.getProductId())
+					.productId(pricingCtxToUse.getProductId())
 					.build()
 					.setParameter("pricingResult", result);
 		}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 
+import org.adempiere.service.ClientId;
 import org.compiere.model.IQuery;
 import org.compiere.model.I_M_Product;
 import org.eevolution.model.I_PP_Product_BOM;
@@ -56,4 +57,9 @@ public interface IProductBOMDAO extends ISingletonService
 	ProductBOMId createBOM(BOMCreateRequest request);
 
 	ProductId getBOMProductId(ProductBOMId bomId);
+
+	/**
+	 * Loads the structure of all active BOMs of given client in one go.
+	 */
+	ProductBOMGraph retrieveProductBOMGraph(ClientId clientId);
 }
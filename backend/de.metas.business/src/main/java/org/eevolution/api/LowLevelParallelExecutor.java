@@ -0,0 +1,149 @@
+package org.eevolution.api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.logging.LogManager;
+import de.metas.product.ProductId;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Processes products level by level (see {@link ProductBOMGraph#getLowLevel(ProductId)}).
+ * <p>
+ * The products of one level do not depend on each other, so they are processed in parallel.
+ * A level is started only after the previous level was completely processed, so results cascade from level to level
+ * and are the same as when processing all products one by one.
+ * <p>
+ * The given action is called in worker threads, with the caller's context and loggable. It shall use its own transaction.
+ */
+public final class LowLevelParallelExecutor
+{
+	private static final Logger logger = LogManager.getLogger(LowLevelParallelExecutor.class);
+
+	private final ImmutableListMultimap<Integer, ProductId> productIdsByLowLevel;
+	private final boolean componentsFirst;
+	private final int parallelism;
+	private final Consumer<ProductId> action;
+
+	@Builder
+	private LowLevelParallelExecutor(
+			@NonNull final ImmutableListMultimap<Integer, ProductId> productIdsByLowLevel,
+			final boolean componentsFirst,
+			final int parallelism,
+			@NonNull final Consumer<ProductId> action)
+	{
+		this.productIdsByLowLevel = productIdsByLowLevel;
+		this.componentsFirst = componentsFirst;
+		this.parallelism = Math.max(parallelism, 1);
+		this.action = action;
+	}
+
+	/**
+	 * @throws RuntimeException the first error; the remaining products of the failed level are still processed, but the next levels are not.
+	 */
+	public void execute()
+	{
+		final ImmutableList<Integer> lowLevels = productIdsByLowLevel.keySet()
+				.stream()
+				// components have a higher low level than the products they are used in
+				.sorted(componentsFirst ? Comparator.reverseOrder() : Comparator.naturalOrder())
+				.collect(ImmutableList.toImmutableList());
+
+		if (parallelism <= 1)
+		{
+			lowLevels.forEach(lowLevel -> productIdsByLowLevel.get(lowLevel).forEach(action));
+			return;
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(parallelism, CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(LowLevelParallelExecutor.class.getSimpleName())
+				.setDaemon(true)
+				.build());
+		try
+		{
+			for (final int lowLevel : lowLevels)
+			{
+				executeLevel(lowLevel, executor);
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private void executeLevel(final int lowLevel, final ExecutorService executor)
+	{
+		final ImmutableList<ProductId> productIds = productIdsByLowLevel.get(lowLevel);
+		logger.debug("Processing {} products of low level {}", productIds.size(), lowLevel);
+
+		final Properties callerCtx = Env.getCtx();
+		final ILoggable loggable = Loggables.get();
+
+		final List<CompletableFuture<Void>> futures = new ArrayList<>(productIds.size());
+		for (final ProductId productId : productIds)
+		{
+			// each task gets its own copy, so the tasks don't see each other's context changes
+			final Properties ctx = Env.copyCtx(callerCtx);
+			futures.add(CompletableFuture.runAsync(() -> {
+				try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx);
+						final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable))
+				{
+					action.accept(productId);
+				}
+			}, executor));
+		}
+
+		try
+		{
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		}
+		catch (final CompletionException e)
+		{
+			throw AdempiereException.wrapIfNeeded(e.getCause())
+					.appendParametersToMessage()
+					.setParameter("lowLevel", lowLevel);
+		}
+	}
+}
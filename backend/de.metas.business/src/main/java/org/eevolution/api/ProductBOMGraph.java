@@ -0,0 +1,143 @@
+package org.eevolution.api;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eevolution.exceptions.BOMCycleException;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory "component is used by" graph of all active BOMs, loaded once by {@link IProductBOMDAO#retrieveProductBOMGraph(org.adempiere.service.ClientId)}.
+ * <p>
+ * Co/By-product lines are not part of the graph (gh480), same as in the product's low level code calculation.
+ */
+public final class ProductBOMGraph
+{
+	@Value
+	@Builder
+	public static class Edge
+	{
+		@NonNull
+		ProductBOMId bomId;
+
+		/** the BOM's product */
+		@NonNull
+		ProductId parentProductId;
+
+		@NonNull
+		ProductId componentProductId;
+	}
+
+	private final ImmutableSetMultimap<ProductId, Edge> edgesByComponentId;
+	private final ImmutableSet<ProductId> productIds;
+
+	/** calculated low level codes; the graph itself is immutable, so it's safe to cache them */
+	private final ConcurrentHashMap<ProductId, Integer> lowLevelsCache = new ConcurrentHashMap<>();
+
+	@Builder
+	private ProductBOMGraph(@NonNull @Singular final ImmutableSet<Edge> edges)
+	{
+		this.edgesByComponentId = edges.stream()
+				.collect(ImmutableSetMultimap.toImmutableSetMultimap(Edge::getComponentProductId, edge -> edge));
+
+		final ImmutableSet.Builder<ProductId> productIds = ImmutableSet.builder();
+		edges.forEach(edge -> productIds.add(edge.getParentProductId(), edge.getComponentProductId()));
+		this.productIds = productIds.build();
+	}
+
+	/**
+	 * @return all products which are a BOM product or a component of a BOM
+	 */
+	public ImmutableSet<ProductId> getProductIds()
+	{
+		return productIds;
+	}
+
+	/**
+	 * Gets the product's low level code (LLC), i.e. the length of the longest path from the product up to a product which is not a component of any BOM.
+	 * Products which are not part of the graph have the low level code zero.
+	 *
+	 * @throws BOMCycleException if the product is part of or is a component of a BOM cycle
+	 */
+	public int getLowLevel(@NonNull final ProductId productId)
+	{
+		return getLowLevel(productId, new HashSet<>());
+	}
+
+	private int getLowLevel(final ProductId productId, final Set<ProductId> productIdsInPath)
+	{
+		final Integer cachedLowLevel = lowLevelsCache.get(productId);
+		if (cachedLowLevel != null)
+		{
+			return cachedLowLevel;
+		}
+
+		productIdsInPath.add(productId);
+		try
+		{
+			int lowLevel = 0;
+			for (final Edge edge : edgesByComponentId.get(productId))
+			{
+				final ProductId parentProductId = edge.getParentProductId();
+				if (productIdsInPath.contains(parentProductId))
+				{
+					throw new BOMCycleException(Services.get(IProductBOMDAO.class).getById(edge.getBomId()), parentProductId);
+				}
+
+				lowLevel = Math.max(lowLevel, getLowLevel(parentProductId, productIdsInPath) + 1);
+			}
+
+			lowLevelsCache.put(productId, lowLevel);
+			return lowLevel;
+		}
+		finally
+		{
+			productIdsInPath.remove(productId);
+		}
+	}
+
+	/**
+	 * @return given products, grouped by their low level code. Within a group, the products are ordered by ID.
+	 * @throws BOMCycleException if any of the products is part of a BOM cycle
+	 */
+	public ImmutableListMultimap<Integer, ProductId> groupByLowLevel(@NonNull final Set<ProductId> productIds)
+	{
+		return productIds.stream()
+				.sorted(Comparator.comparing(ProductId::getRepoId))
+				.collect(ImmutableListMultimap.toImmutableListMultimap(this::getLowLevel, productId -> productId));
+	}
+}
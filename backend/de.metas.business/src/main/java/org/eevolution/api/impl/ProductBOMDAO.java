@@ -18,19 +18,23 @@ import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.ISqlQueryFilter;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
 import org.adempiere.util.proxy.Cached;
 import org.compiere.model.IQuery;
 import org.compiere.model.I_M_Product;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.eevolution.api.BOMComponentType;
 import org.eevolution.api.BOMCreateRequest;
 import org.eevolution.api.IProductBOMDAO;
+import org.eevolution.api.ProductBOMGraph;
 import org.eevolution.api.ProductBOMId;
 import org.eevolution.model.I_PP_Product_BOM;
 import org.eevolution.model.I_PP_Product_BOMLine;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.cache.annotation.CacheTrx;
@@ -311,4 +315,31 @@ public class ProductBOMDAO implements IProductBOMDAO
 		final I_PP_Product_BOM bom = getById(bomId);
 		return ProductId.ofRepoId(bom.getM_Product_ID());
 	}
+
+	@Override
+	public ProductBOMGraph retrieveProductBOMGraph(@NonNull final ClientId clientId)
+	{
+		final ImmutableMap<Integer, ProductId> productIdsByBOMRepoId = queryBL.createQueryBuilder(I_PP_Product_BOM.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_PP_Product_BOM.COLUMNNAME_AD_Client_ID, clientId)
+				.create()
+				.iterateAndStream()
+				.collect(ImmutableMap.toImmutableMap(I_PP_Product_BOM::getPP_Product_BOM_ID, bom -> ProductId.ofRepoId(bom.getM_Product_ID())));
+
+		final ProductBOMGraph.ProductBOMGraphBuilder graph = ProductBOMGraph.builder();
+		queryBL.createQueryBuilder(I_PP_Product_BOMLine.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_PP_Product_BOMLine.COLUMNNAME_AD_Client_ID, clientId)
+				.create()
+				.iterateAndStream()
+				.filter(bomLine -> productIdsByBOMRepoId.containsKey(bomLine.getPP_Product_BOM_ID())) // only lines of active BOMs
+				.filter(bomLine -> !BOMComponentType.ofCode(bomLine.getComponentType()).isByOrCoProduct())
+				.forEach(bomLine -> graph.edge(ProductBOMGraph.Edge.builder()
+						.bomId(ProductBOMId.ofRepoId(bomLine.getPP_Product_BOM_ID()))
+						.parentProductId(productIdsByBOMRepoId.get(bomLine.getPP_Product_BOM_ID()))
+						.componentProductId(ProductId.ofRepoId(bomLine.getM_Product_ID()))
+						.build()));
+
+		return graph.build();
+	}
 }
@@ -32,8 +32,10 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ObjectUtils;
 import org.compiere.model.I_M_Product;
-import org.eevolution.api.IProductBOMBL;
+import org.compiere.util.Env;
+import org.eevolution.api.IProductBOMDAO;
 import org.eevolution.api.IProductLowLevelUpdater;
+import org.eevolution.api.ProductBOMGraph;
 import org.slf4j.Logger;
 
 import de.metas.logging.LogManager;
@@ -45,7 +47,7 @@ import de.metas.util.Services;
 {
 	// services
 	private final transient Logger logger = LogManager.getLogger(getClass());
-	private final transient IProductBOMBL productBOMBL = Services.get(IProductBOMBL.class);
+	private final transient IProductBOMDAO productBOMsRepo = Services.get(IProductBOMDAO.class);
 	private final transient IQueryBL queryBL = Services.get(IQueryBL.class);
 
 	private IContextAware _context;
@@ -80,21 +82,30 @@ import de.metas.util.Services;
 	@Override
 	public IProductLowLevelUpdater update()
 	{
+		// Load the BOMs structure once, instead of walking the BOMs of each product
+		final ProductBOMGraph bomGraph = productBOMsRepo.retrieveProductBOMGraph(Env.getClientId(getContext().getCtx()));
+
 		final Iterator<I_M_Product> products = retrieveProductsToUpdate();
 		while (products.hasNext())
 		{
 			final I_M_Product product = products.next();
-			update(product);
+			update(product, bomGraph);
 		}
 
 		return this;
 	}
 
-	private final void update(final I_M_Product product)
+	private final void update(final I_M_Product product, final ProductBOMGraph bomGraph)
 	{
 		try
 		{
-			final int lowlevel = productBOMBL.calculateProductLowestLevel(ProductId.ofRepoId(product.getM_Product_ID()));
+			final int lowlevel = bomGraph.getLowLevel(ProductId.ofRepoId(product.getM_Product_ID()));
+			if (product.getLowLevel() == lowlevel)
+			{
+				count_ok++;
+				return;
+			}
+
 			product.setLowLevel(lowlevel);
 			InterfaceWrapperHelper.save(product);
 			count_ok++;
@@ -0,0 +1,186 @@
+package de.metas.costing.replay;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.adempiere.mm.attributes.AttributeSetInstanceId;
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.Test;
+
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.costing.CostElementId;
+import de.metas.costing.CostSegmentAndElement;
+import de.metas.costing.CostTypeId;
+import de.metas.costing.CostingLevel;
+import de.metas.costing.CostingMethod;
+import de.metas.currency.CurrencyPrecision;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CostSegmentReplayerTest
+{
+	private static final CostSegmentAndElement costSegmentAndElement = CostSegmentAndElement.builder()
+			.costingLevel(CostingLevel.Client)
+			.acctSchemaId(AcctSchemaId.ofRepoId(1))
+			.costTypeId(CostTypeId.ofRepoId(1))
+			.clientId(ClientId.ofRepoId(1))
+			.orgId(OrgId.ANY)
+			.productId(ProductId.ofRepoId(1))
+			.attributeSetInstanceId(AttributeSetInstanceId.NONE)
+			.costElementId(CostElementId.ofRepoId(1))
+			.build();
+
+	private static CostSegmentDetails.Builder newDetails(final CostingMethod costingMethod)
+	{
+		return CostSegmentDetails.builder(costSegmentAndElement, costingMethod, CurrencyPrecision.TWO);
+	}
+
+	private static BigDecimal bd(final String value)
+	{
+		return new BigDecimal(value);
+	}
+
+	@Test
+	public void averagePO_outboundAmountIsRecomputedAfterReceiptWasCorrected()
+	{
+		final CostSegmentDetails details = newDetails(CostingMethod.AveragePO)
+				// receipt: amount was corrected from 200 to 100
+				.add(1, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("10"), bd("100"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				// shipment: booked with the wrong price of 20
+				.add(2, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("-4"), bd("-80"), bd("20"), bd("0"), bd("10"), bd("200"), bd("10"))
+				.build();
+
+		final CostSegmentReplayResult result = CostSegmentReplayer.replay(details);
+
+		assertThat(result.isChanged(0)).isFalse();
+
+		assertThat(result.isChanged(1)).isTrue();
+		assertThat(result.getNewAmt(1)).isEqualByComparingTo("-40");
+		assertThat(result.prevOwnCostPrices[1]).isEqualByComparingTo("10");
+		assertThat(result.prevCurrentQtys[1]).isEqualByComparingTo("10");
+		assertThat(result.prevCumulatedAmts[1]).isEqualByComparingTo("100");
+
+		assertThat(result.getOwnCostPrice()).isEqualByComparingTo("10");
+		assertThat(result.getCurrentQty()).isEqualByComparingTo("6");
+		assertThat(result.getCumulatedAmt()).isEqualByComparingTo("60");
+		assertThat(result.getCumulatedQty()).isEqualByComparingTo("6");
+	}
+
+	@Test
+	public void averagePO_reversedReceipt_keepsAmountOfReversedReceipt()
+	{
+		final CostSegmentDetails details = newDetails(CostingMethod.AveragePO)
+				.add(1, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("10"), bd("100"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				.add(2, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("-4"), bd("-40"), bd("10"), bd("0"), bd("10"), bd("100"), bd("10"))
+				.add(3, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("10"), bd("200"), bd("10"), bd("0"), bd("6"), bd("60"), bd("6"))
+				// reversal of the receipt 3
+				.add(4, CostSegmentDetails.DOCTYPE_Other, 3, true, bd("-10"), bd("-200"), bd("16.25"), bd("0"), bd("16"), bd("260"), bd("16"))
+				.build();
+
+		final CostSegmentReplayResult result = CostSegmentReplayer.replay(details);
+
+		// not recomputed as -10 * 16.25
+		assertThat(result.getNewAmt(3)).isEqualByComparingTo("-200");
+		assertThat(result.isChanged(3)).isFalse();
+
+		assertThat(result.getOwnCostPrice()).isEqualByComparingTo("10");
+		assertThat(result.getCurrentQty()).isEqualByComparingTo("6");
+		assertThat(result.getCumulatedAmt()).isEqualByComparingTo("60");
+		assertThat(result.getCumulatedQty()).isEqualByComparingTo("6");
+	}
+
+	@Test
+	public void averagePO_reversalOfCorrectedShipment_takesReplayedAmount()
+	{
+		final CostSegmentDetails details = newDetails(CostingMethod.AveragePO)
+				.add(1, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("10"), bd("100"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				// shipment: booked with the wrong price of 20
+				.add(2, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("-4"), bd("-80"), bd("20"), bd("0"), bd("10"), bd("200"), bd("10"))
+				// reversal of the shipment
+				.add(3, CostSegmentDetails.DOCTYPE_Other, 2, true, bd("4"), bd("80"), bd("20"), bd("0"), bd("6"), bd("120"), bd("6"))
+				.build();
+
+		final CostSegmentReplayResult result = CostSegmentReplayer.replay(details);
+
+		assertThat(result.getNewAmt(1)).isEqualByComparingTo("-40");
+		assertThat(result.getNewAmt(2)).isEqualByComparingTo("40");
+
+		assertThat(result.getOwnCostPrice()).isEqualByComparingTo("10");
+		assertThat(result.getCurrentQty()).isEqualByComparingTo("10");
+		assertThat(result.getCumulatedAmt()).isEqualByComparingTo("100");
+		assertThat(result.getCumulatedQty()).isEqualByComparingTo("10");
+	}
+
+	@Test
+	public void averagePO_weightedAverage()
+	{
+		final CostSegmentDetails details = newDetails(CostingMethod.AveragePO)
+				.add(1, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("10"), bd("100"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				.add(2, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("20"), bd("250"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				.build();
+
+		final CostSegmentReplayResult result = CostSegmentReplayer.replay(details);
+
+		assertThat(result.getOwnCostPrice()).isEqualByComparingTo("11.67");
+		assertThat(result.getCurrentQty()).isEqualByComparingTo("30");
+		assertThat(result.getCumulatedAmt()).isEqualByComparingTo("350");
+	}
+
+	@Test
+	public void lastPOPrice_costDetailsNotChangingCostsAreKept()
+	{
+		final CostSegmentDetails details = newDetails(CostingMethod.LastPOPrice)
+				.add(1, CostSegmentDetails.DOCTYPE_MatchPO, 0, true, bd("5"), bd("60"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				.add(2, CostSegmentDetails.DOCTYPE_Other, 0, false, bd("1"), bd("99"), bd("0"), bd("0"), bd("0"), bd("0"), bd("0"))
+				.add(3, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("-2"), bd("-24"), bd("12"), bd("0"), bd("5"), bd("60"), bd("5"))
+				.build();
+
+		final CostSegmentReplayResult result = CostSegmentReplayer.replay(details);
+
+		assertThat(result.hasPreviousAmounts(1)).isFalse();
+		assertThat(result.getNewAmt(1)).isEqualByComparingTo("99");
+		assertThat(result.isChanged(1)).isFalse();
+		assertThat(result.isChanged(2)).isFalse();
+
+		assertThat(result.getOwnCostPrice()).isEqualByComparingTo("12");
+		assertThat(result.getCurrentQty()).isEqualByComparingTo("3");
+		assertThat(result.getCumulatedAmt()).isEqualByComparingTo("36");
+	}
+
+	@Test
+	public void standardCosting_usesRecordedCostPrice()
+	{
+		final CostSegmentDetails details = newDetails(CostingMethod.StandardCosting)
+				.add(1, CostSegmentDetails.DOCTYPE_Other, 0, true, bd("3"), bd("30"), bd("7"), bd("0"), bd("0"), bd("0"), bd("0"))
+				.build();
+
+		final CostSegmentReplayResult result = CostSegmentReplayer.replay(details);
+
+		assertThat(result.getNewAmt(0)).isEqualByComparingTo("21");
+		assertThat(result.getCurrentQty()).isEqualByComparingTo("3");
+		assertThat(result.getCumulatedAmt()).isEqualByComparingTo("21");
+	}
+}
@@ -1,19 +1,29 @@
 package de.metas.pricing.service.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
+import org.compiere.model.I_M_ProductPrice;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.adempiere.model.I_M_Product;
 import de.metas.pricing.IEditablePricingContext;
+import de.metas.pricing.IPricingContext;
 import de.metas.pricing.IPricingResult;
+import de.metas.pricing.exceptions.ProductNotOnPriceListException;
+import de.metas.product.ProductId;
 
 /*
  * #%L
@@ -95,4 +105,61 @@ public class PricingTest
 			Assert.assertThat("Bio PriceStd\n" + result, result.getPriceStd(), Matchers.comparesEqualTo(BigDecimal.valueOf(3)));
 		}
 	}
+
+	@Test
+	public void test_calculatePrices_SameResultsAsCalculatePrice()
+	{
+		final I_M_Product product2 = helper.createProduct("Product2", helper.getDefaultUOM());
+		helper.newProductPriceBuilder()
+				.setPrice(5)
+				.build();
+		new ProductPriceBuilder(helper.getDefaultPriceListVerion(), product2)
+				.setTaxCategoryId(helper.getTaxCategoryId())
+				.setPrice(7)
+				.build();
+
+		final IEditablePricingContext pricingCtx1 = helper.createPricingContext();
+		final IEditablePricingContext pricingCtx2 = helper.createPricingContext();
+		pricingCtx2.setProductId(ProductId.ofRepoId(product2.getM_Product_ID()));
+		final List<IPricingContext> pricingCtxs = ImmutableList.of(pricingCtx1, pricingCtx2, pricingCtx1);
+
+		final List<IPricingResult> results = helper.pricingBL.calculatePrices(pricingCtxs);
+
+		assertThat(results).hasSize(3);
+		for (int i = 0; i < pricingCtxs.size(); i++)
+		{
+			final IPricingResult expected = helper.calculatePrice(pricingCtxs.get(i));
+			final IPricingResult actual = results.get(i);
+			assertThat(actual.isCalculated()).isEqualTo(expected.isCalculated());
+			assertThat(actual.getProductId()).isEqualTo(expected.getProductId());
+			assertThat(actual.getPriceStd()).isEqualByComparingTo(expected.getPriceStd());
+			assertThat(actual.getPriceList()).isEqualByComparingTo(expected.getPriceList());
+			assertThat(actual.getPriceUomId()).isEqualTo(expected.getPriceUomId());
+		}
+		assertThat(results.get(1).getPriceStd()).isEqualByComparingTo(BigDecimal.valueOf(7));
+	}
+
+	@Test
+	public void test_calculatePrices_Failing_DoesNotLeavePrefetchedPrices()
+	{
+		final I_M_ProductPrice productPrice = helper.newProductPriceBuilder()
+				.setPrice(5)
+				.build();
+		final I_M_Product productWithoutPrice = helper.createProduct("ProductWithoutPrice", helper.getDefaultUOM());
+
+		final IEditablePricingContext pricingCtx = helper.createPricingContext();
+		final IEditablePricingContext failingPricingCtx = helper.createPricingContext();
+		failingPricingCtx.setProductId(ProductId.ofRepoId(productWithoutPrice.getM_Product_ID()));
+		failingPricingCtx.setFailIfNotCalculated();
+
+		assertThatThrownBy(() -> helper.pricingBL.calculatePrices(ImmutableList.of(pricingCtx, failingPricingCtx)))
+				.isInstanceOf(ProductNotOnPriceListException.class);
+
+		// if the prices prefetched by the failed call were still around, we would get the old price
+		productPrice.setPriceStd(BigDecimal.valueOf(9));
+		InterfaceWrapperHelper.save(productPrice);
+
+		final IPricingResult result = helper.calculatePrice(helper.createPricingContext());
+		assertThat(result.getPriceStd()).isEqualByComparingTo(BigDecimal.valueOf(9));
+	}
 }
@@ -302,6 +302,11 @@ public class PricingTestHelper
 		return defaultProduct;
 	}
 
+	public I_C_UOM getDefaultUOM()
+	{
+		return defaultUOM;
+	}
+
 	public TaxCategoryId getTaxCategoryId()
 	{
 		return taxCategoryId;
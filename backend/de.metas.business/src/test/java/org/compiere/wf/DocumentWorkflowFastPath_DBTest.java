@@ -0,0 +1,199 @@
+package org.compiere.wf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_C_Order;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.metas.document.engine.IDocument;
+import de.metas.organization.OrgId;
+import de.metas.process.ProcessInfo;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Completes the same draft sales order once with the workflow engine and once with {@link DocumentWorkflowFastPath} and compares the results.
+ * All changes are rolled back.
+ */
+@Ignore
+// requires database connection
+public class DocumentWorkflowFastPath_DBTest
+{
+	private static final String SYSCONFIG_FastPathEnabled = "org.compiere.wf.DocumentWorkflowFastPath.Enabled";
+
+	public static void main(final String[] args)
+	{
+		final DocumentWorkflowFastPath_DBTest test = new DocumentWorkflowFastPath_DBTest();
+
+		test.setupAdempiere();
+
+		test.completeOrder_sameResultAsEngine();
+		test.completeOrderWithoutLines_sameErrorAsEngine();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.business\
+					+ File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Value
+	private static class WorkflowRunResult
+	{
+		String docStatus;
+		String wfState;
+		String processMsg;
+		boolean wfProcessSaved;
+		int countActivities;
+	}
+
+	@Test
+	public void completeOrder_sameResultAsEngine()
+	{
+		final int orderId = retrieveDraftSalesOrderId();
+
+		final WorkflowRunResult engineResult = completeAndRollback(orderId, false, false);
+		final WorkflowRunResult fastPathResult = completeAndRollback(orderId, true, false);
+
+		assertThat(engineResult.getDocStatus()).isEqualTo(IDocument.STATUS_Completed);
+		assertThat(engineResult.getCountActivities()).isGreaterThan(0);
+
+		assertThat(fastPathResult.getDocStatus()).isEqualTo(engineResult.getDocStatus());
+		assertThat(fastPathResult.getWfState()).isEqualTo(engineResult.getWfState());
+		assertThat(fastPathResult.isWfProcessSaved()).isTrue();
+		assertThat(fastPathResult.getCountActivities()).isEqualTo(0);
+	}
+
+	@Test
+	public void completeOrderWithoutLines_sameErrorAsEngine()
+	{
+		final int orderId = retrieveDraftSalesOrderId();
+
+		final WorkflowRunResult engineResult = completeAndRollback(orderId, false, true);
+		final WorkflowRunResult fastPathResult = completeAndRollback(orderId, true, true);
+
+		assertThat(engineResult.getWfState()).isEqualTo(MWFProcess.WFSTATE_Terminated);
+		assertThat(engineResult.getDocStatus()).isNotEqualTo(IDocument.STATUS_Completed);
+
+		assertThat(fastPathResult.getDocStatus()).isEqualTo(engineResult.getDocStatus());
+		assertThat(fastPathResult.getWfState()).isEqualTo(engineResult.getWfState());
+		assertThat(fastPathResult.getProcessMsg()).isEqualTo(engineResult.getProcessMsg());
+		assertThat(fastPathResult.isWfProcessSaved()).isTrue();
+	}
+
+	private static int retrieveDraftSalesOrderId()
+	{
+		final int orderId = DB.getSQLValueEx(ITrx.TRXNAME_None,
+				"SELECT MAX(o.C_Order_ID) FROM C_Order o"
+						+ " WHERE o.DocStatus=? AND o.IsSOTrx='Y' AND o.IsActive='Y'"
+						+ " AND EXISTS (SELECT 1 FROM C_OrderLine ol WHERE ol.C_Order_ID=o.C_Order_ID AND ol.IsActive='Y')",
+				IDocument.STATUS_Drafted);
+		assertThat(orderId).as("a draft sales order with lines is required").isGreaterThan(0);
+		return orderId;
+	}
+
+	private static WorkflowRunResult completeAndRollback(final int orderId, final boolean fastPathEnabled, final boolean withoutLines)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+		final int adClientId = DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT AD_Client_ID FROM C_Order WHERE C_Order_ID=?", orderId);
+		final Properties ctx = Env.getCtx();
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, adClientId);
+
+		sysConfigBL.setValue(SYSCONFIG_FastPathEnabled, fastPathEnabled, ClientId.ofRepoId(adClientId), OrgId.ANY);
+
+		final String trxName = trxManager.createTrxName("DocumentWorkflowFastPath_DBTest", true);
+		final String previousTrxName = trxManager.setThreadInheritedTrxName(trxName);
+		try
+		{
+			DB.executeUpdateEx("UPDATE C_Order SET DocAction=? WHERE C_Order_ID=?", new Object[] { IDocument.ACTION_Complete, orderId }, trxName);
+			if (withoutLines)
+			{
+				DB.executeUpdateEx("UPDATE C_OrderLine SET IsActive='N' WHERE C_Order_ID=?", new Object[] { orderId }, trxName);
+			}
+
+			final MWorkflow workflow = MWorkflow.get(ctx, retrieveDocumentWorkflowId());
+			final ProcessInfo pi = ProcessInfo.builder()
+					.setCtx(ctx)
+					.setAD_Process_ID(retrieveDocActionProcessId(workflow))
+					.setAD_Client_ID(adClientId)
+					.setTitle(workflow.getName())
+					.setRecord(I_C_Order.Table_Name, orderId)
+					.build();
+			final MWFProcess wfProcess = workflow.start(pi);
+
+			return new WorkflowRunResult(
+					DB.getSQLValueStringEx(trxName, "SELECT DocStatus FROM C_Order WHERE C_Order_ID=?", orderId),
+					wfProcess.getWFState(),
+					wfProcess.getProcessMsg(),
+					wfProcess.get_ID() > 0,
+					DB.getSQLValueEx(trxName, "SELECT COUNT(1) FROM AD_WF_Activity WHERE AD_WF_Process_ID=?", wfProcess.get_ID()));
+		}
+		finally
+		{
+			final ITrx trx = trxManager.getTrx(trxName);
+			trx.rollback();
+			trx.close();
+			trxManager.setThreadInheritedTrxName(previousTrxName);
+
+			sysConfigBL.setValue(SYSCONFIG_FastPathEnabled, false, ClientId.ofRepoId(adClientId), OrgId.ANY);
+		}
+	}
+
+	private static int retrieveDocumentWorkflowId()
+	{
+		return DB.getSQLValueEx(ITrx.TRXNAME_None,
+				"SELECT MIN(AD_Workflow_ID) FROM AD_Workflow WHERE AD_Table_ID=get_Table_ID(?) AND WorkflowType='P' AND IsActive='Y'",
+				I_C_Order.Table_Name);
+	}
+
+	private static int retrieveDocActionProcessId(final MWorkflow workflow)
+	{
+		return DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT MIN(AD_Process_ID) FROM AD_Process WHERE AD_Workflow_ID=?", workflow.getAD_Workflow_ID());
+	}
+}
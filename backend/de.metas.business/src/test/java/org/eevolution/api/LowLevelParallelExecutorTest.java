@@ -0,0 +1,193 @@
+package org.eevolution.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class LowLevelParallelExecutorTest
+{
+	private static final int PRODUCTS_COUNT = 500;
+
+	/** component product IDs by BOM product ID */
+	private ImmutableSetMultimap<ProductId, ProductId> componentIdsByProductId;
+	private ProductBOMGraph bomGraph;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		// Random BOM structure without cycles: a product can be a component only of products with a lower ID
+		final Random random = new Random(4711);
+		final ImmutableSetMultimap.Builder<ProductId, ProductId> componentIdsByProductId = ImmutableSetMultimap.builder();
+		final ProductBOMGraph.ProductBOMGraphBuilder bomGraph = ProductBOMGraph.builder();
+		for (int productRepoId = 2; productRepoId <= PRODUCTS_COUNT; productRepoId++)
+		{
+			final int countParents = random.nextInt(3);
+			for (int i = 0; i < countParents; i++)
+			{
+				final ProductId productId = ProductId.ofRepoId(1 + random.nextInt(productRepoId - 1));
+				final ProductId componentId = ProductId.ofRepoId(productRepoId);
+
+				componentIdsByProductId.put(productId, componentId);
+				bomGraph.edge(ProductBOMGraph.Edge.builder()
+						.bomId(ProductBOMId.ofRepoId(productId.getRepoId()))
+						.parentProductId(productId)
+						.componentProductId(componentId)
+						.build());
+			}
+		}
+
+		this.componentIdsByProductId = componentIdsByProductId.build();
+		this.bomGraph = bomGraph.build();
+	}
+
+	private ImmutableListMultimap<Integer, ProductId> allProductsByLowLevel()
+	{
+		return bomGraph.groupByLowLevel(bomGraph.getProductIds());
+	}
+
+	/**
+	 * Rolls up a "cost" from components to the BOM products, like the BOM cost rollup does.
+	 */
+	private ImmutableMap<ProductId, Long> rollup(final int parallelism)
+	{
+		final Map<ProductId, Long> costs = new ConcurrentHashMap<>();
+
+		LowLevelParallelExecutor.builder()
+				.productIdsByLowLevel(allProductsByLowLevel())
+				.componentsFirst(true)
+				.parallelism(parallelism)
+				.action(productId -> {
+					long cost = productId.getRepoId();
+					for (final ProductId componentId : componentIdsByProductId.get(productId))
+					{
+						final Long componentCost = costs.get(componentId);
+						assertThat(componentCost).as("cost of component %s of %s", componentId, productId).isNotNull();
+						cost += 2 * componentCost;
+					}
+					costs.put(productId, cost % 1_000_000_007L);
+				})
+				.build()
+				.execute();
+
+		return ImmutableMap.copyOf(costs);
+	}
+
+	@Test
+	public void lowLevels()
+	{
+		for (final ProductId productId : bomGraph.getProductIds())
+		{
+			final int lowLevel = bomGraph.getLowLevel(productId);
+			final int expectedLowLevel = componentIdsByProductId.entries()
+					.stream()
+					.filter(entry -> entry.getValue().equals(productId))
+					.mapToInt(entry -> bomGraph.getLowLevel(entry.getKey()) + 1)
+					.max()
+					.orElse(0);
+			assertThat(lowLevel).as("low level of %s", productId).isEqualTo(expectedLowLevel);
+		}
+
+		assertThat(bomGraph.getLowLevel(ProductId.ofRepoId(PRODUCTS_COUNT + 1))).isZero();
+	}
+
+	@Test
+	public void parallelResultIsSameAsSerialResult()
+	{
+		final ImmutableMap<ProductId, Long> serialCosts = rollup(1);
+		final ImmutableMap<ProductId, Long> parallelCosts = rollup(8);
+
+		assertThat(serialCosts).hasSize(bomGraph.getProductIds().size());
+		assertThat(parallelCosts).isEqualTo(serialCosts);
+	}
+
+	@Test
+	public void failedLevelStopsExecution()
+	{
+		final ImmutableListMultimap<Integer, ProductId> productsByLowLevel = allProductsByLowLevel();
+		final int maxLowLevel = productsByLowLevel.keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+		final ProductId failingProductId = productsByLowLevel.get(maxLowLevel).get(0);
+
+		final AtomicInteger countProcessed = new AtomicInteger();
+		final LowLevelParallelExecutor executor = LowLevelParallelExecutor.builder()
+				.productIdsByLowLevel(productsByLowLevel)
+				.componentsFirst(true)
+				.parallelism(4)
+				.action(productId -> {
+					if (productId.equals(failingProductId))
+					{
+						throw new AdempiereException("failing on purpose");
+					}
+					countProcessed.incrementAndGet();
+				})
+				.build();
+
+		assertThatThrownBy(executor::execute).hasMessageContaining("failing on purpose");
+		assertThat(countProcessed.get()).isEqualTo(productsByLowLevel.get(maxLowLevel).size() - 1);
+	}
+
+	@Test
+	public void eachProductGetsItsOwnContext()
+	{
+		final Properties callerCtx = Env.getCtx();
+		Env.setContext(callerCtx, "LowLevelParallelExecutorTest", "caller");
+
+		final Map<ProductId, String> seenValues = new ConcurrentHashMap<>();
+		LowLevelParallelExecutor.builder()
+				.productIdsByLowLevel(allProductsByLowLevel())
+				.componentsFirst(true)
+				.parallelism(8)
+				.action(productId -> {
+					final Properties ctx = Env.getCtx();
+					seenValues.put(productId, Env.getContext(ctx, "LowLevelParallelExecutorTest"));
+					Env.setContext(ctx, "LowLevelParallelExecutorTest", "changed by " + productId);
+				})
+				.build()
+				.execute();
+
+		assertThat(seenValues).hasSize(bomGraph.getProductIds().size());
+		// every product changes its context, but none of them sees another product's change
+		assertThat(seenValues.values()).containsOnly("caller");
+		assertThat(Env.getContext(callerCtx, "LowLevelParallelExecutorTest")).isEqualTo("caller");
+	}
+}
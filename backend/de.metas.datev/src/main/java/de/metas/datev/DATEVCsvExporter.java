@@ -5,7 +5,6 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
@@ -45,6 +44,7 @@ import lombok.NonNull;
 public class DATEVCsvExporter extends AbstractExporter
 {
 	private final DATEVExportFormat exportFormat;
+	private final DATEVExportFormatColumn[] formatColumns;
 
 	@Builder
 	private DATEVCsvExporter(
@@ -52,6 +52,7 @@ public class DATEVCsvExporter extends AbstractExporter
 			@NonNull final IExportDataSource dataSource)
 	{
 		this.exportFormat = exportFormat;
+		this.formatColumns = exportFormat.getColumns().toArray(new DATEVExportFormatColumn[0]);
 		setDataSource(dataSource);
 	}
 
@@ -72,24 +73,14 @@ public class DATEVCsvExporter extends AbstractExporter
 	protected void appendRow(final IExportDataDestination dataDestination, final List<Object> row) throws IOException
 	{
 		final CSVWriter csvWriter = CSVWriter.cast(dataDestination);
-		final List<Object> rowFormatted = formatRow(row);
-		csvWriter.appendLine(rowFormatted);
-	}
-
-	private List<Object> formatRow(final List<Object> row)
-	{
-		final List<DATEVExportFormatColumn> formatColumns = exportFormat.getColumns();
 		final int rowSize = row.size();
-		final List<Object> rowFormatted = new ArrayList<>(rowSize);
 		for (int i = 0; i < rowSize; i++)
 		{
 			final Object cell = row.get(i);
-			final DATEVExportFormatColumn columnFormat = formatColumns.get(i);
-			final Object cellFormated = formatCell(cell, columnFormat);
-			rowFormatted.add(cellFormated);
+			final Object cellFormated = formatCell(cell, formatColumns[i]);
+			csvWriter.appendCell(cellFormated);
 		}
-
-		return rowFormatted;
+		csvWriter.endLine();
 	}
 
 	private Object formatCell(final Object value, final DATEVExportFormatColumn columnFormat)
@@ -1,6 +1,9 @@
 package de.metas.datev.process;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.time.format.DateTimeFormatter;
 
@@ -24,6 +27,7 @@ import de.metas.process.JavaProcess;
 import de.metas.process.Param;
 import de.metas.process.ProcessPreconditionsResolution;
 import de.metas.util.Check;
+import de.metas.util.FileUtil;
 import lombok.NonNull;
 
 /*
@@ -84,16 +88,26 @@ public class DATEV_ExportFile extends JavaProcess implements IProcessPreconditio
 
 		final IExportDataSource dataSource = createDataSource(exportFormat, datevExport.getDATEV_Export_ID());
 
-		final ByteArrayOutputStream out = new ByteArrayOutputStream();
-		DATEVCsvExporter.builder()
-				.exportFormat(exportFormat)
-				.dataSource(dataSource)
-				.build()
-				.export(out);
+		// NOTE: big exports are streamed to a temporary file instead of being kept in memory
+		final String filename = buildFilename(datevExport);
+		final File tempFile = FileUtil.createTempFile("csv", filename);
+		try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile)))
+		{
+			DATEVCsvExporter.builder()
+					.exportFormat(exportFormat)
+					.dataSource(dataSource)
+					.build()
+					.export(out);
+		}
+		catch (final Exception ex)
+		{
+			tempFile.delete();
+			throw ex;
+		}
 
-		getResult().setReportData(
-				out.toByteArray(), // data
-				buildFilename(datevExport), // filename
+		getResult().setReportTempFile(
+				tempFile,
+				filename,
 				"text/csv"); // content type
 
 		return MSG_OK;
@@ -3,6 +3,7 @@ package de.metas.handlingunits.trace;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -233,7 +234,7 @@ public class HUTraceEventsService
 			builderSetVhuProductAndQty(builder, vhu)
 					.vhuStatus(vhu.getHUStatus());
 
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 		}
 	}
 
@@ -280,9 +281,7 @@ public class HUTraceEventsService
 			}
 		};
 
-		final Map<Boolean, List<HUTraceEvent>> result = new HashMap<>();
-		result.put(true, new ArrayList<>());
-		result.put(false, new ArrayList<>());
+		final List<HUTraceEvent> events = new ArrayList<>();
 
 		final IHUStatusBL huStatusBL = Services.get(IHUStatusBL.class);
 
@@ -356,14 +355,24 @@ public class HUTraceEventsService
 							.build();
 
 					// add the source before the destination because I think it's nicer if it has the lower ID
-					final boolean sourceEventWasInserted = huTraceRepository.addEvent(splitSourceEvent);
-					result.get(sourceEventWasInserted).add(splitSourceEvent);
-
-					final boolean eventWasInserted = huTraceRepository.addEvent(splitDestEvent);
-					result.get(eventWasInserted).add(splitDestEvent);
+					events.add(splitSourceEvent);
+					events.add(splitDestEvent);
 				}
 			}
 		}
+
+		// our callers need to know which events were actually inserted, so we don't wait for the commit, but write them right away with one insert
+		final Set<HUTraceEvent> insertedEvents = new HashSet<>(huTraceRepository.addEvents(events));
+
+		final Map<Boolean, List<HUTraceEvent>> result = new HashMap<>();
+		result.put(true, new ArrayList<>());
+		result.put(false, new ArrayList<>());
+		for (final HUTraceEvent event : events)
+		{
+			// if an event occurs more than once, then only its first occurrence counts as inserted
+			final boolean eventWasInserted = insertedEvents.remove(event);
+			result.get(eventWasInserted).add(event);
+		}
 		return result;
 	}
 
@@ -454,11 +463,11 @@ public class HUTraceEventsService
 					.productId(productAndQty.get().getLeft())
 					.topLevelHuId(oldTopLevelHuId)
 					.qty(productAndQty.get().getRight().toBigDecimal().negate());
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 
 			builder.topLevelHuId(newTopLevelHuId)
 					.qty(productAndQty.get().getRight().toBigDecimal());
-			huTraceRepository.addEvent(builder.build());
+			huTraceRepository.addEventOnCommit(builder.build());
 		}
 	}
 
@@ -523,7 +532,7 @@ public class HUTraceEventsService
 					builderSetVhuProductAndQty(builder, vhu)
 							.vhuStatus(vhu.getHUStatus());
 
-					huTraceRepository.addEvent(builder.build());
+					huTraceRepository.addEventOnCommit(builder.build());
 				}
 			}
 		}
@@ -3,18 +3,46 @@ package de.metas.handlingunits.trace;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 
 import org.adempiere.ad.dao.IQueryBuilder;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.spi.TrxOnCommitCollectorFactory;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+
 import de.metas.handlingunits.model.I_M_HU_Trace;
 import de.metas.handlingunits.trace.repository.HuTraceEventToDbRecordUtil;
+import de.metas.handlingunits.trace.repository.InsertDbRecordsUtil;
+import de.metas.handlingunits.trace.repository.InsertDbRecordsUtil.InsertSql;
 import de.metas.handlingunits.trace.repository.RetrieveDbRecordsUtil;
 import de.metas.logging.LogManager;
 import de.metas.process.PInstanceId;
+import de.metas.user.UserId;
 import de.metas.util.Check;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -43,6 +71,49 @@ public class HUTraceRepository
 {
 	private static final Logger logger = LogManager.getLogger(HUTraceRepository.class);
 
+	/** If {@code true}, the events collected in a transaction are written by a background thread after the transaction was committed. */
+	private static final String SYSCONFIG_AsyncWrite = "de.metas.handlingunits.trace.HUTraceRepository.AsyncWrite";
+
+	private static final int INSERT_CHUNK_SIZE = 500;
+
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(1);
+
+	private final TrxOnCommitCollectorFactory<LinkedHashSet<HUTraceEvent>, HUTraceEvent> eventsCollector = new TrxOnCommitCollectorFactory<LinkedHashSet<HUTraceEvent>, HUTraceEvent>()
+	{
+		@Override
+		protected String getTrxProperyName()
+		{
+			return HUTraceRepository.class.getName() + ".EventsToWrite";
+		}
+
+		@Override
+		protected String extractTrxNameFromItem(final HUTraceEvent item)
+		{
+			return ITrx.TRXNAME_ThreadInherited;
+		}
+
+		@Override
+		protected LinkedHashSet<HUTraceEvent> newCollector(final HUTraceEvent firstItem)
+		{
+			return new LinkedHashSet<>();
+		}
+
+		@Override
+		protected void collectItem(final LinkedHashSet<HUTraceEvent> collector, final HUTraceEvent item)
+		{
+			collector.add(item);
+		}
+
+		@Override
+		protected void processCollector(final LinkedHashSet<HUTraceEvent> collector)
+		{
+			writeCollectedEvents(ImmutableList.copyOf(collector));
+		}
+	};
+
+	/** single thread, so that the events are written in the order of the commits */
+	private ExecutorService asyncWriter;
+
 	/**
 	 * Persists the given event.<br>
 	 * If an event with the same properties was already persisted earlier,
@@ -78,6 +149,165 @@ public class HUTraceRepository
 		return inserted;
 	}
 
+	/**
+	 * Collects the given event and persists it when the current transaction is committed.
+	 * Equal events which are added within the same transaction are persisted only once; events of a rolled back transaction are discarded.
+	 * <p>
+	 * If there is no transaction, the event is persisted right away.
+	 */
+	public void addEventOnCommit(@NonNull final HUTraceEvent huTraceEvent)
+	{
+		eventsCollector.collect(huTraceEvent);
+	}
+
+	/**
+	 * Persists the given events, like {@link #addEvent(HUTraceEvent)} would do, but with one multi-row insert per chunk.
+	 * Events which are equal to each other or to an already persisted record are skipped by the database's {@code M_HU_Trace_UQ} unique index.
+	 *
+	 * @return the events which were actually inserted
+	 */
+	public ImmutableSet<HUTraceEvent> addEvents(@NonNull final Collection<HUTraceEvent> huTraceEvents)
+	{
+		final ImmutableSet<HUTraceEvent> uniqueEvents = ImmutableSet.copyOf(huTraceEvents);
+		if (uniqueEvents.isEmpty())
+		{
+			return ImmutableSet.of();
+		}
+
+		// the in-memory database does not support SQL; there, we go with the old record-by-record way
+		if (Adempiere.isUnitTestMode())
+		{
+			return uniqueEvents.stream()
+					.filter(this::addEvent)
+					.collect(ImmutableSet.toImmutableSet());
+		}
+
+		return insertEvents(uniqueEvents, Env.getClientId(), Env.getLoggedUserId());
+	}
+
+	private void writeCollectedEvents(final ImmutableList<HUTraceEvent> huTraceEvents)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+		final boolean async = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_AsyncWrite, false);
+		if (!async || Adempiere.isUnitTestMode())
+		{
+			trxManager.runInNewTrx(() -> addEvents(huTraceEvents));
+			return;
+		}
+
+		// capture the context of the committing thread; the writer thread has none
+		final ClientId clientId = Env.getClientId();
+		final UserId userId = Env.getLoggedUserId();
+		getAsyncWriter().execute(() -> {
+			try
+			{
+				trxManager.runInNewTrx(() -> insertEvents(ImmutableSet.copyOf(huTraceEvents), clientId, userId));
+			}
+			catch (final Exception e)
+			{
+				logger.warn("Failed writing {} M_HU_Trace records in one go; retrying one by one", huTraceEvents.size(), e);
+				insertEventsOneByOne(huTraceEvents, clientId, userId);
+			}
+		});
+	}
+
+	/** Makes sure that one bad event does not prevent the other events of the same transaction from being written. */
+	private void insertEventsOneByOne(
+			@NonNull final ImmutableList<HUTraceEvent> huTraceEvents,
+			@NonNull final ClientId clientId,
+			@NonNull final UserId userId)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		for (final HUTraceEvent huTraceEvent : huTraceEvents)
+		{
+			try
+			{
+				trxManager.runInNewTrx(() -> insertEvents(ImmutableSet.of(huTraceEvent), clientId, userId));
+			}
+			catch (final Exception e)
+			{
+				logger.error("Failed writing M_HU_Trace record; huTraceEvent={}", huTraceEvent, e);
+			}
+		}
+	}
+
+	private synchronized ExecutorService getAsyncWriter()
+	{
+		if (asyncWriter == null)
+		{
+			asyncWriter = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(HUTraceRepository.class.getSimpleName() + "-asyncWriter")
+					.setDaemon(true)
+					.build());
+		}
+		return asyncWriter;
+	}
+
+	/**
+	 * Waits until the events which were already handed over to the background thread are written.
+	 */
+	@PreDestroy
+	public synchronized void shutdown()
+	{
+		if (asyncWriter == null)
+		{
+			return;
+		}
+
+		asyncWriter.shutdown();
+		try
+		{
+			if (!asyncWriter.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+			{
+				logger.warn("Not all M_HU_Trace records were written within {}", SHUTDOWN_TIMEOUT);
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			logger.warn("Interrupted while waiting for the M_HU_Trace records to be written", e);
+			Thread.currentThread().interrupt();
+		}
+		asyncWriter = null;
+	}
+
+	private ImmutableSet<HUTraceEvent> insertEvents(
+			@NonNull final ImmutableSet<HUTraceEvent> huTraceEvents,
+			@NonNull final ClientId clientId,
+			@NonNull final UserId userId)
+	{
+		final ImmutableSet.Builder<HUTraceEvent> insertedEvents = ImmutableSet.builder();
+
+		final Iterator<List<HUTraceEvent>> chunks = Iterators.partition(huTraceEvents.iterator(), INSERT_CHUNK_SIZE);
+		while (chunks.hasNext())
+		{
+			final List<HUTraceEvent> chunk = chunks.next();
+
+			// allocate the IDs upfront, so that we know which events were inserted and which were skipped
+			final List<Integer> ids = DB.retrieveRows(
+					"SELECT nextval('" + DB.getTableSequenceName(I_M_HU_Trace.Table_Name) + "') FROM generate_series(1, ?)",
+					ImmutableList.of(chunk.size()),
+					rs -> rs.getInt(1));
+
+			final ImmutableMap.Builder<Integer, HUTraceEvent> eventsByIdBuilder = ImmutableMap.builder();
+			for (int i = 0; i < chunk.size(); i++)
+			{
+				eventsByIdBuilder.put(ids.get(i), chunk.get(i));
+			}
+			final ImmutableMap<Integer, HUTraceEvent> eventsById = eventsByIdBuilder.build();
+
+			final InsertSql insertSql = InsertDbRecordsUtil.createInsertSql(eventsById, clientId, userId);
+
+			final List<Integer> insertedIds = new ArrayList<>(chunk.size());
+			DB.executeUpdateEx(insertSql.getSql(), insertSql.getSqlParams().toArray(), ITrx.TRXNAME_ThreadInherited, 0, rs -> insertedIds.add(rs.getInt(1)));
+			insertedIds.forEach(id -> insertedEvents.add(eventsById.get(id)));
+
+			logger.debug("Inserted {} of {} M_HU_Trace records", insertedIds.size(), chunk.size());
+		}
+
+		return insertedEvents.build();
+	}
+
 	/**
 	 * Return records according to the given specification.
 	 * <p>
@@ -0,0 +1,141 @@
+package de.metas.handlingunits.trace.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.adempiere.service.ClientId;
+import org.compiere.util.TimeUtil;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.document.DocTypeId;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.handlingunits.trace.HUTraceEvent;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.organization.OrgId;
+import de.metas.user.UserId;
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Builds the multi-row {@code INSERT} statement which is used to persist {@link HUTraceEvent}s in batches.
+ */
+public class InsertDbRecordsUtil
+{
+	@Value
+	public static class InsertSql
+	{
+		String sql;
+		List<Object> sqlParams;
+	}
+
+	/**
+	 * @param eventsById the events to insert, by the {@code M_HU_Trace_ID}s which were allocated for them
+	 * @return an {@code INSERT ... ON CONFLICT DO NOTHING RETURNING M_HU_Trace_ID} statement, so the caller can find out which events were actually inserted
+	 */
+	public static InsertSql createInsertSql(
+			@NonNull final ImmutableMap<Integer, HUTraceEvent> eventsById,
+			@NonNull final ClientId clientId,
+			@NonNull final UserId userId)
+	{
+		Check.assumeNotEmpty(eventsById, "eventsById is not empty");
+
+		final StringBuilder sql = new StringBuilder();
+		final List<Object> sqlParams = new ArrayList<>();
+		eventsById.forEach((id, huTraceEvent) -> {
+			final Map<String, Object> columnValues = toColumnValues(id, huTraceEvent, clientId, userId);
+			if (sql.length() <= 0)
+			{
+				sql.append("INSERT INTO ").append(I_M_HU_Trace.Table_Name)
+						.append(" (")
+						.append(I_M_HU_Trace.COLUMNNAME_IsActive)
+						.append(", ").append(I_M_HU_Trace.COLUMNNAME_Created)
+						.append(", ").append(I_M_HU_Trace.COLUMNNAME_Updated)
+						.append(", ").append(Joiner.on(", ").join(columnValues.keySet()))
+						.append(") VALUES ");
+			}
+			else
+			{
+				sql.append(", ");
+			}
+
+			sql.append("('Y', now(), now(), ")
+					.append(Joiner.on(", ").join(Collections.nCopies(columnValues.size(), "?")))
+					.append(")");
+			sqlParams.addAll(columnValues.values());
+		});
+		sql.append(" ON CONFLICT DO NOTHING RETURNING ").append(I_M_HU_Trace.COLUMNNAME_M_HU_Trace_ID);
+
+		return new InsertSql(sql.toString(), Collections.unmodifiableList(sqlParams));
+	}
+
+	/**
+	 * @return the values like {@link HuTraceEventToDbRecordUtil#copyToDbRecord(HUTraceEvent, I_M_HU_Trace)} would set them, by column name.
+	 *         The column names are always the same and in the same order. Empty IDs are {@code null}.
+	 */
+	@VisibleForTesting
+	static Map<String, Object> toColumnValues(
+			final int id,
+			@NonNull final HUTraceEvent huTraceEvent,
+			@NonNull final ClientId clientId,
+			@NonNull final UserId userId)
+	{
+		final Map<String, Object> columnValues = new LinkedHashMap<>();
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_HU_Trace_ID, id);
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_AD_Client_ID, clientId.getRepoId());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_AD_Org_ID, OrgId.toRepoIdOrAny(huTraceEvent.getOrgId()));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_CreatedBy, userId.getRepoId());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_UpdatedBy, userId.getRepoId());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_HUTraceType, huTraceEvent.getType().toString());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_EventTime, TimeUtil.asTimestamp(huTraceEvent.getEventTime()));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_VHU_ID, huTraceEvent.getVhuId().getRepoId());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_Product_ID, huTraceEvent.getProductId().getRepoId());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_Qty, huTraceEvent.getQty());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_VHUStatus, huTraceEvent.getVhuStatus());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_HU_ID, huTraceEvent.getTopLevelHuId().getRepoId());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_VHU_Source_ID, repoIdOrNull(HuId.toRepoId(huTraceEvent.getVhuSourceId())));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_InOut_ID, repoIdOrNull(huTraceEvent.getInOutId()));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_ShipmentSchedule_ID, repoIdOrNull(ShipmentScheduleId.toRepoId(huTraceEvent.getShipmentScheduleId())));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_Movement_ID, repoIdOrNull(huTraceEvent.getMovementId()));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_PP_Cost_Collector_ID, repoIdOrNull(huTraceEvent.getPpCostCollectorId()));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_PP_Order_ID, repoIdOrNull(huTraceEvent.getPpOrderId()));
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_DocStatus, huTraceEvent.getDocStatus());
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_C_DocType_ID, huTraceEvent.getDocTypeId().map(DocTypeId::getRepoId).orElse(null)); // note that zero means "new", and not "nothing" or null
+		columnValues.put(I_M_HU_Trace.COLUMNNAME_M_HU_Trx_Line_ID, repoIdOrNull(huTraceEvent.getHuTrxLineId()));
+		return columnValues;
+	}
+
+	private static Integer repoIdOrNull(final int repoId)
+	{
+		return repoId > 0 ? repoId : null;
+	}
+}
@@ -0,0 +1,43 @@
+-- M_HU_Trace is append-only; HUTraceRepository inserts the events with ON CONFLICT DO NOTHING, so equal events need to be prevented by a unique index.
+-- The index columns are the ones HUTraceRepository.addEvent() used to look for an already existing record.
+
+-- remove the duplicates which might already exist, keeping the oldest record
+DELETE FROM M_HU_Trace t
+WHERE EXISTS (
+	SELECT 1 FROM M_HU_Trace o
+	WHERE o.M_HU_Trace_ID < t.M_HU_Trace_ID
+		AND o.AD_Org_ID = t.AD_Org_ID
+		AND o.HUTraceType = t.HUTraceType
+		AND o.EventTime = t.EventTime
+		AND o.VHU_ID = t.VHU_ID
+		AND o.M_Product_ID = t.M_Product_ID
+		AND o.Qty = t.Qty
+		AND o.VHUStatus = t.VHUStatus
+		AND COALESCE(o.M_InOut_ID, 0) = COALESCE(t.M_InOut_ID, 0)
+		AND COALESCE(o.M_ShipmentSchedule_ID, 0) = COALESCE(t.M_ShipmentSchedule_ID, 0)
+		AND COALESCE(o.M_Movement_ID, 0) = COALESCE(t.M_Movement_ID, 0)
+		AND COALESCE(o.PP_Cost_Collector_ID, 0) = COALESCE(t.PP_Cost_Collector_ID, 0)
+		AND COALESCE(o.PP_Order_ID, 0) = COALESCE(t.PP_Order_ID, 0)
+		AND COALESCE(o.DocStatus, '') = COALESCE(t.DocStatus, '')
+		AND COALESCE(o.C_DocType_ID, -1) = COALESCE(t.C_DocType_ID, -1)
+		AND COALESCE(o.M_HU_Trx_Line_ID, 0) = COALESCE(t.M_HU_Trx_Line_ID, 0)
+);
+
+DROP INDEX IF EXISTS M_HU_Trace_UQ;
+CREATE UNIQUE INDEX M_HU_Trace_UQ ON M_HU_Trace (
+	AD_Org_ID,
+	HUTraceType,
+	EventTime,
+	VHU_ID,
+	M_Product_ID,
+	Qty,
+	VHUStatus,
+	COALESCE(M_InOut_ID, 0),
+	COALESCE(M_ShipmentSchedule_ID, 0),
+	COALESCE(M_Movement_ID, 0),
+	COALESCE(PP_Cost_Collector_ID, 0),
+	COALESCE(PP_Order_ID, 0),
+	COALESCE(DocStatus, ''),
+	COALESCE(C_DocType_ID, -1),
+	COALESCE(M_HU_Trx_Line_ID, 0)
+);
@@ -1,6 +1,7 @@
 package de.metas.handlingunits.trace;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -9,7 +10,12 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.junit.Before;
@@ -17,6 +23,9 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestWatcher;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.document.DocTypeId;
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.model.X_M_HU;
 import de.metas.handlingunits.trace.HUTraceEvent.HUTraceEventBuilder;
@@ -24,6 +33,7 @@ import de.metas.handlingunits.trace.HUTraceEventQuery.RecursionMode;
 import de.metas.inoutcandidate.api.ShipmentScheduleId;
 import de.metas.organization.OrgId;
 import de.metas.product.ProductId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -343,6 +353,76 @@ public class HUTraceRepositoryTests
 		}
 	}
 
+	/**
+	 * Verifies that adding events in a batch returns the inserted events and skips the duplicates.
+	 * <p>
+	 * Note that in unit test mode, {@link HUTraceRepository#addEvents(java.util.Collection)} falls back to {@link HUTraceRepository#addEvent(HUTraceEvent)}.
+	 * The batch insert SQL is covered by {@link de.metas.handlingunits.trace.repository.InsertDbRecordsUtilTest} and {@link HUTraceRepository_DBTest}.
+	 */
+	@Test
+	public void addEvents_skipsDuplicates()
+	{
+		final List<HUTraceEvent> events = createEvents();
+		final List<HUTraceEvent> eventsWithDuplicates = new ArrayList<>(events);
+		eventsWithDuplicates.addAll(events.subList(0, 3));
+
+		final List<Boolean> expectedInserted = new ArrayList<>();
+		eventsWithDuplicates.forEach(event -> expectedInserted.add(huTraceRepository.addEvent(event)));
+		final List<HUTraceEvent> expectedRecords = queryAllWithoutIds();
+
+		AdempiereTestHelper.get().init();
+		final Set<HUTraceEvent> insertedEvents = huTraceRepository.addEvents(eventsWithDuplicates);
+
+		assertThat(queryAllWithoutIds()).containsExactlyInAnyOrderElementsOf(expectedRecords);
+		assertThat(insertedEvents).containsExactlyElementsOf(events);
+		assertThat(expectedInserted.stream().filter(inserted -> inserted).count()).isEqualTo(events.size());
+
+		// adding them again inserts nothing
+		assertThat(huTraceRepository.addEvents(events)).isEmpty();
+		assertThat(queryAllWithoutIds()).containsExactlyInAnyOrderElementsOf(expectedRecords);
+	}
+
+	@Test
+	public void addEventOnCommit()
+	{
+		final List<HUTraceEvent> events = createEvents();
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			events.forEach(huTraceRepository::addEventOnCommit);
+			events.forEach(huTraceRepository::addEventOnCommit);
+
+			assertThat(queryAllWithoutIds()).isEmpty();
+		});
+
+		assertThat(queryAllWithoutIds()).containsExactlyInAnyOrderElementsOf(events);
+	}
+
+	@Test
+	public void addEventOnCommit_rollback()
+	{
+		final List<HUTraceEvent> events = createEvents();
+
+		assertThatThrownBy(() -> Services.get(ITrxManager.class).runInNewTrx(() -> {
+			events.forEach(huTraceRepository::addEventOnCommit);
+			throw new AdempiereException("rollback");
+		})).hasMessageContaining("rollback");
+
+		assertThat(queryAllWithoutIds()).isEmpty();
+	}
+
+	private List<HUTraceEvent> queryAllWithoutIds()
+	{
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.orgId(OrgId.ofRepoId(10))
+				.recursionMode(RecursionMode.NONE)
+				.build();
+
+		return huTraceRepository.query(query)
+				.stream()
+				.map(event -> event.toBuilder().huTraceEventId(OptionalInt.empty()).build())
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private List<HUTraceEvent> createAndAddEvents()
 	{
 		final List<HUTraceEvent> result = new ArrayList<>();
@@ -389,4 +469,25 @@ public class HUTraceRepositoryTests
 
 		return result;
 	}
+
+	private List<HUTraceEvent> createEvents()
+	{
+		final Instant eventTime = Instant.parse("2020-06-01T10:15:30.00Z");
+		final List<HUTraceEvent> result = new ArrayList<>();
+
+		final HUTraceEventBuilder event = createCommonEventBuilder()
+				.eventTime(eventTime)
+				.topLevelHuId(HuId.ofRepoId(5))
+				.vhuId(HuId.ofRepoId(15));
+
+		result.add(event.build());
+		result.add(event.inOutId(25).docStatus("CO").docTypeId(Optional.of(DocTypeId.ofRepoId(27))).build());
+		result.add(event.inOutId(0).docStatus(null).docTypeId(Optional.empty()).movementId(35).build());
+		result.add(event.movementId(0).ppCostCollectorId(45).ppOrderId(46).build());
+		result.add(event.ppCostCollectorId(0).ppOrderId(0).shipmentScheduleId(ShipmentScheduleId.ofRepoId(55)).build());
+		result.add(event.shipmentScheduleId(null).vhuSourceId(HuId.ofRepoId(14)).huTrxLineId(65).build());
+		result.add(event.qty(BigDecimal.valueOf(-100)).build());
+
+		return result;
+	}
 }
@@ -0,0 +1,210 @@
+package de.metas.handlingunits.trace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.document.DocTypeId;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.X_M_HU;
+import de.metas.handlingunits.trace.HUTraceEvent.HUTraceEventBuilder;
+import de.metas.handlingunits.trace.HUTraceEventQuery.RecursionMode;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Verifies the batch insert of {@link HUTraceRepository#addEvents(java.util.Collection)} against a real database.
+ * In unit test mode, that method falls back to {@link HUTraceRepository#addEvent(HUTraceEvent)}.
+ * All changes are rolled back.
+ */
+@Ignore
+// requires database connection
+public class HUTraceRepository_DBTest
+{
+	private final HUTraceRepository huTraceRepository = new HUTraceRepository();
+
+	public static void main(final String[] args)
+	{
+		final HUTraceRepository_DBTest test = new HUTraceRepository_DBTest();
+
+		test.setupAdempiere();
+
+		test.addEvents_sameRecordsAsAddEvent();
+		test.addEvents_skipsExistingRecords();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.handlingunits.base\
+					+ File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void addEvents_sameRecordsAsAddEvent()
+	{
+		final List<HUTraceEvent> events = createEvents();
+		final List<HUTraceEvent> eventsWithDuplicates = new ArrayList<>(events);
+		eventsWithDuplicates.addAll(events.subList(0, 3));
+
+		final List<HUTraceEvent> expectedRecords = new ArrayList<>();
+		runAndRollback(vhuId -> {
+			eventsWithDuplicates.forEach(huTraceRepository::addEvent);
+			expectedRecords.addAll(queryAllWithoutIds(vhuId));
+		});
+		assertThat(expectedRecords).hasSameSizeAs(events);
+
+		runAndRollback(vhuId -> {
+			final ImmutableSet<HUTraceEvent> insertedEvents = huTraceRepository.addEvents(eventsWithDuplicates);
+
+			assertThat(insertedEvents).containsExactlyElementsOf(events);
+			assertThat(queryAllWithoutIds(vhuId)).containsExactlyInAnyOrderElementsOf(expectedRecords);
+		});
+	}
+
+	@Test
+	public void addEvents_skipsExistingRecords()
+	{
+		final List<HUTraceEvent> events = createEvents();
+
+		runAndRollback(vhuId -> {
+			events.subList(0, 2).forEach(huTraceRepository::addEvent);
+
+			final ImmutableSet<HUTraceEvent> insertedEvents = huTraceRepository.addEvents(events);
+
+			assertThat(insertedEvents).containsExactlyElementsOf(events.subList(2, events.size()));
+			assertThat(queryAllWithoutIds(vhuId)).containsExactlyInAnyOrderElementsOf(events);
+
+			// adding them again inserts nothing
+			assertThat(huTraceRepository.addEvents(events)).isEmpty();
+			assertThat(queryAllWithoutIds(vhuId)).hasSameSizeAs(events);
+		});
+	}
+
+	private List<HUTraceEvent> createEvents()
+	{
+		final HUTraceEventBuilder event = createEventBuilder();
+
+		final List<HUTraceEvent> result = new ArrayList<>();
+		result.add(event.build());
+		result.add(event.docStatus("CO").docTypeId(Optional.of(DocTypeId.ofRepoId(retrieveDocTypeId()))).build());
+		result.add(event.docStatus(null).docTypeId(Optional.empty()).qty(BigDecimal.ONE).build());
+		result.add(event.type(HUTraceType.MATERIAL_MOVEMENT).build());
+		result.add(event.qty(BigDecimal.valueOf(-1)).build());
+		return result;
+	}
+
+	private HUTraceEventBuilder createEventBuilder()
+	{
+		final int huId = DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT MAX(M_HU_ID) FROM M_HU_Storage");
+		assertThat(huId).as("an HU with storage is required").isGreaterThan(0);
+		final int productId = DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT MIN(M_Product_ID) FROM M_HU_Storage WHERE M_HU_ID=?", huId);
+		final int orgId = DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT AD_Org_ID FROM M_HU WHERE M_HU_ID=?", huId);
+
+		return HUTraceEvent.builder()
+				.orgId(OrgId.ofRepoIdOrAny(orgId))
+				.eventTime(Instant.parse("2020-06-01T10:15:30.00Z"))
+				.type(HUTraceType.TRANSFORM_LOAD)
+				.vhuStatus(X_M_HU.HUSTATUS_Active)
+				.qty(BigDecimal.TEN)
+				.productId(ProductId.ofRepoId(productId))
+				.topLevelHuId(HuId.ofRepoId(huId))
+				.vhuId(HuId.ofRepoId(huId));
+	}
+
+	private static int retrieveDocTypeId()
+	{
+		return DB.getSQLValueEx(ITrx.TRXNAME_None, "SELECT MIN(C_DocType_ID) FROM C_DocType WHERE IsActive='Y'");
+	}
+
+	/**
+	 * Runs the given test in a thread inherited transaction which is rolled back afterwards.
+	 * The test gets the VHU_ID of the created records.
+	 */
+	private void runAndRollback(final Consumer<HuId> test)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+		final String trxName = trxManager.createTrxName("HUTraceRepository_DBTest", true);
+		final String previousTrxName = trxManager.setThreadInheritedTrxName(trxName);
+		try
+		{
+			// there might be real records of the same HU; we don't want to see them
+			final HuId vhuId = createEventBuilder().build().getVhuId();
+			DB.executeUpdateEx("DELETE FROM M_HU_Trace WHERE VHU_ID=?", new Object[] { vhuId.getRepoId() }, trxName);
+
+			test.accept(vhuId);
+		}
+		finally
+		{
+			final ITrx trx = trxManager.getTrx(trxName);
+			trx.rollback();
+			trx.close();
+			trxManager.setThreadInheritedTrxName(previousTrxName);
+		}
+	}
+
+	private List<HUTraceEvent> queryAllWithoutIds(final HuId vhuId)
+	{
+		final HUTraceEventQuery query = HUTraceEventQuery.builder()
+				.vhuId(vhuId)
+				.recursionMode(RecursionMode.NONE)
+				.build();
+
+		return huTraceRepository.query(query)
+				.stream()
+				.map(event -> event.toBuilder().huTraceEventId(OptionalInt.empty()).build())
+				.collect(ImmutableList.toImmutableList());
+	}
+}
@@ -0,0 +1,155 @@
+package de.metas.handlingunits.trace.repository;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.setValue;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.document.DocTypeId;
+import de.metas.handlingunits.HuId;
+import de.metas.handlingunits.model.I_M_HU_Trace;
+import de.metas.handlingunits.model.X_M_HU;
+import de.metas.handlingunits.trace.HUTraceEvent;
+import de.metas.handlingunits.trace.HUTraceEvent.HUTraceEventBuilder;
+import de.metas.handlingunits.trace.HUTraceType;
+import de.metas.handlingunits.trace.repository.InsertDbRecordsUtil.InsertSql;
+import de.metas.inoutcandidate.api.ShipmentScheduleId;
+import de.metas.organization.OrgId;
+import de.metas.product.ProductId;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InsertDbRecordsUtilTest
+{
+	private static final ClientId CLIENT_ID = ClientId.ofRepoId(1000000);
+	private static final UserId USER_ID = UserId.ofRepoId(100);
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static HUTraceEventBuilder createEventBuilder()
+	{
+		return HUTraceEvent.builder()
+				.orgId(OrgId.ofRepoId(10))
+				.eventTime(Instant.parse("2020-06-01T10:15:30.00Z"))
+				.type(HUTraceType.TRANSFORM_LOAD)
+				.vhuStatus(X_M_HU.HUSTATUS_Active)
+				.qty(BigDecimal.valueOf(100))
+				.productId(ProductId.ofRepoId(23))
+				.topLevelHuId(HuId.ofRepoId(5))
+				.vhuId(HuId.ofRepoId(15));
+	}
+
+	@Test
+	public void createInsertSql()
+	{
+		final HUTraceEvent event1 = createEventBuilder().build();
+		final HUTraceEvent event2 = createEventBuilder().inOutId(25).build();
+
+		final InsertSql insertSql = InsertDbRecordsUtil.createInsertSql(ImmutableMap.of(1001, event1, 1002, event2), CLIENT_ID, USER_ID);
+
+		final Map<String, Object> columnValues1 = InsertDbRecordsUtil.toColumnValues(1001, event1, CLIENT_ID, USER_ID);
+		final Map<String, Object> columnValues2 = InsertDbRecordsUtil.toColumnValues(1002, event2, CLIENT_ID, USER_ID);
+
+		assertThat(insertSql.getSql())
+				.startsWith("INSERT INTO M_HU_Trace (IsActive, Created, Updated, " + String.join(", ", columnValues1.keySet()) + ") VALUES ('Y', now(), now(), ?")
+				.endsWith(" ON CONFLICT DO NOTHING RETURNING M_HU_Trace_ID");
+		assertThat(insertSql.getSql().chars().filter(c -> c == '?').count()).isEqualTo(insertSql.getSqlParams().size());
+
+		assertThat(insertSql.getSqlParams())
+				.containsExactlyElementsOf(ImmutableList.builder()
+						.addAll(columnValues1.values())
+						.addAll(columnValues2.values())
+						.build());
+	}
+
+	@Test
+	public void toColumnValues_minimalEvent()
+	{
+		final Map<String, Object> columnValues = InsertDbRecordsUtil.toColumnValues(1001, createEventBuilder().build(), CLIENT_ID, USER_ID);
+
+		assertThat(columnValues)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_M_HU_Trace_ID, 1001)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_AD_Client_ID, CLIENT_ID.getRepoId())
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_CreatedBy, USER_ID.getRepoId())
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_UpdatedBy, USER_ID.getRepoId())
+				// empty IDs are inserted as null, so that they are matched by the M_HU_Trace_UQ unique index like the records created by addEvent
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_VHU_Source_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_M_InOut_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_M_ShipmentSchedule_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_M_Movement_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_PP_Cost_Collector_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_PP_Order_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_DocStatus, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_C_DocType_ID, null)
+				.containsEntry(I_M_HU_Trace.COLUMNNAME_M_HU_Trx_Line_ID, null);
+	}
+
+	/**
+	 * Verifies that a record with the inserted values is loaded as the event that was inserted.
+	 */
+	@Test
+	public void toColumnValues_sameAsLoadedFromDbRecord()
+	{
+		final HUTraceEventBuilder event = createEventBuilder();
+		assertColumnValuesAreLoadedAs(event.build());
+		assertColumnValuesAreLoadedAs(event.inOutId(25).docStatus("CO").docTypeId(Optional.of(DocTypeId.ofRepoId(27))).build());
+		assertColumnValuesAreLoadedAs(event.inOutId(0).docStatus(null).docTypeId(Optional.empty()).movementId(35).build());
+		assertColumnValuesAreLoadedAs(event.movementId(0).ppCostCollectorId(45).ppOrderId(46).build());
+		assertColumnValuesAreLoadedAs(event.ppCostCollectorId(0).ppOrderId(0).shipmentScheduleId(ShipmentScheduleId.ofRepoId(55)).build());
+		assertColumnValuesAreLoadedAs(event.shipmentScheduleId(null).vhuSourceId(HuId.ofRepoId(14)).huTrxLineId(65).build());
+		assertColumnValuesAreLoadedAs(event.qty(BigDecimal.valueOf(-100)).type(HUTraceType.MATERIAL_SHIPMENT).build());
+	}
+
+	private static void assertColumnValuesAreLoadedAs(final HUTraceEvent event)
+	{
+		final I_M_HU_Trace dbRecord = newInstance(I_M_HU_Trace.class);
+		InsertDbRecordsUtil.toColumnValues(1001, event, CLIENT_ID, USER_ID)
+				.forEach((columnName, value) -> {
+					if (!I_M_HU_Trace.COLUMNNAME_M_HU_Trace_ID.equals(columnName))
+					{
+						setValue(dbRecord, columnName, value);
+					}
+				});
+
+		final HUTraceEvent loadedEvent = HuTraceEventToDbRecordUtil.fromDbRecord(dbRecord);
+		assertThat(loadedEvent.toBuilder().huTraceEventId(OptionalInt.empty()).build()).isEqualTo(event);
+	}
+}
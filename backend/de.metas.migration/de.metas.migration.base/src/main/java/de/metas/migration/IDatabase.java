@@ -46,4 +46,30 @@ public interface IDatabase
 	Connection getConnection();
 
 	IScriptsRegistry getScriptsRegistry();
+
+	/**
+	 * Creates a new instance which points to the same database, but which is using its own JDBC connection.
+	 * <p>
+	 * Needed when scripts are applied in parallel. The caller is responsible for {@link #closeConnection()}.
+	 */
+	default IDatabase copyWithOwnConnection()
+	{
+		throw new UnsupportedOperationException("Copying is not supported by " + this);
+	}
+
+	/**
+	 * Closes the JDBC connection, if it was opened.
+	 */
+	default void closeConnection()
+	{
+	}
+
+	/**
+	 * @return the foreign keys and triggers of this database
+	 * @throws UnsupportedOperationException if this database can't tell
+	 */
+	default TableRelations retrieveTableRelations()
+	{
+		throw new UnsupportedOperationException("Retrieving the table relations is not supported by " + this);
+	}
 }
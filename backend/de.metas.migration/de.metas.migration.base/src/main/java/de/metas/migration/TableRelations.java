@@ -0,0 +1,95 @@
+package de.metas.migration;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.ToString;
+
+/**
+ * Foreign keys and triggers of a database, as far as they matter for deciding if two scripts can be applied in parallel.
+ * <p>
+ * All table names are lower case.
+ */
+@ToString
+public final class TableRelations
+{
+	/** table name to the names of the tables it references */
+	private final ImmutableSetMultimap<String, String> foreignKeyReferences;
+	private final ImmutableSetMultimap<String, String> foreignKeyReferencedBy;
+	private final ImmutableSet<String> tablesWithTriggers;
+
+	@Builder
+	private TableRelations(
+			@NonNull @Singular final ImmutableSetMultimap<String, String> foreignKeyReferences,
+			@NonNull @Singular final ImmutableSet<String> tablesWithTriggers)
+	{
+		this.foreignKeyReferences = foreignKeyReferences;
+		this.foreignKeyReferencedBy = foreignKeyReferences.inverse();
+		this.tablesWithTriggers = tablesWithTriggers;
+	}
+
+	/**
+	 * @return true if any of given tables has triggers
+	 */
+	public boolean hasTriggers(@NonNull final Collection<String> tableNames)
+	{
+		return tableNames.stream().anyMatch(tablesWithTriggers::contains);
+	}
+
+	/**
+	 * @return the tables which are read when given tables are written, i.e. the tables they reference (checked by the foreign keys),
+	 *         and the tables which reference them, directly or indirectly (e.g. <code>ON DELETE CASCADE</code>)
+	 */
+	public ImmutableSet<String> getRelatedTables(@NonNull final Collection<String> tableNames)
+	{
+		final ImmutableSet.Builder<String> result = ImmutableSet.builder();
+		tableNames.forEach(tableName -> result.addAll(foreignKeyReferences.get(tableName)));
+
+		final Set<String> seen = new HashSet<>(tableNames);
+		final Deque<String> queue = new ArrayDeque<>(tableNames);
+		while (!queue.isEmpty())
+		{
+			for (final String referencingTableName : foreignKeyReferencedBy.get(queue.poll()))
+			{
+				if (seen.add(referencingTableName))
+				{
+					result.add(referencingTableName);
+					queue.add(referencingTableName);
+				}
+			}
+		}
+
+		return result.build();
+	}
+}
@@ -0,0 +1,292 @@
+package de.metas.migration.applier.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.TableRelations;
+import de.metas.migration.exception.ScriptExecutionException;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Applies scripts in parallel, while keeping the order where it matters:
+ * <ul>
+ * <li>scripts of the same project (i.e. the same lane) are applied one after another, in the order they were submitted
+ * <li>a script is applied after the previously submitted scripts of other projects which might depend on it or which it might depend on, i.e. if one of them writes
+ * a table which the other one writes or reads, also indirectly via foreign keys (see {@link ScriptTables} and {@link TableRelations})
+ * <li>scripts which are not plain DML (e.g. DDL, function calls, <code>DO</code> blocks), scripts whose tables are not known for sure and scripts which write tables
+ * with triggers are barriers: they are applied alone, after all previously submitted scripts and before any script submitted afterwards
+ * </ul>
+ * The table relations are retrieved again after each barrier, because the barrier might have changed them. If they can't be retrieved, all scripts are barriers,
+ * i.e. they are applied one after another.
+ * <p>
+ * Note that references between tables without a foreign key constraint are not detected.
+ * <p>
+ * Each worker uses its own database connection (see {@link IDatabase#copyWithOwnConnection()}). Barriers are applied using the main database.
+ * <p>
+ * After the first failed script, no further scripts are started and the error is propagated to the caller.
+ */
+final class ScriptLanesScheduler implements AutoCloseable
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(ScriptLanesScheduler.class);
+
+	@FunctionalInterface
+	interface ScriptApplier
+	{
+		void apply(IScript script, IDatabase database);
+	}
+
+	/** The tables which are written by a script and the tables whose content matters to it (or which are affected by it) */
+	@Value
+	private static class ScriptFootprint
+	{
+		ImmutableSet<String> writtenTables;
+		ImmutableSet<String> touchedTables;
+
+		boolean conflictsWith(final ScriptFootprint other)
+		{
+			return !Sets.intersection(writtenTables, other.touchedTables).isEmpty()
+					|| !Sets.intersection(other.writtenTables, touchedTables).isEmpty();
+		}
+	}
+
+	@Value
+	private static class ScheduledScript
+	{
+		String projectName;
+		ScriptFootprint footprint;
+		CompletableFuture<Void> future;
+	}
+
+	private final IDatabase mainDatabase;
+	private final ScriptApplier scriptApplier;
+	/** null if not retrieved yet or if the barrier which was applied last might have changed it */
+	private TableRelations tableRelations;
+	/** true if the table relations could not be retrieved, i.e. all scripts are barriers */
+	private boolean tableRelationsUnavailable = false;
+
+	private final ExecutorService executor;
+	private final List<IDatabase> workerDatabases = new ArrayList<>();
+	private final BlockingQueue<IDatabase> availableWorkerDatabases = new LinkedBlockingQueue<>();
+
+	/** scripts submitted since the last barrier */
+	private final List<ScheduledScript> scheduledScripts = new ArrayList<>();
+	private final AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+
+	ScriptLanesScheduler(
+			@NonNull final IDatabase mainDatabase,
+			final int parallelism,
+			@NonNull final ScriptApplier scriptApplier)
+	{
+		if (parallelism < 2)
+		{
+			throw new IllegalArgumentException("parallelism shall be at least 2 but it was " + parallelism);
+		}
+
+		this.mainDatabase = mainDatabase;
+		this.scriptApplier = scriptApplier;
+
+		this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+				.setNameFormat("migration-lane-%d")
+				.setDaemon(true)
+				.build());
+
+		for (int i = 0; i < parallelism; i++)
+		{
+			final IDatabase workerDatabase = mainDatabase.copyWithOwnConnection();
+			workerDatabases.add(workerDatabase);
+			availableWorkerDatabases.add(workerDatabase);
+		}
+	}
+
+	/**
+	 * Schedules given script. Barrier scripts are applied right away, in the current thread.
+	 */
+	public void submit(@NonNull final IScript script)
+	{
+		throwIfFailed();
+
+		final ScriptFootprint footprint = getFootprintOrNull(script);
+		if (footprint == null)
+		{
+			awaitAll();
+
+			logger.debug("Applying {} alone because it's not plain DML or its tables are not known for sure", script);
+			scriptApplier.apply(script, mainDatabase);
+			tableRelations = null;
+			return;
+		}
+
+		scheduledScripts.removeIf(scheduledScript -> scheduledScript.getFuture().isDone());
+
+		final String projectName = script.getProjectName();
+		final CompletableFuture<?>[] predecessors = scheduledScripts.stream()
+				.filter(scheduledScript -> Objects.equals(scheduledScript.getProjectName(), projectName) || scheduledScript.getFootprint().conflictsWith(footprint))
+				.map(ScheduledScript::getFuture)
+				.toArray(CompletableFuture[]::new);
+
+		final CompletableFuture<Void> future = CompletableFuture.allOf(predecessors).thenRunAsync(() -> applyOnWorker(script), executor);
+		scheduledScripts.add(new ScheduledScript(projectName, footprint, future));
+	}
+
+	/**
+	 * @return the footprint of given script or null if it shall be applied as a barrier
+	 */
+	private ScriptFootprint getFootprintOrNull(final IScript script)
+	{
+		final TableRelations tableRelations = getTableRelationsOrNull();
+		if (tableRelations == null)
+		{
+			return null;
+		}
+
+		final ScriptTables tables = ScriptTables.of(script).orElse(null);
+		if (tables == null || tableRelations.hasTriggers(tables.getWrittenTables()))
+		{
+			return null;
+		}
+
+		final ImmutableSet<String> touchedTables = ImmutableSet.<String> builder()
+				.addAll(tables.getAllTables())
+				.addAll(tableRelations.getRelatedTables(tables.getWrittenTables()))
+				.build();
+		return new ScriptFootprint(tables.getWrittenTables(), touchedTables);
+	}
+
+	private TableRelations getTableRelationsOrNull()
+	{
+		if (tableRelations == null && !tableRelationsUnavailable)
+		{
+			try
+			{
+				tableRelations = mainDatabase.retrieveTableRelations();
+			}
+			catch (final RuntimeException e)
+			{
+				logger.warn("Failed retrieving the table relations of {}. Applying all scripts one after another.", mainDatabase, e);
+				tableRelationsUnavailable = true;
+			}
+		}
+		return tableRelations;
+	}
+
+	private void applyOnWorker(final IScript script)
+	{
+		if (firstError.get() != null)
+		{
+			return; // don't start new scripts after a failure
+		}
+
+		final IDatabase workerDatabase;
+		try
+		{
+			workerDatabase = availableWorkerDatabases.take();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw failed(new ScriptExecutionException("Interrupted while waiting for a database connection", e).setScript(script));
+		}
+
+		try
+		{
+			scriptApplier.apply(script, workerDatabase);
+		}
+		catch (final RuntimeException e)
+		{
+			throw failed(e);
+		}
+		finally
+		{
+			availableWorkerDatabases.add(workerDatabase);
+		}
+	}
+
+	private RuntimeException failed(final RuntimeException e)
+	{
+		firstError.compareAndSet(null, e);
+		return e;
+	}
+
+	/**
+	 * Waits until all submitted scripts were applied.
+	 *
+	 * @throws RuntimeException the first error, if any script failed
+	 */
+	public void awaitAll()
+	{
+		for (final ScheduledScript scheduledScript : scheduledScripts)
+		{
+			try
+			{
+				scheduledScript.getFuture().join();
+			}
+			catch (final RuntimeException e)
+			{
+				// the error was already recorded by the failed script
+			}
+		}
+		scheduledScripts.clear();
+
+		throwIfFailed();
+	}
+
+	private void throwIfFailed()
+	{
+		final RuntimeException error = firstError.get();
+		if (error != null)
+		{
+			throw error;
+		}
+	}
+
+	/**
+	 * Waits for the running scripts to finish and closes the worker connections.
+	 */
+	@Override
+	public void close()
+	{
+		MoreExecutors.shutdownAndAwaitTermination(executor, 1, TimeUnit.HOURS);
+		workerDatabases.forEach(IDatabase::closeConnection);
+	}
+}
@@ -0,0 +1,477 @@
+package de.metas.migration.applier.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IScript;
+import de.metas.migration.ScriptType;
+import de.metas.migration.executor.impl.SqlStatementSplitter;
+import de.metas.migration.executor.impl.SqlStatementSplitter.SqlStatement;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * The tables which are written and read by a script which consists only of plain DML statements (<code>INSERT</code>, <code>UPDATE</code>, <code>DELETE</code>).
+ * <p>
+ * The extraction is conservative: if it's not sure to have found all the tables, no result is returned. That's the case for
+ * <ul>
+ * <li>non SQL scripts, statements which are not plain DML (e.g. DDL, <code>SELECT f()</code>, <code>DO</code> blocks) and <code>psql</code> meta commands
+ * <li>calls of functions which are not known to be free of side effects and to not read any tables (e.g. <code>get_Table_ID('C_Order')</code>)
+ * <li>common table expressions (<code>WITH ...</code>) and statements which can't be parsed
+ * </ul>
+ * All table names are lower case and without schema.
+ */
+@Value
+final class ScriptTables
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(ScriptTables.class);
+
+	/** functions which don't read any table */
+	private static final ImmutableSet<String> SAFE_FUNCTIONS = ImmutableSet.of(
+			"now", "coalesce", "nullif", "greatest", "least",
+			"upper", "lower", "trim", "btrim", "ltrim", "rtrim", "substr", "length", "replace", "concat", "format",
+			"to_timestamp", "to_date", "to_char", "to_number", "round", "trunc", "abs",
+			"count", "min", "max", "sum", "avg",
+			"nextval", "cast");
+
+	/** keywords which can be followed by <code>(</code> */
+	private static final ImmutableSet<String> KEYWORDS = ImmutableSet.of(
+			"select", "values", "set", "where", "and", "or", "not", "in", "exists", "any", "all", "some",
+			"on", "as", "using", "case", "when", "then", "else", "end", "is", "null", "array", "row", "conflict", "do", "returning");
+
+	/** keywords which end a table reference, i.e. which are not an alias */
+	private static final ImmutableSet<String> TABLE_REFERENCE_END_KEYWORDS = ImmutableSet.of(
+			"where", "set", "on", "using", "join", "inner", "left", "right", "full", "cross", "natural", "outer",
+			"group", "order", "having", "limit", "offset", "union", "intersect", "except", "returning", "select", "values", "default");
+
+	ImmutableSet<String> writtenTables;
+	ImmutableSet<String> readTables;
+
+	/**
+	 * @return the tables of given script, or empty if the script is not plain DML or in doubt
+	 */
+	public static Optional<ScriptTables> of(@NonNull final IScript script)
+	{
+		if (!ScriptType.SQL.equals(script.getType()))
+		{
+			return Optional.empty();
+		}
+
+		final String content;
+		try
+		{
+			content = new String(Files.readAllBytes(script.getLocalFile().toPath()), StandardCharsets.UTF_8);
+		}
+		catch (final Exception e)
+		{
+			logger.debug("Failed reading {}. Considering its tables unknown.", script, e);
+			return Optional.empty();
+		}
+
+		return ofSql(content);
+	}
+
+	static Optional<ScriptTables> ofSql(@NonNull final String sql)
+	{
+		try
+		{
+			return parse(sql);
+		}
+		catch (final RuntimeException e)
+		{
+			logger.debug("Failed parsing {}. Considering its tables unknown.", sql, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<ScriptTables> parse(final String sql)
+	{
+		final Set<String> writtenTables = new HashSet<>();
+		final Set<String> readTables = new HashSet<>();
+		for (final SqlStatement statement : SqlStatementSplitter.split(sql))
+		{
+			if (statement.isPsqlMetaCommand())
+			{
+				return Optional.empty();
+			}
+
+			final StatementParser parser = new StatementParser(Tokenizer.tokenize(statement.getSql()));
+			if (!parser.parse())
+			{
+				return Optional.empty();
+			}
+
+			writtenTables.add(parser.writtenTable);
+			readTables.addAll(parser.readTables);
+		}
+
+		return Optional.of(new ScriptTables(ImmutableSet.copyOf(writtenTables), ImmutableSet.copyOf(readTables)));
+	}
+
+	/**
+	 * @return all tables which are written or read
+	 */
+	public ImmutableSet<String> getAllTables()
+	{
+		return ImmutableSet.<String> builder().addAll(writtenTables).addAll(readTables).build();
+	}
+
+	/**
+	 * Splits a statement into lower case identifiers and punctuation. Comments are skipped; literals become {@link #LITERAL}.
+	 */
+	private static final class Tokenizer
+	{
+		private static final String LITERAL = "'";
+
+		static List<String> tokenize(final String sql)
+		{
+			final List<String> tokens = new ArrayList<>();
+			final int length = sql.length();
+			int pos = 0;
+			while (pos < length)
+			{
+				final char ch = sql.charAt(pos);
+				final char next = pos + 1 < length ? sql.charAt(pos + 1) : 0;
+				if (Character.isWhitespace(ch))
+				{
+					pos++;
+				}
+				else if (ch == '-' && next == '-')
+				{
+					pos = indexOfOrEnd(sql, "\n", pos);
+				}
+				else if (ch == '/' && next == '*')
+				{
+					pos = skipBlockComment(sql, pos);
+				}
+				else if (ch == '\'')
+				{
+					pos = skipStringLiteral(sql, pos, false);
+					tokens.add(LITERAL);
+				}
+				else if (ch == '"')
+				{
+					final int end = sql.indexOf('"', pos + 1);
+					if (end < 0)
+					{
+						throw new IllegalArgumentException("Unclosed quoted identifier");
+					}
+					tokens.add(sql.substring(pos + 1, end).toLowerCase());
+					pos = end + 1;
+				}
+				else if (ch == '$' && (next == '$' || Character.isLetter(next)))
+				{
+					final int tagEnd = sql.indexOf('$', pos + 1);
+					if (tagEnd < 0)
+					{
+						throw new IllegalArgumentException("Invalid dollar quote");
+					}
+					final String tag = sql.substring(pos, tagEnd + 1);
+					final int end = sql.indexOf(tag, tagEnd + 1);
+					if (end < 0)
+					{
+						throw new IllegalArgumentException("Unclosed dollar quote");
+					}
+					pos = end + tag.length();
+					tokens.add(LITERAL);
+				}
+				else if (Character.isLetter(ch) || ch == '_')
+				{
+					final int start = pos;
+					while (pos < length && (Character.isLetterOrDigit(sql.charAt(pos)) || sql.charAt(pos) == '_' || sql.charAt(pos) == '$'))
+					{
+						pos++;
+					}
+					if (pos < length && sql.charAt(pos) == '\'' && pos - start == 1)
+					{
+						// E'...', B'...', X'...'
+						pos = skipStringLiteral(sql, pos, Character.toLowerCase(sql.charAt(start)) == 'e');
+						tokens.add(LITERAL);
+					}
+					else
+					{
+						tokens.add(sql.substring(start, pos).toLowerCase());
+					}
+				}
+				else if (Character.isDigit(ch))
+				{
+					while (pos < length && (Character.isLetterOrDigit(sql.charAt(pos)) || sql.charAt(pos) == '.'))
+					{
+						pos++;
+					}
+					tokens.add(LITERAL);
+				}
+				else if (ch == ':' && next == ':')
+				{
+					tokens.add("::");
+					pos += 2;
+				}
+				else
+				{
+					tokens.add(String.valueOf(ch));
+					pos++;
+				}
+			}
+			return tokens;
+		}
+
+		private static int indexOfOrEnd(final String sql, final String str, final int fromIndex)
+		{
+			final int index = sql.indexOf(str, fromIndex);
+			return index < 0 ? sql.length() : index;
+		}
+
+		private static int skipBlockComment(final String sql, final int start)
+		{
+			int depth = 0;
+			int pos = start;
+			while (pos < sql.length())
+			{
+				if (sql.startsWith("/*", pos))
+				{
+					depth++;
+					pos += 2;
+				}
+				else if (sql.startsWith("*/", pos))
+				{
+					depth--;
+					pos += 2;
+					if (depth == 0)
+					{
+						return pos;
+					}
+				}
+				else
+				{
+					pos++;
+				}
+			}
+			throw new IllegalArgumentException("Unclosed block comment");
+		}
+
+		/**
+		 * @return the position after the string literal which starts at given position
+		 */
+		private static int skipStringLiteral(final String sql, final int start, final boolean backslashEscapes)
+		{
+			int pos = start + 1;
+			while (pos < sql.length())
+			{
+				final char ch = sql.charAt(pos);
+				if (ch == '\\' && backslashEscapes)
+				{
+					pos += 2;
+				}
+				else if (ch == '\'')
+				{
+					if (pos + 1 < sql.length() && sql.charAt(pos + 1) == '\'')
+					{
+						pos += 2;
+					}
+					else
+					{
+						return pos + 1;
+					}
+				}
+				else
+				{
+					pos++;
+				}
+			}
+			throw new IllegalArgumentException("Unclosed string literal");
+		}
+	}
+
+	/**
+	 * Finds the target table and the referenced tables of one DML statement.
+	 */
+	private static final class StatementParser
+	{
+		private final List<String> tokens;
+		private int pos = 0;
+
+		private String writtenTable;
+		private final Set<String> readTables = new HashSet<>();
+
+		private StatementParser(final List<String> tokens)
+		{
+			this.tokens = tokens;
+		}
+
+		/**
+		 * @return false if the statement is not plain DML or is in doubt
+		 */
+		boolean parse()
+		{
+			final String command = next();
+			if ("insert".equals(command))
+			{
+				if (!"into".equals(next()))
+				{
+					return false;
+				}
+			}
+			else if ("delete".equals(command))
+			{
+				if (!"from".equals(next()))
+				{
+					return false;
+				}
+			}
+			else if (!"update".equals(command))
+			{
+				return false;
+			}
+
+			skipIf("only");
+			writtenTable = readTableName(true);
+			if (writtenTable == null)
+			{
+				return false;
+			}
+
+			while (pos < tokens.size())
+			{
+				final String token = next();
+				if ("from".equals(token) || "join".equals(token) || ("using".equals(token) && !"(".equals(peek())))
+				{
+					if (!readTableReferences())
+					{
+						return false;
+					}
+				}
+				else if ("(".equals(peek()) && isIdentifier(token) && !KEYWORDS.contains(token) && !SAFE_FUNCTIONS.contains(token) && !isTypeName())
+				{
+					return false; // function call
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * Reads a comma separated list of tables, e.g. <code>FROM a, b x, c AS y</code>.
+		 *
+		 * @return false if in doubt
+		 */
+		private boolean readTableReferences()
+		{
+			while (true)
+			{
+				skipIf("only");
+				if ("(".equals(peek()) || "lateral".equals(peek()))
+				{
+					return false; // subquery; it might be followed by more tables
+				}
+				if (!isIdentifier(peek()))
+				{
+					return true; // e.g. trim(both ' ' from 'x')
+				}
+
+				final String tableName = readTableName(false);
+				if (tableName == null)
+				{
+					return false; // table function
+				}
+				readTables.add(tableName);
+
+				// alias
+				if (skipIf("as") || isIdentifier(peek()) && !TABLE_REFERENCE_END_KEYWORDS.contains(peek()))
+				{
+					next();
+				}
+
+				if (!skipIf(","))
+				{
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * @param columnListAllowed true if the table name can be followed by a column list, like in <code>INSERT INTO t (a, b)</code>
+		 * @return the table name, without schema, or null if it's followed by <code>(</code>, i.e. it's a function
+		 */
+		private String readTableName(final boolean columnListAllowed)
+		{
+			String name = next();
+			while (".".equals(peek()))
+			{
+				next();
+				name = next();
+			}
+
+			if (!isIdentifier(name) || "(".equals(peek()) && !columnListAllowed)
+			{
+				return null;
+			}
+			return name;
+		}
+
+		private String next()
+		{
+			return pos < tokens.size() ? tokens.get(pos++) : null;
+		}
+
+		private String peek()
+		{
+			return pos < tokens.size() ? tokens.get(pos) : null;
+		}
+
+		/**
+		 * @return true if the last token is a type name in a cast, e.g. <code>x::numeric(10,2)</code> or <code>CAST(x AS numeric(10,2))</code>
+		 */
+		private boolean isTypeName()
+		{
+			final String tokenBefore = pos >= 2 ? tokens.get(pos - 2) : null;
+			return "::".equals(tokenBefore) || "as".equals(tokenBefore);
+		}
+
+		private boolean skipIf(final String token)
+		{
+			if (token.equals(peek()))
+			{
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private static boolean isIdentifier(final String token)
+		{
+			return token != null && !token.isEmpty() && (Character.isLetter(token.charAt(0)) || token.charAt(0) == '_');
+		}
+	}
+}
@@ -49,6 +49,12 @@ public class ScriptsApplier implements IScriptsApplier
 	@Setter
 	private boolean skipExecutingAfterScripts = false;
 
+	/**
+	 * How many scripts shall be applied in parallel. If greater than one, the scripts are applied by a {@link ScriptLanesScheduler}.
+	 */
+	@Setter
+	private int parallelism = 1;
+
 	private IScriptsApplierListener listener = NullScriptsApplierListener.instance;
 	private IScriptExecutorFactory scriptExecutorFactory = new DefaultScriptExecutorFactory();
 
@@ -56,6 +62,11 @@ public class ScriptsApplier implements IScriptsApplier
 	private int countApplied = 0;
 	private int countIgnored = 0;
 
+	/**
+	 * Guards the scripts registry, the listener and the counters when applying scripts in parallel
+	 */
+	private final Object lock = new Object();
+
 	private static enum ScriptApplyResult
 	{
 		Applied, Ignored,
@@ -106,49 +117,53 @@ public class ScriptsApplier implements IScriptsApplier
 
 		logger.info("Migrating {} using {}", targetDatabase, scriptsProvider);
 
-		final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
-
 		final Iterator<IScript> scripts = scriptsProvider.getScripts();
 		int countSkippedFromLastAction = 0;
-		while (scripts.hasNext())
+		try (final ScriptLanesScheduler scheduler = parallelism > 1 ? new ScriptLanesScheduler(targetDatabase, parallelism, this::applyAndRegister) : null)
 		{
-			countAll++;
-
-			final IScript script = scripts.next();
-
-			if (scriptsRegistry.isApplied(script))
+			if (scheduler != null)
 			{
-				logger.debug("Script already applied: {}", script);
-
-				countSkippedFromLastAction++;
-				continue;
+				logger.info("Applying scripts using {} parallel lanes", parallelism);
 			}
 
-			if(countSkippedFromLastAction > 0)
-			{
-				logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
-			}
-			countSkippedFromLastAction = 0;
-			
-			final ScriptApplyResult result = apply(script);
-			if (result == ScriptApplyResult.Applied)
+			while (scripts.hasNext())
 			{
-				countApplied++;
-				scriptsRegistry.markApplied(script);
-			}
-			else if (result == ScriptApplyResult.Ignored)
-			{
-				countIgnored++;
-				scriptsRegistry.markIgnored(script);
+				countAll++;
+
+				final IScript script = scripts.next();
+
+				if (isApplied(script))
+				{
+					logger.debug("Script already applied: {}", script);
+
+					countSkippedFromLastAction++;
+					continue;
+				}
+
+				if (countSkippedFromLastAction > 0)
+				{
+					logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
+				}
+				countSkippedFromLastAction = 0;
+
+				if (scheduler != null)
+				{
+					scheduler.submit(script);
+				}
+				else
+				{
+					applyAndRegister(script, targetDatabase);
+				}
 			}
-			else
+
+			if (scheduler != null)
 			{
-				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+				scheduler.awaitAll();
 			}
 		}
 
 		//
-		if(countSkippedFromLastAction > 0)
+		if (countSkippedFromLastAction > 0)
 		{
 			logger.info("Skipped {} scripts that were already applied", countSkippedFromLastAction);
 		}
@@ -167,15 +182,47 @@ public class ScriptsApplier implements IScriptsApplier
 		}
 	}
 
+	private boolean isApplied(final IScript script)
+	{
+		synchronized (lock)
+		{
+			return getScriptsRegistry().isApplied(script);
+		}
+	}
+
+	private void applyAndRegister(final IScript script, final IDatabase database)
+	{
+		final ScriptApplyResult result = apply(script, database);
+		synchronized (lock)
+		{
+			final IScriptsRegistry scriptsRegistry = getScriptsRegistry();
+			if (result == ScriptApplyResult.Applied)
+			{
+				countApplied++;
+				scriptsRegistry.markApplied(script);
+			}
+			else if (result == ScriptApplyResult.Ignored)
+			{
+				countIgnored++;
+				scriptsRegistry.markIgnored(script);
+			}
+			else
+			{
+				throw new ScriptExecutionException("Invalid ScriptApplyResult: " + result);
+			}
+		}
+	}
+
 	/**
 	 *
 	 * @param script
+	 * @param database the database to apply the script on; when applying in parallel, it's a copy of the target database
 	 * @return
 	 */
-	private ScriptApplyResult apply(final IScript script)
+	private ScriptApplyResult apply(final IScript script, final IDatabase database)
 	{
 		final IScriptsApplierListener listener = getListener();
-		final IScriptExecutor executor = getExecutor(script);
+		final IScriptExecutor executor = scriptExecutorFactory.createScriptExecutor(database, script);
 
 		logger.info("Applying {}", script);
 
@@ -198,7 +245,7 @@ public class ScriptsApplier implements IScriptsApplier
 			{
 				error = new ScriptExecutionException("Error running script", e)
 						.setScript(script)
-						.setDatabase(targetDatabase)
+						.setDatabase(database)
 						.setExecutor(executor);
 			}
 			finally
@@ -208,12 +255,19 @@ public class ScriptsApplier implements IScriptsApplier
 				{
 					logger.info("... Applied in {}ms", durationMillis);
 					script.setLastDurationMillis(durationMillis);
-					listener.onScriptApplied(script);
+					synchronized (lock)
+					{
+						listener.onScriptApplied(script);
+					}
 					return ScriptApplyResult.Applied;
 				}
 				else
 				{
-					final ScriptFailedResolution scriptFailedResolution = listener.onScriptFailed(script, error);
+					final ScriptFailedResolution scriptFailedResolution;
+					synchronized (lock)
+					{
+						scriptFailedResolution = listener.onScriptFailed(script, error);
+					}
 					if (scriptFailedResolution == ScriptFailedResolution.Fail)
 					{
 						throw error;
@@ -244,11 +298,6 @@ public class ScriptsApplier implements IScriptsApplier
 		return targetDatabase.getScriptsRegistry();
 	}
 
-	private IScriptExecutor getExecutor(final IScript script)
-	{
-		return scriptExecutorFactory.createScriptExecutor(targetDatabase, script);
-	}
-
 	private IScriptExecutor getSqlExecutor()
 	{
 		return scriptExecutorFactory.createScriptExecutor(targetDatabase);
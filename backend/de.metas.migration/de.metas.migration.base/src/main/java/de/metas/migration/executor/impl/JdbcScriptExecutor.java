@@ -0,0 +1,242 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.exception.ScriptException;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.IScriptExecutor;
+import de.metas.migration.executor.impl.SqlStatementSplitter.SqlStatement;
+import de.metas.migration.impl.AnonymousScript;
+import de.metas.migration.impl.SQLDatabase;
+import de.metas.migration.impl.SQLHelper;
+import lombok.NonNull;
+
+/**
+ * Executes SQL scripts over the database's JDBC connection, instead of starting a <code>psql</code> process for each script.
+ * <p>
+ * Same semantics as {@link PostgresqlNativeExecutor}: the whole script is executed in one single transaction and the execution stops on first error.
+ * Scripts which contain <code>psql</code> meta commands (e.g. <code>\set</code>) are delegated to {@link PostgresqlNativeExecutor}.
+ */
+public class JdbcScriptExecutor implements IScriptExecutor
+{
+	private static final transient Logger logger = LoggerFactory.getLogger(JdbcScriptExecutor.class);
+
+	private static final String AFTER_MIGRATION_FUNC_PATTERN = "after_migration%";
+	private static final int LOG_TAIL_SIZE = 100;
+
+	private final IDatabase database;
+
+	public JdbcScriptExecutor(@NonNull final IDatabase database)
+	{
+		this.database = database;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [database=" + database + "]";
+	}
+
+	@Override
+	public void execute(final IScript script)
+	{
+		executeAndReturnLog(script, LOG_TAIL_SIZE);
+	}
+
+	private List<String> executeAndReturnLog(final IScript script, final int logTailSize)
+	{
+		final ImmutableList<SqlStatement> statements = readStatements(script);
+		if (statements.stream().anyMatch(SqlStatement::isPsqlMetaCommand))
+		{
+			logger.info("Script contains psql meta commands. Executing it using psql: {}", script);
+			new PostgresqlNativeExecutor(database).execute(script);
+			return ImmutableList.of();
+		}
+
+		return executeInTransaction(script, statements, logTailSize);
+	}
+
+	private ImmutableList<SqlStatement> readStatements(final IScript script)
+	{
+		try
+		{
+			final String content = new String(Files.readAllBytes(script.getLocalFile().toPath()), StandardCharsets.UTF_8);
+			return SqlStatementSplitter.split(content);
+		}
+		catch (final IOException | ScriptException e)
+		{
+			throw new ScriptExecutionException("Failed reading script", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this);
+		}
+	}
+
+	private List<String> executeInTransaction(final IScript script, final List<SqlStatement> statements, final int logTailSize)
+	{
+		final List<String> log = new ArrayList<>();
+		SqlStatement currentStatement = null;
+
+		final Connection conn = database.getConnection();
+		Boolean autoCommitOld = null;
+		try
+		{
+			autoCommitOld = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+
+			try (final Statement stmt = conn.createStatement())
+			{
+				stmt.setEscapeProcessing(false);
+				for (final SqlStatement statement : statements)
+				{
+					currentStatement = statement;
+					stmt.execute(statement.getSql());
+					collectWarnings(stmt, log, logTailSize);
+				}
+			}
+
+			conn.commit();
+			return log;
+		}
+		catch (final SQLException e)
+		{
+			rollbackQuietly(conn);
+
+			final ScriptExecutionException ex = new ScriptExecutionException("Script execution failed", e)
+					.setDatabase(database)
+					.setScript(script)
+					.setExecutor(this)
+					.setLog(log);
+			if (currentStatement != null)
+			{
+				ex.addParameter("Line", currentStatement.getLineNo());
+				ex.addParameter("Statement", currentStatement.getSql());
+			}
+			throw ex;
+		}
+		finally
+		{
+			restoreAutoCommitQuietly(conn, autoCommitOld);
+		}
+	}
+
+	/**
+	 * Collects the server messages (e.g. <code>RAISE NOTICE</code>), like psql would print them.
+	 */
+	private static void collectWarnings(final Statement stmt, final List<String> log, final int logTailSize) throws SQLException
+	{
+		for (SQLWarning warning = stmt.getWarnings(); warning != null; warning = warning.getNextWarning())
+		{
+			if (logTailSize > 0 && log.size() >= logTailSize)
+			{
+				log.remove(0);
+			}
+			log.add(warning.getMessage());
+		}
+		stmt.clearWarnings();
+	}
+
+	private static void rollbackQuietly(final Connection conn)
+	{
+		try
+		{
+			conn.rollback();
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed rolling back {}. Ignored.", conn, e);
+		}
+	}
+
+	private static void restoreAutoCommitQuietly(final Connection conn, final Boolean autoCommit)
+	{
+		if (autoCommit == null)
+		{
+			return;
+		}
+
+		try
+		{
+			conn.setAutoCommit(autoCommit);
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed restoring autoCommit={} on {}. Ignored.", autoCommit, conn, e);
+		}
+	}
+
+	@Override
+	public void executeAfterScripts()
+	{
+		final Set<String> functionNames = new SQLHelper(SQLDatabase.cast(database))
+				.getDBFunctionsMatchingPattern(AFTER_MIGRATION_FUNC_PATTERN)
+				.stream()
+				.sorted()
+				.collect(ImmutableSet.toImmutableSet());
+
+		if (functionNames.isEmpty())
+		{
+			logger.warn("Skip executing after migration scripts because no function matching pattern '{}' was found in {}", AFTER_MIGRATION_FUNC_PATTERN, database);
+			return;
+		}
+
+		final AnonymousScript script = AnonymousScript.builder()
+				.fileName("after_migration.sql")
+				.scriptContent(functionNames.stream()
+						.map(functionName -> "select " + functionName + "();\n")
+						.collect(Collectors.joining()))
+				.build();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int logTailSize = -1; // full log
+		final List<String> log = executeAndReturnLog(script, logTailSize);
+		stopwatch.stop();
+
+		logger.info("Executed {} in {}ms and got following result:\n{}",
+				functionNames,
+				stopwatch,
+				Joiner.on("\n").join(log));
+	}
+}
@@ -0,0 +1,373 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.migration.exception.ScriptException;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Splits an SQL script into statements, the way <code>psql</code> does.
+ * <p>
+ * Semicolons are not considered statement terminators when they are inside:
+ * <ul>
+ * <li>line comments (<code>-- ...</code>) and nested block comments (<code>/* ... *&#47;</code>)
+ * <li>string literals (<code>'...'</code>, including <code>E'...'</code> strings with backslash escapes)
+ * <li>quoted identifiers (<code>"..."</code>)
+ * <li>dollar quoted strings (<code>$$ ... $$</code>, <code>$body$ ... $body$</code>), as used for PL/pgSQL function bodies and <code>DO</code> blocks
+ * </ul>
+ * Lines starting with a backslash are <code>psql</code> meta commands. They are returned as separate statements, flagged by {@link SqlStatement#isPsqlMetaCommand()}.
+ */
+public final class SqlStatementSplitter
+{
+	public static ImmutableList<SqlStatement> split(@NonNull final String script)
+	{
+		return new SqlStatementSplitter(script).split();
+	}
+
+	private final String script;
+	private final int length;
+	private final ImmutableList.Builder<SqlStatement> statements = ImmutableList.builder();
+
+	private int pos = 0;
+	private int lineNo = 1;
+
+	private int statementStart = -1;
+	private int statementLineNo = -1;
+
+	private SqlStatementSplitter(final String script)
+	{
+		this.script = script;
+		this.length = script.length();
+	}
+
+	private ImmutableList<SqlStatement> split()
+	{
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			final char next = pos + 1 < length ? script.charAt(pos + 1) : 0;
+
+			if (ch == '\n')
+			{
+				lineNo++;
+				pos++;
+			}
+			else if (Character.isWhitespace(ch))
+			{
+				pos++;
+			}
+			else if (ch == '-' && next == '-')
+			{
+				skipLineComment();
+			}
+			else if (ch == '/' && next == '*')
+			{
+				skipBlockComment();
+			}
+			else if (ch == '\\' && statementStart < 0)
+			{
+				readPsqlMetaCommand();
+			}
+			else if (ch == ';')
+			{
+				endStatement(pos);
+				pos++;
+			}
+			else
+			{
+				markStatementStart();
+
+				if (ch == '\'')
+				{
+					skipStringLiteral(isEscapeStringPrefix());
+				}
+				else if (ch == '"')
+				{
+					skipQuoted('"');
+				}
+				else if (ch == '$' && !isPrecededByIdentifierChar())
+				{
+					skipDollarQuotedOrChar();
+				}
+				else
+				{
+					pos++;
+				}
+			}
+		}
+
+		// psql also executes the last statement if it's not terminated by semicolon
+		endStatement(length);
+
+		return statements.build();
+	}
+
+	private void markStatementStart()
+	{
+		if (statementStart < 0)
+		{
+			statementStart = pos;
+			statementLineNo = lineNo;
+		}
+	}
+
+	private void endStatement(final int end)
+	{
+		if (statementStart < 0)
+		{
+			return; // nothing but whitespaces and comments
+		}
+
+		final String sql = script.substring(statementStart, end).trim();
+		statements.add(SqlStatement.of(sql, statementLineNo, false));
+
+		statementStart = -1;
+		statementLineNo = -1;
+	}
+
+	private void skipLineComment()
+	{
+		while (pos < length && script.charAt(pos) != '\n')
+		{
+			pos++;
+		}
+	}
+
+	private void skipBlockComment()
+	{
+		final int startLineNo = lineNo;
+		int depth = 0;
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			final char next = pos + 1 < length ? script.charAt(pos + 1) : 0;
+			if (ch == '/' && next == '*')
+			{
+				depth++;
+				pos += 2;
+			}
+			else if (ch == '*' && next == '/')
+			{
+				depth--;
+				pos += 2;
+				if (depth == 0)
+				{
+					return;
+				}
+			}
+			else
+			{
+				if (ch == '\n')
+				{
+					lineNo++;
+				}
+				pos++;
+			}
+		}
+
+		throw unterminated("block comment", startLineNo);
+	}
+
+	private void readPsqlMetaCommand()
+	{
+		final int start = pos;
+		skipLineComment(); // i.e. skip to end of line
+		final String command = script.substring(start, pos).trim();
+		statements.add(SqlStatement.of(command, lineNo, true));
+	}
+
+	private boolean isEscapeStringPrefix()
+	{
+		if (pos < 1)
+		{
+			return false;
+		}
+
+		final char prev = script.charAt(pos - 1);
+		if (prev != 'E' && prev != 'e')
+		{
+			return false;
+		}
+
+		// make sure the "E" is not the end of an identifier, like in "WHERE name='...'"
+		return pos < 2 || !isIdentifierChar(script.charAt(pos - 2));
+	}
+
+	private void skipStringLiteral(final boolean backslashEscapes)
+	{
+		final int startLineNo = lineNo;
+		pos++; // opening quote
+		while (pos < length)
+		{
+			final char ch = script.charAt(pos);
+			if (ch == '\n')
+			{
+				lineNo++;
+			}
+
+			if (backslashEscapes && ch == '\\')
+			{
+				if (pos + 1 < length && script.charAt(pos + 1) == '\n')
+				{
+					lineNo++;
+				}
+				pos += 2;
+			}
+			else if (ch == '\'')
+			{
+				if (pos + 1 < length && script.charAt(pos + 1) == '\'')
+				{
+					pos += 2; // escaped quote
+				}
+				else
+				{
+					pos++; // closing quote
+					return;
+				}
+			}
+			else
+			{
+				pos++;
+			}
+		}
+
+		throw unterminated("string literal", startLineNo);
+	}
+
+	private void skipQuoted(final char quote)
+	{
+		final int startLineNo = lineNo;
+		final int end = script.indexOf(quote, pos + 1);
+		if (end < 0)
+		{
+			throw unterminated("quoted identifier", startLineNo);
+		}
+
+		countNewLines(pos, end);
+		pos = end + 1;
+		// NOTE: an escaped quote ("") is just two consecutive quoted identifiers for us
+	}
+
+	private void skipDollarQuotedOrChar()
+	{
+		final String tag = readDollarQuoteTag();
+		if (tag == null)
+		{
+			pos++; // not a dollar quote, e.g. a positional parameter like $1
+			return;
+		}
+
+		final int startLineNo = lineNo;
+		final int contentStart = pos + tag.length();
+		final int end = script.indexOf(tag, contentStart);
+		if (end < 0)
+		{
+			throw unterminated("dollar quoted string " + tag, startLineNo);
+		}
+
+		countNewLines(pos, end);
+		pos = end + tag.length();
+	}
+
+	/**
+	 * @return the dollar quote tag at current position (e.g. <code>$$</code> or <code>$body$</code>) or <code>null</code>
+	 */
+	private String readDollarQuoteTag()
+	{
+		int end = pos + 1;
+		while (end < length)
+		{
+			final char ch = script.charAt(end);
+			if (ch == '$')
+			{
+				return script.substring(pos, end + 1);
+			}
+
+			final boolean validTagChar = end == pos + 1
+					? Character.isLetter(ch) || ch == '_'
+					: Character.isLetterOrDigit(ch) || ch == '_';
+			if (!validTagChar)
+			{
+				return null;
+			}
+			end++;
+		}
+
+		return null;
+	}
+
+	private boolean isPrecededByIdentifierChar()
+	{
+		return pos > 0 && isIdentifierChar(script.charAt(pos - 1));
+	}
+
+	private static boolean isIdentifierChar(final char ch)
+	{
+		return Character.isLetterOrDigit(ch) || ch == '_' || ch == '$';
+	}
+
+	private void countNewLines(final int from, final int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			if (script.charAt(i) == '\n')
+			{
+				lineNo++;
+			}
+		}
+	}
+
+	private ScriptException unterminated(final String what, final int startLineNo)
+	{
+		return new ScriptException("Unterminated " + what)
+				.addParameter("line", startLineNo);
+	}
+
+	@Value(staticConstructor = "of")
+	public static class SqlStatement
+	{
+		@NonNull
+		String sql;
+
+		/** line number (1 based) where the statement starts */
+		int lineNo;
+
+		boolean psqlMetaCommand;
+
+		/**
+		 * @return first word of the statement, upper case (e.g. <code>INSERT</code>)
+		 */
+		public String getCommand()
+		{
+			int end = 0;
+			while (end < sql.length() && Character.isLetter(sql.charAt(end)))
+			{
+				end++;
+			}
+			return sql.substring(0, end).toUpperCase();
+		}
+	}
+}
@@ -26,9 +26,15 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
 
 import de.metas.migration.IDatabase;
 import de.metas.migration.IScriptsRegistry;
+import de.metas.migration.TableRelations;
 import de.metas.migration.sql.ISQLDatabaseDriver;
 import de.metas.migration.sql.SQLDatabaseDriverFactory;
 
@@ -151,6 +157,62 @@ public class SQLDatabase implements IDatabase
 		return scriptsRegistry;
 	}
 
+	@Override
+	public SQLDatabase copyWithOwnConnection()
+	{
+		return new SQLDatabase(dbType, dbHostname, dbPort, dbName, dbUser, dbPassword);
+	}
+
+	@Override
+	public void closeConnection()
+	{
+		final Connection conn = this.conn;
+		this.conn = null;
+		if (conn == null)
+		{
+			return;
+		}
+
+		try
+		{
+			conn.close();
+		}
+		catch (final SQLException e)
+		{
+			// nothing to do
+		}
+	}
+
+	@Override
+	public TableRelations retrieveTableRelations()
+	{
+		final SQLHelper sqlHelper = new SQLHelper(this);
+		final TableRelations.TableRelationsBuilder result = TableRelations.builder();
+
+		final Collection<Map.Entry<String, String>> foreignKeyReferences = sqlHelper.<Map.Entry<String, String>> retrieveRecords()
+				.sql("SELECT DISTINCT lower(t.relname) AS TableName, lower(r.relname) AS ReferencedTableName"
+						+ " FROM pg_constraint c"
+						+ " INNER JOIN pg_class t ON t.oid=c.conrelid"
+						+ " INNER JOIN pg_class r ON r.oid=c.confrelid"
+						+ " WHERE c.contype='f'")
+				.collectionFactory(ArrayList::new)
+				.rowLoader(rs -> Maps.immutableEntry(rs.getString("TableName"), rs.getString("ReferencedTableName")))
+				.execute();
+		foreignKeyReferences.forEach(reference -> result.foreignKeyReference(reference.getKey(), reference.getValue()));
+
+		final Collection<String> tablesWithTriggers = sqlHelper.<String> retrieveRecords()
+				.sql("SELECT DISTINCT lower(t.relname) AS TableName"
+						+ " FROM pg_trigger tg"
+						+ " INNER JOIN pg_class t ON t.oid=tg.tgrelid"
+						+ " WHERE NOT tg.tgisinternal")
+				.collectionFactory(ArrayList::new)
+				.rowLoader(rs -> rs.getString("TableName"))
+				.execute();
+		result.tablesWithTriggers(tablesWithTriggers);
+
+		return result.build();
+	}
+
 	@Override
 	public Connection getConnection()
 	{
@@ -0,0 +1,92 @@
+package de.metas.migration.applier.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class ScriptTablesTest
+{
+	private static ScriptTables tablesOf(final String sql)
+	{
+		final Optional<ScriptTables> tables = ScriptTables.ofSql(sql);
+		assertThat(tables).as("tables of: %s", sql).isPresent();
+		return tables.get();
+	}
+
+	private static void assertInDoubt(final String sql)
+	{
+		assertThat(ScriptTables.ofSql(sql)).as("tables of: %s", sql).isEmpty();
+	}
+
+	@Test
+	public void plainDml()
+	{
+		final ScriptTables tables = tablesOf("INSERT INTO t1 VALUES (1); UPDATE public.\"T2\" SET x=1; DELETE FROM ONLY t3;");
+		assertThat(tables.getWrittenTables()).containsExactlyInAnyOrder("t1", "t2", "t3");
+		assertThat(tables.getReadTables()).isEmpty();
+	}
+
+	@Test
+	public void readTables()
+	{
+		final ScriptTables tables = tablesOf("INSERT INTO AD_Field (AD_Field_ID, AD_Column_ID, Created)"
+				+ " SELECT 540001, c.AD_Column_ID, to_timestamp('2020-01-01 00:00:00','YYYY-MM-DD HH24:MI:SS')"
+				+ " FROM AD_Column c, AD_Table AS t INNER JOIN AD_Tab tab ON tab.AD_Table_ID=t.AD_Table_ID"
+				+ " WHERE c.ColumnName='x' AND NOT EXISTS (SELECT 1 FROM AD_Field f WHERE f.AD_Field_ID=540001)"
+				+ ";"
+				+ "UPDATE C_Order o SET Description=bp.Name FROM C_BPartner bp WHERE bp.C_BPartner_ID=o.C_BPartner_ID;"
+				+ "DELETE FROM M_Product_Trl USING AD_Language l WHERE l.AD_Language=M_Product_Trl.AD_Language;");
+
+		assertThat(tables.getWrittenTables()).containsExactlyInAnyOrder("ad_field", "c_order", "m_product_trl");
+		assertThat(tables.getReadTables()).containsExactlyInAnyOrder("ad_column", "ad_table", "ad_tab", "ad_field", "c_bpartner", "ad_language");
+	}
+
+	@Test
+	public void commentsStringsAndCastsAreIgnored()
+	{
+		final ScriptTables tables = tablesOf("-- FROM x1\n"
+				+ "/* FROM x2 /* nested */ */"
+				+ "UPDATE t SET Description='FROM x3; get_Table_ID(''x'')', Amt=1::numeric(10,2), Note=E'\\' FROM x4', Body=$$ FROM x5 $$;");
+
+		assertThat(tables.getWrittenTables()).containsExactly("t");
+		assertThat(tables.getReadTables()).isEmpty();
+	}
+
+	@Test
+	public void inDoubt()
+	{
+		assertInDoubt("INSERT INTO t VALUES (1); ALTER TABLE t ADD COLUMN y numeric;");
+		assertInDoubt("SELECT f();");
+		assertInDoubt("\\set ON_ERROR_STOP 1\nINSERT INTO t VALUES (1);");
+		assertInDoubt("INSERT INTO t VALUES (get_Table_ID('C_Order'));");
+		assertInDoubt("INSERT INTO t SELECT x FROM generate_series(1, 10) x;");
+		assertInDoubt("INSERT INTO t SELECT s.x FROM (SELECT x FROM a) s, b;");
+		assertInDoubt("WITH x AS (SELECT 1) INSERT INTO t SELECT * FROM x;");
+		assertInDoubt("DO $$ BEGIN INSERT INTO t VALUES (1); END $$;");
+		assertInDoubt("INSERT INTO t VALUES ('unclosed);");
+	}
+}
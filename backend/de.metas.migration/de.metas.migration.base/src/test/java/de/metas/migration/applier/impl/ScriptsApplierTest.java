@@ -0,0 +1,209 @@
+package de.metas.migration.applier.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.migration.IScript;
+import de.metas.migration.ScriptType;
+import de.metas.migration.TableRelations;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.executor.impl.DefaultScriptExecutorFactory;
+import de.metas.migration.executor.impl.JdbcScriptExecutor;
+import de.metas.migration.impl.InMemoryDatabase;
+import de.metas.migration.impl.LocalScript;
+
+public class ScriptsApplierTest
+{
+	private InMemoryDatabase database;
+
+	@BeforeEach
+	public void init()
+	{
+		database = new InMemoryDatabase().setStatementDelayMillis(100);
+	}
+
+	private ScriptsApplier createScriptsApplier(final int parallelism)
+	{
+		final DefaultScriptExecutorFactory scriptExecutorFactory = new DefaultScriptExecutorFactory();
+		scriptExecutorFactory.registerScriptExecutorClass("postgresql", ScriptType.SQL, JdbcScriptExecutor.class);
+
+		final ScriptsApplier scriptsApplier = new ScriptsApplier(database);
+		scriptsApplier.setScriptExecutorFactory(scriptExecutorFactory);
+		scriptsApplier.setSkipExecutingAfterScripts(true);
+		scriptsApplier.setParallelism(parallelism);
+		return scriptsApplier;
+	}
+
+	/** @return script which inserts into the project's own table */
+	private static IScript insertScript(final String projectName, final String name)
+	{
+		return script(projectName, name, "INSERT INTO t_" + projectName.toLowerCase() + " VALUES ('" + name + "');");
+	}
+
+	private static IScript script(final String projectName, final String name, final String content)
+	{
+		return new LocalScript(projectName, name + ".sql", new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void parallelLanesKeepOrderWithinProjectAndAroundBarriers()
+	{
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				insertScript("A", "a1"),
+				insertScript("B", "b1"),
+				insertScript("A", "a2"),
+				insertScript("B", "b2"),
+				insertScript("A", "a3"),
+				script("C", "c1", "CREATE TABLE c1 (x numeric);"),
+				insertScript("A", "a4"),
+				insertScript("B", "b3"));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2);
+		scriptsApplier.apply(scripts::iterator);
+
+		final List<String> executed = getExecutedScriptNames();
+		assertThat(executed).containsExactlyInAnyOrder("a1", "b1", "a2", "b2", "a3", "c1", "a4", "b3");
+
+		assertThat(executed).containsSubsequence("a1", "a2", "a3", "c1", "a4");
+		assertThat(executed).containsSubsequence("b1", "b2", "c1", "b3");
+		assertThat(executed.indexOf("c1")).isEqualTo(5);
+
+		assertThat(database.getMaxConcurrentStatements()).isGreaterThanOrEqualTo(2);
+
+		assertThat(scriptsApplier.getCountAll()).isEqualTo(8);
+		assertThat(scriptsApplier.getCountApplied()).isEqualTo(8);
+		assertThat(scripts).allMatch(database.getScriptsRegistry()::isApplied);
+
+		// only the target database connection shall remain open
+		assertThat(database.getCountOpenConnections()).isEqualTo(1);
+	}
+
+	private List<String> getExecutedScriptNames()
+	{
+		return database.getCommittedStatements()
+				.stream()
+				.map(sql -> sql.startsWith("CREATE TABLE") ? "c1" : sql.replaceAll(".*'(.*)'.*", "$1"))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@Test
+	public void dependentScriptsOfDifferentProjectsKeepTheirOrder()
+	{
+		database.setTableRelations(TableRelations.builder()
+				.foreignKeyReference("ad_field", "ad_column")
+				.build());
+
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				script("A", "a1", "INSERT INTO AD_Column VALUES ('a1');"),
+				// references the AD_Column record inserted by a1
+				script("B", "b1", "INSERT INTO AD_Field VALUES ('b1');"),
+				// would do something else if applied before b1
+				script("C", "c1", "INSERT INTO t_c SELECT 'c1' WHERE NOT EXISTS (SELECT 1 FROM AD_Field f WHERE f.Name='x');"),
+				// independent
+				insertScript("D", "d1"));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2);
+		scriptsApplier.apply(scripts::iterator);
+
+		final List<String> executed = getExecutedScriptNames();
+		assertThat(executed).containsExactlyInAnyOrder("a1", "b1", "c1", "d1");
+		assertThat(executed).containsSubsequence("a1", "b1", "c1");
+		assertThat(database.getMaxConcurrentStatements()).isEqualTo(2); // only d1 ran in parallel
+	}
+
+	@Test
+	public void scriptsWritingTablesWithTriggersAreBarriers()
+	{
+		database.setTableRelations(TableRelations.builder()
+				.tablesWithTrigger("t_b")
+				.build());
+
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				insertScript("A", "a1"),
+				insertScript("B", "b1"),
+				insertScript("C", "c1"));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2);
+		scriptsApplier.apply(scripts::iterator);
+
+		assertThat(getExecutedScriptNames()).containsExactly("a1", "b1", "c1");
+	}
+
+	@Test
+	public void tableRelationsNotAvailable_scriptsAreAppliedOneAfterAnother()
+	{
+		database.setTableRelations(null);
+
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				insertScript("A", "a1"),
+				insertScript("B", "b1"),
+				insertScript("C", "c1"));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2);
+		scriptsApplier.apply(scripts::iterator);
+
+		assertThat(getExecutedScriptNames()).containsExactly("a1", "b1", "c1");
+		assertThat(database.getMaxConcurrentStatements()).isEqualTo(1);
+	}
+
+	@Test
+	public void alreadyAppliedScriptsAreSkipped()
+	{
+		final IScript script = insertScript("A", "a1");
+		database.getScriptsRegistry().markApplied(script);
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2);
+		scriptsApplier.apply(ImmutableList.of(script)::iterator);
+
+		assertThat(database.getCommittedStatements()).isEmpty();
+		assertThat(scriptsApplier.getCountAll()).isEqualTo(1);
+		assertThat(scriptsApplier.getCountApplied()).isEqualTo(0);
+	}
+
+	@Test
+	public void failingScriptStopsTheMigration()
+	{
+		final ImmutableList<IScript> scripts = ImmutableList.of(
+				insertScript("A", "a1"),
+				insertScript("B", "FAIL"),
+				insertScript("B", "b2"));
+
+		final ScriptsApplier scriptsApplier = createScriptsApplier(2);
+		assertThatThrownBy(() -> scriptsApplier.apply(scripts::iterator))
+				.isInstanceOf(ScriptExecutionException.class);
+
+		assertThat(database.getCommittedStatements()).doesNotContain("INSERT INTO t_b VALUES ('b2')");
+		assertThat(database.getScriptsRegistry().isApplied(scripts.get(2))).isFalse();
+	}
+}
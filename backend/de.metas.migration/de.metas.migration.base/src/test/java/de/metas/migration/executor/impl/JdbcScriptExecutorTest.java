@@ -0,0 +1,93 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.migration.IScript;
+import de.metas.migration.exception.ScriptExecutionException;
+import de.metas.migration.impl.InMemoryDatabase;
+import de.metas.migration.impl.LocalScript;
+
+public class JdbcScriptExecutorTest
+{
+	private InMemoryDatabase database;
+	private JdbcScriptExecutor executor;
+
+	@BeforeEach
+	public void init()
+	{
+		database = new InMemoryDatabase();
+		executor = new JdbcScriptExecutor(database);
+	}
+
+	private static IScript script(final String fileName, final String content)
+	{
+		return new LocalScript("test", fileName, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void allStatementsAreCommitted()
+	{
+		executor.execute(script("1_ok.sql", "-- some comment\n"
+				+ "INSERT INTO t VALUES (1);\n"
+				+ "CREATE FUNCTION f() RETURNS void AS $$ BEGIN PERFORM 1; END; $$ LANGUAGE plpgsql;\n"
+				+ "SELECT f()"));
+
+		assertThat(database.getCommittedStatements()).containsExactly(
+				"INSERT INTO t VALUES (1)",
+				"CREATE FUNCTION f() RETURNS void AS $$ BEGIN PERFORM 1; END; $$ LANGUAGE plpgsql",
+				"SELECT f()");
+	}
+
+	@Test
+	public void failingStatementRollsBackTheWholeScript()
+	{
+		final IScript script = script("2_fail.sql", "INSERT INTO t VALUES (1);\n"
+				+ "\n"
+				+ "INSERT INTO t VALUES ('FAIL');\n"
+				+ "INSERT INTO t VALUES (3);");
+
+		assertThatThrownBy(() -> executor.execute(script))
+				.isInstanceOfSatisfying(ScriptExecutionException.class, e -> assertThat(e.getParameters())
+						.containsEntry("Line", 3)
+						.containsEntry("Statement", "INSERT INTO t VALUES ('FAIL')"));
+
+		assertThat(database.getCommittedStatements()).isEmpty();
+	}
+
+	@Test
+	public void connectionIsLeftInAutoCommit() throws Exception
+	{
+		executor.execute(script("3_ok.sql", "INSERT INTO t VALUES (1);"));
+
+		assertThat(database.getConnection().getAutoCommit()).isTrue();
+	}
+}
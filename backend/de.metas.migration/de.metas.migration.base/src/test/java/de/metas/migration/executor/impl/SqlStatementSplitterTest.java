@@ -0,0 +1,124 @@
+package de.metas.migration.executor.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.migration.exception.ScriptException;
+import de.metas.migration.executor.impl.SqlStatementSplitter.SqlStatement;
+
+public class SqlStatementSplitterTest
+{
+	private static List<String> splitToSql(final String script)
+	{
+		return SqlStatementSplitter.split(script)
+				.stream()
+				.map(SqlStatement::getSql)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void simpleStatements()
+	{
+		final List<SqlStatement> statements = SqlStatementSplitter.split("-- header\n"
+				+ "INSERT INTO t VALUES (1);\n"
+				+ "\n"
+				+ "UPDATE t SET x=2 WHERE x=1\n"
+				+ ";\n"
+				+ "/* trailing */");
+
+		assertThat(statements).extracting(SqlStatement::getSql)
+				.containsExactly("INSERT INTO t VALUES (1)", "UPDATE t SET x=2 WHERE x=1");
+		assertThat(statements).extracting(SqlStatement::getLineNo).containsExactly(2, 4);
+		assertThat(statements).extracting(SqlStatement::getCommand).containsExactly("INSERT", "UPDATE");
+	}
+
+	@Test
+	public void lastStatementWithoutSemicolon()
+	{
+		assertThat(splitToSql("SELECT 1; SELECT 2")).containsExactly("SELECT 1", "SELECT 2");
+	}
+
+	@Test
+	public void semicolonsInStringsAndComments()
+	{
+		assertThat(splitToSql("INSERT INTO t VALUES ('a;b', 'it''s; fine'); -- comment; with semicolon\n"
+				+ "/* block; /* nested; */ still comment; */ SELECT \"odd;name\" FROM t;\n"
+				+ "SELECT E'escaped \\' quote;';"))
+						.containsExactly(
+								"INSERT INTO t VALUES ('a;b', 'it''s; fine')",
+								"SELECT \"odd;name\" FROM t",
+								"SELECT E'escaped \\' quote;'");
+	}
+
+	@Test
+	public void dollarQuotedFunctionBody()
+	{
+		final String createFunction = "CREATE OR REPLACE FUNCTION f(p_id numeric) RETURNS void AS\n"
+				+ "$BODY$\n"
+				+ "BEGIN\n"
+				+ "  UPDATE t SET x = $1;\n"
+				+ "  PERFORM $$nested; string$$;\n"
+				+ "END;\n"
+				+ "$BODY$\n"
+				+ "LANGUAGE plpgsql";
+
+		final List<SqlStatement> statements = SqlStatementSplitter.split(createFunction + ";\n"
+				+ "DO $$ BEGIN RAISE NOTICE 'done;'; END $$;\n"
+				+ "SELECT 1;");
+
+		assertThat(statements).extracting(SqlStatement::getSql)
+				.containsExactly(createFunction, "DO $$ BEGIN RAISE NOTICE 'done;'; END $$", "SELECT 1");
+		assertThat(statements).extracting(SqlStatement::getLineNo).containsExactly(1, 9, 10);
+	}
+
+	@Test
+	public void dollarSignInIdentifiersAndParameters()
+	{
+		assertThat(splitToSql("SELECT a$b$c, $1 FROM t; SELECT 2;"))
+				.containsExactly("SELECT a$b$c, $1 FROM t", "SELECT 2");
+	}
+
+	@Test
+	public void psqlMetaCommands()
+	{
+		final List<SqlStatement> statements = SqlStatementSplitter.split("\\set ON_ERROR_STOP 1\nSELECT 1;");
+
+		assertThat(statements).extracting(SqlStatement::isPsqlMetaCommand).containsExactly(true, false);
+		assertThat(statements.get(0).getSql()).isEqualTo("\\set ON_ERROR_STOP 1");
+	}
+
+	@Test
+	public void unterminatedDollarQuote()
+	{
+		assertThatThrownBy(() -> SqlStatementSplitter.split("SELECT 1;\nDO $$ BEGIN"))
+				.isInstanceOf(ScriptException.class)
+				.hasMessageContaining("Unterminated");
+	}
+}
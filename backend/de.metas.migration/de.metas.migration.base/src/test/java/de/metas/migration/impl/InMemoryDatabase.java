@@ -0,0 +1,299 @@
+package de.metas.migration.impl;
+
+/*
+ * #%L
+ * de.metas.migration.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.migration.IDatabase;
+import de.metas.migration.IScript;
+import de.metas.migration.IScriptsRegistry;
+import de.metas.migration.TableRelations;
+
+/**
+ * Database stand-in which records the SQL statements executed over its JDBC connection.
+ * <p>
+ * Statements are recorded when their transaction is committed. Statements containing <code>FAIL</code> are failing.
+ */
+public class InMemoryDatabase implements IDatabase
+{
+	private static class SharedState
+	{
+		private final List<String> committedStatements = Collections.synchronizedList(new ArrayList<>());
+		private final Set<String> appliedScripts = Collections.synchronizedSet(new HashSet<>());
+		private final AtomicInteger countRunning = new AtomicInteger();
+		private final AtomicInteger maxRunning = new AtomicInteger();
+		private final AtomicInteger countOpenConnections = new AtomicInteger();
+		private long statementDelayMillis = 0;
+		private TableRelations tableRelations = TableRelations.builder().build();
+	}
+
+	private final SharedState state;
+	private Connection connection;
+
+	public InMemoryDatabase()
+	{
+		this(new SharedState());
+	}
+
+	private InMemoryDatabase(final SharedState state)
+	{
+		this.state = state;
+	}
+
+	public InMemoryDatabase setStatementDelayMillis(final long statementDelayMillis)
+	{
+		state.statementDelayMillis = statementDelayMillis;
+		return this;
+	}
+
+	public InMemoryDatabase setTableRelations(final TableRelations tableRelations)
+	{
+		state.tableRelations = tableRelations;
+		return this;
+	}
+
+	public ImmutableList<String> getCommittedStatements()
+	{
+		synchronized (state.committedStatements)
+		{
+			return ImmutableList.copyOf(state.committedStatements);
+		}
+	}
+
+	public int getMaxConcurrentStatements()
+	{
+		return state.maxRunning.get();
+	}
+
+	public int getCountOpenConnections()
+	{
+		return state.countOpenConnections.get();
+	}
+
+	@Override
+	public String getDbType()
+	{
+		return "postgresql";
+	}
+
+	@Override
+	public String getDbHostname()
+	{
+		return "localhost";
+	}
+
+	@Override
+	public String getDbPort()
+	{
+		return null;
+	}
+
+	@Override
+	public String getDbName()
+	{
+		return "inmemory";
+	}
+
+	@Override
+	public String getDbUser()
+	{
+		return null;
+	}
+
+	@Override
+	public String getDbPassword()
+	{
+		return null;
+	}
+
+	@Override
+	public synchronized Connection getConnection()
+	{
+		if (connection == null)
+		{
+			connection = createConnection();
+			state.countOpenConnections.incrementAndGet();
+		}
+		return connection;
+	}
+
+	@Override
+	public InMemoryDatabase copyWithOwnConnection()
+	{
+		return new InMemoryDatabase(state);
+	}
+
+	@Override
+	public synchronized void closeConnection()
+	{
+		if (connection != null)
+		{
+			connection = null;
+			state.countOpenConnections.decrementAndGet();
+		}
+	}
+
+	@Override
+	public TableRelations retrieveTableRelations()
+	{
+		if (state.tableRelations == null)
+		{
+			throw new UnsupportedOperationException("No table relations");
+		}
+		return state.tableRelations;
+	}
+
+	@Override
+	public IScriptsRegistry getScriptsRegistry()
+	{
+		return new IScriptsRegistry()
+		{
+			@Override
+			public boolean isApplied(final IScript script)
+			{
+				return state.appliedScripts.contains(script.getFileName());
+			}
+
+			@Override
+			public void markApplied(final IScript script)
+			{
+				state.appliedScripts.add(script.getFileName());
+			}
+
+			@Override
+			public void markIgnored(final IScript script)
+			{
+				state.appliedScripts.add(script.getFileName());
+			}
+		};
+	}
+
+	private Connection createConnection()
+	{
+		final List<String> uncommittedStatements = new ArrayList<>();
+		final boolean[] autoCommit = { true };
+
+		final Statement statement = (Statement)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "execute":
+					execute((String)args[0]);
+					uncommittedStatements.add((String)args[0]);
+					if (autoCommit[0])
+					{
+						state.committedStatements.addAll(uncommittedStatements);
+						uncommittedStatements.clear();
+					}
+					return false;
+				default:
+					return defaultReturnValue(proxy, method, args);
+			}
+		});
+
+		return (Connection)Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "createStatement":
+					return statement;
+				case "getAutoCommit":
+					return autoCommit[0];
+				case "setAutoCommit":
+					autoCommit[0] = (Boolean)args[0];
+					return null;
+				case "commit":
+					state.committedStatements.addAll(uncommittedStatements);
+					uncommittedStatements.clear();
+					return null;
+				case "rollback":
+					uncommittedStatements.clear();
+					return null;
+				case "isClosed":
+					return false;
+				default:
+					return defaultReturnValue(proxy, method, args);
+			}
+		});
+	}
+
+	private static Object defaultReturnValue(final Object proxy, final Method method, final Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "InMemoryDatabase." + proxy.getClass().getInterfaces()[0].getSimpleName();
+			default:
+				if (method.getReturnType() == boolean.class)
+				{
+					return false;
+				}
+				else if (method.getReturnType() == int.class)
+				{
+					return 0;
+				}
+				return null;
+		}
+	}
+
+	private void execute(final String sql) throws SQLException, InterruptedException
+	{
+		final int running = state.countRunning.incrementAndGet();
+		state.maxRunning.accumulateAndGet(running, Math::max);
+		try
+		{
+			if (state.statementDelayMillis > 0)
+			{
+				Thread.sleep(state.statementDelayMillis);
+			}
+			if (sql.contains("FAIL"))
+			{
+				throw new SQLException("Simulated failure: " + sql);
+			}
+		}
+		finally
+		{
+			state.countRunning.decrementAndGet();
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "InMemoryDatabase";
+	}
+}
@@ -65,6 +65,8 @@ class CommandlineParams
 	public static final String OPTION_DoNotFailIfRolloutIsGreaterThanDB = "i";
 
 	public static final String OPTION_LONG_AddSqlDir = "add-sql-dir";
+	public static final String OPTION_LONG_JdbcExecutor = "jdbc-executor";
+	public static final String OPTION_LONG_Parallelism = "parallelism";
 
 	private final Options options;
 
@@ -169,6 +171,24 @@ class CommandlineParams
 			options.addOption(option);
 		}
 
+		{
+			final Option option = new Option(/* opt */null, "Executes the SQL scripts over JDBC, instead of starting a psql process for each script.");
+			option.setLongOpt(OPTION_LONG_JdbcExecutor);
+			option.setArgs(0);
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
+		{
+			final Option option = new Option(/* opt */null, "Applies up to <N> scripts in parallel. Scripts of the same project are still applied in order,"
+					+ " and scripts which are not plain INSERT/UPDATE/DELETE are applied alone. Default is 1.");
+			option.setLongOpt(OPTION_LONG_Parallelism);
+			option.setArgs(1);
+			option.setArgName("N");
+			option.setRequired(false);
+			options.addOption(option);
+		}
+
 		return options;
 	}
 
@@ -240,6 +260,18 @@ class CommandlineParams
 
 		configBuilder.additionalSqlDirs(extractAdditionalSqlDirs(cmd));
 
+		if (cmd.hasOption(OPTION_LONG_JdbcExecutor))
+		{
+			logger.info("Will execute the SQL scripts over JDBC");
+			configBuilder.useJdbcExecutor(true);
+		}
+		if (cmd.hasOption(OPTION_LONG_Parallelism))
+		{
+			final int parallelism = Integer.parseInt(cmd.getOptionValue(OPTION_LONG_Parallelism).trim());
+			logger.info("Will apply up to {} scripts in parallel", parallelism);
+			configBuilder.parallelism(parallelism);
+		}
+
 		final Config config = configBuilder.canRun(true).build();
 		logger.info("config={}", config);
 
@@ -89,4 +89,16 @@ class Config
 	@Default
 	@NonNull
 	ImmutableSet<IFileRef> additionalSqlDirs = ImmutableSet.of();
+
+	/**
+	 * If true, the SQL scripts are executed over JDBC instead of starting a psql process for each of them.
+	 */
+	@Default
+	boolean useJdbcExecutor = false;
+
+	/**
+	 * How many scripts shall be applied in parallel.
+	 */
+	@Default
+	int parallelism = 1;
 }
@@ -70,6 +70,8 @@ public class Main
 				.dbPassword(getMandatoryProperty("db.password", PROP_DB_PASSWORD_DEFAULT))
 				.dryRunMode(getBooleanProperty("dryRunMode", false))
 				.skipExecutingAfterScripts(getBooleanProperty("skipExecutingAfterScripts", false))
+				.useJdbcExecutor(getBooleanProperty("useJdbcExecutor", false))
+				.parallelism(getIntProperty("parallelism", 1))
 				.labels(getLabels())
 				.build();
 	}
@@ -130,6 +132,18 @@ public class Main
 		return defaultValue;
 	}
 
+	private static int getIntProperty(final String name, final int defaultValue)
+	{
+		final String valueStr = System.getProperty(name);
+		if (!isBlank(valueStr))
+		{
+			return Integer.parseInt(valueStr.trim());
+		}
+
+		logger.info("Considering default config: {}={}. To override it start JVM with '-D{}=...'.", name, defaultValue, name);
+		return defaultValue;
+	}
+
 	private static final boolean isBlank(final String str)
 	{
 		return str == null || str.trim().isEmpty();
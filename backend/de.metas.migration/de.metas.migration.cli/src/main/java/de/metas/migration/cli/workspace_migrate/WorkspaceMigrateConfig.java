@@ -46,6 +46,8 @@ class WorkspaceMigrateConfig
 
 	boolean dryRunMode;
 	boolean skipExecutingAfterScripts;
+	boolean useJdbcExecutor;
+	int parallelism;
 
 	@NonNull
 	ImmutableSet<Label> labels;
@@ -1,11 +1,13 @@
 package de.metas.migration.cli.workspace_migrate;
 
 import de.metas.migration.IDatabase;
+import de.metas.migration.ScriptType;
 import de.metas.migration.applier.IScriptsApplierListener;
 import de.metas.migration.applier.impl.ScriptsApplier;
 import de.metas.migration.applier.impl.SwingUIScriptsApplierListener;
 import de.metas.migration.executor.IScriptExecutorFactory;
 import de.metas.migration.executor.impl.DefaultScriptExecutorFactory;
+import de.metas.migration.executor.impl.JdbcScriptExecutor;
 import de.metas.migration.impl.AbstractScriptsApplierTemplate;
 import de.metas.migration.impl.SQLDatabase;
 import de.metas.migration.scanner.IScriptFactory;
@@ -76,6 +78,10 @@ class WorkspaceScriptsApplier extends AbstractScriptsApplierTemplate
 	protected void configureScriptExecutorFactory(final IScriptExecutorFactory scriptExecutorFactory)
 	{
 		scriptExecutorFactory.setDryRunMode(config.isDryRunMode());
+		if (config.isUseJdbcExecutor())
+		{
+			scriptExecutorFactory.registerScriptExecutorClass("postgresql", ScriptType.SQL, JdbcScriptExecutor.class);
+		}
 	}
 
 	@Override
@@ -89,6 +95,7 @@ class WorkspaceScriptsApplier extends AbstractScriptsApplierTemplate
 	{
 		final ScriptsApplier scriptApplier = super.createScriptApplier(database);
 		scriptApplier.setSkipExecutingAfterScripts(config.isSkipExecutingAfterScripts());
+		scriptApplier.setParallelism(config.getParallelism());
 		return scriptApplier;
 	}
 
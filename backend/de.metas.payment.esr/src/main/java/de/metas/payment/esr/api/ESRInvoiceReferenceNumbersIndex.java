@@ -0,0 +1,148 @@
+package de.metas.payment.esr.api;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_C_Invoice;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.organization.OrgId;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory hash index of the invoice reference numbers of open invoices, preloaded for all lines of an ESR import.
+ * <p>
+ * The index only knows a subset of the invoice reference numbers. If a lookup returns <code>null</code>,
+ * the caller shall fall back to {@link IESRImportDAO#retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}.
+ *
+ * @see IESRImportDAO#retrieveESRInvoiceReferenceNumbersIndex(java.util.Set)
+ */
+@ToString(of = "referenceNosByMatchKey")
+public final class ESRInvoiceReferenceNumbersIndex
+{
+	public static final ESRInvoiceReferenceNumbersIndex EMPTY = new ESRInvoiceReferenceNumbersIndex(ImmutableList.of(), ImmutableList.of(), ImmutableList.of());
+
+	/**
+	 * Length of the ESR reference number we are matching on, i.e. the full reference number without the bank account no (first 7 digits) and the check digit (last digit).
+	 */
+	private static final int MATCH_KEY_LENGTH = 19;
+
+	private final ImmutableListMultimap<String, I_C_ReferenceNo> referenceNosByMatchKey;
+	private final ImmutableListMultimap<Integer, I_C_ReferenceNo_Doc> invoiceDocsByReferenceNoId;
+	private final ImmutableMap<Integer, I_C_Invoice> invoicesById;
+
+	public ESRInvoiceReferenceNumbersIndex(
+			@NonNull final List<I_C_ReferenceNo> referenceNos,
+			@NonNull final List<I_C_ReferenceNo_Doc> invoiceDocs,
+			@NonNull final List<I_C_Invoice> invoices)
+	{
+		final ImmutableListMultimap.Builder<String, I_C_ReferenceNo> referenceNosByMatchKey = ImmutableListMultimap.builder();
+		for (final I_C_ReferenceNo referenceNo : referenceNos)
+		{
+			final String matchKey = extractMatchKey(referenceNo.getReferenceNo());
+			if (matchKey != null)
+			{
+				referenceNosByMatchKey.put(matchKey, referenceNo);
+			}
+		}
+		this.referenceNosByMatchKey = referenceNosByMatchKey.build();
+
+		this.invoiceDocsByReferenceNoId = invoiceDocs.stream()
+				.collect(ImmutableListMultimap.toImmutableListMultimap(I_C_ReferenceNo_Doc::getC_ReferenceNo_ID, doc -> doc));
+
+		this.invoicesById = invoices.stream()
+				.collect(ImmutableMap.toImmutableMap(I_C_Invoice::getC_Invoice_ID, invoice -> invoice));
+	}
+
+	/**
+	 * Same as {@link IESRImportDAO#retrieveESRInvoiceReferenceNumberDocument(OrgId, String)}, but only using the preloaded data.
+	 *
+	 * @param esrReferenceNumber ESR reference number to match, without the bank account no and the check digit
+	 * @return the invoice's reference number document or <code>null</code> if the index cannot tell for sure
+	 */
+	@Nullable
+	public I_C_ReferenceNo_Doc getInvoiceReferenceNoDocOrNull(@NonNull final OrgId orgId, @NonNull final String esrReferenceNumber)
+	{
+		I_C_ReferenceNo referenceNo = null;
+		for (final I_C_ReferenceNo candidate : referenceNosByMatchKey.get(esrReferenceNumber))
+		{
+			final OrgId candidateOrgId = OrgId.ofRepoIdOrAny(candidate.getAD_Org_ID());
+			if (!candidateOrgId.equals(orgId) && !candidateOrgId.isAny())
+			{
+				continue;
+			}
+			if (referenceNo != null)
+			{
+				return null; // ambiguous; let the database lookup handle it
+			}
+			referenceNo = candidate;
+		}
+
+		if (referenceNo == null)
+		{
+			return null;
+		}
+
+		final List<I_C_ReferenceNo_Doc> invoiceDocs = invoiceDocsByReferenceNoId.get(referenceNo.getC_ReferenceNo_ID());
+		return invoiceDocs.size() == 1 ? invoiceDocs.get(0) : null;
+	}
+
+	/**
+	 * @return preloaded invoice or <code>null</code> if the invoice is not in this index
+	 */
+	@Nullable
+	public I_C_Invoice getInvoiceOrNull(final int invoiceId)
+	{
+		return invoicesById.get(invoiceId);
+	}
+
+	public int size()
+	{
+		return referenceNosByMatchKey.size();
+	}
+
+	/**
+	 * @return the part of the given reference number which is matched against the ESR reference number of an import line,
+	 *         i.e. the {@value #MATCH_KEY_LENGTH} characters before the last one.
+	 */
+	@Nullable
+	private static String extractMatchKey(@Nullable final String referenceNo)
+	{
+		if (referenceNo == null || referenceNo.length() < MATCH_KEY_LENGTH + 1)
+		{
+			return null;
+		}
+
+		final int end = referenceNo.length() - 1;
+		return referenceNo.substring(end - MATCH_KEY_LENGTH, end);
+	}
+}
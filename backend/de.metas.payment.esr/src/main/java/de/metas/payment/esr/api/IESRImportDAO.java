@@ -27,6 +27,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -77,6 +78,11 @@ public interface IESRImportDAO extends ISingletonService
 	 */
 	I_C_ReferenceNo_Doc retrieveESRInvoiceReferenceNumberDocument(OrgId orgId, String esrReferenceNumber);
 
+	/**
+	 * Preloads the invoice reference numbers of the open invoices of the given orgs, to match many ESR import lines without querying the database for each of them.
+	 */
+	ESRInvoiceReferenceNumbersIndex retrieveESRInvoiceReferenceNumbersIndex(Set<OrgId> orgIds);
+
 	/**
 	 * Retrieve the existing esr imports of the organization given as parameter (through ID)
 	 */
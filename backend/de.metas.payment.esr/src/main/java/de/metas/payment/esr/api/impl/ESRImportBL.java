@@ -21,6 +21,7 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
@@ -44,6 +45,7 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -76,6 +78,7 @@ import de.metas.payment.api.IPaymentBL;
 import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.ESRImportId;
 import de.metas.payment.esr.actionhandler.IESRActionHandler;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumbersIndex;
 import de.metas.payment.esr.api.IESRImportBL;
 import de.metas.payment.esr.api.IESRImportDAO;
 import de.metas.payment.esr.api.RunESRImportRequest;
@@ -266,12 +269,13 @@ public class ESRImportBL implements IESRImportBL
 		int trxQty = 0;
 
 		final List<I_ESR_ImportLine> esrImportLines = esrImportDAO.retrieveLines(esrImport);
+		final ESRInvoiceReferenceNumbersIndex invoiceReferenceNumbersIndex = retrieveInvoiceReferenceNumbersIndex(esrImportLines);
 
 		for (final I_ESR_ImportLine importLine : esrImportLines)
 		{
 			//
 			// now do different validations with the values loaded from the input file
-			evaluateLine(esrImport, importLine);
+			evaluateLine(esrImport, importLine, invoiceReferenceNumbersIndex);
 
 			importAmt = importAmt.add(importLine.getAmount());
 			trxQty++;
@@ -322,8 +326,28 @@ public class ESRImportBL implements IESRImportBL
 		return fitTrxQtys;
 	}
 
+	/**
+	 * Preloads the invoice reference numbers which could match the given lines, so that we don't have to query them line by line.
+	 */
+	private ESRInvoiceReferenceNumbersIndex retrieveInvoiceReferenceNumbersIndex(@NonNull final List<I_ESR_ImportLine> esrImportLines)
+	{
+		final ImmutableSet<OrgId> orgIds = esrImportLines.stream()
+				.map(line -> OrgId.ofRepoIdOrAny(line.getAD_Org_ID()))
+				.collect(ImmutableSet.toImmutableSet());
+
+		return esrImportDAO.retrieveESRInvoiceReferenceNumbersIndex(orgIds);
+	}
+
 	@VisibleForTesting
 	public void evaluateLine(@NonNull final I_ESR_Import esrImport, @NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateLine(esrImport, importLine, ESRInvoiceReferenceNumbersIndex.EMPTY);
+	}
+
+	private void evaluateLine(
+			@NonNull final I_ESR_Import esrImport,
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRInvoiceReferenceNumbersIndex invoiceReferenceNumbersIndex)
 	{
 		if (isReverseBookingLine(importLine))
 		{
@@ -341,7 +365,7 @@ public class ESRImportBL implements IESRImportBL
 		}
 
 		// The reference number of the ESR Import line
-		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine);
+		ESRDataLoaderUtil.evaluateEsrReferenceNumber(importLine, invoiceReferenceNumbersIndex);
 
 		// task 05917: check if the the payment date from the ESR file is OK for us
 		try
@@ -456,6 +480,7 @@ public class ESRImportBL implements IESRImportBL
 
 		final List<I_ESR_ImportLine> linesToProcess = new ArrayList<>();
 		final List<I_ESR_ImportLine> allLines = esrImportDAO.retrieveLines(esrImport);
+		final Supplier<ESRInvoiceReferenceNumbersIndex> invoiceReferenceNumbersIndex = Suppliers.memoize(() -> retrieveInvoiceReferenceNumbersIndex(allLines));
 		try
 		{
 			if (allLines.isEmpty())
@@ -506,7 +531,7 @@ public class ESRImportBL implements IESRImportBL
 				// Check/Validate
 				if (!line.isValid())
 				{
-					evaluateLine(esrImport, line);
+					evaluateLine(esrImport, line, invoiceReferenceNumbersIndex.get());
 				}
 				// finally, skip lines that have no bpartner set
 				if (line.getC_BPartner_ID() <= 0)
@@ -31,6 +31,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
@@ -45,9 +46,12 @@ import org.adempiere.util.comparator.ComparableComparator;
 import org.adempiere.util.comparator.ComparatorChain;
 import org.compiere.model.I_C_Invoice;
 import org.compiere.model.I_C_Payment;
+import org.compiere.model.IQuery;
+import org.compiere.model.X_C_Invoice;
 import org.compiere.util.Env;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.banking.BankStatementAndLineAndRefId;
 import de.metas.banking.BankStatementLineId;
@@ -60,6 +64,7 @@ import de.metas.organization.OrgId;
 import de.metas.payment.PaymentId;
 import de.metas.payment.esr.ESRConstants;
 import de.metas.payment.esr.ESRImportId;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumbersIndex;
 import de.metas.payment.esr.api.IESRImportDAO;
 import de.metas.payment.esr.model.I_ESR_Import;
 import de.metas.payment.esr.model.I_ESR_ImportLine;
@@ -231,6 +236,55 @@ public class ESRImportDAO implements IESRImportDAO
 		return invoiceDocs.get(0);
 	}
 
+	@Override
+	public ESRInvoiceReferenceNumbersIndex retrieveESRInvoiceReferenceNumbersIndex(@NonNull final Set<OrgId> orgIds)
+	{
+		if (orgIds.isEmpty())
+		{
+			return ESRInvoiceReferenceNumbersIndex.EMPTY;
+		}
+
+		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
+		final I_C_ReferenceNo_Type refNoType = refNoDAO.retrieveRefNoTypeByName(ESRConstants.DOCUMENT_REFID_ReferenceNo_Type_InvoiceReferenceNumber);
+		final int invoiceTableID = getTableId(I_C_Invoice.class);
+
+		final IQuery<I_C_Invoice> openInvoicesQuery = queryBL.createQueryBuilderOutOfTrx(I_C_Invoice.class)
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_C_Invoice.COLUMNNAME_AD_Org_ID, orgIds)
+				.addEqualsFilter(I_C_Invoice.COLUMNNAME_DocStatus, X_C_Invoice.DOCSTATUS_Completed)
+				.addEqualsFilter(I_C_Invoice.COLUMNNAME_IsPaid, false)
+				.create();
+
+		final IQuery<I_C_ReferenceNo> referenceNosQuery = queryBL.createQueryBuilder(I_C_ReferenceNo.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_Type_ID, refNoType.getC_ReferenceNo_Type_ID())
+				.addInArrayFilter(I_C_ReferenceNo.COLUMNNAME_AD_Org_ID, ImmutableSet.<OrgId> builder().addAll(orgIds).add(OrgId.ANY).build())
+				.addInSubQueryFilter(I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_ID,
+						I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_ID,
+						queryBL.createQueryBuilder(I_C_ReferenceNo_Doc.class)
+								.addOnlyActiveRecordsFilter()
+								.addEqualsFilter(I_C_ReferenceNo_Doc.COLUMNNAME_AD_Table_ID, invoiceTableID)
+								.addInSubQueryFilter(I_C_ReferenceNo_Doc.COLUMNNAME_Record_ID, I_C_Invoice.COLUMNNAME_C_Invoice_ID, openInvoicesQuery)
+								.create())
+				.create()
+				.setRequiredAccess(Access.READ);
+
+		// also load the assignments to other invoices (e.g. paid ones) of those reference numbers, so that the index can tell if a reference number is ambiguous
+		final List<I_C_ReferenceNo_Doc> invoiceDocs = queryBL.createQueryBuilder(I_C_ReferenceNo_Doc.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_C_ReferenceNo_Doc.COLUMNNAME_AD_Table_ID, invoiceTableID)
+				.addInSubQueryFilter(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_ID, I_C_ReferenceNo.COLUMNNAME_C_ReferenceNo_ID, referenceNosQuery)
+				.orderBy(I_C_ReferenceNo_Doc.COLUMNNAME_C_ReferenceNo_Doc_ID)
+				.create()
+				.setRequiredAccess(Access.READ)
+				.list(I_C_ReferenceNo_Doc.class);
+
+		return new ESRInvoiceReferenceNumbersIndex(
+				referenceNosQuery.list(I_C_ReferenceNo.class),
+				invoiceDocs,
+				openInvoicesQuery.list(I_C_Invoice.class));
+	}
+
 	private I_C_ReferenceNo fetchESRInvoiceReferenceNumber(@NonNull final String esrReferenceNumber, @NonNull final OrgId orgId)
 	{
 		final IReferenceNoDAO refNoDAO = Services.get(IReferenceNoDAO.class);
@@ -21,6 +21,7 @@ import de.metas.i18n.IMsgBL;
 import de.metas.invoice.service.IInvoiceDAO;
 import de.metas.organization.IOrgDAO;
 import de.metas.organization.OrgId;
+import de.metas.payment.esr.api.ESRInvoiceReferenceNumbersIndex;
 import de.metas.payment.esr.api.IESRBPBankAccountDAO;
 import de.metas.payment.esr.api.IESRImportBL;
 import de.metas.payment.esr.api.IESRImportDAO;
@@ -104,6 +105,16 @@ public class ESRDataLoaderUtil
 	 * @param completeEsrReferenceNumberStr
 	 */
 	public void evaluateEsrReferenceNumber(@NonNull final I_ESR_ImportLine importLine)
+	{
+		evaluateEsrReferenceNumber(importLine, ESRInvoiceReferenceNumbersIndex.EMPTY);
+	}
+
+	/**
+	 * Same as {@link #evaluateEsrReferenceNumber(I_ESR_ImportLine)}, but first looks up the invoice reference number in the given (preloaded) index.
+	 */
+	public void evaluateEsrReferenceNumber(
+			@NonNull final I_ESR_ImportLine importLine,
+			@NonNull final ESRInvoiceReferenceNumbersIndex invoiceReferenceNumbersIndex)
 	{
 		final String completeEsrReferenceNumberStr = importLine.getESRFullReferenceNumber();
 		if (Check.isEmpty(completeEsrReferenceNumberStr, true))
@@ -116,9 +127,13 @@ public class ESRDataLoaderUtil
 
 		importLine.setESRReferenceNumber(esrReferenceNumberToMatch);
 
-		final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
-		final I_C_ReferenceNo_Doc esrReferenceNumberDocument = esrImportDAO
-				.retrieveESRInvoiceReferenceNumberDocument(OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID()), esrReferenceNumberToMatch);
+		final OrgId orgId = OrgId.ofRepoIdOrAny(importLine.getAD_Org_ID());
+		I_C_ReferenceNo_Doc esrReferenceNumberDocument = invoiceReferenceNumbersIndex.getInvoiceReferenceNoDocOrNull(orgId, esrReferenceNumberToMatch);
+		if (esrReferenceNumberDocument == null)
+		{
+			final IESRImportDAO esrImportDAO = Services.get(IESRImportDAO.class);
+			esrReferenceNumberDocument = esrImportDAO.retrieveESRInvoiceReferenceNumberDocument(orgId, esrReferenceNumberToMatch);
+		}
 
 		if (esrReferenceNumberDocument == null)
 		{
@@ -140,7 +155,10 @@ public class ESRDataLoaderUtil
 				importLine.setC_ReferenceNo_ID(esrReferenceNumberDocument.getC_ReferenceNo_ID());
 
 				final int invoiceID = esrReferenceNumberDocument.getRecord_ID();
-				final I_C_Invoice invoice = InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
+				final I_C_Invoice preloadedInvoice = invoiceReferenceNumbersIndex.getInvoiceOrNull(invoiceID);
+				final I_C_Invoice invoice = preloadedInvoice != null
+						? preloadedInvoice
+						: InterfaceWrapperHelper.create(Env.getCtx(), invoiceID, I_C_Invoice.class, ITrx.TRXNAME_None);
 
 				final boolean match = Services.get(IESRLineHandlersService.class)
 						.applyESRMatchingBPartnerOfTheInvoice(invoice, importLine);
@@ -0,0 +1,140 @@
+package de.metas.payment.esr.api;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Invoice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.document.refid.model.I_C_ReferenceNo;
+import de.metas.document.refid.model.I_C_ReferenceNo_Doc;
+import de.metas.organization.OrgId;
+
+/*
+ * #%L
+ * de.metas.payment.esr
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+public class ESRInvoiceReferenceNumbersIndexTest
+{
+	private static final OrgId orgId1 = OrgId.ofRepoId(1);
+	private static final OrgId orgId2 = OrgId.ofRepoId(2);
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static I_C_ReferenceNo referenceNo(final String referenceNoStr, final OrgId orgId)
+	{
+		final I_C_ReferenceNo referenceNo = newInstance(I_C_ReferenceNo.class);
+		referenceNo.setReferenceNo(referenceNoStr);
+		referenceNo.setAD_Org_ID(orgId.getRepoId());
+		saveRecord(referenceNo);
+		return referenceNo;
+	}
+
+	private static I_C_ReferenceNo_Doc invoiceDoc(final I_C_ReferenceNo referenceNo, final I_C_Invoice invoice)
+	{
+		final I_C_ReferenceNo_Doc doc = newInstance(I_C_ReferenceNo_Doc.class);
+		doc.setC_ReferenceNo_ID(referenceNo.getC_ReferenceNo_ID());
+		doc.setRecord_ID(invoice.getC_Invoice_ID());
+		saveRecord(doc);
+		return doc;
+	}
+
+	private static I_C_Invoice invoice()
+	{
+		final I_C_Invoice invoice = newInstance(I_C_Invoice.class);
+		saveRecord(invoice);
+		return invoice;
+	}
+
+	@Test
+	public void matchIgnoringBankAccountNoAndCheckDigit()
+	{
+		final I_C_Invoice invoice = invoice();
+		final I_C_ReferenceNo referenceNo = referenceNo("000000010501536417000120686", orgId1);
+		final I_C_ReferenceNo_Doc doc = invoiceDoc(referenceNo, invoice);
+
+		final ESRInvoiceReferenceNumbersIndex index = new ESRInvoiceReferenceNumbersIndex(
+				ImmutableList.of(referenceNo),
+				ImmutableList.of(doc),
+				ImmutableList.of(invoice));
+
+		assertThat(index.getInvoiceReferenceNoDocOrNull(orgId1, "1050153641700012068")).isSameAs(doc);
+		assertThat(index.getInvoiceOrNull(invoice.getC_Invoice_ID())).isSameAs(invoice);
+	}
+
+	@Test
+	public void referenceNoOfAnyOrgMatches()
+	{
+		final I_C_ReferenceNo referenceNo = referenceNo("000000010501536417000120686", OrgId.ANY);
+		final I_C_ReferenceNo_Doc doc = invoiceDoc(referenceNo, invoice());
+
+		final ESRInvoiceReferenceNumbersIndex index = new ESRInvoiceReferenceNumbersIndex(
+				ImmutableList.of(referenceNo),
+				ImmutableList.of(doc),
+				ImmutableList.of());
+
+		assertThat(index.getInvoiceReferenceNoDocOrNull(orgId2, "1050153641700012068")).isSameAs(doc);
+	}
+
+	@Test
+	public void referenceNoOfOtherOrgDoesNotMatch()
+	{
+		final I_C_ReferenceNo referenceNo = referenceNo("000000010501536417000120686", orgId1);
+		final I_C_ReferenceNo_Doc doc = invoiceDoc(referenceNo, invoice());
+
+		final ESRInvoiceReferenceNumbersIndex index = new ESRInvoiceReferenceNumbersIndex(
+				ImmutableList.of(referenceNo),
+				ImmutableList.of(doc),
+				ImmutableList.of());
+
+		assertThat(index.getInvoiceReferenceNoDocOrNull(orgId2, "1050153641700012068")).isNull();
+	}
+
+	@Test
+	public void ambiguousReferenceNoIsLeftToTheDatabaseLookup()
+	{
+		final I_C_ReferenceNo referenceNo1 = referenceNo("000000010501536417000120686", orgId1);
+		final I_C_ReferenceNo referenceNo2 = referenceNo("999999910501536417000120681", OrgId.ANY);
+		final I_C_ReferenceNo referenceNo3 = referenceNo("000000010501536417000120690", orgId1);
+
+		final ESRInvoiceReferenceNumbersIndex index = new ESRInvoiceReferenceNumbersIndex(
+				ImmutableList.of(referenceNo1, referenceNo2, referenceNo3),
+				ImmutableList.of(
+						invoiceDoc(referenceNo1, invoice()),
+						invoiceDoc(referenceNo2, invoice()),
+						invoiceDoc(referenceNo3, invoice()),
+						invoiceDoc(referenceNo3, invoice())),
+				ImmutableList.of());
+
+		assertThat(index.getInvoiceReferenceNoDocOrNull(orgId1, "1050153641700012068")).isNull();
+		assertThat(index.getInvoiceReferenceNoDocOrNull(orgId1, "1050153641700012069")).isNull();
+	}
+}
@@ -7,16 +7,15 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.function.Consumer;
 
 import lombok.NonNull;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 
-import com.lowagie.text.Document;
-import com.lowagie.text.pdf.PdfCopy;
-import com.lowagie.text.pdf.PdfReader;
-
 import de.metas.printing.api.IPrintingDAO;
+import de.metas.printing.api.util.PdfCollator;
+import de.metas.printing.api.util.TempFilePdfCollator;
 import de.metas.printing.client.engine.PrintablePDF;
 import de.metas.printing.model.I_C_Print_Job_Instructions;
 import de.metas.printing.model.I_C_Print_Package;
@@ -57,12 +56,23 @@ public class PrintPackagePDFBuilder
 
 	public void print(@NonNull final OutputStream bos) throws Exception
 	{
-		final I_C_Print_Job_Instructions print_Job_Instructions = printPackage.getC_Print_Job_Instructions();
-		final Document document = new Document();
+		final PdfCollator collator = new PdfCollator(bos);
+		print(collator::addAllPages, collator::close);
+	}
 
-		final PdfCopy copy = new PdfCopy(document, bos);
+	/**
+	 * Same as {@link #print(OutputStream)}, but appends the pages to given collator, so that big print packages don't have to be kept in memory.
+	 */
+	public void printTo(@NonNull final TempFilePdfCollator collator)
+	{
+		print(collator::addAllPages, () -> {});
+	}
 
-		document.open();
+	private void print(
+			@NonNull final Consumer<byte[]> pdfConsumer,
+			@NonNull final Runnable onComplete)
+	{
+		final I_C_Print_Job_Instructions print_Job_Instructions = printPackage.getC_Print_Job_Instructions();
 
 		final PrintablePDF printable = createPrintable();
 		if (printable == null)
@@ -74,17 +84,9 @@ public class PrintPackagePDFBuilder
 			for (final I_C_Print_PackageInfo printPackageInfo : printingDAO.retrievePrintPackageInfos(printPackage))
 			{
 				final byte[] pdf = print(printPackageInfo, printable);
-
-				final PdfReader reader = new PdfReader(pdf);
-
-				for (int page = 0; page < reader.getNumberOfPages(); )
-				{
-					copy.addPage(copy.getImportedPage(reader, ++page));
-				}
-				copy.freeReader(reader);
-				reader.close();
+				pdfConsumer.accept(pdf);
 			}
-			document.close();
+			onComplete.run();
 
 			print_Job_Instructions.setErrorMsg(null);
 			print_Job_Instructions.setStatus(X_C_Print_Job_Instructions.STATUS_Done);
@@ -21,6 +21,7 @@ import de.metas.printing.printingdata.PrintingDataToPDFWriter;
 import de.metas.printing.printingdata.PrintingSegment;
 import de.metas.user.UserId;
 import de.metas.util.Check;
+import de.metas.util.FileUtil;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.Value;
@@ -34,8 +35,12 @@ import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import javax.print.attribute.standard.MediaSize;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
@@ -176,14 +181,35 @@ public class PrintJobLinesAggregator implements IPrintJobLinesAggregator
 	@Override
 	public I_C_Print_Package createPrintPackage()
 	{
-		final ByteArrayOutputStream pdfBuf = new ByteArrayOutputStream();
-		final int pages = createPDFData(pdfBuf);
-		if (pages <= 0)
+		// Collate into a temporary file rather than in memory; we load the result only once, when saving it
+		final File pdfFile = FileUtil.createTempFile("pdf", "PrintPackage");
+		final int pages;
+		final byte[] data;
+		try
+		{
+			try (final OutputStream pdfOut = new BufferedOutputStream(new FileOutputStream(pdfFile)))
+			{
+				pages = createPDFData(pdfOut);
+			}
+			if (pages <= 0)
+			{
+				throw new AdempiereException("No PDF pages found. No package created."); // TRL
+			}
+
+			data = Files.readAllBytes(pdfFile.toPath());
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed creating the PDF data", e);
+		}
+		finally
 		{
-			throw new AdempiereException("No PDF pages found. No package created."); // TRL
+			if (!pdfFile.delete())
+			{
+				logger.warn("Failed deleting temporary file {}", pdfFile);
+			}
 		}
 
-		final byte[] data = pdfBuf.toByteArray();
 		if (data.length == 0)
 		{
 			throw new AdempiereException("No PDF data found. No package created."); // TRL
@@ -24,6 +24,7 @@ package de.metas.printing.api.util;
 
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -35,7 +36,9 @@ import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
 import com.lowagie.text.pdf.BadPdfFormatException;
 import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfName;
 import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
 
 import de.metas.util.Check;
 
@@ -45,6 +48,8 @@ public class PdfCollator
 	private PdfCopy pdfCopy = null;
 	private Document pdfDocument = null;
 	private boolean closed = false;
+	private boolean printScalingNone = false;
+	private int pageCount = 0;
 
 	public PdfCollator()
 	{
@@ -56,6 +61,16 @@ public class PdfCollator
 		this.out = out;
 	}
 
+	/**
+	 * Tells the viewer not to scale the pages when printing. Needs to be set before the first page is added.
+	 */
+	public PdfCollator setPrintScalingNone()
+	{
+		Check.assume(pdfCopy == null, "no pages were added yet");
+		printScalingNone = true;
+		return this;
+	}
+
 	private PdfCopy getPdfCopy()
 	{
 		if (pdfCopy != null)
@@ -68,6 +83,10 @@ public class PdfCollator
 		try
 		{
 			pdfCopy = new PdfCopy(pdfDocument, out);
+			if (printScalingNone)
+			{
+				pdfCopy.addViewerPreference(PdfName.PRINTSCALING, PdfName.NONE); // needs to be specified explicitly; will not work with PdfWriter.PrintScalingNone
+			}
 		}
 		catch (final DocumentException e)
 		{
@@ -111,6 +130,49 @@ public class PdfCollator
 		return addPages(reader, pageFrom, pageTo);
 	}
 
+	public PdfCollator addAllPages(@NonNull final byte[] pdfData)
+	{
+		final PdfReader reader;
+		try
+		{
+			reader = new PdfReader(pdfData);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException(e);
+		}
+
+		return addPages(reader, 1, reader.getNumberOfPages());
+	}
+
+	/**
+	 * Adds all pages of given PDF file.
+	 * <p>
+	 * The file is read partially, i.e. only the page which is currently copied is loaded into memory, so this method is suitable for big PDFs too.
+	 */
+	public PdfCollator addAllPages(@NonNull final File pdfFile)
+	{
+		final PdfReader reader;
+		try
+		{
+			reader = new PdfReader(new RandomAccessFileOrArray(pdfFile.getAbsolutePath(), false, true), null);
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading " + pdfFile, e);
+		}
+
+		return addPages(reader, 1, reader.getNumberOfPages());
+	}
+
+	/**
+	 * @return how many pages were added so far
+	 */
+	public int getPageCount()
+	{
+		return pageCount;
+	}
+
 	private PdfCollator addPages(final PdfReader reader, final int pageFrom, final int pageTo)
 	{
 		Check.assume(!closed, "collator not closed");
@@ -123,6 +185,7 @@ public class PdfCollator
 			try
 			{
 				copy.addPage(copy.getImportedPage(reader, page));
+				pageCount++;
 			}
 			catch (final BadPdfFormatException e)
 			{
@@ -0,0 +1,174 @@
+package de.metas.printing.api.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.FileUtil;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.printing.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link PdfCollator} which writes the collated PDF into a temporary file instead of memory,
+ * so the heap usage does not depend on the number of pages.
+ * <p>
+ * The temporary file is deleted when this collator is closed.
+ */
+public final class TempFilePdfCollator implements IAutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger(TempFilePdfCollator.class);
+
+	private final File file;
+	private final OutputStream out;
+	private final PdfCollator collator;
+
+	private boolean finished = false;
+
+	public TempFilePdfCollator(@NonNull final String title)
+	{
+		file = FileUtil.createTempFile("pdf", title);
+		try
+		{
+			out = new BufferedOutputStream(new FileOutputStream(file));
+		}
+		catch (final FileNotFoundException e)
+		{
+			deleteFile();
+			throw new AdempiereException("Failed creating temporary PDF file", e)
+					.setParameter("file", file);
+		}
+		collator = new PdfCollator(out);
+	}
+
+	public TempFilePdfCollator setPrintScalingNone()
+	{
+		collator.setPrintScalingNone();
+		return this;
+	}
+
+	public TempFilePdfCollator addAllPages(@NonNull final byte[] pdfData)
+	{
+		assertNotFinished();
+		collator.addAllPages(pdfData);
+		return this;
+	}
+
+	public TempFilePdfCollator addAllPages(@NonNull final File pdfFile)
+	{
+		assertNotFinished();
+		collator.addAllPages(pdfFile);
+		return this;
+	}
+
+	public int getPageCount()
+	{
+		return collator.getPageCount();
+	}
+
+	private void assertNotFinished()
+	{
+		Check.assume(!finished, "collator not finished");
+	}
+
+	/**
+	 * Completes the PDF document.
+	 *
+	 * @return the temporary file; it is still deleted when this collator is closed.
+	 */
+	public File finish()
+	{
+		if (finished)
+		{
+			return file;
+		}
+		finished = true;
+
+		collator.close();
+		try
+		{
+			out.close();
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed writing temporary PDF file", e)
+					.setParameter("file", file);
+		}
+
+		return file;
+	}
+
+	/**
+	 * Completes the PDF document and loads it. Use it only where the API to be called requires the whole PDF as byte array.
+	 */
+	public byte[] finishAndReadBytes()
+	{
+		finish();
+		try
+		{
+			return Files.readAllBytes(file.toPath());
+		}
+		catch (final IOException e)
+		{
+			throw new AdempiereException("Failed reading temporary PDF file", e)
+					.setParameter("file", file);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		if (!finished)
+		{
+			finished = true;
+			try
+			{
+				out.close();
+			}
+			catch (final IOException e)
+			{
+				logger.warn("Failed closing {}. Ignored.", file, e);
+			}
+		}
+
+		deleteFile();
+	}
+
+	private void deleteFile()
+	{
+		if (file.exists() && !file.delete())
+		{
+			logger.warn("Failed deleting temporary PDF file {}", file);
+		}
+	}
+}
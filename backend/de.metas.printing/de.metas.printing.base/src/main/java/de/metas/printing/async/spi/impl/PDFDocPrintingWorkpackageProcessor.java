@@ -26,11 +26,11 @@ import de.metas.async.spi.IWorkpackageProcessor;
 import de.metas.i18n.ILanguageBL;
 import de.metas.i18n.IMsgBL;
 import de.metas.i18n.Language;
-import de.metas.printing.MergePdfByteArrays;
 import de.metas.printing.PrintPackagePDFBuilder;
 import de.metas.printing.api.IPrintPackageBL;
 import de.metas.printing.api.IPrintingDAO;
 import de.metas.printing.api.impl.PrintPackageCtx;
+import de.metas.printing.api.util.TempFilePdfCollator;
 import de.metas.printing.model.I_C_Print_Job_Instructions;
 import de.metas.printing.model.I_C_Print_Job_Line;
 import de.metas.printing.model.I_C_Print_Package;
@@ -142,35 +142,28 @@ public class PDFDocPrintingWorkpackageProcessor implements IWorkpackageProcessor
 
 		for (final I_C_Print_Package printPackage : printPackages.values())
 		{
-			final byte[] pdfScaled = new PrintPackagePDFBuilder()
-					.setPrintPackage(printPackage)
-					.printToBytes();
-			if (pdfScaled == null || pdfScaled.length == 0)
-			{
-				throw new AdempiereException("No PDF data printed!"); // TRL
-			}
 			final int currentIndex = workpackage.getBatchEnqueuedCount();
-			final byte[] mergedPDF;
-			if (isCreateSummary)
+			try (final TempFilePdfCollator mergedPDF = new TempFilePdfCollator("PrintPackage_" + printPackage.getC_Print_Package_ID()).setPrintScalingNone())
 			{
-				final int countExpected = asyncBatch.getCountExpected();
-				final byte[] summary = createSummaryPage(jobInstructions, currentIndex, countExpected, countLines);
-	
-				mergedPDF = new MergePdfByteArrays()
-						.add(summary)
-						.add(pdfScaled)
-						.getMergedPdfByteArray();
-			}
-			else
-			{
-				mergedPDF = new MergePdfByteArrays()
-						.add(pdfScaled)
-						.getMergedPdfByteArray();
-			}
-			
+				if (isCreateSummary)
+				{
+					final int countExpected = asyncBatch.getCountExpected();
+					final byte[] summary = createSummaryPage(jobInstructions, currentIndex, countExpected, countLines);
+					mergedPDF.addAllPages(summary);
+				}
+
+				final int summaryPageCount = mergedPDF.getPageCount();
+				new PrintPackagePDFBuilder()
+						.setPrintPackage(printPackage)
+						.printTo(mergedPDF);
+				if (mergedPDF.getPageCount() <= summaryPageCount)
+				{
+					throw new AdempiereException("No PDF data printed!"); // TRL
+				}
 
-			// save in archive
-			createArchive(printPackage, mergedPDF, asyncBatch, currentIndex, trxName);
+				// save in archive
+				createArchive(printPackage, mergedPDF.finishAndReadBytes(), asyncBatch, currentIndex, trxName);
+			}
 		}
 
 	}
@@ -0,0 +1,114 @@
+package de.metas.printing.api.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfStream;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
+
+/*
+ * #%L
+ * de.metas.printing.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Checks that {@link TempFilePdfCollator} can merge a PDF which is bigger than the whole heap.
+ * <p>
+ * Runs in its own surefire execution with a small heap (see the {@code bounded-heap-tests} execution in this module's pom.xml).
+ */
+public class TempFilePdfCollatorBoundedHeapTest
+{
+	/** keep in sync with the -Xmx of the {@code bounded-heap-tests} surefire execution */
+	private static final long MAX_HEAP_BYTES = 64 * 1024 * 1024;
+
+	@Test
+	public void merge_10k_pages() throws Exception
+	{
+		assumeTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES, "shall run with -Xmx64m or less");
+
+		final byte[] pdf100Pages = createUncompressedPdf(100);
+
+		final File mergedFile;
+		try (final TempFilePdfCollator collator = new TempFilePdfCollator("TempFilePdfCollatorBoundedHeapTest"))
+		{
+			for (int i = 0; i < 100; i++)
+			{
+				collator.addAllPages(pdf100Pages);
+			}
+			assertThat(collator.getPageCount()).isEqualTo(10_000);
+
+			mergedFile = collator.finish();
+
+			// the merged PDF would not have fit into the heap
+			assertThat(mergedFile.length()).isGreaterThan(Runtime.getRuntime().maxMemory());
+			assertThat(countPages(mergedFile)).isEqualTo(10_000);
+		}
+
+		assertThat(mergedFile).doesNotExist();
+	}
+
+	/**
+	 * @return PDF with about 10KB per page, so 10k pages are clearly bigger than the heap
+	 */
+	private static byte[] createUncompressedPdf(final int pages) throws DocumentException
+	{
+		final Font font = new Font(Font.HELVETICA, 5);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document();
+		final PdfWriter writer = PdfWriter.getInstance(document, out);
+		writer.setCompressionLevel(PdfStream.NO_COMPRESSION);
+		document.open();
+		for (int page = 1; page <= pages; page++)
+		{
+			final String text = "Page " + page + " ";
+			document.add(new Paragraph(Strings.repeat(text, 10_000 / text.length()), font));
+			document.newPage();
+		}
+		document.close();
+		return out.toByteArray();
+	}
+
+	private static int countPages(final File pdfFile) throws IOException
+	{
+		final PdfReader reader = new PdfReader(new RandomAccessFileOrArray(pdfFile.getAbsolutePath(), false, true), null);
+		try
+		{
+			return reader.getNumberOfPages();
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+}
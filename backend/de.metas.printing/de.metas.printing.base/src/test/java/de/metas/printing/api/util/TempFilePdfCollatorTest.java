@@ -0,0 +1,77 @@
+package de.metas.printing.api.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+
+import de.metas.util.FileUtil;
+
+/*
+ * #%L
+ * de.metas.printing.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TempFilePdfCollatorTest
+{
+	@Test
+	public void merge_files() throws Exception
+	{
+		final File file1 = FileUtil.toTempFile(createPdf(3), "pdf", "TempFilePdfCollatorTest");
+		final File file2 = FileUtil.toTempFile(createPdf(2), "pdf", "TempFilePdfCollatorTest");
+		try (final TempFilePdfCollator collator = new TempFilePdfCollator("TempFilePdfCollatorTest"))
+		{
+			collator.addAllPages(file1)
+					.addAllPages(createPdf(1))
+					.addAllPages(file2);
+
+			final byte[] merged = collator.finishAndReadBytes();
+			assertThat(new PdfReader(merged).getNumberOfPages()).isEqualTo(6);
+		}
+		finally
+		{
+			file1.delete();
+			file2.delete();
+		}
+	}
+
+	private static byte[] createPdf(final int pages) throws DocumentException
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document();
+		PdfWriter.getInstance(document, out);
+		document.open();
+		for (int page = 1; page <= pages; page++)
+		{
+			document.add(new Paragraph("Page " + page));
+			document.newPage();
+		}
+		document.close();
+		return out.toByteArray();
+	}
+}
@@ -27,6 +27,8 @@ import java.io.Closeable;
 import java.util.Iterator;
 import java.util.List;
 
+import lombok.NonNull;
+
 /**
  * Export Data Source
  * 
@@ -63,6 +65,26 @@ public interface IExportDataSource extends Iterator<List<Object>>, Closeable
 	@Override
 	List<Object> next();
 
+	/**
+	 * Reads the next data row into given buffer, replacing its content.
+	 * <p>
+	 * Unlike {@link #next()}, implementations are not required to allocate a new list for each row, so the caller shall consume the row before reading the next one.
+	 *
+	 * @return <code>false</code> if there are no more rows
+	 */
+	default boolean readNext(@NonNull final List<Object> rowBuffer)
+	{
+		if (!hasNext())
+		{
+			return false;
+		}
+
+		final List<Object> row = next();
+		rowBuffer.clear();
+		rowBuffer.addAll(row);
+		return true;
+	}
+
 	/**
 	 * @throws UnsupportedOperationException always because removing is not supported
 	 */
@@ -25,6 +25,7 @@ package de.metas.data.export.api.impl;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -141,14 +142,12 @@ public abstract class AbstractExporter implements IExporter
 
 			monitor.exportStarted(this);
 
-			while (dataSource.hasNext())
+			// NOTE: the same row buffer is reused for all rows
+			final List<Object> values = new ArrayList<>(dataSource.getFieldNames().size());
+			while (dataSource.readNext(values))
 			{
-				final List<Object> values = dataSource.next();
-				// for (int i = 1; i <= 3000; i++) // debugging
-				// {
 				appendRow(dataDestination, values);
 				incrementExportedRowCount();
-				// }
 			}
 		}
 		catch (Exception e)
@@ -179,6 +178,11 @@ public abstract class AbstractExporter implements IExporter
 		logger.info("Exported " + getExportedRowCount() + " rows");
 	}
 
+	/**
+	 * Appends given row to destination.
+	 * <p>
+	 * NOTE: the <code>values</code> list is reused for the next row, so implementations shall not keep a reference to it.
+	 */
 	protected abstract void appendRow(IExportDataDestination dataDestination, List<Object> values) throws IOException;
 
 	protected abstract IExportDataDestination createDataDestination(OutputStream out) throws IOException;
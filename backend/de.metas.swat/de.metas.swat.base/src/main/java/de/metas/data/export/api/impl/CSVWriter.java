@@ -22,6 +22,7 @@ package de.metas.data.export.api.impl;
  * #L%
  */
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -48,6 +49,8 @@ public class CSVWriter implements IExportDataDestination
 		return (CSVWriter)dataDestination;
 	}
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	private Writer writer;
 
 	public static final String CONFIG_Encoding = "Encoding";
@@ -62,6 +65,7 @@ public class CSVWriter implements IExportDataDestination
 
 	private List<String> header;
 	private boolean headerAppended = false;
+	private int currentLineCellsCount = 0;
 
 	private CSVWriter(final Properties config)
 	{
@@ -77,13 +81,13 @@ public class CSVWriter implements IExportDataDestination
 			@Nullable final Properties config) throws UnsupportedEncodingException
 	{
 		this(config);
-		this.writer = new OutputStreamWriter(out, encoding);
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, encoding), BUFFER_SIZE);
 	}
 
 	public CSVWriter(final File file, final Properties config) throws IOException
 	{
 		this(config);
-		writer = new OutputStreamWriter(new FileOutputStream(file, false), encoding);
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), encoding), BUFFER_SIZE);
 	}
 
 	private void applyConfig(final Properties config)
@@ -146,21 +150,15 @@ public class CSVWriter implements IExportDataDestination
 
 		Check.assumeNotNull(header, "header not null");
 
-		final StringBuilder headerLine = new StringBuilder();
-
-		for (final String headerCol : header)
+		for (int i = 0, cols = header.size(); i < cols; i++)
 		{
-			if (headerLine.length() > 0)
+			if (i > 0)
 			{
-				headerLine.append(fieldDelimiter);
+				writer.write(fieldDelimiter);
 			}
-
-			final String headerColQuoted = quoteCsvValue(headerCol);
-			headerLine.append(headerColQuoted);
+			writeQuoted(header.get(i));
 		}
-
-		writer.append(headerLine.toString());
-		writer.append(lineEnding);
+		writer.write(lineEnding);
 
 		headerAppended = true;
 	}
@@ -170,8 +168,6 @@ public class CSVWriter implements IExportDataDestination
 	{
 		appendHeader();
 
-		final StringBuilder line = new StringBuilder();
-
 		final int cols = header.size();
 		final int valuesCount = values.size();
 
@@ -187,43 +183,95 @@ public class CSVWriter implements IExportDataDestination
 				csvValue = null;
 			}
 
-			final String csvValueQuoted = toCsvValue(csvValue);
+			appendCell(csvValue);
+		}
 
-			if (line.length() > 0)
-			{
-				line.append(fieldDelimiter);
-			}
-			line.append(csvValueQuoted);
+		endLine();
+	}
+
+	/**
+	 * Appends given value as the next cell of the current line, without building the line in memory.
+	 * <p>
+	 * Call {@link #endLine()} after the last cell of the line.
+	 */
+	public void appendCell(@Nullable final Object value) throws IOException
+	{
+		appendHeader();
+
+		if (currentLineCellsCount > 0)
+		{
+			writer.write(fieldDelimiter);
+		}
+		writeQuoted(toCsvValue(value));
+
+		currentLineCellsCount++;
+	}
+
+	/**
+	 * Ends the current line. Missing cells are appended as empty values.
+	 */
+	public void endLine() throws IOException
+	{
+		appendHeader();
+
+		while (currentLineCellsCount < header.size())
+		{
+			appendCell(null);
 		}
+		writer.write(lineEnding);
 
-		writer.append(line.toString());
-		writer.append(lineEnding);
+		currentLineCellsCount = 0;
 	}
 
-	private String toCsvValue(Object value)
+	private String toCsvValue(@Nullable final Object value)
 	{
-		final String valueStr;
 		if (value == null)
 		{
-			valueStr = "";
+			return "";
 		}
 		else if (value instanceof java.util.Date)
 		{
-			valueStr = dateFormat.format(value);
+			return dateFormat.format(value);
 		}
 		else
 		{
-			valueStr = value.toString();
+			return value.toString();
 		}
-
-		return quoteCsvValue(valueStr);
 	}
 
-	private String quoteCsvValue(String valueStr)
+	/**
+	 * Writes given value enclosed in field quotes. Field quotes contained in the value are doubled while writing.
+	 */
+	private void writeQuoted(final String valueStr) throws IOException
 	{
-		return fieldQuote
-				+ valueStr.replace(fieldQuote, fieldQuote + fieldQuote)
-				+ fieldQuote;
+		if (fieldQuote.isEmpty())
+		{
+			writer.write(valueStr);
+			return;
+		}
+
+		writer.write(fieldQuote);
+		if (fieldQuote.length() == 1)
+		{
+			final char quoteChar = fieldQuote.charAt(0);
+			final int length = valueStr.length();
+			int start = 0;
+			for (int i = 0; i < length; i++)
+			{
+				if (valueStr.charAt(i) == quoteChar)
+				{
+					writer.write(valueStr, start, i + 1 - start);
+					writer.write(quoteChar);
+					start = i + 1;
+				}
+			}
+			writer.write(valueStr, start, length - start);
+		}
+		else
+		{
+			writer.write(valueStr.replace(fieldQuote, fieldQuote + fieldQuote));
+		}
+		writer.write(fieldQuote);
 	}
 
 	@Override
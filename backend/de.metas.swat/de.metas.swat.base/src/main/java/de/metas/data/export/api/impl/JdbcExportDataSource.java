@@ -41,6 +41,7 @@ import org.slf4j.Logger;
 import de.metas.data.export.api.IExportDataSource;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
+import lombok.NonNull;
 
 /**
  * JDBC implementation of {@link IExportDataSource}
@@ -65,6 +66,10 @@ public class JdbcExportDataSource implements IExportDataSource
 	private Connection conn = null;
 	private PreparedStatement pstmt = null;
 	private ResultSet rs = null;
+	/**
+	 * JDBC column indexes of {@link #sqlFields}, resolved once after the result set was opened
+	 */
+	private int[] sqlFieldIndexes = null;
 	private boolean closed = false;
 
 	private List<Object> currentRow = null;
@@ -117,6 +122,7 @@ public class JdbcExportDataSource implements IExportDataSource
 			pstmt = connAndStmt.getRight();
 
 			rs = pstmt.executeQuery();
+			sqlFieldIndexes = resolveColumnIndexes(rs, sqlFields);
 			ok = true;
 		}
 		catch (SQLException e)
@@ -135,6 +141,16 @@ public class JdbcExportDataSource implements IExportDataSource
 		return rs;
 	}
 
+	private static int[] resolveColumnIndexes(final ResultSet rs, final List<String> columnNames) throws SQLException
+	{
+		final int[] columnIndexes = new int[columnNames.size()];
+		for (int i = 0; i < columnIndexes.length; i++)
+		{
+			columnIndexes[i] = rs.findColumn(columnNames.get(i));
+		}
+		return columnIndexes;
+	}
+
 	/**
 	 * Retrieve next row from ResultSet.
 	 *
@@ -143,20 +159,31 @@ public class JdbcExportDataSource implements IExportDataSource
 	 * @return row as list of Objects or null
 	 */
 	private List<Object> retrieveNextOrNull()
+	{
+		final List<Object> row = new ArrayList<>(sqlFields.size());
+		return retrieveNext(row) ? row : null;
+	}
+
+	/**
+	 * Retrieve next row from ResultSet into given buffer.
+	 *
+	 * @return false if there is no row available (ResultSet reached the end)
+	 */
+	private boolean retrieveNext(final List<Object> rowBuffer)
 	{
 		final ResultSet rs = getResultSet(); // NOPMD by tsa on 3/17/13 1:11 PM
-		List<Object> row = null;
 		boolean ok = false;
 		try
 		{
 			if (!rs.next())
 			{
 				// close(); // no need to close it if there is no more data to read because it will be closed in finally block
-				return null;
+				return false;
 			}
 
-			row = readLine(rs, sqlFields);
+			readLine(rs, rowBuffer);
 			ok = true;
+			return true;
 		}
 		catch (SQLException e)
 		{
@@ -170,8 +197,6 @@ public class JdbcExportDataSource implements IExportDataSource
 				close();
 			}
 		}
-
-		return row;
 	}
 
 	@Override
@@ -198,6 +223,7 @@ public class JdbcExportDataSource implements IExportDataSource
 		DB.close(conn);
 		conn = null;
 
+		sqlFieldIndexes = null;
 		currentRow = null;
 		closed = true;
 	}
@@ -232,22 +258,34 @@ public class JdbcExportDataSource implements IExportDataSource
 		return currentRow;
 	}
 
+	@Override
+	public boolean readNext(@NonNull final List<Object> rowBuffer)
+	{
+		if (currentRow != null)
+		{
+			rowBuffer.clear();
+			rowBuffer.addAll(currentRow);
+			currentRow = null;
+			return true;
+		}
+
+		return retrieveNext(rowBuffer);
+	}
+
 	@Override
 	public void remove()
 	{
 		throw new UnsupportedOperationException();
 	}
 
-	private List<Object> readLine(ResultSet rs, List<String> sqlFields) throws SQLException
+	private void readLine(final ResultSet rs, final List<Object> values) throws SQLException
 	{
-		final List<Object> values = new ArrayList<Object>();
-		for (final String columnName : sqlFields)
+		values.clear();
+		for (final int columnIndex : sqlFieldIndexes)
 		{
-			final Object value = rs.getObject(columnName);
+			final Object value = rs.getObject(columnIndex);
 			values.add(value);
 		}
-
-		return values;
 	}
 
 	private Integer rowsCount = null;
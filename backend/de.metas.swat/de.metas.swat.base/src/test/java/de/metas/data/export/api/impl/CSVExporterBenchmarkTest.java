@@ -0,0 +1,93 @@
+package de.metas.data.export.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
+
+import de.metas.logging.LogManager;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Measures the CSV export throughput. Not part of the regular build; run it manually when changing {@link CSVExporter} or {@link CSVWriter}.
+ */
+@Disabled("benchmark; run manually")
+public class CSVExporterBenchmarkTest
+{
+	private static final Logger logger = LogManager.getLogger(CSVExporterBenchmarkTest.class);
+
+	private static final List<String> FIELD_NAMES = Arrays.asList("DocumentNo", "Description", "Amount", "C_BPartner_ID");
+	private static final int ROW_COUNT = 200_000;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void throughput()
+	{
+		final Object[][] rows = createRows(ROW_COUNT);
+		final OutputStream out = ByteStreams.nullOutputStream();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final CSVExporter exporter = new CSVExporter();
+		exporter.setDataSource(new InMemoryExportDataSource(FIELD_NAMES, rows));
+		exporter.export(out);
+		stopwatch.stop();
+
+		final long millis = Math.max(stopwatch.elapsed(TimeUnit.MILLISECONDS), 1);
+		logger.info("Exported {} rows in {} ({} rows/s)", rows.length, stopwatch, rows.length * 1000L / millis);
+
+		assertThat(exporter.getExportedRowCount()).isEqualTo(rows.length);
+	}
+
+	private static Object[][] createRows(final int count)
+	{
+		final Object[][] rows = new Object[count][];
+		for (int i = 0; i < count; i++)
+		{
+			rows[i] = new Object[] {
+					String.valueOf(100000 + i),
+					i % 10 == 0 ? "Invoice \"" + i + "\"" : "Invoice " + i,
+					BigDecimal.valueOf(i, 2),
+					1000000 + i % 500
+			};
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,236 @@
+package de.metas.data.export.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.data.export.api.IExporter.ExportStatus;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CSVExporterTest
+{
+	private static final List<String> FIELD_NAMES = Arrays.asList("DocumentNo", "Description", "Amount", "C_BPartner_ID");
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void quoting()
+	{
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "plain", new BigDecimal("12.50"), 1000000 },
+				{ "0002", "with \"quotes\" and ; delimiter", null, 1000001 },
+				{ "0003", "\"", BigDecimal.ZERO } // missing cell
+		});
+
+		final String csv = export(dataSource, new Properties(), StandardCharsets.UTF_8);
+
+		assertThat(csv).isEqualTo(""
+				+ "\"DocumentNo\";\"Description\";\"Amount\";\"C_BPartner_ID\"\n"
+				+ "\"0001\";\"plain\";\"12.50\";\"1000000\"\n"
+				+ "\"0002\";\"with \"\"quotes\"\" and ; delimiter\";\"\";\"1000001\"\n"
+				+ "\"0003\";\"\"\"\";\"0\";\"\"\n");
+	}
+
+	@Test
+	public void customDelimiterAndQuote()
+	{
+		final Properties config = new Properties();
+		config.setProperty(CSVWriter.CONFIG_FieldDelimiter, ",");
+		config.setProperty(CSVWriter.CONFIG_FieldQuote, "'");
+
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "it's, quoted", BigDecimal.ONE, 1000000 }
+		});
+
+		final String csv = export(dataSource, config, StandardCharsets.UTF_8);
+
+		assertThat(csv).isEqualTo(""
+				+ "'DocumentNo','Description','Amount','C_BPartner_ID'\n"
+				+ "'0001','it''s, quoted','1','1000000'\n");
+	}
+
+	@Test
+	public void defaultEncodingIsUTF8()
+	{
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "Größe äöü", BigDecimal.ONE, 1000000 }
+		});
+
+		final String csv = export(dataSource, new Properties(), StandardCharsets.UTF_8);
+
+		assertThat(csv).contains("\"Größe äöü\"");
+	}
+
+	@Test
+	public void configuredEncoding()
+	{
+		final Properties config = new Properties();
+		config.setProperty(CSVWriter.CONFIG_Encoding, "ISO-8859-1");
+
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "Größe äöü", BigDecimal.ONE, 1000000 }
+		});
+
+		final String csv = export(dataSource, config, StandardCharsets.ISO_8859_1);
+
+		assertThat(csv).contains("\"Größe äöü\"");
+	}
+
+	@Test
+	public void exportToFile() throws IOException
+	{
+		final File file = File.createTempFile("CSVExporterTest", ".csv");
+		try
+		{
+			exportToFile(file);
+		}
+		finally
+		{
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	private static void exportToFile(final File file) throws IOException
+	{
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "first", BigDecimal.ONE, 1000000 },
+				{ "0002", "second", BigDecimal.TEN, 1000001 }
+		});
+
+		final CSVExporter exporter = new CSVExporter();
+		exporter.setDataSource(dataSource);
+		try (final FileOutputStream out = new FileOutputStream(file))
+		{
+			exporter.export(out);
+		}
+
+		assertThat(exporter.getExportStatus()).isEqualTo(ExportStatus.Finished);
+		assertThat(exporter.getExportedRowCount()).isEqualTo(2);
+		assertThat(exporter.getError()).isNull();
+		assertThat(dataSource.isClosed()).isTrue();
+		assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+				"\"DocumentNo\";\"Description\";\"Amount\";\"C_BPartner_ID\"",
+				"\"0001\";\"first\";\"1\";\"1000000\"",
+				"\"0002\";\"second\";\"10\";\"1000001\"");
+	}
+
+	@Test
+	public void destinationAndDataSourceAreClosed()
+	{
+		final ClosingAwareOutputStream out = new ClosingAwareOutputStream();
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "first", BigDecimal.ONE, 1000000 }
+		});
+
+		final CSVExporter exporter = new CSVExporter();
+		exporter.setDataSource(dataSource);
+		exporter.export(out);
+
+		assertThat(out.isClosed()).isTrue();
+		assertThat(dataSource.isClosed()).isTrue();
+	}
+
+	@Test
+	public void failingRow()
+	{
+		final ClosingAwareOutputStream out = new ClosingAwareOutputStream();
+		final Object failingValue = new Object()
+		{
+			@Override
+			public String toString()
+			{
+				throw new IllegalStateException("failing value");
+			}
+		};
+		final InMemoryExportDataSource dataSource = new InMemoryExportDataSource(FIELD_NAMES, new Object[][] {
+				{ "0001", "first", BigDecimal.ONE, 1000000 },
+				{ "0002", failingValue, BigDecimal.TEN, 1000001 }
+		});
+
+		final CSVExporter exporter = new CSVExporter();
+		exporter.setDataSource(dataSource);
+
+		assertThatThrownBy(() -> exporter.export(out))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("failing value");
+
+		assertThat(exporter.getExportStatus()).isEqualTo(ExportStatus.Finished);
+		assertThat(exporter.getExportedRowCount()).isEqualTo(1);
+		assertThat(exporter.getError()).isNotNull();
+		assertThat(out.isClosed()).isTrue();
+		assertThat(dataSource.isClosed()).isTrue();
+	}
+
+	private static String export(
+			final InMemoryExportDataSource dataSource,
+			final Properties config,
+			final Charset expectedCharset)
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final CSVExporter exporter = new CSVExporter();
+		exporter.setDataSource(dataSource);
+		exporter.setConfig(config);
+		exporter.export(out);
+
+		assertThat(exporter.getExportedRowCount()).isEqualTo(dataSource.size());
+		return new String(out.toByteArray(), expectedCharset);
+	}
+
+	private static class ClosingAwareOutputStream extends ByteArrayOutputStream
+	{
+		private boolean closed = false;
+
+		@Override
+		public void close() throws IOException
+		{
+			super.close();
+			closed = true;
+		}
+
+		public boolean isClosed()
+		{
+			return closed;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package de.metas.data.export.api.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import de.metas.data.export.api.IExportDataSource;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Data source which hands out the given rows without allocating.
+ */
+class InMemoryExportDataSource implements IExportDataSource
+{
+	private final List<String> fieldNames;
+	private final Object[][] rows;
+	private int nextRowIndex = 0;
+	private boolean closed = false;
+
+	public InMemoryExportDataSource(@NonNull final List<String> fieldNames, @NonNull final Object[][] rows)
+	{
+		this.fieldNames = fieldNames;
+		this.rows = rows;
+	}
+
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	@Override
+	public List<String> getFieldNames()
+	{
+		return fieldNames;
+	}
+
+	@Override
+	public void prepare()
+	{
+		// nothing
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		return nextRowIndex < rows.length;
+	}
+
+	@Override
+	public List<Object> next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return Arrays.asList(rows[nextRowIndex++]);
+	}
+
+	@Override
+	public boolean readNext(@NonNull final List<Object> rowBuffer)
+	{
+		if (!hasNext())
+		{
+			return false;
+		}
+
+		rowBuffer.clear();
+		for (final Object value : rows[nextRowIndex++])
+		{
+			rowBuffer.add(value);
+		}
+		return true;
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close()
+	{
+		closed = true;
+	}
+
+	@Override
+	public int size()
+	{
+		return rows.length;
+	}
+}
@@ -0,0 +1,16 @@
+CREATE TABLE T_WEBUI_ViewDefinition
+(
+  ViewId character varying(255) NOT NULL,
+  Definition bytea NOT NULL,
+  Created timestamp with time zone NOT NULL DEFAULT now(),
+  LastAccess timestamp with time zone NOT NULL DEFAULT now(),
+  CONSTRAINT T_WEBUI_ViewDefinition_pkey PRIMARY KEY (ViewId)
+)
+WITH (
+  OIDS=FALSE
+);
+
+CREATE INDEX T_WEBUI_ViewDefinition_LastAccess
+  ON T_WEBUI_ViewDefinition
+  USING btree
+  (LastAccess);
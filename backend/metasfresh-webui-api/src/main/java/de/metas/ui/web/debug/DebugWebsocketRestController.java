@@ -26,6 +26,7 @@ import de.metas.ui.web.view.event.JSONViewChanges;
 import de.metas.ui.web.view.event.ViewChanges;
 import de.metas.ui.web.websocket.WebsocketActiveSubscriptionsIndex;
 import de.metas.ui.web.websocket.WebsocketEventLogRecord;
+import de.metas.ui.web.websocket.WebsocketFanOutStats;
 import de.metas.ui.web.websocket.WebsocketSender;
 import de.metas.ui.web.websocket.WebsocketSubscriptionId;
 import de.metas.ui.web.websocket.WebsocketTopicName;
@@ -152,6 +153,14 @@ public class DebugWebsocketRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("/fanout/stats")
+	public WebsocketFanOutStats getFanOutStats()
+	{
+		userSession.assertLoggedIn();
+
+		return websocketSender.getFanOutStats();
+	}
+
 	@GetMapping("/activeSubscriptions")
 	public Map<String, ?> getActiveSubscriptions()
 	{
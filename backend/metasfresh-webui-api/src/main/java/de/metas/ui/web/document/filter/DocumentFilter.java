@@ -123,6 +123,11 @@ public final class DocumentFilter
 		return caption != null ? caption.translate(adLanguage) : null;
 	}
 
+	public ITranslatableString getCaptionTrl()
+	{
+		return caption;
+	}
+
 	public boolean hasParameters()
 	{
 		return !parameters.isEmpty();
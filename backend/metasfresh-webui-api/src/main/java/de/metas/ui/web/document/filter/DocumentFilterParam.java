@@ -94,6 +94,11 @@ public final class DocumentFilterParam
 		return new DocumentFilterParam(joinAnd, SqlAndParams.of(sqlWhereClause));
 	}
 
+	public static DocumentFilterParam ofSqlWhereClause(final boolean joinAnd, @NonNull final SqlAndParams sqlWhereClause)
+	{
+		return new DocumentFilterParam(joinAnd, sqlWhereClause);
+	}
+
 	public static DocumentFilterParam ofNameEqualsValue(
 			@NonNull final String fieldName,
 			@NonNull final Object value)
@@ -3,6 +3,8 @@ package de.metas.ui.web.process;
 import java.io.File;
 
 import org.compiere.util.Util;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 
 import de.metas.ui.web.view.CreateViewRequest;
 import de.metas.ui.web.view.ViewId;
@@ -129,6 +131,14 @@ public final class ProcessInstanceResult
 			return Util.readBytes(tempFile);
 		}
 
+		/**
+		 * @return report data as resource which is streamed from the temporary file, without loading it into memory
+		 */
+		public Resource getReportDataAsResource()
+		{
+			return new FileSystemResource(tempFile);
+		}
+
 	}
 
 	@lombok.Value
@@ -190,6 +190,14 @@ public class ADProcessPostProcessService
 
 	private static final File saveReportToDiskIfAny(final ProcessExecutionResult processExecutionResult)
 	{
+		//
+		// If the report was already written to a temporary file, use it as is
+		final File reportTempFile = processExecutionResult.getReportTempFile();
+		if (reportTempFile != null)
+		{
+			return reportTempFile;
+		}
+
 		//
 		// If we are not dealing with a report, stop here
 		final byte[] reportData = processExecutionResult.getReportData();
@@ -116,6 +116,7 @@ public final class DefaultView implements IEditableView
 	@Getter
 	private final ImmutableSet<DocumentPath> referencingDocumentPaths;
 	private final DocumentReferenceId documentReferenceId;
+	private final boolean applySecurityRestrictions;
 
 	@Getter
 	private final ViewEvaluationCtx viewEvaluationCtx;
@@ -159,6 +160,7 @@ public final class DefaultView implements IEditableView
 		profileId = builder.getProfileId();
 		referencingDocumentPaths = builder.getReferencingDocumentPaths();
 		documentReferenceId = builder.getDocumentReferenceId();
+		applySecurityRestrictions = builder.isApplySecurityRestrictions();
 		viewInvalidationAdvisor = builder.getViewInvalidationAdvisor();
 
 		//
@@ -176,10 +178,11 @@ public final class DefaultView implements IEditableView
 			selectionsRef = ViewRowIdsOrderedSelectionsHolder.builder()
 					.viewDataRepository(viewDataRepository)
 					.viewId(viewId)
-					.applySecurityRestrictions(builder.isApplySecurityRestrictions())
+					.applySecurityRestrictions(applySecurityRestrictions)
 					.stickyFilters(stickyFilters)
 					.filters(filters)
 					.viewEvaluationCtxSupplier(this::getViewEvaluationCtx)
+					.deleteSelectionBeforeCreate(builder.isDeleteSelectionBeforeCreate())
 					.build();
 		}
 
@@ -221,6 +224,26 @@ public final class DefaultView implements IEditableView
 		return TranslatableStrings.empty();
 	}
 
+	/**
+	 * @return the definition from which this view can be recreated on another node
+	 * @see SqlViewFactory#restoreView(ViewDefinition)
+	 */
+	public ViewDefinition toViewDefinition()
+	{
+		return ViewDefinition.builder()
+				.viewId(viewId)
+				.viewType(viewType)
+				.profileId(profileId)
+				.parentViewId(parentViewId)
+				.parentRowId(parentRowId)
+				.referencingDocumentPaths(referencingDocumentPaths)
+				.documentReferenceId(documentReferenceId)
+				.stickyFilters(stickyFilters)
+				.filters(filters)
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.build();
+	}
+
 	/**
 	 * Returns the table name as provided by our internal {@link IViewDataRepository}.
 	 */
@@ -704,6 +727,7 @@ public final class DefaultView implements IEditableView
 		private IViewInvalidationAdvisor viewInvalidationAdvisor = DefaultViewInvalidationAdvisor.instance;
 
 		private boolean applySecurityRestrictions = true;
+		private boolean deleteSelectionBeforeCreate = false;
 
 		private Builder(@NonNull final SqlViewDataRepository viewDataRepository)
 		{
@@ -886,5 +910,20 @@ public final class DefaultView implements IEditableView
 		{
 			return applySecurityRestrictions;
 		}
+
+		/**
+		 * Advises the view to delete the existing rows selection before creating it.
+		 * Needed when the view is restored, because the selection might have been created by the node which created the view.
+		 */
+		public Builder deleteSelectionBeforeCreate(final boolean deleteSelectionBeforeCreate)
+		{
+			this.deleteSelectionBeforeCreate = deleteSelectionBeforeCreate;
+			return this;
+		}
+
+		private boolean isDeleteSelectionBeforeCreate()
+		{
+			return deleteSelectionBeforeCreate;
+		}
 	}
 }
@@ -0,0 +1,296 @@
+package de.metas.ui.web.view;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.view.event.ViewChangesCollector;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.util.time.SystemTime;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Views storage which shares the {@link DefaultView}s between all webui-api nodes.
+ * <p>
+ * The definitions of shared views are stored in database (see {@link SqlViewDefinitionsStore}).
+ * A view which was created on another node is restored on first access.
+ * All views which were used on this node are kept in a local near-cache, same as {@link DefaultViewsRepositoryStorage} does.
+ * <p>
+ * A near-cached shared view is checked against the database at most once per {@link #touchInterval}.
+ * That's also when the view is marked as accessed, so that its definition won't expire while the view is still used on some node.
+ * If the definition does not exist anymore (e.g. the view was closed on another node), the view is dropped from the near-cache.
+ * <p>
+ * Views which cannot be shared (e.g. created by custom view factories) are kept only in the near-cache.
+ */
+// NOTE: don't add it to spring context! i.e. don't annotate it with @Component or similar
+final class SharedViewsRepositoryStorage implements IViewsIndexStorage
+{
+	private static transient final Logger logger = LogManager.getLogger(SharedViewsRepositoryStorage.class);
+
+	private final ViewDefinitionsStore definitionsStore;
+	private final Function<IView, ViewDefinition> sharedViewDefinitionProvider;
+	private final Function<ViewDefinition, IView> viewRestorer;
+	private final Duration touchInterval;
+
+	private final Cache<ViewId, NearCacheEntry> views;
+
+	/**
+	 * @param sharedViewDefinitionProvider provides the definition of given view or <code>null</code> if the view cannot be shared
+	 * @param viewRestorer recreates a view from its definition
+	 */
+	public SharedViewsRepositoryStorage(
+			@NonNull final Duration viewExpirationTimeout,
+			@NonNull final Duration touchInterval,
+			@NonNull final ViewDefinitionsStore definitionsStore,
+			@NonNull final Function<IView, ViewDefinition> sharedViewDefinitionProvider,
+			@NonNull final Function<ViewDefinition, IView> viewRestorer)
+	{
+		this.definitionsStore = definitionsStore;
+		this.sharedViewDefinitionProvider = sharedViewDefinitionProvider;
+		this.viewRestorer = viewRestorer;
+		this.touchInterval = touchInterval;
+
+		views = CacheBuilder.newBuilder()
+				.expireAfterAccess(viewExpirationTimeout.toNanos(), TimeUnit.NANOSECONDS)
+				.removalListener(this::onViewRemoved)
+				.build();
+	}
+
+	@Override
+	public WindowId getWindowId()
+	{
+		throw new UnsupportedOperationException("windowId not available");
+	}
+
+	@Override
+	public void put(@NonNull final IView view)
+	{
+		final boolean shared = saveDefinitionIfShared(view);
+		views.put(view.getViewId(), new NearCacheEntry(view, shared));
+	}
+
+	private boolean saveDefinitionIfShared(final IView view)
+	{
+		final byte[] definition;
+		try
+		{
+			final ViewDefinition viewDefinition = sharedViewDefinitionProvider.apply(view);
+			if (viewDefinition == null)
+			{
+				return false;
+			}
+
+			definition = ViewDefinitionCodec.encode(viewDefinition);
+		}
+		catch (final Exception ex)
+		{
+			logger.debug("Cannot encode the definition of {}. Keeping it only on this node.", view, ex);
+			return false;
+		}
+
+		try
+		{
+			definitionsStore.save(view.getViewId(), definition);
+			return true;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed saving the definition of {}. Keeping it only on this node.", view, ex);
+			return false;
+		}
+	}
+
+	@Nullable
+	@Override
+	public IView getByIdOrNull(@NonNull final ViewId viewId)
+	{
+		final NearCacheEntry entry = views.getIfPresent(viewId);
+		if (entry == null)
+		{
+			return restoreOrNull(viewId);
+		}
+
+		if (entry.isTouchNeeded(touchInterval) && !touch(entry))
+		{
+			logger.debug("View {} was removed on another node. Removing it from this node too.", viewId);
+			views.invalidate(viewId);
+			return null;
+		}
+
+		return entry.getView();
+	}
+
+	private boolean touch(final NearCacheEntry entry)
+	{
+		try
+		{
+			final boolean exists = definitionsStore.touch(entry.getView().getViewId());
+			entry.setLastTouchMillis(SystemTime.millis());
+			return exists;
+		}
+		catch (final Exception ex)
+		{
+			// keep serving the view from near-cache; we will retry on next access
+			logger.warn("Failed touching the definition of {}. Ignored.", entry.getView(), ex);
+			return true;
+		}
+	}
+
+	@Nullable
+	private IView restoreOrNull(final ViewId viewId)
+	{
+		final IView view;
+		try
+		{
+			final byte[] definition = definitionsStore.getAndTouch(viewId);
+			if (definition == null)
+			{
+				return null;
+			}
+
+			view = viewRestorer.apply(ViewDefinitionCodec.decode(definition));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed restoring view {}. Considering it not found.", viewId, ex);
+			return null;
+		}
+
+		// in case the view was restored concurrently, use the first one
+		final NearCacheEntry entry = views.asMap().computeIfAbsent(viewId, k -> new NearCacheEntry(view, true));
+		logger.debug("Restored {}", entry.getView());
+		return entry.getView();
+	}
+
+	@Override
+	public void closeById(@NonNull final ViewId viewId, @NonNull final ViewCloseAction closeAction)
+	{
+		// Don't remove the view if not allowed.
+		// Will be removed when it will expire.
+		final IView view = getByIdOrNull(viewId);
+		if (view == null || !view.isAllowClosingPerUserRequest())
+		{
+			return;
+		}
+
+		//
+		// Notify the view that the user requested to be closed
+		// IMPORTANT: fire this event before removing the view from storage.
+		view.close(closeAction);
+
+		//
+		// Remove the view from all nodes
+		final NearCacheEntry entry = views.getIfPresent(viewId);
+		if (entry != null && entry.isShared())
+		{
+			// NOTE: also deletes the default selection, which might have been created by another node
+			definitionsStore.delete(viewId);
+		}
+
+		//
+		// Remove the view from near-cache
+		// => will fire #onViewRemoved
+		views.invalidate(viewId);
+		views.cleanUp(); // also cleanup to prevent views cache to grow.
+	}
+
+	private void onViewRemoved(final RemovalNotification<Object, Object> notification)
+	{
+		final IView view = ((NearCacheEntry)notification.getValue()).getView();
+		logger.debug("View <" + view.getViewId() + "> removed from cache. Cause: " + notification.getCause());
+		view.afterDestroy();
+	}
+
+	@Override
+	public void invalidateView(final ViewId viewId)
+	{
+		final NearCacheEntry entry = views.getIfPresent(viewId);
+		if (entry == null)
+		{
+			return;
+		}
+
+		final IView view = entry.getView();
+		view.invalidateAll();
+
+		ViewChangesCollector.getCurrentOrAutoflush()
+				.collectFullyChanged(view);
+	}
+
+	/**
+	 * @return the views from this node's near-cache
+	 */
+	@Override
+	public Stream<IView> streamAllViews()
+	{
+		return views.asMap().values().stream().map(NearCacheEntry::getView);
+	}
+
+	@ToString
+	private static final class NearCacheEntry
+	{
+		private final IView view;
+		private final boolean shared;
+		private volatile long lastTouchMillis;
+
+		private NearCacheEntry(@NonNull final IView view, final boolean shared)
+		{
+			this.view = view;
+			this.shared = shared;
+			this.lastTouchMillis = SystemTime.millis();
+		}
+
+		public IView getView()
+		{
+			return view;
+		}
+
+		public boolean isShared()
+		{
+			return shared;
+		}
+
+		public boolean isTouchNeeded(final Duration touchInterval)
+		{
+			return shared && SystemTime.millis() - lastTouchMillis >= touchInterval.toMillis();
+		}
+
+		public void setLastTouchMillis(final long lastTouchMillis)
+		{
+			this.lastTouchMillis = lastTouchMillis;
+		}
+	}
+}
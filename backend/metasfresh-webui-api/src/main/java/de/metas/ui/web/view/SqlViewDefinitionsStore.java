@@ -0,0 +1,149 @@
+package de.metas.ui.web.view;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Stores encoded {@link ViewDefinition}s in <code>T_WEBUI_ViewDefinition</code>, so they can be shared between webui-api nodes.
+ * <p>
+ * All statements are executed out of transaction.
+ */
+final class SqlViewDefinitionsStore implements ViewDefinitionsStore
+{
+	private static final Logger logger = LogManager.getLogger(SqlViewDefinitionsStore.class);
+
+	private static final String Table_Name = "T_WEBUI_ViewDefinition";
+	private static final String COLUMNNAME_ViewId = "ViewId";
+	private static final String COLUMNNAME_Definition = "Definition";
+	private static final String COLUMNNAME_LastAccess = "LastAccess";
+
+	@Override
+	public void save(@NonNull final ViewId viewId, @NonNull final byte[] definition)
+	{
+		final String sql = "INSERT INTO " + Table_Name + " (" + COLUMNNAME_ViewId + ", " + COLUMNNAME_Definition + ") VALUES (?, ?)"
+				+ " ON CONFLICT (" + COLUMNNAME_ViewId + ") DO UPDATE SET "
+				+ COLUMNNAME_Definition + "=EXCLUDED." + COLUMNNAME_Definition
+				+ ", " + COLUMNNAME_LastAccess + "=now()";
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			pstmt.setString(1, viewId.toJson());
+			pstmt.setBytes(2, definition);
+			pstmt.executeUpdate();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
+	@Nullable
+	@Override
+	public byte[] getAndTouch(@NonNull final ViewId viewId)
+	{
+		final String sql = "UPDATE " + Table_Name + " SET " + COLUMNNAME_LastAccess + "=now()"
+				+ " WHERE " + COLUMNNAME_ViewId + "=?"
+				+ " RETURNING " + COLUMNNAME_Definition;
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			pstmt.setString(1, viewId.toJson());
+			rs = pstmt.executeQuery();
+			return rs.next() ? rs.getBytes(1) : null;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public boolean touch(@NonNull final ViewId viewId)
+	{
+		final String sql = "UPDATE " + Table_Name + " SET " + COLUMNNAME_LastAccess + "=now() WHERE " + COLUMNNAME_ViewId + "=?";
+		return DB.executeUpdateEx(sql, new Object[] { viewId.toJson() }, ITrx.TRXNAME_None) > 0;
+	}
+
+	@Override
+	public void delete(@NonNull final ViewId viewId)
+	{
+		final String sql = "DELETE FROM " + Table_Name + " WHERE " + COLUMNNAME_ViewId + "=?";
+		DB.executeUpdateEx(sql, new Object[] { viewId.toJson() }, ITrx.TRXNAME_None);
+
+		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(ImmutableSet.of(viewId.getViewId()));
+	}
+
+	/**
+	 * Deletes the definitions of the views which were not accessed on any node for more than given timeout
+	 * and schedules the default rows selections of those views to be deleted (see {@link SqlViewSelectionToDeleteHelper}).
+	 */
+	public static void deleteExpiredNoFail(@NonNull final Duration viewExpirationTimeout)
+	{
+		try
+		{
+			final String sql = "DELETE FROM " + Table_Name + " WHERE " + COLUMNNAME_LastAccess + " < now() - ? * interval '1 second'"
+					+ " RETURNING " + COLUMNNAME_ViewId;
+			final Set<String> selectionIds = new HashSet<>();
+			DB.executeUpdateEx(sql, new Object[] { (int)viewExpirationTimeout.getSeconds() }, ITrx.TRXNAME_None, 0, rs -> selectionIds.add(ViewId.fromJson(rs.getString(1)).getViewId()));
+			logger.trace("Deleted {} expired view definitions", selectionIds.size());
+
+			// the default selection is shared by all nodes, so no node would delete it otherwise
+			SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIds);
+		}
+		catch (final Throwable ex)
+		{
+			logger.warn("Failed deleting expired view definitions. Ignored", ex);
+		}
+	}
+}
@@ -185,6 +185,35 @@ public class SqlViewFactory implements IViewFactory
 		return viewBuilder.build();
 	}
 
+	/**
+	 * Recreates a view which was created on another node.
+	 * <p>
+	 * Unlike {@link #createView(CreateViewRequest)}, no filters are derived: the referenced document filter and the auto filters are already part of the definition.
+	 */
+	public DefaultView restoreView(@NonNull final ViewDefinition definition)
+	{
+		final WindowId windowId = definition.getViewId().getWindowId();
+		final JSONViewDataType viewType = definition.getViewType();
+		final SqlViewBinding sqlViewBinding = viewLayouts.getViewBinding(windowId, viewType.getRequiredFieldCharacteristic(), definition.getProfileId());
+		final SqlViewDataRepository viewDataRepository = new SqlViewDataRepository(sqlViewBinding);
+
+		return DefaultView.builder(viewDataRepository)
+				.setViewId(definition.getViewId())
+				.setViewType(viewType)
+				.setProfileId(definition.getProfileId())
+				.setReferencingDocumentPaths(definition.getReferencingDocumentPaths())
+				.setDocumentReferenceId(definition.getDocumentReferenceId())
+				.setParentViewId(definition.getParentViewId())
+				.setParentRowId(definition.getParentRowId())
+				.addStickyFilters(definition.getStickyFilters())
+				.setFilters(definition.getFilters())
+				.applySecurityRestrictions(definition.isApplySecurityRestrictions())
+				.viewInvalidationAdvisor(sqlViewBinding.getViewInvalidationAdvisor())
+				.refreshViewOnChangeEvents(sqlViewBinding.isRefreshViewOnChangeEvents())
+				.deleteSelectionBeforeCreate(true)
+				.build();
+	}
+
 	private DocumentFilter extractReferencedDocumentFilter(
 			@NonNull final WindowId targetWindowId,
 			@Nullable final DocumentPath referencedDocumentPath,
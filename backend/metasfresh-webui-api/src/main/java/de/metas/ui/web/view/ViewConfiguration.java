@@ -58,6 +58,13 @@ public class ViewConfiguration implements InitializingBean
 					TimeUnit.SECONDS // timeUnit
 			);
 			logger.info("Clearing view selections each {} seconds", clearViewSelectionsRateInSeconds);
+
+			scheduledExecutor.scheduleAtFixedRate(
+					() -> SqlViewDefinitionsStore.deleteExpiredNoFail(ViewsRepository.getViewExpirationTimeout()), // command, don't fail
+					clearViewSelectionsRateInSeconds, // initialDelay
+					clearViewSelectionsRateInSeconds, // period
+					TimeUnit.SECONDS // timeUnit
+			);
 		}
 	}
 
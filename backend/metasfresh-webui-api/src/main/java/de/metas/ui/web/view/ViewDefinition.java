@@ -0,0 +1,84 @@
+package de.metas.ui.web.view;
+
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.references.DocumentReferenceId;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Everything which is needed to recreate a {@link DefaultView} on another node.
+ * <p>
+ * The rows selection itself is not part of it, because it's recreated from the filters.
+ *
+ * @see SqlViewFactory#restoreView(ViewDefinition)
+ * @see ViewDefinitionCodec
+ */
+@Value
+@Builder
+public class ViewDefinition
+{
+	@NonNull
+	ViewId viewId;
+	@NonNull
+	JSONViewDataType viewType;
+	@Nullable
+	ViewProfileId profileId;
+
+	@Nullable
+	ViewId parentViewId;
+	@Nullable
+	DocumentId parentRowId;
+
+	@NonNull
+	ImmutableSet<DocumentPath> referencingDocumentPaths;
+	@Nullable
+	DocumentReferenceId documentReferenceId;
+
+	@NonNull
+	DocumentFilterList stickyFilters;
+	@NonNull
+	DocumentFilterList filters;
+
+	boolean applySecurityRestrictions;
+
+	public static class ViewDefinitionBuilder
+	{
+		public ViewDefinitionBuilder referencingDocumentPaths(@Nullable final Set<DocumentPath> referencingDocumentPaths)
+		{
+			this.referencingDocumentPaths = referencingDocumentPaths != null ? ImmutableSet.copyOf(referencingDocumentPaths) : ImmutableSet.of();
+			return this;
+		}
+	}
+}
@@ -0,0 +1,491 @@
+package de.metas.ui.web.view;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.i18n.ITranslatableString;
+import de.metas.i18n.TranslatableStrings;
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.DocumentFilterParam;
+import de.metas.ui.web.document.filter.DocumentFilterParam.Operator;
+import de.metas.ui.web.document.references.DocumentReferenceId;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.StringLookupValue;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Compact binary encoding of {@link ViewDefinition}s.
+ * <p>
+ * The first byte is the format version. Definitions written with another version cannot be decoded and shall be dropped by the caller.
+ * <p>
+ * Filter parameter values are encoded using a one byte type tag. Only the value types which are created by the standard filters are supported.
+ * Lookup values are encoded with their ID and display name only.
+ */
+final class ViewDefinitionCodec
+{
+	private static final byte VERSION = 1;
+
+	private static final byte TYPE_Null = 0;
+	private static final byte TYPE_String = 1;
+	private static final byte TYPE_Integer = 2;
+	private static final byte TYPE_Long = 3;
+	private static final byte TYPE_BigDecimal = 4;
+	private static final byte TYPE_Boolean = 5;
+	private static final byte TYPE_LocalDate = 6;
+	private static final byte TYPE_LocalTime = 7;
+	private static final byte TYPE_LocalDateTime = 8;
+	private static final byte TYPE_ZonedDateTime = 9;
+	private static final byte TYPE_Instant = 10;
+	private static final byte TYPE_Timestamp = 11;
+	private static final byte TYPE_IntegerLookupValue = 12;
+	private static final byte TYPE_StringLookupValue = 13;
+	private static final byte TYPE_List = 14;
+
+	private ViewDefinitionCodec()
+	{
+	}
+
+	/**
+	 * @throws AdempiereException if the definition contains something which cannot be encoded (e.g. an unknown filter parameter value type)
+	 */
+	public static byte[] encode(@NonNull final ViewDefinition definition)
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (final DataOutputStream out = new DataOutputStream(bytes))
+		{
+			out.writeByte(VERSION);
+
+			writeString(out, definition.getViewId().toJson());
+			writeString(out, definition.getViewType().name());
+			writeNullableString(out, definition.getProfileId() != null ? definition.getProfileId().toJson() : null);
+			writeNullableString(out, definition.getParentViewId() != null ? definition.getParentViewId().toJson() : null);
+			writeNullableString(out, definition.getParentRowId() != null ? definition.getParentRowId().toJson() : null);
+
+			out.writeInt(definition.getReferencingDocumentPaths().size());
+			for (final DocumentPath documentPath : definition.getReferencingDocumentPaths())
+			{
+				writeDocumentPath(out, documentPath);
+			}
+			writeNullableString(out, definition.getDocumentReferenceId() != null ? definition.getDocumentReferenceId().toJson() : null);
+
+			writeFilters(out, definition.getStickyFilters());
+			writeFilters(out, definition.getFilters());
+			out.writeBoolean(definition.isApplySecurityRestrictions());
+		}
+		catch (final IOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @throws AdempiereException if the data is corrupt or was written using another format version
+	 */
+	public static ViewDefinition decode(@NonNull final byte[] data)
+	{
+		try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data)))
+		{
+			final byte version = in.readByte();
+			if (version != VERSION)
+			{
+				throw new AdempiereException("Unsupported view definition version: " + version);
+			}
+
+			final ViewDefinition.ViewDefinitionBuilder builder = ViewDefinition.builder()
+					.viewId(ViewId.fromJson(readString(in)))
+					.viewType(JSONViewDataType.valueOf(readString(in)))
+					.profileId(ViewProfileId.fromJson(readNullableString(in)));
+
+			final String parentViewId = readNullableString(in);
+			builder.parentViewId(parentViewId != null ? ViewId.fromJson(parentViewId) : null);
+			final String parentRowId = readNullableString(in);
+			builder.parentRowId(parentRowId != null ? DocumentId.of(parentRowId) : null);
+
+			final int referencingDocumentPathsCount = in.readInt();
+			final ImmutableSet.Builder<DocumentPath> referencingDocumentPaths = ImmutableSet.builder();
+			for (int i = 0; i < referencingDocumentPathsCount; i++)
+			{
+				referencingDocumentPaths.add(readDocumentPath(in));
+			}
+			builder.referencingDocumentPaths(referencingDocumentPaths.build());
+			final String documentReferenceId = readNullableString(in);
+			builder.documentReferenceId(documentReferenceId != null ? DocumentReferenceId.ofString(documentReferenceId) : null);
+
+			return builder
+					.stickyFilters(readFilters(in))
+					.filters(readFilters(in))
+					.applySecurityRestrictions(in.readBoolean())
+					.build();
+		}
+		catch (final IOException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	private static void writeDocumentPath(final DataOutputStream out, final DocumentPath documentPath) throws IOException
+	{
+		if (!documentPath.isRootDocument() || documentPath.getWindowIdOrNull() == null)
+		{
+			throw new AdempiereException("Only root document paths are supported: " + documentPath);
+		}
+
+		writeString(out, documentPath.getWindowId().toJson());
+		writeString(out, documentPath.getDocumentId().toJson());
+	}
+
+	private static DocumentPath readDocumentPath(final DataInputStream in) throws IOException
+	{
+		final WindowId windowId = WindowId.fromJson(readString(in));
+		final DocumentId documentId = DocumentId.of(readString(in));
+		return DocumentPath.rootDocumentPath(windowId, documentId);
+	}
+
+	private static void writeFilters(final DataOutputStream out, final DocumentFilterList filters) throws IOException
+	{
+		final List<DocumentFilter> filtersList = filters.toList();
+		out.writeInt(filtersList.size());
+		for (final DocumentFilter filter : filtersList)
+		{
+			writeString(out, filter.getFilterId());
+			writeTranslatableString(out, filter.getCaptionTrl());
+			out.writeBoolean(filter.isFacetFilter());
+
+			final List<DocumentFilterParam> parameters = filter.getParameters();
+			out.writeInt(parameters.size());
+			for (final DocumentFilterParam parameter : parameters)
+			{
+				out.writeBoolean(parameter.isJoinAnd());
+
+				final SqlAndParams sqlWhereClause = parameter.getSqlWhereClause();
+				if (sqlWhereClause != null)
+				{
+					out.writeBoolean(true); // SQL filter
+					writeString(out, sqlWhereClause.getSql());
+					writeValue(out, sqlWhereClause.getSqlParams());
+				}
+				else
+				{
+					out.writeBoolean(false); // not a SQL filter
+					writeString(out, parameter.getFieldName());
+					out.writeBoolean(filter.isInternalParameter(parameter.getFieldName()));
+					writeString(out, parameter.getOperator().name());
+					writeValue(out, parameter.getValue());
+					writeValue(out, parameter.getValueTo());
+				}
+			}
+		}
+	}
+
+	private static DocumentFilterList readFilters(final DataInputStream in) throws IOException
+	{
+		final int filtersCount = in.readInt();
+		if (filtersCount == 0)
+		{
+			return DocumentFilterList.EMPTY;
+		}
+
+		final List<DocumentFilter> filters = new ArrayList<>(filtersCount);
+		for (int i = 0; i < filtersCount; i++)
+		{
+			final DocumentFilter.Builder filter = DocumentFilter.builder()
+					.setFilterId(readString(in))
+					.setCaption(readTranslatableString(in))
+					.setFacetFilter(in.readBoolean());
+
+			final int parametersCount = in.readInt();
+			for (int p = 0; p < parametersCount; p++)
+			{
+				final boolean joinAnd = in.readBoolean();
+				final boolean sqlFilter = in.readBoolean();
+				if (sqlFilter)
+				{
+					final String sql = readString(in);
+					@SuppressWarnings("unchecked")
+					final List<Object> sqlParams = (List<Object>)readValue(in);
+					filter.addParameter(DocumentFilterParam.ofSqlWhereClause(joinAnd, SqlAndParams.of(sql, sqlParams)));
+				}
+				else
+				{
+					final String fieldName = readString(in);
+					final boolean internal = in.readBoolean();
+					final DocumentFilterParam parameter = DocumentFilterParam.builder()
+							.setJoinAnd(joinAnd)
+							.setFieldName(fieldName)
+							.setOperator(Operator.valueOf(readString(in)))
+							.setValue(readValue(in))
+							.setValueTo(readValue(in))
+							.build();
+					if (internal)
+					{
+						filter.addInternalParameter(parameter);
+					}
+					else
+					{
+						filter.addParameter(parameter);
+					}
+				}
+			}
+
+			filters.add(filter.build());
+		}
+		return DocumentFilterList.ofList(filters);
+	}
+
+	private static void writeValue(final DataOutputStream out, @Nullable final Object value) throws IOException
+	{
+		if (value == null)
+		{
+			out.writeByte(TYPE_Null);
+		}
+		else if (value instanceof String)
+		{
+			out.writeByte(TYPE_String);
+			writeString(out, (String)value);
+		}
+		else if (value instanceof Integer)
+		{
+			out.writeByte(TYPE_Integer);
+			out.writeInt((Integer)value);
+		}
+		else if (value instanceof Long)
+		{
+			out.writeByte(TYPE_Long);
+			out.writeLong((Long)value);
+		}
+		else if (value instanceof BigDecimal)
+		{
+			out.writeByte(TYPE_BigDecimal);
+			writeString(out, value.toString());
+		}
+		else if (value instanceof Boolean)
+		{
+			out.writeByte(TYPE_Boolean);
+			out.writeBoolean((Boolean)value);
+		}
+		else if (value instanceof LocalDate)
+		{
+			out.writeByte(TYPE_LocalDate);
+			out.writeLong(((LocalDate)value).toEpochDay());
+		}
+		else if (value instanceof LocalTime)
+		{
+			out.writeByte(TYPE_LocalTime);
+			out.writeLong(((LocalTime)value).toNanoOfDay());
+		}
+		else if (value instanceof LocalDateTime)
+		{
+			out.writeByte(TYPE_LocalDateTime);
+			writeString(out, value.toString());
+		}
+		else if (value instanceof ZonedDateTime)
+		{
+			out.writeByte(TYPE_ZonedDateTime);
+			writeString(out, value.toString());
+		}
+		else if (value instanceof Instant)
+		{
+			out.writeByte(TYPE_Instant);
+			out.writeLong(((Instant)value).getEpochSecond());
+			out.writeInt(((Instant)value).getNano());
+		}
+		else if (value instanceof Timestamp)
+		{
+			out.writeByte(TYPE_Timestamp);
+			out.writeLong(((Timestamp)value).getTime());
+			out.writeInt(((Timestamp)value).getNanos());
+		}
+		else if (value instanceof IntegerLookupValue)
+		{
+			final IntegerLookupValue lookupValue = (IntegerLookupValue)value;
+			out.writeByte(TYPE_IntegerLookupValue);
+			out.writeInt(lookupValue.getIdAsInt());
+			writeTranslatableString(out, lookupValue.getDisplayNameTrl());
+		}
+		else if (value instanceof StringLookupValue)
+		{
+			final StringLookupValue lookupValue = (StringLookupValue)value;
+			out.writeByte(TYPE_StringLookupValue);
+			writeString(out, lookupValue.getIdAsString());
+			writeTranslatableString(out, lookupValue.getDisplayNameTrl());
+		}
+		else if (value instanceof Collection)
+		{
+			final Collection<?> collection = (Collection<?>)value;
+			out.writeByte(TYPE_List);
+			out.writeInt(collection.size());
+			for (final Object item : collection)
+			{
+				writeValue(out, item);
+			}
+		}
+		else
+		{
+			throw new AdempiereException("Value type not supported: " + value + " (" + value.getClass() + ")");
+		}
+	}
+
+	@Nullable
+	private static Object readValue(final DataInputStream in) throws IOException
+	{
+		final byte type = in.readByte();
+		switch (type)
+		{
+			case TYPE_Null:
+				return null;
+			case TYPE_String:
+				return readString(in);
+			case TYPE_Integer:
+				return in.readInt();
+			case TYPE_Long:
+				return in.readLong();
+			case TYPE_BigDecimal:
+				return new BigDecimal(readString(in));
+			case TYPE_Boolean:
+				return in.readBoolean();
+			case TYPE_LocalDate:
+				return LocalDate.ofEpochDay(in.readLong());
+			case TYPE_LocalTime:
+				return LocalTime.ofNanoOfDay(in.readLong());
+			case TYPE_LocalDateTime:
+				return LocalDateTime.parse(readString(in));
+			case TYPE_ZonedDateTime:
+				return ZonedDateTime.parse(readString(in));
+			case TYPE_Instant:
+				return Instant.ofEpochSecond(in.readLong(), in.readInt());
+			case TYPE_Timestamp:
+			{
+				final Timestamp timestamp = new Timestamp(in.readLong());
+				timestamp.setNanos(in.readInt());
+				return timestamp;
+			}
+			case TYPE_IntegerLookupValue:
+				return IntegerLookupValue.of(in.readInt(), readTranslatableString(in), null);
+			case TYPE_StringLookupValue:
+				return StringLookupValue.of(readString(in), readTranslatableString(in));
+			case TYPE_List:
+			{
+				final int size = in.readInt();
+				final List<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++)
+				{
+					list.add(readValue(in));
+				}
+				return list;
+			}
+			default:
+				throw new AdempiereException("Unknown value type: " + type);
+		}
+	}
+
+	private static void writeTranslatableString(final DataOutputStream out, @Nullable final ITranslatableString trl) throws IOException
+	{
+		final ITranslatableString trlNorm = TranslatableStrings.nullToEmpty(trl);
+		writeString(out, trlNorm.getDefaultValue());
+
+		out.writeInt(trlNorm.getAD_Languages().size());
+		for (final String adLanguage : trlNorm.getAD_Languages())
+		{
+			writeString(out, adLanguage);
+			writeString(out, trlNorm.translate(adLanguage));
+		}
+	}
+
+	private static ITranslatableString readTranslatableString(final DataInputStream in) throws IOException
+	{
+		final String defaultValue = readString(in);
+
+		final int translationsCount = in.readInt();
+		final Map<String, String> trlMap = new LinkedHashMap<>(translationsCount);
+		for (int i = 0; i < translationsCount; i++)
+		{
+			trlMap.put(readString(in), readString(in));
+		}
+
+		return TranslatableStrings.ofMap(trlMap, defaultValue);
+	}
+
+	/**
+	 * NOTE: we are not using {@link DataOutputStream#writeUTF(String)} because it's limited to 64k, and SQL where clauses might be longer.
+	 */
+	private static void writeString(final DataOutputStream out, @NonNull final String value) throws IOException
+	{
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(final DataInputStream in) throws IOException
+	{
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeNullableString(final DataOutputStream out, @Nullable final String value) throws IOException
+	{
+		out.writeBoolean(value != null);
+		if (value != null)
+		{
+			writeString(out, value);
+		}
+	}
+
+	@Nullable
+	private static String readNullableString(final DataInputStream in) throws IOException
+	{
+		return in.readBoolean() ? readString(in) : null;
+	}
+}
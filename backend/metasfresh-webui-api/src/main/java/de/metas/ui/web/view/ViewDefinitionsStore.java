@@ -0,0 +1,58 @@
+package de.metas.ui.web.view;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Storage of encoded {@link ViewDefinition}s, shared between all webui-api nodes.
+ *
+ * @see SharedViewsRepositoryStorage
+ * @see SqlViewDefinitionsStore
+ */
+interface ViewDefinitionsStore
+{
+	void save(@NonNull ViewId viewId, @NonNull byte[] definition);
+
+	/**
+	 * Loads the given view's definition and also marks it as accessed.
+	 *
+	 * @return encoded definition or <code>null</code> if there is no definition for given view
+	 */
+	@Nullable
+	byte[] getAndTouch(@NonNull ViewId viewId);
+
+	/**
+	 * Marks the given view's definition as accessed, so it won't expire.
+	 *
+	 * @return false if the definition does not exist anymore (i.e. the view was closed on another node, or it expired)
+	 */
+	boolean touch(@NonNull ViewId viewId);
+
+	/**
+	 * Deletes the given view's definition and also the view's default rows selection, which might have been created by another node.
+	 */
+	void delete(@NonNull ViewId viewId);
+}
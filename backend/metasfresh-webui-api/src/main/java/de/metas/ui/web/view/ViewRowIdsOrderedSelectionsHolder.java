@@ -62,9 +62,11 @@ final class ViewRowIdsOrderedSelectionsHolder
 			final boolean applySecurityRestrictions,
 			@NonNull final DocumentFilterList stickyFilters,
 			@NonNull final DocumentFilterList filters,
-			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier)
+			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier,
+			final boolean deleteSelectionBeforeCreate)
 	{
 		this.viewDataRepository = viewDataRepository;
+		this.selectionDeleteBeforeCreate.set(deleteSelectionBeforeCreate);
 		this.viewId = viewId;
 		this.applySecurityRestrictions = applySecurityRestrictions;
 		this.viewEvaluationCtxSupplier = viewEvaluationCtxSupplier;
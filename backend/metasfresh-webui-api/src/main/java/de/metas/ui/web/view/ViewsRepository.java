@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 
 import org.adempiere.ad.trx.api.ITrx;
@@ -72,6 +73,11 @@ public class ViewsRepository implements IViewsRepository
 {
 	private static final Logger logger = LogManager.getLogger(ViewsRepository.class);
 
+	private static final String SYSCONFIG_ViewExpirationTimeoutInMinutes = "de.metas.ui.web.view.ViewExpirationTimeoutInMinutes";
+	/** If enabled, the {@link DefaultView}s are shared between all webui-api nodes. See {@link SharedViewsRepositoryStorage}. */
+	private static final String SYSCONFIG_SharedViewsStorage = "de.metas.ui.web.view.SharedViewsStorage";
+	private static final String SYSCONFIG_SharedViewsStorageTouchIntervalInSeconds = "de.metas.ui.web.view.SharedViewsStorage.TouchIntervalInSeconds";
+
 	private final ImmutableMap<ViewFactoryKey, IViewFactory> factories;
 	private final SqlViewFactory defaultFactory;
 	private final MenuTreeRepository menuTreeRepo;
@@ -105,14 +111,59 @@ public class ViewsRepository implements IViewsRepository
 		this.menuTreeRepo = menuTreeRepo;
 		this.websocketActiveSubscriptionsIndex = websocketActiveSubscriptionsIndex;
 
-		final Duration viewExpirationTimeout = Duration.ofMinutes(Services.get(ISysConfigBL.class).getIntValue("de.metas.ui.web.view.ViewExpirationTimeoutInMinutes", 60));
-		defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeout);
+		defaultViewsIndexStorage = createDefaultViewsIndexStorage();
+	}
+
+	private IViewsIndexStorage createDefaultViewsIndexStorage()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final Duration viewExpirationTimeout = getViewExpirationTimeout();
+		if (sysConfigBL.getBooleanValue(SYSCONFIG_SharedViewsStorage, false))
+		{
+			final Duration touchInterval = Duration.ofSeconds(sysConfigBL.getIntValue(SYSCONFIG_SharedViewsStorageTouchIntervalInSeconds, 60));
+			logger.info("Using shared views storage (touchInterval={})", touchInterval);
+
+			return new SharedViewsRepositoryStorage(
+					viewExpirationTimeout,
+					touchInterval,
+					new SqlViewDefinitionsStore(),
+					this::getSharedViewDefinitionOrNull,
+					defaultFactory::restoreView);
+		}
+		else
+		{
+			return new DefaultViewsRepositoryStorage(viewExpirationTimeout);
+		}
+	}
+
+	static Duration getViewExpirationTimeout()
+	{
+		return Duration.ofMinutes(Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ViewExpirationTimeoutInMinutes, 60));
+	}
+
+	/**
+	 * @return the view's definition if the given view can be restored by {@link SqlViewFactory#restoreView(ViewDefinition)}, i.e. it was created by {@link SqlViewFactory}; <code>null</code> otherwise
+	 */
+	@Nullable
+	private ViewDefinition getSharedViewDefinitionOrNull(final IView view)
+	{
+		if (view instanceof DefaultView
+				&& getFactory(view.getViewId().getWindowId(), view.getViewType()) == defaultFactory)
+		{
+			return DefaultView.cast(view).toViewDefinition();
+		}
+		return null;
 	}
 
 	@PostConstruct
 	private void truncateTempTablesIfAllowed()
 	{
-		if (truncateSelectionOnStartUp)
+		if (defaultViewsIndexStorage instanceof SharedViewsRepositoryStorage)
+		{
+			// the selections might be used by views which were created on other nodes
+			logger.info("Skip truncating selection tables on startup because the views are shared between nodes");
+		}
+		else if (truncateSelectionOnStartUp)
 		{
 			truncateTable(I_T_WEBUI_ViewSelection.Table_Name);
 			truncateTable(I_T_WEBUI_ViewSelectionLine.Table_Name);
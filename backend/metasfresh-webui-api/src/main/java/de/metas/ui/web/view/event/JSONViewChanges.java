@@ -1,6 +1,7 @@
 package de.metas.ui.web.view.event;
 
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
@@ -8,9 +9,12 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
 
+import de.metas.ui.web.websocket.WebsocketCoalescableEvent;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -36,7 +40,7 @@ import de.metas.ui.web.window.datatypes.WindowId;
 
 @SuppressWarnings("serial")
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public final class JSONViewChanges implements Serializable
+public final class JSONViewChanges implements Serializable, WebsocketCoalescableEvent
 {
 	public static JSONViewChanges of(final ViewChanges changes)
 	{
@@ -82,6 +86,54 @@ public final class JSONViewChanges implements Serializable
 		}
 	}
 
+	private JSONViewChanges(
+			final String viewId,
+			final WindowId windowId,
+			final Boolean fullyChanged,
+			final Set<String> changedIds)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+	}
+
+	@Override
+	public JSONViewChanges coalesceWith(@NonNull final Object newerEvent)
+	{
+		if (!(newerEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges newer = (JSONViewChanges)newerEvent;
+		if (!Objects.equals(viewId, newer.viewId)
+				|| !Objects.equals(windowId, newer.windowId))
+		{
+			return null;
+		}
+
+		if (Boolean.TRUE.equals(fullyChanged) || Boolean.TRUE.equals(newer.fullyChanged))
+		{
+			return new JSONViewChanges(viewId, windowId, Boolean.TRUE, null);
+		}
+
+		final ImmutableSet.Builder<String> mergedChangedIds = ImmutableSet.builder();
+		if (changedIds != null)
+		{
+			mergedChangedIds.addAll(changedIds);
+		}
+		if (newer.changedIds != null)
+		{
+			mergedChangedIds.addAll(newer.changedIds);
+		}
+		final ImmutableSet<String> changedIds = mergedChangedIds.build();
+
+		return changedIds.isEmpty()
+				? new JSONViewChanges(viewId, windowId, null, null)
+				: new JSONViewChanges(viewId, windowId, Boolean.FALSE, changedIds);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,43 @@
+package de.metas.ui.web.websocket;
+
+import javax.annotation.Nullable;
+
+import lombok.NonNull;
+
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Websocket event which can be merged with a newer event sent to the same topic, before they are actually sent.
+ * <p>
+ * Used to avoid flooding the frontend with redundant events, e.g. when many changes are made to the same document or view.
+ */
+public interface WebsocketCoalescableEvent
+{
+	/**
+	 * @return an event which is equivalent to sending this event followed by the given newer event, or <code>null</code> if they cannot be merged.
+	 *         Neither this nor the given event shall be changed.
+	 */
+	@Nullable
+	Object coalesceWith(@NonNull Object newerEvent);
+}
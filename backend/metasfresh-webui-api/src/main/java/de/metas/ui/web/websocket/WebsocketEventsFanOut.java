@@ -0,0 +1,341 @@
+package de.metas.ui.web.websocket;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Asynchronous websocket events fan-out.
+ * <p>
+ * Events are buffered per topic and sent by a dedicated pool of sender threads, so the threads which are producing the events
+ * (e.g. committing business transactions) are not blocked by websocket I/O.
+ * <ul>
+ * <li>the events of a topic are sent in the order they were enqueued
+ * <li>an event is merged with the previous event of the same topic, if it was not sent yet and they are {@link WebsocketCoalescableEvent}s.
+ * The sending of a topic's events is delayed by <code>coalescingDelayMillis</code> to give the events the chance to be merged
+ * <li>each topic buffers at most <code>topicCapacity</code> events. When it's full, the oldest event is dropped
+ * </ul>
+ */
+final class WebsocketEventsFanOut
+{
+	private static final Logger logger = LogManager.getLogger(WebsocketEventsFanOut.class);
+
+	private final Consumer<WebsocketEvent> sender;
+	private final long coalescingDelayMillis;
+	private final int topicCapacity;
+	private final ScheduledExecutorService senderPool;
+	private volatile boolean shutdown = false;
+
+	private final ConcurrentHashMap<WebsocketTopicName, TopicBuffer> buffers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger queueDepth = new AtomicInteger(0);
+	private final AtomicLong countEnqueued = new AtomicLong(0);
+	private final AtomicLong countSent = new AtomicLong(0);
+	private final AtomicLong countCoalesced = new AtomicLong(0);
+	private final AtomicLong countDropped = new AtomicLong(0);
+	private final AtomicLong countErrors = new AtomicLong(0);
+	private final AtomicLong sumSendLatencyMillis = new AtomicLong(0);
+	private final AtomicLong maxSendLatencyMillis = new AtomicLong(0);
+
+	@Builder
+	private WebsocketEventsFanOut(
+			@NonNull final Consumer<WebsocketEvent> sender,
+			final int threads,
+			final long coalescingDelayMillis,
+			final int topicCapacity)
+	{
+		this.sender = sender;
+		this.coalescingDelayMillis = Math.max(coalescingDelayMillis, 0);
+		this.topicCapacity = Math.max(topicCapacity, 1);
+
+		final ScheduledThreadPoolExecutor senderPool = new ScheduledThreadPoolExecutor(
+				Math.max(threads, 1),
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(WebsocketEventsFanOut.class.getSimpleName() + "-")
+						.setDaemon(true)
+						.build());
+		senderPool.setRemoveOnCancelPolicy(true);
+		senderPool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // on shutdown, the buffers are flushed in the calling thread
+		this.senderPool = senderPool;
+	}
+
+	/**
+	 * Enqueues the given event to be sent. After {@link #shutdown()} this method does nothing.
+	 */
+	public void enqueue(@NonNull final WebsocketEvent event)
+	{
+		if (shutdown)
+		{
+			logger.debug("Not sending {} because the fan-out was shut down", event);
+			return;
+		}
+
+		final QueuedEvent queuedEvent = new QueuedEvent(event, System.currentTimeMillis());
+		countEnqueued.incrementAndGet();
+
+		while (true)
+		{
+			final TopicBuffer buffer = buffers.computeIfAbsent(event.getDestination(), TopicBuffer::new);
+			final EnqueueResult result = buffer.add(queuedEvent);
+			if (result == EnqueueResult.BUFFER_CLOSED)
+			{
+				continue; // buffer was just removed; retry with a new one
+			}
+
+			if (result == EnqueueResult.ADDED_AND_SCHEDULE_SENDING)
+			{
+				scheduleSending(buffer, coalescingDelayMillis);
+			}
+			return;
+		}
+	}
+
+	private void scheduleSending(final TopicBuffer buffer, final long delayMillis)
+	{
+		try
+		{
+			senderPool.schedule(() -> sendAll(buffer), delayMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			// we are shutting down => send the remaining events right away
+			sendAll(buffer);
+		}
+	}
+
+	private void sendAll(final TopicBuffer buffer)
+	{
+		final List<QueuedEvent> events = buffer.pollAll();
+		send(events);
+
+		if (buffer.hasEventsOrClose())
+		{
+			// more events came while we were sending; keep on going, but still give them the chance to be merged
+			scheduleSending(buffer, coalescingDelayMillis);
+		}
+		else
+		{
+			buffers.remove(buffer.getTopic(), buffer);
+		}
+	}
+
+	private void send(final List<QueuedEvent> events)
+	{
+		for (final QueuedEvent queuedEvent : events)
+		{
+			try
+			{
+				sender.accept(queuedEvent.getEvent());
+				countSent.incrementAndGet();
+			}
+			catch (final Exception ex)
+			{
+				countErrors.incrementAndGet();
+				logger.warn("Failed sending {}. Ignored.", queuedEvent.getEvent(), ex);
+			}
+
+			final long latencyMillis = System.currentTimeMillis() - queuedEvent.getEnqueuedTimeMillis();
+			sumSendLatencyMillis.addAndGet(latencyMillis);
+			maxSendLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+		}
+	}
+
+	/**
+	 * Sends all buffered events right away, in the current thread.
+	 */
+	public void flush()
+	{
+		for (final TopicBuffer buffer : buffers.values())
+		{
+			send(buffer.pollAll());
+		}
+	}
+
+	/**
+	 * Sends all buffered events and then stops the sender threads. Events enqueued afterwards are ignored.
+	 */
+	public void shutdown()
+	{
+		shutdown = true;
+		flush();
+
+		senderPool.shutdown();
+		try
+		{
+			if (!senderPool.awaitTermination(5, TimeUnit.SECONDS))
+			{
+				logger.warn("Websocket sender threads did not stop within 5 seconds");
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+		}
+		senderPool.shutdownNow();
+	}
+
+	public WebsocketFanOutStats getStats()
+	{
+		final long countSent = this.countSent.get();
+		final long countErrors = this.countErrors.get();
+		final long countAttempted = countSent + countErrors;
+
+		return WebsocketFanOutStats.builder()
+				.queueDepth(queueDepth.get())
+				.countTopics(buffers.size())
+				.countEnqueued(countEnqueued.get())
+				.countSent(countSent)
+				.countCoalesced(countCoalesced.get())
+				.countDropped(countDropped.get())
+				.countErrors(countErrors)
+				.avgSendLatencyMillis(countAttempted > 0 ? sumSendLatencyMillis.get() / countAttempted : 0)
+				.maxSendLatencyMillis(maxSendLatencyMillis.get())
+				.build();
+	}
+
+	@lombok.Value
+	private static class QueuedEvent
+	{
+		WebsocketEvent event;
+		long enqueuedTimeMillis;
+	}
+
+	private enum EnqueueResult
+	{
+		ADDED, ADDED_AND_SCHEDULE_SENDING, BUFFER_CLOSED
+	}
+
+	/**
+	 * Events of one topic which were not sent yet.
+	 */
+	private final class TopicBuffer
+	{
+		private final WebsocketTopicName topic;
+		private final ArrayDeque<QueuedEvent> events = new ArrayDeque<>();
+		/** true while sending is scheduled or in progress; makes sure there is only one sender per topic */
+		private boolean sending = false;
+		private boolean closed = false;
+
+		private TopicBuffer(@NonNull final WebsocketTopicName topic)
+		{
+			this.topic = topic;
+		}
+
+		public WebsocketTopicName getTopic()
+		{
+			return topic;
+		}
+
+		public synchronized EnqueueResult add(@NonNull final QueuedEvent queuedEvent)
+		{
+			if (closed)
+			{
+				return EnqueueResult.BUFFER_CLOSED;
+			}
+
+			final QueuedEvent lastEvent = events.peekLast();
+			final WebsocketEvent coalescedEvent = lastEvent != null ? coalesce(lastEvent.getEvent(), queuedEvent.getEvent()) : null;
+			if (coalescedEvent != null)
+			{
+				// keep the enqueued time of the older event, because that's how long the change is waiting to be sent
+				events.pollLast();
+				events.addLast(new QueuedEvent(coalescedEvent, lastEvent.getEnqueuedTimeMillis()));
+				countCoalesced.incrementAndGet();
+			}
+			else
+			{
+				if (events.size() >= topicCapacity)
+				{
+					final QueuedEvent droppedEvent = events.pollFirst();
+					queueDepth.decrementAndGet();
+					countDropped.incrementAndGet();
+					logger.debug("Dropped {} because the buffer of topic {} is full", droppedEvent, topic);
+				}
+
+				events.addLast(queuedEvent);
+				queueDepth.incrementAndGet();
+			}
+
+			if (sending)
+			{
+				return EnqueueResult.ADDED;
+			}
+			sending = true;
+			return EnqueueResult.ADDED_AND_SCHEDULE_SENDING;
+		}
+
+		private WebsocketEvent coalesce(final WebsocketEvent event, final WebsocketEvent newerEvent)
+		{
+			try
+			{
+				return event.coalesceWith(newerEvent);
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Failed merging {} with {}. Sending them separately.", event, newerEvent, ex);
+				return null;
+			}
+		}
+
+		public synchronized List<QueuedEvent> pollAll()
+		{
+			final List<QueuedEvent> result = new ArrayList<>(events);
+			events.clear();
+			queueDepth.addAndGet(-result.size());
+			return result;
+		}
+
+		/**
+		 * @return true if there are events to be sent; else the buffer is closed and shall no longer be used
+		 */
+		public synchronized boolean hasEventsOrClose()
+		{
+			if (!events.isEmpty())
+			{
+				return true;
+			}
+
+			sending = false;
+			closed = true;
+			return false;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package de.metas.ui.web.websocket;
+
+import lombok.Builder;
+import lombok.Value;
+
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Snapshot of the asynchronous websocket fan-out metrics.
+ */
+@Value
+@Builder
+public class WebsocketFanOutStats
+{
+	/** events which are currently waiting to be sent */
+	int queueDepth;
+	int countTopics;
+
+	long countEnqueued;
+	long countSent;
+	/** events which were merged into other events, instead of being sent */
+	long countCoalesced;
+	/** events which were dropped because the topic's buffer was full */
+	long countDropped;
+	long countErrors;
+
+	/** average time between enqueueing an event and sending it */
+	long avgSendLatencyMillis;
+	long maxSendLatencyMillis;
+}
@@ -3,8 +3,10 @@ package de.metas.ui.web.websocket;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
@@ -64,16 +66,50 @@ public class WebsocketSender implements InitializingBean
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
+	@Value("${metasfresh.webui.websocket.fanout.enabled:true}")
+	private boolean fanOutEnabled;
+	@Value("${metasfresh.webui.websocket.fanout.threads:2}")
+	private int fanOutThreads;
+	@Value("${metasfresh.webui.websocket.fanout.coalescingDelayMillis:50}")
+	private long fanOutCoalescingDelayMillis;
+	@Value("${metasfresh.webui.websocket.fanout.topicCapacity:200}")
+	private int fanOutTopicCapacity;
+
+	/** asynchronous sender; null if events shall be sent synchronously */
+	private WebsocketEventsFanOut fanOut;
+
 	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
 	{
 		this.websocketMessagingTemplate = websocketMessagingTemplate;
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", websocketMessagingTemplate, eventsLog, /* autoflush */true);
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", this::dispatch, /* autoflush */true);
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
 		eventsLog.setLogEventsEnabled(logEventsEnabledDefault);
+
+		if (fanOutEnabled)
+		{
+			fanOut = WebsocketEventsFanOut.builder()
+					.sender(this::sendNow)
+					.threads(fanOutThreads)
+					.coalescingDelayMillis(fanOutCoalescingDelayMillis)
+					.topicCapacity(fanOutTopicCapacity)
+					.build();
+			logger.info("Sending websocket events asynchronously using {} threads, coalescingDelayMillis={}, topicCapacity={}", fanOutThreads, fanOutCoalescingDelayMillis, fanOutTopicCapacity);
+		}
+	}
+
+	@PreDestroy
+	public void destroy()
+	{
+		final WebsocketEventsFanOut fanOut = this.fanOut;
+		if (fanOut != null)
+		{
+			this.fanOut = null;
+			fanOut.shutdown();
+		}
 	}
 
 	public void convertAndSend(final Collection<? extends WebsocketEndpointAware> events)
@@ -118,7 +154,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, websocketMessagingTemplate, eventsLog, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, this::dispatch, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -143,111 +179,104 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
-	@lombok.Value
-	@lombok.Builder
-	private static final class WebsocketEvent
+	/**
+	 * @return asynchronous sending metrics or <code>null</code> if events are sent synchronously
+	 */
+	@Nullable
+	public WebsocketFanOutStats getFanOutStats()
 	{
-		private final WebsocketTopicName destination;
-		private final Object payload;
-		private final boolean converted;
+		final WebsocketEventsFanOut fanOut = this.fanOut;
+		return fanOut != null ? fanOut.getStats() : null;
+	}
+
+	private void dispatch(@NonNull final WebsocketEvent event)
+	{
+		final WebsocketEventsFanOut fanOut = this.fanOut;
+		if (fanOut != null)
+		{
+			fanOut.enqueue(event);
+		}
+		else
+		{
+			sendNow(event);
+		}
+	}
+
+	private void sendNow(@NonNull final WebsocketEvent event)
+	{
+		final WebsocketTopicName destination = event.getDestination();
+		final Object payload = event.getPayload();
+		logger.debug("Sending to destination={}: payload={}", destination, payload);
+
+		if (event.isConverted())
+		{
+			final Message<?> message = (Message<?>)payload;
+			websocketMessagingTemplate.send(destination.getAsString(), message);
+		}
+		else
+		{
+			websocketMessagingTemplate.convertAndSend(destination.getAsString(), payload);
+			eventsLog.logEvent(destination, payload);
+		}
 	}
 
 	private static class WebsocketEventsQueue
 	{
 		/** internal name, used for logging */
 		private final String name;
-		private final SimpMessagingTemplate websocketMessagingTemplate;
-		private final WebsocketEventsLog eventsLog;
+		private final Consumer<WebsocketEvent> sender;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
-				@NonNull final WebsocketEventsLog eventsLog,
+				@NonNull final Consumer<WebsocketEvent> sender,
 				final boolean autoflush)
 		{
 			this.name = name;
-			this.websocketMessagingTemplate = websocketMessagingTemplate;
-			this.eventsLog = eventsLog;
+			this.sender = sender;
 			this.autoflush = autoflush;
 		}
 
 		public void enqueueObject(final WebsocketTopicName destination, final Object payload)
 		{
-			final boolean converted = false;
-			if (autoflush)
-			{
-				sendEvent(destination, payload, converted);
-			}
-			else
-			{
-				enqueue(WebsocketEvent.builder()
-						.destination(destination)
-						.payload(payload)
-						.converted(converted)
-						.build());
-			}
+			enqueue(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(payload)
+					.converted(false)
+					.build());
 		}
 
 		public void enqueueMessage(final WebsocketTopicName destination, final Message<?> message)
 		{
-			final boolean converted = true;
+			enqueue(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(message)
+					.converted(true)
+					.build());
+		}
+
+		private void enqueue(@NonNull final WebsocketEvent event)
+		{
 			if (autoflush)
 			{
-				sendEvent(destination, message, converted);
+				sender.accept(event);
 			}
 			else
 			{
-				enqueue(WebsocketEvent.builder()
-						.destination(destination)
-						.payload(message)
-						.converted(converted)
-						.build());
+				events.add(event);
+				logger.debug("[name={}] Enqueued event={}", name, event);
 			}
 		}
 
-		private void enqueue(@NonNull final WebsocketEvent event)
-		{
-			events.add(event);
-			logger.debug("[name={}] Enqueued event={}", name, event);
-		}
-
 		public void sendEventsAndClear()
 		{
-			logger.debug("Sending all queued events");
+			logger.debug("[name={}] Sending all queued events", name);
 
 			final List<WebsocketEvent> eventsToSend = new ArrayList<>(events);
 			events.clear();
 
-			eventsToSend.forEach(this::sendEvent);
-		}
-
-		private void sendEvent(final WebsocketEvent event)
-		{
-			final WebsocketTopicName destination = event.getDestination();
-			final Object payload = event.getPayload();
-			final boolean converted = event.isConverted();
-			sendEvent(destination, payload, converted);
-		}
-
-		private void sendEvent(
-				@NonNull final WebsocketTopicName destination, 
-				@Nullable final Object payload, 
-				final boolean converted)
-		{
-			logger.debug("[name={}] Sending to destination={}: payload={}", name, destination, payload);
-
-			if (converted)
-			{
-				final Message<?> message = (Message<?>)payload;
-				websocketMessagingTemplate.send(destination.getAsString(), message);
-			}
-			else
-			{
-				websocketMessagingTemplate.convertAndSend(destination.getAsString(), payload);
-				eventsLog.logEvent(destination, payload);
-			}
+			eventsToSend.forEach(sender);
 		}
 	}
 }
@@ -2,6 +2,8 @@ package de.metas.ui.web.window.descriptor.factory.standard;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -44,7 +46,20 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 	@NonNull
 	final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder;
 
-	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId = new CCache<>(I_AD_Window.Table_Name + "#DocumentDescriptor", 50);
+	private final CopyOnWriteArrayList<Consumer<WindowId>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Descriptors are expensive to build, so we keep all of them until the AD metadata they were built from changes.
+	 * An AD change only resets the descriptors of the windows it belongs to.
+	 */
+	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId = CCache.<WindowId, DocumentDescriptor> builder()
+			.cacheName(I_AD_Window.Table_Name + "#DocumentDescriptor")
+			.tableName(I_AD_Window.Table_Name)
+			.initialCapacity(500)
+			.additionalTableNamesToResetFor(DocumentDescriptorCachingKeysMapper.TABLENAMES)
+			.invalidationKeysMapper(new DocumentDescriptorCachingKeysMapper())
+			.removalListener((windowId, documentDescriptor) -> fireInvalidated(windowId))
+			.build();
 
 	private final Set<WindowId> unsupportedWindowIds = new HashSet<>();
 
@@ -60,6 +75,19 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 		documentDescriptorsByWindowId.remove(windowId);
 	}
 
+	/**
+	 * @param listener called with the ID of each window whose descriptor was removed from the cache, e.g. because its AD metadata changed
+	 */
+	public void addInvalidationListener(@NonNull final Consumer<WindowId> listener)
+	{
+		invalidationListeners.addIfAbsent(listener);
+	}
+
+	private void fireInvalidated(@NonNull final WindowId windowId)
+	{
+		invalidationListeners.forEach(listener -> listener.accept(windowId));
+	}
+
 	@Override
 	public DocumentDescriptor getDocumentDescriptor(@NonNull final WindowId windowId)
 	{
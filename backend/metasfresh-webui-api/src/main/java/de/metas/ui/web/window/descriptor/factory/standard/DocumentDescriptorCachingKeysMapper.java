@@ -0,0 +1,240 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.util.Collection;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_AD_Column;
+import org.compiere.model.I_AD_Element;
+import org.compiere.model.I_AD_Field;
+import org.compiere.model.I_AD_Tab;
+import org.compiere.model.I_AD_UI_Column;
+import org.compiere.model.I_AD_UI_Element;
+import org.compiere.model.I_AD_UI_ElementField;
+import org.compiere.model.I_AD_UI_ElementGroup;
+import org.compiere.model.I_AD_UI_Section;
+import org.compiere.model.I_AD_Window;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CachingKeysMapper;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Maps a changed AD record to the windows whose document descriptors were built from it,
+ * so that an AD change only resets the descriptors of the affected windows.
+ * <p>
+ * If a record can't be mapped, e.g. because it was deleted, the whole cache is reset.
+ */
+final class DocumentDescriptorCachingKeysMapper implements CachingKeysMapper<WindowId>
+{
+	public static final ImmutableSet<String> TABLENAMES = ImmutableSet.of(
+			I_AD_Window.Table_Name,
+			I_AD_Tab.Table_Name,
+			I_AD_Field.Table_Name,
+			I_AD_Column.Table_Name,
+			I_AD_Element.Table_Name,
+			I_AD_UI_Section.Table_Name,
+			I_AD_UI_Column.Table_Name,
+			I_AD_UI_ElementGroup.Table_Name,
+			I_AD_UI_Element.Table_Name,
+			I_AD_UI_ElementField.Table_Name);
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	@Override
+	public boolean isResetAll(@NonNull final TableRecordReference recordRef)
+	{
+		return retrieveWindowIdsOrNull(recordRef) == null;
+	}
+
+	@Override
+	public Collection<WindowId> computeCachingKeys(@NonNull final TableRecordReference recordRef)
+	{
+		final ImmutableSet<WindowId> windowIds = retrieveWindowIdsOrNull(recordRef);
+		return windowIds != null ? windowIds : ImmutableSet.of();
+	}
+
+	/**
+	 * @return the affected windows or {@code null} if they are not known
+	 */
+	@Nullable
+	private ImmutableSet<WindowId> retrieveWindowIdsOrNull(@NonNull final TableRecordReference recordRef)
+	{
+		final String tableName = recordRef.getTableName();
+		final int recordId = recordRef.getRecord_ID();
+		if (recordId <= 0)
+		{
+			return null;
+		}
+
+		if (I_AD_Window.Table_Name.equals(tableName))
+		{
+			return ImmutableSet.of(WindowId.of(recordId));
+		}
+		else if (I_AD_Tab.Table_Name.equals(tableName))
+		{
+			return retrieveWindowIdsByTabIdOrNull(recordId);
+		}
+		else if (I_AD_Field.Table_Name.equals(tableName))
+		{
+			final I_AD_Field field = retrieveRecordOrNull(I_AD_Field.class, I_AD_Field.COLUMNNAME_AD_Field_ID, recordId);
+			return field != null ? retrieveWindowIdsByTabIdOrNull(field.getAD_Tab_ID()) : null;
+		}
+		else if (I_AD_Column.Table_Name.equals(tableName))
+		{
+			final I_AD_Column column = retrieveRecordOrNull(I_AD_Column.class, I_AD_Column.COLUMNNAME_AD_Column_ID, recordId);
+			return column != null ? retrieveWindowIdsByTableIds(ImmutableSet.of(column.getAD_Table_ID())) : null;
+		}
+		else if (I_AD_Element.Table_Name.equals(tableName))
+		{
+			return retrieveWindowIdsByElementId(recordId);
+		}
+		else if (I_AD_UI_Section.Table_Name.equals(tableName))
+		{
+			return retrieveWindowIdsByUISectionIdOrNull(recordId);
+		}
+		else if (I_AD_UI_Column.Table_Name.equals(tableName))
+		{
+			return retrieveWindowIdsByUIColumnIdOrNull(recordId);
+		}
+		else if (I_AD_UI_ElementGroup.Table_Name.equals(tableName))
+		{
+			final I_AD_UI_ElementGroup uiElementGroup = retrieveRecordOrNull(I_AD_UI_ElementGroup.class, I_AD_UI_ElementGroup.COLUMNNAME_AD_UI_ElementGroup_ID, recordId);
+			return uiElementGroup != null ? retrieveWindowIdsByUIColumnIdOrNull(uiElementGroup.getAD_UI_Column_ID()) : null;
+		}
+		else if (I_AD_UI_Element.Table_Name.equals(tableName))
+		{
+			return retrieveWindowIdsByUIElementIdOrNull(recordId);
+		}
+		else if (I_AD_UI_ElementField.Table_Name.equals(tableName))
+		{
+			final I_AD_UI_ElementField uiElementField = retrieveRecordOrNull(I_AD_UI_ElementField.class, I_AD_UI_ElementField.COLUMNNAME_AD_UI_ElementField_ID, recordId);
+			return uiElementField != null ? retrieveWindowIdsByUIElementIdOrNull(uiElementField.getAD_UI_Element_ID()) : null;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	@Nullable
+	private ImmutableSet<WindowId> retrieveWindowIdsByTabIdOrNull(final int adTabId)
+	{
+		final I_AD_Tab tab = retrieveRecordOrNull(I_AD_Tab.class, I_AD_Tab.COLUMNNAME_AD_Tab_ID, adTabId);
+		return tab != null ? ImmutableSet.of(WindowId.of(tab.getAD_Window_ID())) : null;
+	}
+
+	@Nullable
+	private ImmutableSet<WindowId> retrieveWindowIdsByUISectionIdOrNull(final int adUISectionId)
+	{
+		final I_AD_UI_Section uiSection = retrieveRecordOrNull(I_AD_UI_Section.class, I_AD_UI_Section.COLUMNNAME_AD_UI_Section_ID, adUISectionId);
+		return uiSection != null ? retrieveWindowIdsByTabIdOrNull(uiSection.getAD_Tab_ID()) : null;
+	}
+
+	@Nullable
+	private ImmutableSet<WindowId> retrieveWindowIdsByUIColumnIdOrNull(final int adUIColumnId)
+	{
+		final I_AD_UI_Column uiColumn = retrieveRecordOrNull(I_AD_UI_Column.class, I_AD_UI_Column.COLUMNNAME_AD_UI_Column_ID, adUIColumnId);
+		return uiColumn != null ? retrieveWindowIdsByUISectionIdOrNull(uiColumn.getAD_UI_Section_ID()) : null;
+	}
+
+	@Nullable
+	private ImmutableSet<WindowId> retrieveWindowIdsByUIElementIdOrNull(final int adUIElementId)
+	{
+		final I_AD_UI_Element uiElement = retrieveRecordOrNull(I_AD_UI_Element.class, I_AD_UI_Element.COLUMNNAME_AD_UI_Element_ID, adUIElementId);
+		return uiElement != null ? retrieveWindowIdsByTabIdOrNull(uiElement.getAD_Tab_ID()) : null;
+	}
+
+	/**
+	 * @return the windows which have a tab for one of the given tables
+	 */
+	private ImmutableSet<WindowId> retrieveWindowIdsByTableIds(@NonNull final Collection<Integer> adTableIds)
+	{
+		if (adTableIds.isEmpty())
+		{
+			return ImmutableSet.of();
+		}
+
+		return queryBL.createQueryBuilderOutOfTrx(I_AD_Tab.class)
+				.addInArrayFilter(I_AD_Tab.COLUMNNAME_AD_Table_ID, adTableIds)
+				.create()
+				.listDistinct(I_AD_Tab.COLUMNNAME_AD_Window_ID, Integer.class)
+				.stream()
+				.map(WindowId::of)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
+	/**
+	 * @return the windows whose names, tab names, field names or column names are taken from the given element
+	 */
+	private ImmutableSet<WindowId> retrieveWindowIdsByElementId(final int adElementId)
+	{
+		final ImmutableSet.Builder<WindowId> windowIds = ImmutableSet.builder();
+
+		queryBL.createQueryBuilderOutOfTrx(I_AD_Window.class)
+				.addEqualsFilter(I_AD_Window.COLUMNNAME_AD_Element_ID, adElementId)
+				.create()
+				.listIds()
+				.forEach(windowId -> windowIds.add(WindowId.of(windowId)));
+
+		queryBL.createQueryBuilderOutOfTrx(I_AD_Tab.class)
+				.addEqualsFilter(I_AD_Tab.COLUMNNAME_AD_Element_ID, adElementId)
+				.create()
+				.listDistinct(I_AD_Tab.COLUMNNAME_AD_Window_ID, Integer.class)
+				.forEach(windowId -> windowIds.add(WindowId.of(windowId)));
+
+		queryBL.createQueryBuilderOutOfTrx(I_AD_Field.class)
+				.addEqualsFilter(I_AD_Field.COLUMNNAME_AD_Name_ID, adElementId)
+				.andCollect(I_AD_Field.COLUMNNAME_AD_Tab_ID, I_AD_Tab.class)
+				.create()
+				.listDistinct(I_AD_Tab.COLUMNNAME_AD_Window_ID, Integer.class)
+				.forEach(windowId -> windowIds.add(WindowId.of(windowId)));
+
+		final ImmutableSet<Integer> adTableIds = ImmutableSet.copyOf(queryBL.createQueryBuilderOutOfTrx(I_AD_Column.class)
+				.addEqualsFilter(I_AD_Column.COLUMNNAME_AD_Element_ID, adElementId)
+				.create()
+				.listDistinct(I_AD_Column.COLUMNNAME_AD_Table_ID, Integer.class));
+		windowIds.addAll(retrieveWindowIdsByTableIds(adTableIds));
+
+		return windowIds.build();
+	}
+
+	@Nullable
+	private <T> T retrieveRecordOrNull(
+			@NonNull final Class<T> modelClass,
+			@NonNull final String keyColumnName,
+			final int recordId)
+	{
+		return queryBL.createQueryBuilderOutOfTrx(modelClass)
+				.addEqualsFilter(keyColumnName, recordId)
+				.create()
+				.firstOnly(modelClass);
+	}
+}
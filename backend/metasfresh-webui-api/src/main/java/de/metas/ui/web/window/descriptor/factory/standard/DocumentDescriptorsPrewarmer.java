@@ -0,0 +1,237 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.model.I_AD_Menu;
+import org.compiere.model.X_AD_Menu;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Builds the document descriptors of all windows which are reachable from the menu, right after the application started,
+ * so that the first users opening a big window don't have to wait for it.
+ * When the descriptor of a window is reset later, e.g. because its AD metadata changed, it's built again a few seconds after the last change.
+ * <p>
+ * The descriptors are built in background, so the startup is not delayed.
+ * Set <code>metasfresh.webui.window.descriptors.prewarm.threads</code> to zero to disable it.
+ */
+@Component
+public class DocumentDescriptorsPrewarmer
+{
+	private static final Logger logger = LogManager.getLogger(DocumentDescriptorsPrewarmer.class);
+
+	private static final Duration DEFAULT_DelayAfterInvalidation = Duration.ofSeconds(10);
+
+	private final DefaultDocumentDescriptorFactory documentDescriptorFactory;
+	private final int threads;
+	private final Duration delayAfterInvalidation;
+
+	private ScheduledExecutorService executor;
+
+	/** windows whose descriptors were reset and shall be built again */
+	private final Set<WindowId> windowIdsToPrewarm = new LinkedHashSet<>();
+	private ScheduledFuture<?> scheduledPrewarm;
+
+	@Autowired
+	public DocumentDescriptorsPrewarmer(
+			@NonNull final DefaultDocumentDescriptorFactory documentDescriptorFactory,
+			@Value("${metasfresh.webui.window.descriptors.prewarm.threads:4}") final int threads)
+	{
+		this(documentDescriptorFactory, threads, DEFAULT_DelayAfterInvalidation);
+	}
+
+	@VisibleForTesting
+	DocumentDescriptorsPrewarmer(
+			@NonNull final DefaultDocumentDescriptorFactory documentDescriptorFactory,
+			final int threads,
+			@NonNull final Duration delayAfterInvalidation)
+	{
+		this.documentDescriptorFactory = documentDescriptorFactory;
+		this.threads = threads;
+		this.delayAfterInvalidation = delayAfterInvalidation;
+
+		if (threads > 0)
+		{
+			documentDescriptorFactory.addInvalidationListener(this::prewarmLater);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void prewarmOnStartup()
+	{
+		if (threads <= 0)
+		{
+			logger.info("Skip prewarming document descriptors because not configured");
+			return;
+		}
+
+		final List<WindowId> windowIds;
+		try
+		{
+			windowIds = retrieveMenuWindowIds();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed retrieving the windows to be prewarmed. Skip prewarming.", ex);
+			return;
+		}
+
+		prewarm(windowIds);
+	}
+
+	@PreDestroy
+	public synchronized void shutdown()
+	{
+		if (executor != null)
+		{
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Builds the descriptor of given window again, after {@link #delayAfterInvalidation}.
+	 * The delay is restarted on each call, so that a window whose AD metadata is currently edited is not built again after each change.
+	 */
+	@VisibleForTesting
+	synchronized void prewarmLater(@NonNull final WindowId windowId)
+	{
+		if (!documentDescriptorFactory.isWindowIdSupported(windowId))
+		{
+			return;
+		}
+
+		windowIdsToPrewarm.add(windowId);
+
+		if (scheduledPrewarm != null)
+		{
+			scheduledPrewarm.cancel(false);
+		}
+		scheduledPrewarm = getExecutor().schedule(this::prewarmScheduled, delayAfterInvalidation.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	private void prewarmScheduled()
+	{
+		final ImmutableList<WindowId> windowIds;
+		synchronized (this)
+		{
+			windowIds = ImmutableList.copyOf(windowIdsToPrewarm);
+			windowIdsToPrewarm.clear();
+			scheduledPrewarm = null;
+		}
+
+		prewarm(windowIds);
+	}
+
+	private void prewarm(@NonNull final List<WindowId> windowIds)
+	{
+		if (windowIds.isEmpty())
+		{
+			return;
+		}
+
+		final ScheduledExecutorService executor = getExecutor();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final AtomicInteger countRemaining = new AtomicInteger(windowIds.size());
+		final AtomicInteger countErrors = new AtomicInteger(0);
+		for (final WindowId windowId : windowIds)
+		{
+			executor.execute(() -> {
+				prewarm(windowId, countErrors);
+				if (countRemaining.decrementAndGet() == 0)
+				{
+					logger.info("Prewarmed {} document descriptors using {} threads in {} ({} errors)", windowIds.size(), threads, stopwatch, countErrors.get());
+				}
+			});
+		}
+	}
+
+	private synchronized ScheduledExecutorService getExecutor()
+	{
+		if (executor == null)
+		{
+			executor = Executors.newScheduledThreadPool(
+					threads,
+					CustomizableThreadFactory.builder()
+							.setThreadNamePrefix(DocumentDescriptorsPrewarmer.class.getSimpleName() + "-")
+							.setDaemon(true)
+							.build());
+		}
+		return executor;
+	}
+
+	private void prewarm(@NonNull final WindowId windowId, @NonNull final AtomicInteger countErrors)
+	{
+		try
+		{
+			documentDescriptorFactory.getDocumentDescriptor(windowId);
+		}
+		catch (final Exception ex)
+		{
+			countErrors.incrementAndGet();
+			logger.warn("Failed prewarming document descriptor for {}. Ignored.", windowId, ex);
+		}
+	}
+
+	private List<WindowId> retrieveMenuWindowIds()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_AD_Menu.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_AD_Menu.COLUMNNAME_Action, X_AD_Menu.ACTION_Window)
+				.addNotNull(I_AD_Menu.COLUMNNAME_AD_Window_ID)
+				.create()
+				.listDistinct(I_AD_Menu.COLUMNNAME_AD_Window_ID, Integer.class)
+				.stream()
+				.map(WindowId::of)
+				.filter(documentDescriptorFactory::isWindowIdSupported)
+				.collect(ImmutableList.toImmutableList());
+	}
+}
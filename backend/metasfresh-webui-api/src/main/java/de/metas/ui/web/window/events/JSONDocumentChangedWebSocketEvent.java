@@ -13,6 +13,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import de.metas.ui.web.websocket.WebsocketCoalescableEvent;
 import de.metas.ui.web.websocket.WebsocketEndpointAware;
 import de.metas.ui.web.websocket.WebsocketTopicName;
 import de.metas.ui.web.websocket.WebsocketTopicNames;
@@ -60,7 +61,7 @@ import lombok.ToString;
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
 @EqualsAndHashCode
 @ToString
-final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
+final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware, WebsocketCoalescableEvent
 {
 	public static JSONDocumentChangedWebSocketEvent rootDocument(final WindowId windowId, final DocumentId documentId)
 	{
@@ -186,4 +187,25 @@ final class JSONDocumentChangedWebSocketEvent implements WebsocketEndpointAware
 
 		from.getIncludedTabsInfo().values().forEach(this::addIncludedTabInfo);
 	}
+
+	@Override
+	public JSONDocumentChangedWebSocketEvent coalesceWith(@NonNull final Object newerEvent)
+	{
+		if (!(newerEvent instanceof JSONDocumentChangedWebSocketEvent))
+		{
+			return null;
+		}
+
+		final JSONDocumentChangedWebSocketEvent newer = (JSONDocumentChangedWebSocketEvent)newerEvent;
+		if (!Objects.equals(windowId, newer.windowId)
+				|| !Objects.equals(id, newer.id))
+		{
+			return null;
+		}
+
+		// start from the newer event, so we keep its timestamp
+		final JSONDocumentChangedWebSocketEvent merged = newer.copy();
+		merged.mergeFrom(this);
+		return merged;
+	}
 }
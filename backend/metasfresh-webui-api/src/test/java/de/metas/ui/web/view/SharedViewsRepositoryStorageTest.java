@@ -0,0 +1,237 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SharedViewsRepositoryStorageTest
+{
+	private static final Duration VIEW_EXPIRATION_TIMEOUT = Duration.ofHours(1);
+
+	private InMemoryViewDefinitionsStore definitionsStore;
+	private List<ViewDefinition> restoredDefinitions;
+
+	@BeforeEach
+	public void init()
+	{
+		definitionsStore = new InMemoryViewDefinitionsStore();
+		restoredDefinitions = new ArrayList<>();
+	}
+
+	/** Creates a "node", i.e. a storage which shares {@link #definitionsStore} with all other nodes */
+	private SharedViewsRepositoryStorage newNode(final Duration touchInterval)
+	{
+		return new SharedViewsRepositoryStorage(
+				VIEW_EXPIRATION_TIMEOUT,
+				touchInterval,
+				definitionsStore,
+				view -> view.getViewType() == JSONViewDataType.grid ? toViewDefinition(view) : null,
+				this::restoreView);
+	}
+
+	private IView restoreView(final ViewDefinition definition)
+	{
+		restoredDefinitions.add(definition);
+		return newView(definition.getViewId(), definition.getViewType());
+	}
+
+	private static IView newView(final ViewId viewId, final JSONViewDataType viewType)
+	{
+		final IView view = mock(IView.class);
+		when(view.getViewId()).thenReturn(viewId);
+		when(view.getViewType()).thenReturn(viewType);
+		when(view.isAllowClosingPerUserRequest()).thenReturn(true);
+		return view;
+	}
+
+	private static ViewDefinition toViewDefinition(final IView view)
+	{
+		return ViewDefinition.builder()
+				.viewId(view.getViewId())
+				.viewType(view.getViewType())
+				.referencingDocumentPaths(null)
+				.stickyFilters(DocumentFilterList.EMPTY)
+				.filters(DocumentFilterList.EMPTY)
+				.applySecurityRestrictions(true)
+				.build();
+	}
+
+	@Test
+	public void viewIsRestoredOnAnotherNode()
+	{
+		final SharedViewsRepositoryStorage node1 = newNode(Duration.ofMinutes(1));
+		final SharedViewsRepositoryStorage node2 = newNode(Duration.ofMinutes(1));
+
+		final IView view = newView(ViewId.random(WindowId.of(123)), JSONViewDataType.grid);
+		node1.put(view);
+		assertThat(node1.getByIdOrNull(view.getViewId())).isSameAs(view);
+		assertThat(restoredDefinitions).isEmpty();
+
+		final IView restoredView = node2.getByIdOrNull(view.getViewId());
+		assertThat(restoredView).isNotNull();
+		assertThat(restoredView.getViewId()).isEqualTo(view.getViewId());
+		assertThat(restoredDefinitions).containsExactly(toViewDefinition(view));
+
+		// restored only once, then served from the node's near-cache
+		assertThat(node2.getByIdOrNull(view.getViewId())).isSameAs(restoredView);
+		assertThat(restoredDefinitions).hasSize(1);
+	}
+
+	@Test
+	public void viewWhichCannotBeShared_isKeptOnlyOnItsNode()
+	{
+		final SharedViewsRepositoryStorage node1 = newNode(Duration.ofMinutes(1));
+		final SharedViewsRepositoryStorage node2 = newNode(Duration.ofMinutes(1));
+
+		final IView view = newView(ViewId.random(WindowId.of(123)), JSONViewDataType.includedView);
+		node1.put(view);
+
+		assertThat(definitionsStore.contains(view.getViewId())).isFalse();
+		assertThat(node1.getByIdOrNull(view.getViewId())).isSameAs(view);
+		assertThat(node2.getByIdOrNull(view.getViewId())).isNull();
+	}
+
+	@Test
+	public void unknownView()
+	{
+		final SharedViewsRepositoryStorage node = newNode(Duration.ofMinutes(1));
+		assertThat(node.getByIdOrNull(ViewId.random(WindowId.of(123)))).isNull();
+	}
+
+	@Test
+	public void viewIsTouchedOncePerTouchInterval()
+	{
+		final SharedViewsRepositoryStorage node1 = newNode(Duration.ofHours(1));
+		final SharedViewsRepositoryStorage node2 = newNode(Duration.ZERO);
+
+		final IView view = newView(ViewId.random(WindowId.of(123)), JSONViewDataType.grid);
+		final ViewId viewId = view.getViewId();
+		node1.put(view);
+		node2.getByIdOrNull(viewId); // restore, which also touches
+
+		definitionsStore.resetTouchCounts();
+		node1.getByIdOrNull(viewId);
+		node1.getByIdOrNull(viewId);
+		assertThat(definitionsStore.getTouchCount(viewId)).isEqualTo(0);
+
+		node2.getByIdOrNull(viewId);
+		node2.getByIdOrNull(viewId);
+		assertThat(definitionsStore.getTouchCount(viewId)).isEqualTo(2);
+	}
+
+	@Test
+	public void viewClosedOnAnotherNode_isDroppedOnNextTouch()
+	{
+		final SharedViewsRepositoryStorage node1 = newNode(Duration.ZERO);
+		final SharedViewsRepositoryStorage node2 = newNode(Duration.ZERO);
+
+		final IView view = newView(ViewId.random(WindowId.of(123)), JSONViewDataType.grid);
+		final ViewId viewId = view.getViewId();
+		node1.put(view);
+		final IView restoredView = node2.getByIdOrNull(viewId);
+		assertThat(restoredView).isNotNull();
+
+		node1.closeById(viewId, ViewCloseAction.DONE);
+		verify(view).close(ViewCloseAction.DONE);
+		verify(view).afterDestroy();
+		assertThat(definitionsStore.contains(viewId)).isFalse();
+		assertThat(node1.getByIdOrNull(viewId)).isNull();
+
+		assertThat(node2.getByIdOrNull(viewId)).isNull();
+		verify(restoredView, never()).close(ViewCloseAction.DONE);
+		verify(restoredView).afterDestroy();
+		assertThat(node2.streamAllViews()).isEmpty();
+	}
+
+	private static class InMemoryViewDefinitionsStore implements ViewDefinitionsStore
+	{
+		private final Map<ViewId, byte[]> definitions = new HashMap<>();
+		private final Map<ViewId, Integer> touchCounts = new HashMap<>();
+
+		public boolean contains(final ViewId viewId)
+		{
+			return definitions.containsKey(viewId);
+		}
+
+		public int getTouchCount(final ViewId viewId)
+		{
+			return touchCounts.getOrDefault(viewId, 0);
+		}
+
+		public void resetTouchCounts()
+		{
+			touchCounts.clear();
+		}
+
+		@Override
+		public void save(@NonNull final ViewId viewId, @NonNull final byte[] definition)
+		{
+			definitions.put(viewId, definition);
+		}
+
+		@Nullable
+		@Override
+		public byte[] getAndTouch(@NonNull final ViewId viewId)
+		{
+			return touch(viewId) ? definitions.get(viewId) : null;
+		}
+
+		@Override
+		public boolean touch(@NonNull final ViewId viewId)
+		{
+			if (!definitions.containsKey(viewId))
+			{
+				return false;
+			}
+
+			touchCounts.merge(viewId, 1, Integer::sum);
+			return true;
+		}
+
+		@Override
+		public void delete(@NonNull final ViewId viewId)
+		{
+			definitions.remove(viewId);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.i18n.TranslatableStrings;
+import de.metas.ui.web.document.filter.DocumentFilter;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.DocumentFilterParam;
+import de.metas.ui.web.document.filter.DocumentFilterParam.Operator;
+import de.metas.ui.web.document.references.DocumentReferenceId;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewDefinitionCodecTest
+{
+	@Test
+	public void minimalDefinition()
+	{
+		final ViewDefinition definition = ViewDefinition.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.viewType(JSONViewDataType.grid)
+				.referencingDocumentPaths(null)
+				.stickyFilters(DocumentFilterList.EMPTY)
+				.filters(DocumentFilterList.EMPTY)
+				.applySecurityRestrictions(true)
+				.build();
+
+		assertThat(encodeAndDecode(definition)).isEqualTo(definition);
+	}
+
+	@Test
+	public void fullDefinition()
+	{
+		final ViewId parentViewId = ViewId.random(WindowId.of(100));
+
+		final DocumentFilter stickyFilter = DocumentFilter.builder()
+				.setFilterId("sticky")
+				.addParameter(DocumentFilterParam.ofSqlWhereClause(true, SqlAndParams.of("C_BPartner_ID IN (?, ?)", 1, 2)))
+				.build();
+
+		final DocumentFilter filter = DocumentFilter.builder()
+				.setFilterId("default")
+				.setCaption(TranslatableStrings.ofMap(ImmutableMap.of("de_DE", "Standard", "en_US", "Default"), "Default"))
+				.setFacetFilter(true)
+				.addParameter(DocumentFilterParam.ofNameEqualsValue("Name", "test%"))
+				.addParameter(DocumentFilterParam.ofNameOperatorValue("Qty", Operator.GREATER, new BigDecimal("12.345")))
+				.addParameter(DocumentFilterParam.builder()
+						.setFieldName("DateOrdered")
+						.setOperator(Operator.BETWEEN)
+						.setValue(LocalDate.parse("2020-01-01"))
+						.setValueTo(ZonedDateTime.parse("2020-02-01T10:00:00+01:00[Europe/Berlin]"))
+						.build())
+				.addParameter(DocumentFilterParam.ofNameEqualsValue("C_BPartner_ID", IntegerLookupValue.of(12, "Partner")))
+				.addParameter(DocumentFilterParam.ofNameOperatorValue("M_Product_ID", Operator.IN_ARRAY, ImmutableList.of(1, 2, 3)))
+				.addInternalParameter(DocumentFilterParam.ofNameEqualsValue("IsActive", true))
+				.build();
+
+		final ViewDefinition definition = ViewDefinition.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.viewType(JSONViewDataType.includedView)
+				.profileId(ViewProfileId.fromJson("profile1"))
+				.parentViewId(parentViewId)
+				.parentRowId(DocumentId.of(55))
+				.referencingDocumentPaths(ImmutableSet.of(DocumentPath.rootDocumentPath(WindowId.of(143), DocumentId.of(1000001))))
+				.documentReferenceId(DocumentReferenceId.ofString("ref1"))
+				.stickyFilters(DocumentFilterList.of(stickyFilter))
+				.filters(DocumentFilterList.of(filter))
+				.applySecurityRestrictions(false)
+				.build();
+
+		final ViewDefinition decoded = encodeAndDecode(definition);
+		assertThat(decoded).isEqualTo(definition);
+
+		final DocumentFilter decodedFilter = decoded.getFilters().toList().get(0);
+		assertThat(decodedFilter.getCaption("de_DE")).isEqualTo("Standard");
+		assertThat(decodedFilter.isInternalParameter("IsActive")).isTrue();
+		assertThat(decodedFilter.getParameter("C_BPartner_ID").getValueAsInt(-1)).isEqualTo(12);
+	}
+
+	@Test
+	public void unsupportedValueType()
+	{
+		final ViewDefinition definition = ViewDefinition.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.viewType(JSONViewDataType.grid)
+				.referencingDocumentPaths(null)
+				.stickyFilters(DocumentFilterList.EMPTY)
+				.filters(DocumentFilterList.of(DocumentFilter.singleParameterFilter("filter", "Field", Operator.EQUAL, new Object())))
+				.build();
+
+		assertThatThrownBy(() -> ViewDefinitionCodec.encode(definition))
+				.isInstanceOf(AdempiereException.class);
+	}
+
+	@Test
+	public void unsupportedVersion()
+	{
+		assertThatThrownBy(() -> ViewDefinitionCodec.decode(new byte[] { 99 }))
+				.isInstanceOf(AdempiereException.class);
+	}
+
+	private static ViewDefinition encodeAndDecode(final ViewDefinition definition)
+	{
+		return ViewDefinitionCodec.decode(ViewDefinitionCodec.encode(definition));
+	}
+}
@@ -0,0 +1,154 @@
+package de.metas.ui.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WebsocketEventsFanOutTest
+{
+	private static final WebsocketTopicName topic1 = WebsocketTopicName.ofString("/topic1");
+	private static final WebsocketTopicName topic2 = WebsocketTopicName.ofString("/topic2");
+
+	private List<WebsocketEvent> sentEvents;
+	private WebsocketEventsFanOut fanOut;
+
+	@BeforeEach
+	public void init()
+	{
+		sentEvents = new ArrayList<>();
+		fanOut = WebsocketEventsFanOut.builder()
+				.sender(sentEvents::add)
+				.threads(1)
+				.coalescingDelayMillis(3600 * 1000) // make sure nothing is sent until we flush
+				.topicCapacity(3)
+				.build();
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		fanOut.shutdown();
+	}
+
+	private static WebsocketEvent event(final WebsocketTopicName topic, final Object payload)
+	{
+		return WebsocketEvent.builder()
+				.destination(topic)
+				.payload(payload)
+				.build();
+	}
+
+	@Value
+	private static class CountingEvent implements WebsocketCoalescableEvent
+	{
+		int count;
+
+		@Override
+		public Object coalesceWith(@NonNull final Object newerEvent)
+		{
+			if (!(newerEvent instanceof CountingEvent))
+			{
+				return null;
+			}
+			return new CountingEvent(count + ((CountingEvent)newerEvent).getCount());
+		}
+	}
+
+	@Test
+	public void coalescableEventsOfSameTopicAreMerged()
+	{
+		fanOut.enqueue(event(topic1, new CountingEvent(1)));
+		fanOut.enqueue(event(topic1, new CountingEvent(2)));
+		fanOut.enqueue(event(topic2, new CountingEvent(10)));
+		fanOut.enqueue(event(topic1, new CountingEvent(3)));
+
+		assertThat(fanOut.getStats().getQueueDepth()).isEqualTo(2);
+
+		fanOut.flush();
+
+		assertThat(sentEvents).containsExactlyInAnyOrder(
+				event(topic1, new CountingEvent(6)),
+				event(topic2, new CountingEvent(10)));
+		assertThat(fanOut.getStats().getCountCoalesced()).isEqualTo(2);
+		assertThat(fanOut.getStats().getQueueDepth()).isEqualTo(0);
+	}
+
+	@Test
+	public void onlyConsecutiveEventsAreMerged()
+	{
+		fanOut.enqueue(event(topic1, new CountingEvent(1)));
+		fanOut.enqueue(event(topic1, "not coalescable"));
+		fanOut.enqueue(event(topic1, new CountingEvent(2)));
+
+		fanOut.flush();
+
+		assertThat(sentEvents).containsExactly(
+				event(topic1, new CountingEvent(1)),
+				event(topic1, "not coalescable"),
+				event(topic1, new CountingEvent(2)));
+	}
+
+	@Test
+	public void oldestEventsAreDroppedWhenTopicBufferIsFull()
+	{
+		fanOut.enqueue(event(topic1, "e1"));
+		fanOut.enqueue(event(topic1, "e2"));
+		fanOut.enqueue(event(topic1, "e3"));
+		fanOut.enqueue(event(topic1, "e4"));
+
+		fanOut.flush();
+
+		assertThat(sentEvents).containsExactly(
+				event(topic1, "e2"),
+				event(topic1, "e3"),
+				event(topic1, "e4"));
+		assertThat(fanOut.getStats().getCountDropped()).isEqualTo(1);
+		assertThat(fanOut.getStats().getCountSent()).isEqualTo(3);
+	}
+
+	@Test
+	public void shutdown_sendsBufferedEvents_andIgnoresNewOnes()
+	{
+		fanOut.enqueue(event(topic1, "e1"));
+		fanOut.enqueue(event(topic2, "e2"));
+
+		fanOut.shutdown();
+		assertThat(sentEvents).containsExactlyInAnyOrder(
+				event(topic1, "e1"),
+				event(topic2, "e2"));
+
+		fanOut.enqueue(event(topic1, "after shutdown"));
+		fanOut.flush();
+		assertThat(sentEvents).hasSize(2);
+	}
+}
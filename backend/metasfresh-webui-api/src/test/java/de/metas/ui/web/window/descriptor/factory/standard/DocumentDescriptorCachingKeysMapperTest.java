@@ -0,0 +1,216 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import static org.adempiere.model.InterfaceWrapperHelper.delete;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_AD_Column;
+import org.compiere.model.I_AD_Element;
+import org.compiere.model.I_AD_Field;
+import org.compiere.model.I_AD_Tab;
+import org.compiere.model.I_AD_UI_Column;
+import org.compiere.model.I_AD_UI_Element;
+import org.compiere.model.I_AD_UI_ElementField;
+import org.compiere.model.I_AD_UI_ElementGroup;
+import org.compiere.model.I_AD_UI_Section;
+import org.compiere.model.I_AD_Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentDescriptorCachingKeysMapperTest
+{
+	private static final int AD_Table_ID = 100;
+	private static final int Other_AD_Table_ID = 200;
+
+	private DocumentDescriptorCachingKeysMapper mapper;
+
+	private I_AD_Element element;
+	private I_AD_Window window;
+	private I_AD_Tab tab;
+	private I_AD_Column column;
+	private I_AD_Field field;
+	private I_AD_UI_Section uiSection;
+	private I_AD_UI_Column uiColumn;
+	private I_AD_UI_ElementGroup uiElementGroup;
+	private I_AD_UI_Element uiElement;
+	private I_AD_UI_ElementField uiElementField;
+
+	private I_AD_Window otherWindow;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		mapper = new DocumentDescriptorCachingKeysMapper();
+
+		element = newInstance(I_AD_Element.class);
+		saveRecord(element);
+
+		window = newInstance(I_AD_Window.class);
+		saveRecord(window);
+
+		tab = newInstance(I_AD_Tab.class);
+		tab.setAD_Window_ID(window.getAD_Window_ID());
+		tab.setAD_Table_ID(AD_Table_ID);
+		saveRecord(tab);
+
+		column = newInstance(I_AD_Column.class);
+		column.setAD_Table_ID(AD_Table_ID);
+		column.setAD_Element_ID(element.getAD_Element_ID());
+		saveRecord(column);
+
+		field = newInstance(I_AD_Field.class);
+		field.setAD_Tab_ID(tab.getAD_Tab_ID());
+		field.setAD_Column_ID(column.getAD_Column_ID());
+		saveRecord(field);
+
+		uiSection = newInstance(I_AD_UI_Section.class);
+		uiSection.setAD_Tab_ID(tab.getAD_Tab_ID());
+		saveRecord(uiSection);
+
+		uiColumn = newInstance(I_AD_UI_Column.class);
+		uiColumn.setAD_UI_Section_ID(uiSection.getAD_UI_Section_ID());
+		saveRecord(uiColumn);
+
+		uiElementGroup = newInstance(I_AD_UI_ElementGroup.class);
+		uiElementGroup.setAD_UI_Column_ID(uiColumn.getAD_UI_Column_ID());
+		saveRecord(uiElementGroup);
+
+		uiElement = newInstance(I_AD_UI_Element.class);
+		uiElement.setAD_UI_ElementGroup_ID(uiElementGroup.getAD_UI_ElementGroup_ID());
+		uiElement.setAD_Tab_ID(tab.getAD_Tab_ID());
+		uiElement.setAD_Field_ID(field.getAD_Field_ID());
+		saveRecord(uiElement);
+
+		uiElementField = newInstance(I_AD_UI_ElementField.class);
+		uiElementField.setAD_UI_Element_ID(uiElement.getAD_UI_Element_ID());
+		uiElementField.setAD_Field_ID(field.getAD_Field_ID());
+		saveRecord(uiElementField);
+
+		// a window which is not affected by any of the records above
+		otherWindow = newInstance(I_AD_Window.class);
+		saveRecord(otherWindow);
+
+		final I_AD_Tab otherTab = newInstance(I_AD_Tab.class);
+		otherTab.setAD_Window_ID(otherWindow.getAD_Window_ID());
+		otherTab.setAD_Table_ID(Other_AD_Table_ID);
+		saveRecord(otherTab);
+	}
+
+	private void assertMappedToWindow(final Object record)
+	{
+		final TableRecordReference recordRef = TableRecordReference.of(record);
+
+		assertThat(mapper.isResetAll(recordRef)).isFalse();
+		assertThat(mapper.computeCachingKeys(recordRef)).containsExactly(WindowId.of(window.getAD_Window_ID()));
+	}
+
+	@Test
+	public void window()
+	{
+		assertMappedToWindow(window);
+	}
+
+	@Test
+	public void tab()
+	{
+		assertMappedToWindow(tab);
+	}
+
+	@Test
+	public void field()
+	{
+		assertMappedToWindow(field);
+	}
+
+	@Test
+	public void column()
+	{
+		assertMappedToWindow(column);
+	}
+
+	@Test
+	public void uiRecords()
+	{
+		assertMappedToWindow(uiSection);
+		assertMappedToWindow(uiColumn);
+		assertMappedToWindow(uiElementGroup);
+		assertMappedToWindow(uiElement);
+		assertMappedToWindow(uiElementField);
+	}
+
+	@Test
+	public void element_usedByColumn()
+	{
+		assertMappedToWindow(element);
+	}
+
+	@Test
+	public void element_usedByWindowTabAndField()
+	{
+		final I_AD_Element otherElement = newInstance(I_AD_Element.class);
+		saveRecord(otherElement);
+
+		final I_AD_Tab otherWindowTab = newInstance(I_AD_Tab.class);
+		otherWindowTab.setAD_Window_ID(otherWindow.getAD_Window_ID());
+		otherWindowTab.setAD_Table_ID(Other_AD_Table_ID);
+		otherWindowTab.setAD_Element_ID(otherElement.getAD_Element_ID());
+		saveRecord(otherWindowTab);
+
+		field.setAD_Name_ID(otherElement.getAD_Element_ID());
+		saveRecord(field);
+
+		final I_AD_Window thirdWindow = newInstance(I_AD_Window.class);
+		thirdWindow.setAD_Element_ID(otherElement.getAD_Element_ID());
+		saveRecord(thirdWindow);
+
+		final TableRecordReference recordRef = TableRecordReference.of(otherElement);
+		assertThat(mapper.isResetAll(recordRef)).isFalse();
+		assertThat(mapper.computeCachingKeys(recordRef)).containsExactlyInAnyOrder(
+				WindowId.of(window.getAD_Window_ID()),
+				WindowId.of(otherWindow.getAD_Window_ID()),
+				WindowId.of(thirdWindow.getAD_Window_ID()));
+	}
+
+	@Test
+	public void deletedRecord_resetsAll()
+	{
+		final TableRecordReference recordRef = TableRecordReference.of(field);
+		delete(field);
+
+		assertThat(mapper.isResetAll(recordRef)).isTrue();
+	}
+
+	@Test
+	public void otherTable_resetsAll()
+	{
+		assertThat(mapper.isResetAll(TableRecordReference.of("AD_Ref_List", 1))).isTrue();
+	}
+}
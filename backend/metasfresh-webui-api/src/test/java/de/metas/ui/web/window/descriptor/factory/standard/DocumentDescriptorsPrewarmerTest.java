@@ -0,0 +1,112 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentDescriptorsPrewarmerTest
+{
+	private static final WindowId WINDOW_ID_1 = WindowId.of(1);
+	private static final WindowId WINDOW_ID_2 = WindowId.of(2);
+
+	private DefaultDocumentDescriptorFactory documentDescriptorFactory;
+	private DocumentDescriptorsPrewarmer prewarmer;
+
+	@BeforeEach
+	public void init()
+	{
+		documentDescriptorFactory = mock(DefaultDocumentDescriptorFactory.class);
+		when(documentDescriptorFactory.isWindowIdSupported(any())).thenReturn(true);
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		if (prewarmer != null)
+		{
+			prewarmer.shutdown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Consumer<WindowId> captureInvalidationListener()
+	{
+		final ArgumentCaptor<Consumer<WindowId>> listenerCaptor = ArgumentCaptor.forClass(Consumer.class);
+		verify(documentDescriptorFactory).addInvalidationListener(listenerCaptor.capture());
+		return listenerCaptor.getValue();
+	}
+
+	@Test
+	public void invalidatedDescriptorsAreBuiltAgain()
+	{
+		prewarmer = new DocumentDescriptorsPrewarmer(documentDescriptorFactory, 2, Duration.ofMillis(200));
+		final Consumer<WindowId> invalidationListener = captureInvalidationListener();
+
+		invalidationListener.accept(WINDOW_ID_1);
+		invalidationListener.accept(WINDOW_ID_2);
+		invalidationListener.accept(WINDOW_ID_1);
+
+		// each window is built once, after the last invalidation
+		verify(documentDescriptorFactory, timeout(5000)).getDocumentDescriptor(WINDOW_ID_1);
+		verify(documentDescriptorFactory, timeout(5000)).getDocumentDescriptor(WINDOW_ID_2);
+		verify(documentDescriptorFactory, after(500).times(1)).getDocumentDescriptor(WINDOW_ID_1);
+	}
+
+	@Test
+	public void unsupportedWindowsAreNotBuilt()
+	{
+		when(documentDescriptorFactory.isWindowIdSupported(WINDOW_ID_2)).thenReturn(false);
+		prewarmer = new DocumentDescriptorsPrewarmer(documentDescriptorFactory, 2, Duration.ofMillis(0));
+		final Consumer<WindowId> invalidationListener = captureInvalidationListener();
+
+		invalidationListener.accept(WINDOW_ID_1);
+		invalidationListener.accept(WINDOW_ID_2);
+
+		verify(documentDescriptorFactory, timeout(5000)).getDocumentDescriptor(WINDOW_ID_1);
+		verify(documentDescriptorFactory, never()).getDocumentDescriptor(WINDOW_ID_2);
+	}
+
+	@Test
+	public void disabled()
+	{
+		prewarmer = new DocumentDescriptorsPrewarmer(documentDescriptorFactory, 0, Duration.ofMillis(0));
+
+		verify(documentDescriptorFactory, never()).addInvalidationListener(any());
+	}
+}